@@ -0,0 +1,150 @@
+package com.emergency.emergency108.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares a JMH JSON result with a committed baseline and exits non-zero
+ * when any benchmark regressed by more than the tolerance:
+ *
+ *   mvn -Pbenchmarks test-compile exec:exec@compare-baseline \
+ *       -Djmh.baseline=src/jmh/baseline/jdk17-<machine>.json -Djmh.tolerance=0.10
+ *
+ * Benchmarks are matched by name, mode and parameters. The score regresses
+ * when throughput drops, or time per operation grows, by more than the
+ * tolerance. Allocation (gc.alloc.rate.norm, bytes/op) regresses when it
+ * grows by more than the tolerance plus {@link #ALLOC_SLACK_BYTES}, so a
+ * ~0 B/op path stays ~0. Benchmarks missing from either file are listed but
+ * do not fail the run, so a filtered run can be checked against a full
+ * baseline.
+ */
+public final class BaselineCheck {
+
+    // Allocation noise on paths that should not allocate at all
+    static final double ALLOC_SLACK_BYTES = 16;
+
+    private static final String ALLOC_METRIC = "gc.alloc.rate.norm";
+
+    private BaselineCheck() {
+    }
+
+    /** A benchmark's score and bytes/op (NaN without the GC profiler). */
+    record Measurement(String mode, double score, String unit, double allocBytes) {
+    }
+
+    public static void main(String[] args) throws IOException {
+        // The profile passes "none" until -Djmh.baseline is set
+        if (args.length < 2 || !new File(args[0]).isFile()) {
+            System.err.println("Usage: BaselineCheck <baseline.json> <result.json> [tolerance]");
+            System.err.println("Record a baseline with: mvn -Pbenchmarks test-compile exec:exec "
+                    + "-Djmh.result=src/jmh/baseline/jdk17-<machine>.json");
+            System.exit(2);
+        }
+        double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.10;
+
+        Map<String, Measurement> baseline = read(new File(args[0]));
+        Map<String, Measurement> result = read(new File(args[1]));
+
+        List<String> regressions = compare(baseline, result, tolerance);
+        for (String key : result.keySet()) {
+            if (!baseline.containsKey(key)) {
+                System.out.println("NEW      " + key);
+            }
+        }
+        for (String key : baseline.keySet()) {
+            if (!result.containsKey(key)) {
+                System.out.println("NOT RUN  " + key);
+            }
+        }
+
+        if (!regressions.isEmpty()) {
+            System.err.printf("%d benchmark(s) regressed by more than %.0f%% against %s%n",
+                    regressions.size(), tolerance * 100, args[0]);
+            System.exit(1);
+        }
+        System.out.printf("No regression beyond %.0f%% against %s%n", tolerance * 100, args[0]);
+    }
+
+    /** Prints one line per compared benchmark; returns the regressed ones. */
+    static List<String> compare(Map<String, Measurement> baseline, Map<String, Measurement> result,
+                                double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, Measurement> entry : result.entrySet()) {
+            Measurement before = baseline.get(entry.getKey());
+            if (before == null) {
+                continue;
+            }
+            Measurement after = entry.getValue();
+
+            // Throughput: higher is better; every other mode reports time per operation
+            boolean higherIsBetter = "thrpt".equals(after.mode());
+            double change = (after.score() - before.score()) / before.score();
+            boolean slower = higherIsBetter ? change < -tolerance : change > tolerance;
+
+            boolean allocates = !Double.isNaN(before.allocBytes()) && !Double.isNaN(after.allocBytes())
+                    && after.allocBytes() > before.allocBytes() * (1 + tolerance) + ALLOC_SLACK_BYTES;
+
+            String line = String.format("%-8s %s: %.3f -> %.3f %s (%+.1f%%)",
+                    slower || allocates ? "REGRESS" : "OK", entry.getKey(),
+                    before.score(), after.score(), after.unit(), change * 100);
+            if (!Double.isNaN(after.allocBytes())) {
+                line += String.format(", %.0f -> %.0f B/op", before.allocBytes(), after.allocBytes());
+            }
+            System.out.println(line);
+            if (slower || allocates) {
+                regressions.add(entry.getKey());
+            }
+        }
+        return regressions;
+    }
+
+    static Map<String, Measurement> read(File file) throws IOException {
+        Map<String, Measurement> measurements = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String mode = run.path("mode").asText();
+            JsonNode primary = run.path("primaryMetric");
+            measurements.put(key(run), new Measurement(
+                    mode,
+                    primary.path("score").asDouble(),
+                    primary.path("scoreUnit").asText(),
+                    allocBytes(run.path("secondaryMetrics"))));
+        }
+        return measurements;
+    }
+
+    // Benchmark name, mode and sorted parameters, e.g. DispatchSelectionBenchmark.selectNearest [thrpt] sessions=1000
+    private static String key(JsonNode run) {
+        String name = run.path("benchmark").asText();
+        name = name.substring(name.lastIndexOf('.', name.lastIndexOf('.') - 1) + 1);
+        StringBuilder key = new StringBuilder(name).append(" [").append(run.path("mode").asText()).append(']');
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> param = fields.next();
+            params.put(param.getKey(), param.getValue().asText());
+        }
+        params.forEach((param, value) -> key.append(' ').append(param).append('=').append(value));
+        return key.toString();
+    }
+
+    // Older JMH versions prefix secondary metric names with a middle dot
+    private static double allocBytes(JsonNode secondaryMetrics) {
+        Iterator<Map.Entry<String, JsonNode>> metrics = secondaryMetrics.fields();
+        while (metrics.hasNext()) {
+            Map.Entry<String, JsonNode> metric = metrics.next();
+            if (metric.getKey().endsWith(ALLOC_METRIC)) {
+                return metric.getValue().path("score").asDouble();
+            }
+        }
+        return Double.NaN;
+    }
+}
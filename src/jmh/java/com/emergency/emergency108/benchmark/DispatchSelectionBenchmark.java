@@ -0,0 +1,92 @@
+package com.emergency.emergency108.benchmark;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverSessionStatus;
+import com.emergency.emergency108.service.DispatchCandidateSelector;
+import com.emergency.emergency108.util.GeoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Nearest-driver selection as run by EmergencyDispatchService:
+ * rejected-driver exclusion, heartbeat window, ONLINE filter and nearest pick.
+ *
+ * streamBaseline keeps the original List/stream/Comparator pipeline for
+ * comparison, including its null-heartbeat (session start within the window)
+ * and null-location (ranked last) handling; only its per-session log calls
+ * are left out. Run with -prof gc and compare gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DispatchSelectionBenchmark {
+
+    @Param({ "1000", "10000", "100000" })
+    public int sessions;
+
+    @Param({ "0", "10" })
+    public int rejected;
+
+    private List<DriverSession> onlineSessions;
+    private List<Long> rejectedDriverIds;
+    private LocalDateTime heartbeatCutoff;
+
+    @Setup
+    public void setUp() {
+        onlineSessions = SyntheticFleet.onlineSessions(sessions, 7L);
+        rejectedDriverIds = new ArrayList<>(rejected);
+        for (int i = 0; i < rejected; i++) {
+            rejectedDriverIds.add((long) (i * 97 % sessions) + 1);
+        }
+        heartbeatCutoff = LocalDateTime.now().minusSeconds(3600);
+    }
+
+    @Benchmark
+    public long selectNearest() {
+        try (DispatchCandidateSelector.Candidates candidates = DispatchCandidateSelector.collectEligible(
+                onlineSessions, rejectedDriverIds, heartbeatCutoff)) {
+            int ranked = candidates.rankNearest(SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG, 3);
+            return ranked > 0 ? candidates.driverId(0) : -1L;
+        }
+    }
+
+    @Benchmark
+    public DriverSession streamBaseline() {
+        List<DriverSession> candidates = onlineSessions;
+        if (!rejectedDriverIds.isEmpty()) {
+            candidates = candidates.stream()
+                    .filter(session -> !rejectedDriverIds.contains(session.getDriverId()))
+                    .collect(Collectors.toList());
+        }
+
+        List<DriverSession> eligible = candidates.stream()
+                .filter(session -> {
+                    if (session.getLastHeartbeat() == null) {
+                        return session.getSessionStartTime().isAfter(heartbeatCutoff);
+                    }
+                    return session.getLastHeartbeat().isAfter(heartbeatCutoff);
+                })
+                .filter(session -> session.getStatus() == DriverSessionStatus.ONLINE)
+                .collect(Collectors.toList());
+
+        return eligible.stream()
+                .min(Comparator.comparingDouble(session -> {
+                    if (session.getCurrentLat() == null || session.getCurrentLng() == null) {
+                        return Double.MAX_VALUE;
+                    }
+                    return GeoUtil.distanceKm(
+                            SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG,
+                            session.getCurrentLat(), session.getCurrentLng());
+                }))
+                .orElse(null);
+    }
+}
@@ -0,0 +1,67 @@
+package com.emergency.emergency108.benchmark;
+
+import com.emergency.emergency108.util.DistanceCalculator;
+import com.emergency.emergency108.util.GeoBatch;
+import com.emergency.emergency108.util.GeoUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw cost of the Haversine implementations, per distance computed.
+ * batchKernel reports the SIMD kernel when run with --add-modules jdk.incubator.vector
+ * (the benchmarks profile does) and the scalar kernel otherwise.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeoDistanceBenchmark {
+
+    private static final int POINTS = 1024;
+
+    private double[] lats;
+    private double[] lngs;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        double[][] points = SyntheticFleet.points(POINTS, 42L);
+        lats = new double[POINTS];
+        lngs = new double[POINTS];
+        out = new double[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            lats[i] = points[i][0];
+            lngs[i] = points[i][1];
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double geoUtilDistanceKm() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += GeoUtil.distanceKm(SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG, lats[i], lngs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double distanceCalculatorMeters() {
+        double sum = 0;
+        for (int i = 0; i < POINTS; i++) {
+            sum += DistanceCalculator.calculateDistance(SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG, lats[i], lngs[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double[] batchKernel() {
+        GeoBatch.distancesKm(SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG, lats, lngs, POINTS, out);
+        return out;
+    }
+}
@@ -0,0 +1,44 @@
+package com.emergency.emergency108.benchmark;
+
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserLocation;
+import com.emergency.emergency108.service.HelpingHandService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helper matching for a new emergency (3 km radius, as used by createEmergency).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelperMatchingBenchmark {
+
+    private static final double RADIUS_KM = 3.0;
+
+    @Param({ "1000", "10000", "100000" })
+    public int helpers;
+
+    private List<UserLocation> locations;
+    private LocalDateTime staleCutoff;
+
+    @Setup
+    public void setUp() {
+        locations = SyntheticFleet.helperLocations(helpers, 11L);
+        staleCutoff = LocalDateTime.now().minusHours(24);
+    }
+
+    @Benchmark
+    public List<User> matchHelpers() {
+        return HelpingHandService.matchHelpers(
+                locations, -1L,
+                SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG,
+                RADIUS_KM, staleCutoff);
+    }
+}
@@ -0,0 +1,60 @@
+package com.emergency.emergency108.benchmark;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.dto.NearbyEmergencyDTO;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.readmodel.ActiveEmergencyIndex;
+import com.emergency.emergency108.service.HelpingHandService;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Helping Hand "emergencies near me" (3 km radius, top 5).
+ *
+ * indexed queries the live grid index; scanBaseline runs the same rules
+ * over the full list of open emergencies, as the service does before the
+ * index is built. The baseline resolves victim names from memory, so it
+ * leaves out the findByStatusIn load and per-result user lookups the old
+ * path also paid.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NearbyEmergenciesBenchmark {
+
+    private static final double RADIUS_KM = 3.0;
+    private static final int LIMIT = 5;
+
+    @Param({ "1000", "10000", "100000" })
+    public int emergencies;
+
+    private List<Emergency> active;
+    private ActiveEmergencyIndex index;
+
+    @Setup
+    public void setUp() {
+        active = SyntheticFleet.activeEmergencies(emergencies, 23L);
+        // Clustering off: the index is built and maintained in memory
+        ClusterCoordinator cluster = new ClusterCoordinator(null, null, false, "benchmark", 15, "", false);
+        index = new ActiveEmergencyIndex(null, null, 0.05, cluster);
+        index.load(SyntheticFleet.activeEmergencyRows(active));
+    }
+
+    @Benchmark
+    public List<NearbyEmergencyDTO> indexed() {
+        return index.nearby(SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG, RADIUS_KM, -1L, LIMIT);
+    }
+
+    @Benchmark
+    public List<NearbyEmergencyDTO> scanBaseline() {
+        return HelpingHandService.scanNearby(
+                active, -1L,
+                SyntheticFleet.CENTER_LAT, SyntheticFleet.CENTER_LNG,
+                RADIUS_KM, LIMIT, victimId -> "Victim " + victimId);
+    }
+}
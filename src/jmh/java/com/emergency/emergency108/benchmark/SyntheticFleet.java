@@ -0,0 +1,110 @@
+package com.emergency.emergency108.benchmark;
+
+import com.emergency.emergency108.dto.ActiveEmergencyRow;
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserLocation;
+import com.emergency.emergency108.entity.UserRole;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic data for the benchmarks.
+ * Points are spread over roughly a 100 km square around New Delhi.
+ */
+final class SyntheticFleet {
+
+    static final double CENTER_LAT = 28.6139;
+    static final double CENTER_LNG = 77.2090;
+    private static final double SPREAD_DEGREES = 0.5;
+
+    private SyntheticFleet() {
+    }
+
+    static double[][] points(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[][] points = new double[count][2];
+        for (int i = 0; i < count; i++) {
+            points[i][0] = CENTER_LAT + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES);
+            points[i][1] = CENTER_LNG + random.nextDouble(-SPREAD_DEGREES, SPREAD_DEGREES);
+        }
+        return points;
+    }
+
+    static List<DriverSession> onlineSessions(int count, long seed) {
+        double[][] points = points(count, seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<DriverSession> sessions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            DriverSession session = new DriverSession((long) i + 1, (long) i + 1);
+            session.setId((long) i + 1);
+            // Like a live fleet, a few sessions have no heartbeat or no fix yet
+            session.setLastHeartbeat(i % 50 == 49 ? null : now.minusSeconds(i % 10));
+            if (i % 40 != 39) {
+                session.updateLocation(points[i][0], points[i][1]);
+            }
+            sessions.add(session);
+        }
+        return sessions;
+    }
+
+    static List<UserLocation> helperLocations(int count, long seed) {
+        double[][] points = points(count, seed);
+        LocalDateTime now = LocalDateTime.now();
+        List<UserLocation> locations = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User();
+            user.setId((long) i + 1);
+            user.setRole(UserRole.PUBLIC);
+            user.setHelpingHandEnabled(i % 5 != 0);
+
+            UserLocation location = new UserLocation();
+            location.setId((long) i + 1);
+            location.setUser(user);
+            location.setLatitude(points[i][0]);
+            location.setLongitude(points[i][1]);
+            location.setLastUpdated(now.minusMinutes(i % 120));
+            locations.add(location);
+        }
+        return locations;
+    }
+
+    /** Open emergencies, four in five raised for oneself (SELF). */
+    static List<Emergency> activeEmergencies(int count, long seed) {
+        double[][] points = points(count, seed);
+        EmergencyStatus[] statuses = {
+                EmergencyStatus.CREATED, EmergencyStatus.IN_PROGRESS, EmergencyStatus.DISPATCHED };
+        List<Emergency> emergencies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Emergency emergency = new Emergency();
+            emergency.setType("ACCIDENT");
+            emergency.setLatitude(points[i][0]);
+            emergency.setLongitude(points[i][1]);
+            emergency.setStatus(statuses[i % statuses.length]);
+            emergency.setUserId((long) i + 1);
+            emergency.setEmergencyFor(i % 5 == 0 ? EmergencyFor.OTHER : EmergencyFor.SELF);
+            emergencies.add(emergency);
+        }
+        return emergencies;
+    }
+
+    /** The SELF emergencies of {@link #activeEmergencies} as Helping Hand index rows. */
+    static List<ActiveEmergencyRow> activeEmergencyRows(List<Emergency> emergencies) {
+        List<ActiveEmergencyRow> rows = new ArrayList<>(emergencies.size());
+        for (int i = 0; i < emergencies.size(); i++) {
+            Emergency emergency = emergencies.get(i);
+            if (emergency.getEmergencyFor() == EmergencyFor.SELF) {
+                rows.add(new ActiveEmergencyRow((long) i + 1, emergency.getType(), emergency.getLatitude(),
+                        emergency.getLongitude(), emergency.getStatus(), emergency.getUserId(),
+                        "Victim " + emergency.getUserId(), 0L));
+            }
+        }
+        return rows;
+    }
+}
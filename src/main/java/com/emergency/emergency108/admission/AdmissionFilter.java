@@ -0,0 +1,218 @@
+package com.emergency.emergency108.admission;
+
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.dto.KeysetPage;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control for /api: classifies each request with
+ * {@link EndpointPriorities} and passes it through {@link AdmissionLimiter}.
+ *
+ * A NORMAL or LOW request that is refused, or that waits too long for a
+ * slot, gets a 503 (Retry-After: 1). A refused LOW GET is answered from
+ * {@link StaleResponseCache} instead when this caller fetched the same URL
+ * successfully within app.admission.stale-seconds; such answers carry
+ * X-Degraded: stale and an Age header, plus the X-Next-Cursor of the cached
+ * page. Streamed exports (paths ending in /export) are not cached.
+ *
+ * Registered in AdmissionConfig after the standby filter, so ahead of
+ * AuthContextFilter: before a stale copy is replayed, the caller's bearer
+ * token is validated and its user looked up, and a blocked or unknown user
+ * gets the 503 instead. Requests without a token only ever see copies that
+ * were served to requests without a token.
+ *
+ * Metrics:
+ *   admission.limit, admission.in_flight     current limit and admitted requests
+ *   admission.latency                        recent non-critical latency (ms)
+ *   admission.queued{priority}               requests waiting for a slot
+ *   admission.wait{priority}                 time spent waiting
+ *   admission.rejected{priority,reason}      refused (rejected | timed_out)
+ *   admission.degraded                       refused LOW GETs answered from cache
+ */
+public class AdmissionFilter extends OncePerRequestFilter {
+
+    public static final String DEGRADED_HEADER = "X-Degraded";
+
+    // Streamed exports are never buffered for the stale cache
+    private static final String EXPORT_SUFFIX = "/export";
+
+    private final AdmissionLimiter limiter;
+    private final EndpointPriorities priorities;
+    private final StaleResponseCache staleResponses;
+    private final TokenService tokenService;
+    private final UserRepository userRepository;
+    private final long queueTimeoutNanos;
+    private final long lowQueueTimeoutNanos;
+
+    private final Map<Priority, Timer> waits = new EnumMap<>(Priority.class);
+    private final Map<Priority, Map<AdmissionLimiter.Decision, Counter>> rejections = new EnumMap<>(Priority.class);
+    private final Counter degraded;
+
+    public AdmissionFilter(
+            AdmissionLimiter limiter,
+            EndpointPriorities priorities,
+            StaleResponseCache staleResponses,
+            TokenService tokenService,
+            UserRepository userRepository,
+            Duration queueTimeout,
+            Duration lowQueueTimeout,
+            MeterRegistry registry) {
+        this.limiter = limiter;
+        this.priorities = priorities;
+        this.staleResponses = staleResponses;
+        this.tokenService = tokenService;
+        this.userRepository = userRepository;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.lowQueueTimeoutNanos = lowQueueTimeout.toNanos();
+
+        Gauge.builder("admission.limit", limiter, AdmissionLimiter::limit)
+                .description("Adaptive limit on concurrent non-critical API requests")
+                .register(registry);
+        Gauge.builder("admission.in_flight", limiter, AdmissionLimiter::inFlight)
+                .description("API requests admitted and not yet finished")
+                .register(registry);
+        Gauge.builder("admission.latency", limiter, AdmissionLimiter::recentLatencyMillis)
+                .description("Recent latency of non-critical API requests, the limit's control signal")
+                .baseUnit("milliseconds")
+                .register(registry);
+        for (Priority priority : Priority.values()) {
+            String tag = priority.name().toLowerCase();
+            Gauge.builder("admission.queued", limiter, l -> l.queued(priority))
+                    .description("API requests waiting for an admission slot")
+                    .tag("priority", tag)
+                    .register(registry);
+            waits.put(priority, Timer.builder("admission.wait")
+                    .description("Time API requests waited for an admission slot")
+                    .tag("priority", tag)
+                    .register(registry));
+            Map<AdmissionLimiter.Decision, Counter> byReason = new EnumMap<>(AdmissionLimiter.Decision.class);
+            for (AdmissionLimiter.Decision decision : AdmissionLimiter.Decision.values()) {
+                if (decision != AdmissionLimiter.Decision.ADMITTED) {
+                    byReason.put(decision, Counter.builder("admission.rejected")
+                            .description("API requests refused by admission control")
+                            .tag("priority", tag)
+                            .tag("reason", decision.name().toLowerCase())
+                            .register(registry));
+                }
+            }
+            rejections.put(priority, byReason);
+        }
+        degraded = Counter.builder("admission.degraded")
+                .description("Refused low-priority GETs answered from the stale response cache")
+                .register(registry);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Priority priority = priorities.classify(request.getMethod(), path);
+
+        long waitStarted = System.nanoTime();
+        AdmissionLimiter.Decision decision = limiter.acquire(priority,
+                priority == Priority.LOW ? lowQueueTimeoutNanos : queueTimeoutNanos);
+        if (priority != Priority.CRITICAL) {
+            waits.get(priority).record(System.nanoTime() - waitStarted, TimeUnit.NANOSECONDS);
+        }
+
+        boolean cacheable = priority == Priority.LOW && "GET".equals(request.getMethod())
+                && !path.endsWith(EXPORT_SUFFIX);
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        String cacheKey = cacheable
+                ? StaleResponseCache.key(authorization, path, request.getQueryString())
+                : null;
+
+        if (decision != AdmissionLimiter.Decision.ADMITTED) {
+            rejections.get(priority).get(decision).increment();
+            StaleResponseCache.Entry stale = cacheable ? staleResponses.get(cacheKey) : null;
+            if (stale != null && !mayReplay(authorization)) {
+                stale = null;
+            }
+            if (stale != null) {
+                degraded.increment();
+                writeStale(response, stale);
+            } else {
+                writeOverloaded(response);
+            }
+            return;
+        }
+
+        long started = System.nanoTime();
+        try {
+            if (!cacheable) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+            ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+            filterChain.doFilter(request, wrapper);
+            if (wrapper.getStatus() == HttpStatus.OK.value()) {
+                staleResponses.put(cacheKey, wrapper.getContentAsByteArray(), wrapper.getContentType(),
+                        wrapper.getHeader(KeysetPage.NEXT_CURSOR_HEADER));
+            }
+            wrapper.copyBodyToResponse();
+        } finally {
+            limiter.release(priority, System.nanoTime() - started);
+        }
+    }
+
+    /**
+     * Same checks as AuthContextFilter, which has not run yet: a valid token
+     * of a known, unblocked user. A request without a bearer token is
+     * anonymous and may see anonymous copies.
+     */
+    private boolean mayReplay(String authorization) {
+        if (authorization == null || !authorization.startsWith("Bearer ")) {
+            return true;
+        }
+        try {
+            Long userId = tokenService.validateAndParse(authorization.substring(7)).getUserId();
+            return userRepository.findById(userId).map(user -> !user.isBlocked()).orElse(false);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void writeStale(HttpServletResponse response, StaleResponseCache.Entry stale) throws IOException {
+        long ageSeconds = Math.max(0, (System.currentTimeMillis() - stale.storedAtMillis()) / 1000);
+        response.setStatus(HttpStatus.OK.value());
+        response.setHeader(DEGRADED_HEADER, "stale");
+        response.setHeader(HttpHeaders.AGE, Long.toString(ageSeconds));
+        if (stale.contentType() != null) {
+            response.setContentType(stale.contentType());
+        }
+        if (stale.nextCursor() != null) {
+            response.setHeader(KeysetPage.NEXT_CURSOR_HEADER, stale.nextCursor());
+        }
+        response.setContentLength(stale.body().length);
+        response.getOutputStream().write(stale.body());
+    }
+
+    private static void writeOverloaded(HttpServletResponse response) throws IOException {
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Server busy, try again shortly\"}");
+    }
+}
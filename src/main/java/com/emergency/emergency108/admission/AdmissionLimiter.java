@@ -0,0 +1,215 @@
+package com.emergency.emergency108.admission;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Adaptive concurrency limit with priority queues in front of it.
+ *
+ * CRITICAL requests are always admitted (and counted). NORMAL and LOW ones
+ * run while fewer than {@link #limit()} requests are in flight; otherwise
+ * they wait in per-priority FIFO queues, and every freed slot goes to the
+ * oldest NORMAL waiter before any LOW one. LOW requests are refused without
+ * waiting while the node looks overloaded: the queues are at least
+ * shed-queue-depth deep, or recent latency is above target-latency.
+ *
+ * The limit follows measured latency of NORMAL and LOW requests (additive
+ * increase, multiplicative decrease): while a short moving average stays
+ * under target-latency and requests are waiting on the limit, it grows by
+ * about one per limit's worth of completions; once the average is over the
+ * target, it shrinks by about a tenth per limit's worth, down to min-limit.
+ * CRITICAL requests free their slot but do not steer the limit.
+ */
+public class AdmissionLimiter {
+
+    public enum Decision { ADMITTED, REJECTED, TIMED_OUT }
+
+    // Moving average over roughly the last 10 requests
+    private static final double SHORT_ALPHA = 2.0 / (10 + 1);
+    // Per completion over target: a tenth of the limit per limit's worth of completions
+    private static final double BACKOFF = 0.1;
+
+    private static final class Waiter {
+        final Condition granted;
+        boolean admitted;
+
+        Waiter(Condition granted) {
+            this.granted = granted;
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, Deque<Waiter>> queues = new EnumMap<>(Priority.class);
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final int shedQueueDepth;
+    private final long targetLatencyNanos;
+
+    // Guarded by lock
+    private double limit;
+    private int inFlight;
+    private double shortLatency;
+
+    public AdmissionLimiter(int initialLimit, int minLimit, int maxLimit, int maxQueue, int shedQueueDepth,
+                            Duration targetLatency) {
+        if (minLimit < 1 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Admission limits must satisfy 1 <= min <= initial <= max");
+        }
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.maxQueue = maxQueue;
+        this.shedQueueDepth = shedQueueDepth;
+        this.targetLatencyNanos = targetLatency.toNanos();
+        queues.put(Priority.NORMAL, new ArrayDeque<>());
+        queues.put(Priority.LOW, new ArrayDeque<>());
+    }
+
+    /**
+     * Admits a request, waiting up to maxWaitNanos for a slot. Every
+     * ADMITTED must be paired with {@link #release(Priority, long)}.
+     */
+    public Decision acquire(Priority priority, long maxWaitNanos) {
+        lock.lock();
+        try {
+            if (priority == Priority.CRITICAL) {
+                inFlight++;
+                return Decision.ADMITTED;
+            }
+            if (inFlight < limit && nobodyAhead(priority)) {
+                inFlight++;
+                return Decision.ADMITTED;
+            }
+            if (queued() >= maxQueue || (priority == Priority.LOW && overloaded())) {
+                return Decision.REJECTED;
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            Deque<Waiter> queue = queues.get(priority);
+            queue.addLast(waiter);
+            long remaining = maxWaitNanos;
+            try {
+                while (!waiter.admitted) {
+                    if (remaining <= 0) {
+                        queue.remove(waiter);
+                        return Decision.TIMED_OUT;
+                    }
+                    remaining = waiter.granted.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (!waiter.admitted) {
+                    queue.remove(waiter);
+                    return Decision.TIMED_OUT;
+                }
+            }
+            return Decision.ADMITTED;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Ends an admitted request that ran for latencyNanos. */
+    public void release(Priority priority, long latencyNanos) {
+        lock.lock();
+        try {
+            boolean atLimit = inFlight >= limit || queued() > 0;
+            inFlight--;
+            if (priority != Priority.CRITICAL) {
+                adapt(latencyNanos, atLimit);
+            }
+            admitWaiters();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int limit() {
+        lock.lock();
+        try {
+            return (int) limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int queued(Priority priority) {
+        lock.lock();
+        try {
+            Deque<Waiter> queue = queues.get(priority);
+            return queue == null ? 0 : queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Short-window moving average of request latency, in milliseconds. */
+    public double recentLatencyMillis() {
+        lock.lock();
+        try {
+            return shortLatency / TimeUnit.MILLISECONDS.toNanos(1);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // ---- internals, lock held ----
+
+    private boolean nobodyAhead(Priority priority) {
+        return priority == Priority.NORMAL
+                ? queues.get(Priority.NORMAL).isEmpty()
+                : queued() == 0;
+    }
+
+    private int queued() {
+        return queues.get(Priority.NORMAL).size() + queues.get(Priority.LOW).size();
+    }
+
+    private boolean overloaded() {
+        return queued() >= shedQueueDepth || shortLatency > targetLatencyNanos;
+    }
+
+    private void adapt(long latencyNanos, boolean atLimit) {
+        shortLatency = shortLatency == 0
+                ? latencyNanos
+                : shortLatency + SHORT_ALPHA * (latencyNanos - shortLatency);
+
+        if (shortLatency > targetLatencyNanos) {
+            limit = Math.max(minLimit, limit - BACKOFF);
+        } else if (atLimit) {
+            // An idle node learns nothing about how many requests it can take
+            limit = Math.min(maxLimit, limit + 1.0 / limit);
+        }
+    }
+
+    private void admitWaiters() {
+        while (inFlight < limit) {
+            Waiter next = queues.get(Priority.NORMAL).pollFirst();
+            if (next == null) {
+                next = queues.get(Priority.LOW).pollFirst();
+            }
+            if (next == null) {
+                return;
+            }
+            next.admitted = true;
+            inFlight++;
+            next.granted.signal();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.emergency.emergency108.admission;
+
+import org.springframework.util.AntPathMatcher;
+
+import java.util.List;
+
+/**
+ * Maps an API request to its {@link Priority}. Anything not listed is NORMAL.
+ *
+ * Driver heartbeats are CRITICAL: shedding them under load would make the
+ * stale-driver sweep end healthy shifts, and dispatch would lose the drivers.
+ */
+public class EndpointPriorities {
+
+    private record Rule(String method, String pattern, Priority priority) {
+    }
+
+    private static final List<Rule> RULES = List.of(
+            new Rule("POST", "/api/emergencies", Priority.CRITICAL),
+            new Rule("POST", "/api/emergencies/*/dispatch", Priority.CRITICAL),
+            new Rule("POST", "/api/driver/emergencies/*/accept", Priority.CRITICAL),
+            new Rule("POST", "/api/driver/emergencies/*/reject", Priority.CRITICAL),
+            new Rule("PUT", "/api/driver/location", Priority.CRITICAL),
+            new Rule("POST", "/api/driver/heartbeat", Priority.CRITICAL),
+
+            new Rule(null, "/api/helping-hand/**", Priority.LOW),
+            new Rule(null, "/api/admin/**", Priority.LOW),
+            new Rule("POST", "/api/emergencies/*/ai-assessment", Priority.LOW),
+            new Rule("GET", "/api/emergencies/*/timeline", Priority.LOW),
+            new Rule("GET", "/api/driver/history", Priority.LOW)
+    );
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+
+    public Priority classify(String method, String path) {
+        for (Rule rule : RULES) {
+            if ((rule.method() == null || rule.method().equalsIgnoreCase(method))
+                    && matcher.match(rule.pattern(), path)) {
+                return rule.priority();
+            }
+        }
+        return Priority.NORMAL;
+    }
+}
@@ -0,0 +1,12 @@
+package com.emergency.emergency108.admission;
+
+/** How an API endpoint is treated when the node is overloaded. */
+public enum Priority {
+
+    /** Never queued or shed: SOS creation, dispatch, driver accept/reject, driver heartbeats. */
+    CRITICAL,
+    /** Queued behind the concurrency limit, served before LOW. */
+    NORMAL,
+    /** Shed first, answered from a stale copy when one is cached. */
+    LOW
+}
@@ -0,0 +1,78 @@
+package com.emergency.emergency108.admission;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Last successful body of each LOW-priority GET, per caller, kept so a shed
+ * request can get a slightly old answer instead of a 503. Keyed by a hash of
+ * the Authorization header and the URL, so one user's copy is never served
+ * to another. Bounded LRU; entries older than maxAgeMillis are not served.
+ * The next-page cursor header of a paginated listing is kept with the body,
+ * so a replayed page still leads to the next one.
+ */
+public class StaleResponseCache {
+
+    public record Entry(byte[] body, String contentType, String nextCursor, long storedAtMillis) {
+    }
+
+    private final int maxEntries;
+    private final int maxBodyBytes;
+    private final long maxAgeMillis;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, Entry> entries;
+
+    public StaleResponseCache(int maxEntries, int maxBodyBytes, long maxAgeMillis, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.maxBodyBytes = maxBodyBytes;
+        this.maxAgeMillis = maxAgeMillis;
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > StaleResponseCache.this.maxEntries;
+            }
+        };
+    }
+
+    public static String key(String authorization, String uri, String query) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(String.valueOf(authorization).getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(uri.getBytes(StandardCharsets.UTF_8));
+            if (query != null) {
+                digest.update((byte) '?');
+                digest.update(query.getBytes(StandardCharsets.UTF_8));
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public synchronized void put(String key, byte[] body, String contentType, String nextCursor) {
+        if (body.length > maxBodyBytes) {
+            return;
+        }
+        entries.put(key, new Entry(body, contentType, nextCursor, clock.getAsLong()));
+    }
+
+    /** The cached entry, or null when there is none young enough. */
+    public synchronized Entry get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (clock.getAsLong() - entry.storedAtMillis() > maxAgeMillis) {
+            entries.remove(key);
+            return null;
+        }
+        return entry;
+    }
+}
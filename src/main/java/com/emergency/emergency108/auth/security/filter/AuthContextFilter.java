@@ -9,6 +9,7 @@ import com.emergency.emergency108.entity.DriverVerificationStatus;
 import com.emergency.emergency108.entity.User;
 import com.emergency.emergency108.entity.UserRole;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.request.RequestLookupCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -58,7 +59,8 @@ public class AuthContextFilter extends OncePerRequestFilter {
 
                 AuthTokenPayload payload = tokenService.validateAndParse(token);
 
-                User user = userRepository.findById(payload.getUserId())
+                Long userId = payload.getUserId();
+                User user = RequestLookupCache.user(userId, () -> userRepository.findById(userId))
                         .orElseThrow(UnauthenticatedException::new);
 
                 boolean driverVerified = user.getRole() == UserRole.DRIVER &&
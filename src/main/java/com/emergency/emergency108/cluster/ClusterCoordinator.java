@@ -0,0 +1,250 @@
+package com.emergency.emergency108.cluster;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Coordinates scheduled jobs across instances through two tables:
+ *
+ * - cluster_nodes: every node refreshes its row every few seconds. The live
+ *   nodes, sorted by id, split the sharded sweeps: node i of n handles rows
+ *   with {@code id MOD n = i} ({@link #shard()}).
+ * - scheduler_leases: singleton jobs (the invariant sweeps, session cleanup)
+ *   run only on the node holding the job's lease ({@link #acquireLease}).
+ *
+ * The live nodes and their advertised URLs are also what {@link GeoPartitioner}
+ * spreads the map cells over; a {@link ClusterMembershipChangedEvent} is
+ * published whenever the set of live nodes changes.
+ *
+ * While membership changes, two nodes can briefly claim the same shard for
+ * one heartbeat interval; the status checks and optimistic locks in the
+ * jobs already make a repeated run harmless.
+ *
+ * A hot standby (app.standby.enabled) is held back: it does not join the
+ * membership and gets no lease, so it runs none of the sweeps, until
+ * {@link #takeOver} wins it the lease the active nodes keep renewing.
+ *
+ * Cluster mode and node-local state: the live assignment registry, the
+ * dashboard counters, the Helping Hand nearby index and the state journal
+ * are fed by entity events committed on this node. With clustering on,
+ * other nodes commit changes this node never hears about, so each of them
+ * checks {@link #isEnabled()} and stays unbuilt (the registry queries the
+ * primary instead); callers use their database queries.
+ *
+ * Off by default (app.cluster.enabled): a single node owns every shard and
+ * every lease, and nothing is read from the cluster tables.
+ */
+@Component
+public class ClusterCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(ClusterCoordinator.class);
+
+    // Rows of nodes gone for this long are deleted
+    private static final Duration FORGET_AFTER = Duration.ofHours(1);
+
+    private final ClusterStore store;
+    private final ApplicationEventPublisher events;
+    private final boolean enabled;
+    private final String nodeId;
+    private final Duration nodeTtl;
+    private final String advertiseUrl;
+
+    private volatile Shard shard;
+    private volatile Map<String, String> liveNodes = Map.of();
+    private volatile boolean standby;
+
+    public ClusterCoordinator(
+            ClusterStore store,
+            ApplicationEventPublisher events,
+            @Value("${app.cluster.enabled:false}") boolean enabled,
+            @Value("${app.cluster.node-id:}") String nodeId,
+            @Value("${app.cluster.node-ttl-seconds:15}") long nodeTtlSeconds,
+            @Value("${app.cluster.advertise-url:}") String advertiseUrl,
+            @Value("${app.standby.enabled:false}") boolean standby) {
+        if (standby && !enabled) {
+            throw new IllegalStateException("app.standby.enabled needs app.cluster.enabled: "
+                    + "the standby takes over through a scheduler lease");
+        }
+        this.store = store;
+        this.events = events;
+        this.enabled = enabled;
+        this.nodeId = nodeId == null || nodeId.isBlank() ? defaultNodeId() : nodeId;
+        this.nodeTtl = Duration.ofSeconds(nodeTtlSeconds);
+        this.advertiseUrl = advertiseUrl == null || advertiseUrl.isBlank() ? null : advertiseUrl;
+        this.shard = enabled ? Shard.NONE : Shard.ALL;
+        this.standby = standby;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Whether this node is a hot standby that has not taken over yet. */
+    public boolean isStandby() {
+        return standby;
+    }
+
+    public String nodeId() {
+        return nodeId;
+    }
+
+    /**
+     * This node's slice of the sharded sweeps; {@link Shard#NONE} until the
+     * first membership heartbeat has completed.
+     */
+    public Shard shard() {
+        return shard;
+    }
+
+    /**
+     * Live node ids (in shard order) mapped to their advertised base URL, or
+     * to null for a node that advertises none. Empty while clustering is off
+     * or the membership is unknown.
+     */
+    public Map<String, String> liveNodes() {
+        return liveNodes;
+    }
+
+    /**
+     * Take or renew the lease of a singleton job. The holder keeps it by
+     * calling this on every run; ttl should be longer than the job interval.
+     */
+    public boolean acquireLease(String job, Duration ttl) {
+        if (standby) {
+            return false;
+        }
+        return tryLease(job, ttl);
+    }
+
+    /**
+     * Standby only: try to take the given lease (free once its holder stopped
+     * renewing it) and, if won, leave standby and join the membership.
+     *
+     * @return whether this node is active now
+     */
+    public synchronized boolean takeOver(String lease, Duration ttl) {
+        if (!standby) {
+            return true;
+        }
+        if (!tryLease(lease, ttl)) {
+            return false;
+        }
+        standby = false;
+        log.info("🚨 Node {} took the {} lease and left standby", nodeId, lease);
+        heartbeat();
+        return true;
+    }
+
+    private boolean tryLease(String job, Duration ttl) {
+        if (!enabled) {
+            return true;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plus(ttl);
+        try {
+            if (store.renewLease(job, nodeId, now, expiresAt)) {
+                return true;
+            }
+            if (store.leaseExists(job)) {
+                return false;
+            }
+            store.insertLease(job, nodeId, now, expiresAt);
+            log.info("🔑 Node {} took the {} lease", nodeId, job);
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Another node inserted the lease first
+            return false;
+        } catch (RuntimeException e) {
+            log.warn("Could not acquire the {} lease: {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    // ---- membership ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void join() {
+        heartbeat();
+    }
+
+    @Scheduled(fixedDelayString = "${app.cluster.heartbeat-ms:5000}")
+    public void heartbeat() {
+        if (!enabled || standby) {
+            return;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            List<ClusterMember> live = store.heartbeat(nodeId, advertiseUrl, now,
+                    now.minus(nodeTtl), now.minus(FORGET_AFTER));
+            Map<String, String> nodes = new LinkedHashMap<>();
+            live.forEach(member -> nodes.put(member.nodeId(), member.baseUrl()));
+
+            List<String> ids = List.copyOf(nodes.keySet());
+            int index = ids.indexOf(nodeId);
+            Shard next = index < 0 ? Shard.NONE : new Shard(index, ids.size());
+            if (!next.equals(shard)) {
+                log.info("🧩 Cluster membership: {} live node(s), node {} handles shard {}",
+                        ids.size(), nodeId, next);
+            }
+            shard = next;
+            updateMembership(nodes);
+        } catch (RuntimeException e) {
+            // Can't tell who else is alive: stop sweeping until the database is back
+            log.error("Cluster heartbeat failed, pausing sharded sweeps: {}", e.getMessage());
+            shard = Shard.NONE;
+            updateMembership(Map.of());
+        }
+    }
+
+    private void updateMembership(Map<String, String> nodes) {
+        boolean changed = !nodes.keySet().equals(liveNodes.keySet());
+        liveNodes = Collections.unmodifiableMap(nodes);
+        if (changed) {
+            events.publishEvent(new ClusterMembershipChangedEvent(List.copyOf(nodes.keySet())));
+        }
+    }
+
+    @PreDestroy
+    public void leave() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            store.leave(nodeId);
+        } catch (RuntimeException e) {
+            log.warn("Could not remove node {} from the cluster: {}", nodeId, e.getMessage());
+        }
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "node";
+        }
+        if (host.length() > 90) {
+            host = host.substring(0, 90);
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
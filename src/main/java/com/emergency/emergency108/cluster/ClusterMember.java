@@ -0,0 +1,9 @@
+package com.emergency.emergency108.cluster;
+
+/**
+ * One live node as seen by the membership heartbeat. baseUrl is the address
+ * other nodes name to clients for its cells (null if the node did not
+ * advertise one).
+ */
+public record ClusterMember(String nodeId, String baseUrl) {
+}
@@ -0,0 +1,11 @@
+package com.emergency.emergency108.cluster;
+
+import java.util.List;
+
+/**
+ * Published by {@link ClusterCoordinator} when the set of live nodes changes
+ * (including this node joining, and losing contact with the database, which
+ * empties the list).
+ */
+public record ClusterMembershipChangedEvent(List<String> liveNodeIds) {
+}
@@ -0,0 +1,64 @@
+package com.emergency.emergency108.cluster;
+
+import com.emergency.emergency108.repository.ClusterNodeRepository;
+import com.emergency.emergency108.repository.SchedulerLeaseRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Database side of {@link ClusterCoordinator}. Every call runs in its own
+ * short transaction so that a job's transaction never holds the lease or
+ * membership rows.
+ */
+@Component
+public class ClusterStore {
+
+    private final ClusterNodeRepository nodeRepository;
+    private final SchedulerLeaseRepository leaseRepository;
+
+    public ClusterStore(ClusterNodeRepository nodeRepository, SchedulerLeaseRepository leaseRepository) {
+        this.nodeRepository = nodeRepository;
+        this.leaseRepository = leaseRepository;
+    }
+
+    /**
+     * Records that this node is alive (and the URL it advertises) and returns
+     * the live nodes in shard order. Rows of nodes not seen since forgetCutoff
+     * are removed.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public List<ClusterMember> heartbeat(String nodeId, String baseUrl, LocalDateTime now,
+            LocalDateTime liveCutoff, LocalDateTime forgetCutoff) {
+        if (nodeRepository.touch(nodeId, baseUrl, now) == 0) {
+            nodeRepository.insert(nodeId, baseUrl, now);
+        }
+        nodeRepository.deleteNotSeenSince(forgetCutoff);
+        return nodeRepository.findLiveNodes(liveCutoff);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public boolean renewLease(String name, String nodeId, LocalDateTime now, LocalDateTime expiresAt) {
+        return leaseRepository.tryAcquire(name, nodeId, now, expiresAt) == 1;
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public boolean leaseExists(String name) {
+        return leaseRepository.existsById(name);
+    }
+
+    /** Throws DataIntegrityViolationException if another node inserted it first. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void insertLease(String name, String nodeId, LocalDateTime now, LocalDateTime expiresAt) {
+        leaseRepository.insert(name, nodeId, now, expiresAt);
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void leave(String nodeId) {
+        leaseRepository.releaseAll(nodeId);
+        nodeRepository.deleteById(nodeId);
+    }
+}
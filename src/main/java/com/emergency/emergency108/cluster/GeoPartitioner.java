@@ -0,0 +1,160 @@
+package com.emergency.emergency108.cluster;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Assigns geographic ownership: the map is cut into lat/lng cells of
+ * app.cluster.geo.cell-degrees, and each cell belongs to one live node.
+ *
+ * Ownership is rendezvous (highest random weight) hashing of the cell over
+ * the live node ids from {@link ClusterCoordinator}: every node computes the
+ * same owner without talking to the others, and when a node joins or leaves
+ * only the cells it gains or loses change hands (about 1/n of them).
+ *
+ * Ownership is advisory; dispatch itself is not partitioned. It decides two
+ * things only: which node watches a session's heartbeat deadline (each node
+ * sweeps the sessions in its own cells, see {@link #owns}), and the owner
+ * named on responses ({@link #adviseOwner}), which the app may use to send
+ * its next requests there. Every request is handled on the node it reaches,
+ * never redirected or forwarded: SOS creation, accepts and heartbeats must
+ * not depend on a client following a cross-host redirect with its
+ * Authorization header, and all dispatch state is read from the database.
+ *
+ * Off by default (app.cluster.geo.enabled, which also needs
+ * app.cluster.enabled): every node owns every cell. While the membership is
+ * unknown, or the owner advertises no URL, requests are handled where they
+ * land; the database stays the source of truth, so that only costs locality.
+ */
+@Component
+public class GeoPartitioner {
+
+    /** Node owning the request's cell, set when that is another node. */
+    public static final String OWNER_HEADER = "X-Partition-Owner";
+
+    /** Advertised URL of that node. */
+    public static final String OWNER_URL_HEADER = "X-Partition-Owner-Url";
+
+    private final ClusterCoordinator cluster;
+    private final boolean enabled;
+    private final double cellDegrees;
+
+    public GeoPartitioner(
+            ClusterCoordinator cluster,
+            @Value("${app.cluster.geo.enabled:false}") boolean enabled,
+            @Value("${app.cluster.geo.cell-degrees:0.5}") double cellDegrees) {
+        this.cluster = cluster;
+        this.enabled = enabled && cluster.isEnabled();
+        this.cellDegrees = cellDegrees;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The cell containing the point (row and column packed into one long). */
+    public long cellOf(double lat, double lng) {
+        long row = (long) Math.floor(lat / cellDegrees);
+        long col = (long) Math.floor(lng / cellDegrees);
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    /** Node owning the cell, or null if partitioning is off or the membership is unknown. */
+    public String ownerOf(long cell) {
+        return enabled ? ownerOf(cell, cluster.liveNodes().keySet()) : null;
+    }
+
+    /**
+     * Whether this node owns the point's cell. True when partitioning is off,
+     * the membership is unknown or the location is missing: every node then
+     * keeps the state it sees.
+     */
+    public boolean owns(Double lat, Double lng) {
+        if (!enabled || lat == null || lng == null) {
+            return true;
+        }
+        String owner = ownerOf(cellOf(lat, lng));
+        return owner == null || owner.equals(cluster.nodeId());
+    }
+
+    /** Another live node owning the point's cell, with its advertised URL. */
+    public record Owner(String nodeId, String url) {
+    }
+
+    /**
+     * The node that should handle requests for the point, when that is
+     * another live node advertising a URL; empty when this node should (or
+     * partitioning is off, the membership is unknown or the location missing).
+     */
+    public Optional<Owner> remoteOwner(Double lat, Double lng) {
+        if (!enabled || lat == null || lng == null) {
+            return Optional.empty();
+        }
+        Map<String, String> nodes = cluster.liveNodes();
+        String owner = ownerOf(cellOf(lat, lng), nodes.keySet());
+        if (owner == null || owner.equals(cluster.nodeId()) || nodes.get(owner) == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Owner(owner, nodes.get(owner)));
+    }
+
+    /**
+     * Name the owner of the point's cell on the current response when it is
+     * another node. The request itself is handled here.
+     */
+    public void adviseOwner(Double lat, Double lng) {
+        remoteOwner(lat, lng).ifPresent(owner -> {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes instanceof ServletRequestAttributes servlet && servlet.getResponse() != null) {
+                HttpServletResponse response = servlet.getResponse();
+                response.setHeader(OWNER_HEADER, owner.nodeId());
+                response.setHeader(OWNER_URL_HEADER, owner.url());
+            }
+        });
+    }
+
+    /**
+     * Rendezvous hashing: the node with the highest weight for the cell wins.
+     * Weights depend only on (node id, cell), so removing a node hands each of
+     * its cells to that cell's runner-up and leaves every other cell in place.
+     */
+    static String ownerOf(long cell, Collection<String> nodeIds) {
+        String owner = null;
+        long best = 0;
+        for (String nodeId : nodeIds) {
+            long weight = mix(nodeHash(nodeId) ^ mix(cell));
+            if (owner == null || Long.compareUnsigned(weight, best) > 0
+                    || (weight == best && nodeId.compareTo(owner) < 0)) {
+                owner = nodeId;
+                best = weight;
+            }
+        }
+        return owner;
+    }
+
+    // FNV-1a over the UTF-8 bytes: the same on every JVM
+    private static long nodeHash(String nodeId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : nodeId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,23 @@
+package com.emergency.emergency108.cluster;
+
+/**
+ * This node's slice of a sharded sweep: rows whose id satisfies
+ * {@code id MOD count = index}. Sweep queries take both values as parameters.
+ */
+public record Shard(int index, int count) {
+
+    /** Single node (or clustering off): every row. */
+    public static final Shard ALL = new Shard(0, 1);
+
+    /** Membership not known yet: no row (index -1 never matches). */
+    public static final Shard NONE = new Shard(-1, 1);
+
+    public boolean owns(long id) {
+        return index >= 0 && Math.floorMod(id, count) == index;
+    }
+
+    @Override
+    public String toString() {
+        return index < 0 ? "none" : index + "/" + count;
+    }
+}
@@ -0,0 +1,75 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.admission.AdmissionFilter;
+import com.emergency.emergency108.admission.AdmissionLimiter;
+import com.emergency.emergency108.admission.EndpointPriorities;
+import com.emergency.emergency108.admission.StaleResponseCache;
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+
+@Configuration
+@ConditionalOnProperty(name = "app.admission.enabled", havingValue = "true")
+public class AdmissionConfig {
+
+    private static final int STALE_MAX_ENTRIES = 2000;
+    private static final int STALE_MAX_BODY_BYTES = 256 * 1024;
+
+    /**
+     * Admitted and queued requests both hold a request thread. On platform
+     * threads, max-limit + max-queue must leave critical-reserve of
+     * server.tomcat.threads.max free, or a low-priority flood parks every
+     * worker and SOS requests wait for Tomcat instead of the limiter.
+     * Virtual threads (Java 21+) have no such pool.
+     */
+    @Bean
+    public AdmissionLimiter admissionLimiter(
+            @Value("${app.admission.initial-limit:40}") int initialLimit,
+            @Value("${app.admission.min-limit:8}") int minLimit,
+            @Value("${app.admission.max-limit:120}") int maxLimit,
+            @Value("${app.admission.max-queue:40}") int maxQueue,
+            @Value("${app.admission.shed-queue-depth:20}") int shedQueueDepth,
+            @Value("${app.admission.target-latency-ms:300}") long targetLatencyMillis,
+            @Value("${app.admission.critical-reserve:40}") int criticalReserve,
+            @Value("${server.tomcat.threads.max:200}") int workerThreads,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        boolean platformWorkers = !virtualThreads || Runtime.version().feature() < 21;
+        if (platformWorkers && maxLimit + maxQueue > workerThreads - criticalReserve) {
+            throw new IllegalStateException(String.format(
+                    "app.admission.max-limit (%d) + app.admission.max-queue (%d) must leave "
+                            + "app.admission.critical-reserve (%d) of server.tomcat.threads.max (%d) free; "
+                            + "lower them or enable virtual threads",
+                    maxLimit, maxQueue, criticalReserve, workerThreads));
+        }
+        return new AdmissionLimiter(initialLimit, minLimit, maxLimit, maxQueue, shedQueueDepth,
+                Duration.ofMillis(targetLatencyMillis));
+    }
+
+    @Bean
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+            AdmissionLimiter limiter,
+            TokenService tokenService,
+            UserRepository userRepository,
+            MeterRegistry registry,
+            @Value("${app.admission.queue-timeout-ms:2000}") long queueTimeoutMillis,
+            @Value("${app.admission.low-queue-timeout-ms:250}") long lowQueueTimeoutMillis,
+            @Value("${app.admission.stale-seconds:60}") long staleSeconds) {
+        StaleResponseCache staleResponses = new StaleResponseCache(STALE_MAX_ENTRIES, STALE_MAX_BODY_BYTES,
+                Duration.ofSeconds(staleSeconds).toMillis(), System::currentTimeMillis);
+        FilterRegistrationBean<AdmissionFilter> registration = new FilterRegistrationBean<>(new AdmissionFilter(
+                limiter, new EndpointPriorities(), staleResponses, tokenService, userRepository,
+                Duration.ofMillis(queueTimeoutMillis), Duration.ofMillis(lowQueueTimeoutMillis), registry));
+        registration.addUrlPatterns("/api/*");
+        // After the standby filter, before the request scope: only a stale replay looks up its user
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 7);
+        return registration;
+    }
+}
@@ -0,0 +1,193 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.datasource.PoolRoutingDataSource;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.ReadFromPrimaryInterceptor;
+import com.emergency.emergency108.datasource.ReplicaLagMonitor;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * With app.datasource.replica.enabled or app.datasource.workloads.enabled,
+ * the application DataSource becomes a router over several Hikari pools:
+ *
+ *   primary     spring.datasource.*; writes, and reads of unannotated work
+ *   replica     app.datasource.replica.*; read-only transactions while
+ *               {@link ReplicaLagMonitor} finds the replica current enough
+ *   dispatch,   same database as primary, sized by
+ *   heartbeat,  app.datasource.workloads.<class>.hikari.*; work annotated
+ *   background  with that {@link com.emergency.emergency108.datasource.Workload}
+ *
+ * Methods marked {@link ReadFromPrimary} never read from the replica.
+ *
+ * Hikari's own meters (hikaricp.connections.acquire, .pending, .active, ...)
+ * are tagged with the pool name; db.pool.saturation{pool} adds active / max.
+ *
+ * Without either flag none of this exists and Spring Boot builds its usual
+ * single pool.
+ */
+@Configuration
+@ConditionalOnExpression("${app.datasource.replica.enabled:false} or ${app.datasource.workloads.enabled:false}")
+public class DataSourceRoutingConfig {
+
+    @Bean
+    @Primary
+    @ConfigurationProperties("spring.datasource")
+    public DataSourceProperties primaryDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.GENERAL.poolName());
+    }
+
+    // ---- workload pools ----
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.workloads.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.workloads.dispatch.hikari")
+    public HikariDataSource dispatchPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.DISPATCH.poolName());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.workloads.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.workloads.heartbeat.hikari")
+    public HikariDataSource heartbeatPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.HEARTBEAT.poolName());
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.workloads.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.workloads.background.hikari")
+    public HikariDataSource backgroundPool(
+            @Qualifier("primaryDataSourceProperties") DataSourceProperties properties) {
+        return pool(properties, WorkloadClass.BACKGROUND.poolName());
+    }
+
+    // ---- replica ----
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica")
+    public DataSourceProperties replicaDataSourceProperties() {
+        return new DataSourceProperties();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    @ConfigurationProperties("app.datasource.replica.hikari")
+    public HikariDataSource replicaPool(
+            @Qualifier("replicaDataSourceProperties") DataSourceProperties properties) {
+        HikariDataSource pool = pool(properties, "replica");
+        // Nothing on this pool may write, even by mistake
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("primaryPool") HikariDataSource primaryPool,
+            @Qualifier("replicaPool") HikariDataSource replicaPool,
+            @Value("${app.datasource.replica.max-lag-ms:5000}") long maxLagMillis,
+            MeterRegistry meterRegistry) {
+        return new ReplicaLagMonitor(new JdbcTemplate(primaryPool), new JdbcTemplate(replicaPool),
+                Duration.ofMillis(maxLagMillis), meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    @ConditionalOnProperty(name = "app.datasource.replica.enabled", havingValue = "true")
+    public static Advisor readFromPrimaryAdvisor() {
+        ComposablePointcut pointcut =
+                new ComposablePointcut(new AnnotationMatchingPointcut(ReadFromPrimary.class, true))
+                        .union(AnnotationMatchingPointcut.forMethodAnnotation(ReadFromPrimary.class));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut, new ReadFromPrimaryInterceptor());
+        // Outside @Transactional, like the workload advisor
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    // ---- routing ----
+
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryPool") HikariDataSource primaryPool,
+            @Qualifier("dispatchPool") ObjectProvider<HikariDataSource> dispatchPool,
+            @Qualifier("heartbeatPool") ObjectProvider<HikariDataSource> heartbeatPool,
+            @Qualifier("backgroundPool") ObjectProvider<HikariDataSource> backgroundPool,
+            @Qualifier("replicaPool") ObjectProvider<HikariDataSource> replicaPool,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+            MeterRegistry meterRegistry) {
+
+        Map<WorkloadClass, DataSource> workloadPools = new EnumMap<>(WorkloadClass.class);
+        dispatchPool.ifAvailable(pool -> workloadPools.put(WorkloadClass.DISPATCH, pool));
+        heartbeatPool.ifAvailable(pool -> workloadPools.put(WorkloadClass.HEARTBEAT, pool));
+        backgroundPool.ifAvailable(pool -> workloadPools.put(WorkloadClass.BACKGROUND, pool));
+        HikariDataSource replica = replicaPool.getIfAvailable();
+
+        registerSaturation(primaryPool, meterRegistry);
+        workloadPools.values().forEach(pool -> registerSaturation((HikariDataSource) pool, meterRegistry));
+        if (replica != null) {
+            registerSaturation(replica, meterRegistry);
+        }
+
+        // Lazy: the pool is chosen at the first statement, once the transaction's read-only flag is set
+        return new LazyConnectionDataSourceProxy(new PoolRoutingDataSource(
+                primaryPool, workloadPools, replica, replicaLagMonitor.getIfAvailable()));
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName(name);
+        return pool;
+    }
+
+    private static void registerSaturation(HikariDataSource pool, MeterRegistry registry) {
+        Gauge.builder("db.pool.saturation", pool, DataSourceRoutingConfig::saturation)
+                .description("Share of the pool's connections in use (1 = callers are waiting)")
+                .tag("pool", pool.getPoolName())
+                .register(registry);
+    }
+
+    private static double saturation(HikariDataSource pool) {
+        HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+        int max = pool.getMaximumPoolSize();
+        // The MXBean appears with the pool's first connection
+        return bean == null || max <= 0 ? 0 : (double) bean.getActiveConnections() / max;
+    }
+}
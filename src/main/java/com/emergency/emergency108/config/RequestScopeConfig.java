@@ -0,0 +1,22 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.request.RequestScopeFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class RequestScopeConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestScopeFilter> requestScopeFilter(MeterRegistry registry) {
+        FilterRegistrationBean<RequestScopeFilter> registration =
+                new FilterRegistrationBean<>(new RequestScopeFilter(registry));
+        registration.addUrlPatterns("/api/*");
+        // Before the Spring Security chain (and its AuthContextFilter)
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
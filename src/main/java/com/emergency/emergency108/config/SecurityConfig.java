@@ -42,6 +42,12 @@ public class SecurityConfig {
                 configuration.setAllowedOriginPatterns(java.util.List.of("*")); // Allow all origins (dev/prod)
                 configuration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS", "PATCH"));
                 configuration.setAllowedHeaders(java.util.List.of("*"));
+                // Lets browser clients read the next-page cursor of paginated listings
+                // and the geo partition owner to send their next request to
+                configuration.setExposedHeaders(java.util.List.of(
+                                com.emergency.emergency108.dto.KeysetPage.NEXT_CURSOR_HEADER,
+                                com.emergency.emergency108.cluster.GeoPartitioner.OWNER_HEADER,
+                                com.emergency.emergency108.cluster.GeoPartitioner.OWNER_URL_HEADER));
                 configuration.setAllowCredentials(true);
 
                 org.springframework.web.cors.UrlBasedCorsConfigurationSource source = new org.springframework.web.cors.UrlBasedCorsConfigurationSource();
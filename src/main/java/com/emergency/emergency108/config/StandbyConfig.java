@@ -0,0 +1,22 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.standby.StandbyRequestFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class StandbyConfig {
+
+    @Bean
+    public FilterRegistrationBean<StandbyRequestFilter> standbyRequestFilter(ClusterCoordinator cluster) {
+        FilterRegistrationBean<StandbyRequestFilter> registration =
+                new FilterRegistrationBean<>(new StandbyRequestFilter(cluster));
+        registration.addUrlPatterns("/api/*");
+        // Ahead of the request scope and the security chain: a standby does no work for the request
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,42 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.realtime.DriverChannelHandler;
+import com.emergency.emergency108.realtime.DriverChannelHandshakeInterceptor;
+import com.emergency.emergency108.realtime.FleetMapHandler;
+import com.emergency.emergency108.realtime.FleetMapHandshakeInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final DriverChannelHandler driverChannelHandler;
+    private final DriverChannelHandshakeInterceptor driverHandshakeInterceptor;
+    private final FleetMapHandler fleetMapHandler;
+    private final FleetMapHandshakeInterceptor fleetMapHandshakeInterceptor;
+
+    public WebSocketConfig(
+            DriverChannelHandler driverChannelHandler,
+            DriverChannelHandshakeInterceptor driverHandshakeInterceptor,
+            FleetMapHandler fleetMapHandler,
+            FleetMapHandshakeInterceptor fleetMapHandshakeInterceptor) {
+        this.driverChannelHandler = driverChannelHandler;
+        this.driverHandshakeInterceptor = driverHandshakeInterceptor;
+        this.fleetMapHandler = fleetMapHandler;
+        this.fleetMapHandshakeInterceptor = fleetMapHandshakeInterceptor;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(driverChannelHandler, "/ws/driver")
+                .addInterceptors(driverHandshakeInterceptor)
+                // Same policy as the REST CORS config; the handshake itself is JWT-authenticated
+                .setAllowedOriginPatterns("*");
+        registry.addHandler(fleetMapHandler, "/ws/fleet-map")
+                .addInterceptors(fleetMapHandshakeInterceptor)
+                .setAllowedOriginPatterns("*");
+    }
+}
@@ -0,0 +1,60 @@
+package com.emergency.emergency108.config;
+
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadBulkheads;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.datasource.WorkloadInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Applies {@link Workload} annotations (app.datasource.workloads.enabled):
+ * an advisor around annotated beans binds the workload class for the pool
+ * router and enforces app.datasource.workloads.<class>.max-concurrent.
+ *
+ * Picked up by the same infrastructure auto-proxy creator as
+ * {@code @Transactional}, and ordered outside it, so the workload is bound
+ * before the transaction starts.
+ */
+@Configuration
+@ConditionalOnProperty(name = "app.datasource.workloads.enabled", havingValue = "true")
+public class WorkloadConfig {
+
+    @Bean
+    public WorkloadBulkheads workloadBulkheads(Environment environment, MeterRegistry meterRegistry) {
+        Map<WorkloadClass, Integer> limits = new EnumMap<>(WorkloadClass.class);
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            limits.put(workload, environment.getProperty(
+                    "app.datasource.workloads." + workload.poolName() + ".max-concurrent", Integer.class, 0));
+        }
+        long maxWaitMillis = environment.getProperty("app.datasource.workloads.max-wait-ms", Long.class, 1000L);
+        return new WorkloadBulkheads(limits, Duration.ofMillis(maxWaitMillis), meterRegistry);
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor workloadAdvisor(ObjectProvider<WorkloadBulkheads> bulkheads) {
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(Workload.class, true))
+                .union(AnnotationMatchingPointcut.forMethodAnnotation(Workload.class));
+        // Bulkheads resolved at the first call: advisors are created before the meter registry
+        DefaultPointcutAdvisor advisor =
+                new DefaultPointcutAdvisor(pointcut, new WorkloadInterceptor(bulkheads::getObject));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
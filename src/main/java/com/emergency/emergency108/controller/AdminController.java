@@ -2,51 +2,89 @@ package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.token.AuthTokenPayload;
 import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.dto.EmergencyListRow;
+import com.emergency.emergency108.dto.KeysetPage;
+import com.emergency.emergency108.dto.OnlineDriverRow;
+import com.emergency.emergency108.dto.PendingDriverRow;
+import com.emergency.emergency108.dto.VerifiedDriverRow;
 import com.emergency.emergency108.entity.DriverVerificationStatus;
-import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.entity.User;
 import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.exception.InvalidCursorException;
+import com.emergency.emergency108.readmodel.DashboardStats;
+import com.emergency.emergency108.realtime.DriverChannelRegistry;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.UserRepository;
 import com.emergency.emergency108.repository.AmbulanceRepository;
-import com.emergency.emergency108.entity.Ambulance;
 import com.emergency.emergency108.entity.AmbulanceStatus;
-import com.emergency.emergency108.entity.DriverSession;
 import com.emergency.emergency108.service.DriverSessionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.socket.CloseStatus;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/admin")
+@Workload(WorkloadClass.BACKGROUND)
 public class AdminController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdminController.class);
 
+    // Rows per query while streaming an export
+    private static final int EXPORT_PAGE_SIZE = 500;
+
     private final TokenService tokenService;
     private final UserRepository userRepository;
     private final EmergencyRepository emergencyRepository;
     private final AmbulanceRepository ambulanceRepository;
     private final DriverSessionService driverSessionService;
+    private final DashboardStats dashboardStats;
+    private final DriverChannelRegistry driverChannels;
+    private final ObjectMapper objectMapper;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+    private final long maxHoldSeconds;
 
     public AdminController(TokenService tokenService,
             UserRepository userRepository,
             EmergencyRepository emergencyRepository,
             AmbulanceRepository ambulanceRepository,
-            DriverSessionService driverSessionService) {
+            DriverSessionService driverSessionService,
+            DashboardStats dashboardStats,
+            DriverChannelRegistry driverChannels,
+            ObjectMapper objectMapper,
+            @Value("${app.admin.page.default-size:100}") int defaultPageSize,
+            @Value("${app.admin.page.max-size:500}") int maxPageSize,
+            @Value("${app.incident.max-hold-seconds:600}") long maxHoldSeconds) {
         this.tokenService = tokenService;
         this.userRepository = userRepository;
         this.emergencyRepository = emergencyRepository;
         this.ambulanceRepository = ambulanceRepository;
         this.driverSessionService = driverSessionService;
+        this.dashboardStats = dashboardStats;
+        this.driverChannels = driverChannels;
+        this.objectMapper = objectMapper;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+        this.maxHoldSeconds = maxHoldSeconds;
     }
 
     /**
@@ -54,7 +92,10 @@ public class AdminController {
      * GET /api/admin/pending-drivers
      */
     @GetMapping("/pending-drivers")
-    public ResponseEntity<?> getPendingDrivers(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getPendingDrivers(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             // Validate admin token
             String token = authHeader.replace("Bearer ", "");
@@ -68,34 +109,25 @@ public class AdminController {
                         .body("Only admins can view pending driver verifications");
             }
 
-            // Fetch all pending drivers
-            List<User> pendingDrivers = userRepository.findByRoleAndDriverVerificationStatus(
-                    UserRole.DRIVER, DriverVerificationStatus.PENDING);
-
-            // Map to response
-            List<Map<String, Object>> driverList = pendingDrivers.stream()
-                    .map(driver -> {
-                        Map<String, Object> driverInfo = new HashMap<>();
-                        driverInfo.put("id", driver.getId());
-                        driverInfo.put("name", driver.getName());
-                        driverInfo.put("phone", driver.getPhone());
-                        driverInfo.put("email", driver.getEmail());
-                        driverInfo.put("address", driver.getAddress());
-                        driverInfo.put("documentUrl", driver.getDocumentUrl());
-                        driverInfo.put("verificationStatus", driver.getDriverVerificationStatus());
-                        driverInfo.put("createdAt", driver.getCreatedAt());
-                        return driverInfo;
-                    })
-                    .collect(Collectors.toList());
-
-            logger.info("✅ Admin {} fetched {} pending drivers", admin.getId(), driverList.size());
+            KeysetPage<PendingDriverRow> page = KeysetPage.of(
+                    userRepository.findPendingDriverRows(KeysetPage.afterId(cursor), fetchSize(limit)),
+                    pageSize(limit), PendingDriverRow::id);
+
+            logger.info("✅ Admin {} fetched {} pending drivers", admin.getId(), page.items().size());
+
+            long totalPending = dashboardStats.isReady()
+                    ? dashboardStats.drivers(DriverVerificationStatus.PENDING)
+                    : userRepository.countByRoleAndDriverVerificationStatus(
+                            UserRole.DRIVER, DriverVerificationStatus.PENDING);
 
             Map<String, Object> response = new HashMap<>();
-            response.put("totalPending", driverList.size());
-            response.put("drivers", driverList);
+            response.put("totalPending", totalPending);
+            response.put("drivers", page.items());
 
-            return ResponseEntity.ok(response);
+            return withNextCursor(page).body(response);
 
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
             logger.error("❌ Error fetching pending drivers: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
@@ -195,6 +227,9 @@ public class AdminController {
             driver.setDriverVerificationStatus(DriverVerificationStatus.REJECTED);
             userRepository.save(driver);
 
+            // Drop an open push channel now rather than at its next heartbeat
+            driverChannels.disconnect(driver.getId(), CloseStatus.POLICY_VIOLATION.withReason("Driver rejected"));
+
             logger.info("✅ Admin {} rejected driver {} ({})", admin.getId(), driver.getId(), driver.getPhone());
 
             Map<String, Object> response = new HashMap<>();
@@ -221,7 +256,10 @@ public class AdminController {
      * GET /api/admin/verified-drivers
      */
     @GetMapping("/verified-drivers")
-    public ResponseEntity<?> getVerifiedDrivers(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getVerifiedDrivers(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             String token = authHeader.replace("Bearer ", "");
             AuthTokenPayload payload = tokenService.validateAndParse(token);
@@ -234,22 +272,14 @@ public class AdminController {
                         .body("Only admins can view verified drivers");
             }
 
-            List<User> verifiedDrivers = userRepository.findByRoleAndDriverVerificationStatus(
-                    UserRole.DRIVER, DriverVerificationStatus.VERIFIED);
+            KeysetPage<VerifiedDriverRow> page = KeysetPage.of(
+                    userRepository.findVerifiedDriverRows(KeysetPage.afterId(cursor), fetchSize(limit)),
+                    pageSize(limit), VerifiedDriverRow::id);
 
-            List<Map<String, Object>> drivers = verifiedDrivers.stream()
-                    .map(d -> {
-                        Map<String, Object> map = new HashMap<>();
-                        map.put("id", d.getId());
-                        map.put("name", d.getName());
-                        map.put("phone", d.getPhone());
-                        map.put("status", d.getDriverVerificationStatus());
-                        return map;
-                    })
-                    .collect(Collectors.toList());
-
-            return ResponseEntity.ok(drivers);
+            return withNextCursor(page).body(page.items());
 
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
             logger.error("❌ Error fetching verified drivers: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
@@ -265,7 +295,10 @@ public class AdminController {
      * GET /api/admin/online-drivers
      */
     @GetMapping("/online-drivers")
-    public ResponseEntity<?> getOnlineDrivers(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getOnlineDrivers(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             String token = authHeader.replace("Bearer ", "");
             AuthTokenPayload payload = tokenService.validateAndParse(token);
@@ -278,54 +311,15 @@ public class AdminController {
                         .body("Only admins can view online drivers");
             }
 
-            List<DriverSession> onlineSessions = driverSessionService.getAllOnlineDrivers();
-
-            List<Long> driverIds = onlineSessions.stream()
-                    .map(DriverSession::getDriverId)
-                    .distinct()
-                    .collect(Collectors.toList());
-            List<User> driversList = userRepository.findAllById(driverIds);
-            Map<Long, User> driverMap = driversList.stream()
-                    .collect(Collectors.toMap(User::getId, d -> d));
-
-            List<Long> ambulanceIds = onlineSessions.stream()
-                    .map(DriverSession::getAmbulanceId)
-                    .distinct()
-                    .collect(Collectors.toList());
-            List<Ambulance> ambulancesList = ambulanceRepository.findAllById(ambulanceIds);
-            Map<Long, Ambulance> ambulanceMap = ambulancesList.stream()
-                    .collect(Collectors.toMap(Ambulance::getId, a -> a));
-
-            List<Map<String, Object>> response = onlineSessions.stream()
-                    .map(session -> {
-                        Map<String, Object> sessionData = new HashMap<>();
-                        sessionData.put("sessionId", session.getId());
-                        sessionData.put("driverId", session.getDriverId());
-                        sessionData.put("ambulanceId", session.getAmbulanceId());
-                        sessionData.put("status", session.getStatus());
-                        sessionData.put("latitude", session.getCurrentLat());
-                        sessionData.put("longitude", session.getCurrentLng());
-                        sessionData.put("sessionStartTime", session.getSessionStartTime());
-
-                        // Populate driver info
-                        User driver = driverMap.get(session.getDriverId());
-                        if (driver != null) {
-                            sessionData.put("driverName", driver.getName());
-                            sessionData.put("driverPhone", driver.getPhone());
-                        }
-
-                        // Populate ambulance info
-                        Ambulance amb = ambulanceMap.get(session.getAmbulanceId());
-                        if (amb != null) {
-                            sessionData.put("licensePlate", amb.getLicensePlate());
-                        }
-
-                        return sessionData;
-                    })
-                    .collect(Collectors.toList());
+            // Session, driver and ambulance columns in one joined query
+            KeysetPage<OnlineDriverRow> page = KeysetPage.of(
+                    driverSessionService.getOnlineDriverRows(KeysetPage.afterId(cursor), fetchSize(limit)),
+                    pageSize(limit), OnlineDriverRow::sessionId);
 
-            return ResponseEntity.ok(response);
+            return withNextCursor(page).body(page.items());
 
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
             logger.error("❌ Error fetching online drivers: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
@@ -354,18 +348,23 @@ public class AdminController {
                         .body("Only admins can view dashboard stats");
             }
 
-            // 1. Active Emergencies (Not COMPLETED or CANCELLED)
-            java.util.List<EmergencyStatus> inactiveStatuses = java.util.Arrays.asList(
-                    EmergencyStatus.COMPLETED, EmergencyStatus.CANCELLED);
-            long activeEmergenciesCount = emergencyRepository.countByStatusNotIn(inactiveStatuses);
-
-            // 2. Available Ambulances
-            long availableAmbulancesCount = ambulanceRepository.findByStatus(AmbulanceStatus.AVAILABLE).size();
-
-            // 3. Pending Drivers
-            List<User> pendingDrivers = userRepository.findByRoleAndDriverVerificationStatus(
-                    UserRole.DRIVER, DriverVerificationStatus.PENDING);
-            int pendingDriversCount = pendingDrivers.size();
+            long activeEmergenciesCount;
+            long availableAmbulancesCount;
+            long pendingDriversCount;
+            if (dashboardStats.isReady()) {
+                // In-memory counters, maintained from state transitions
+                activeEmergenciesCount = dashboardStats.activeEmergencies();
+                availableAmbulancesCount = dashboardStats.ambulances(AmbulanceStatus.AVAILABLE);
+                pendingDriversCount = dashboardStats.drivers(DriverVerificationStatus.PENDING);
+            } else {
+                // Counters not built yet: count in the database
+                java.util.List<EmergencyStatus> inactiveStatuses = java.util.Arrays.asList(
+                        EmergencyStatus.COMPLETED, EmergencyStatus.CANCELLED);
+                activeEmergenciesCount = emergencyRepository.countByStatusNotIn(inactiveStatuses);
+                availableAmbulancesCount = ambulanceRepository.countByStatus(AmbulanceStatus.AVAILABLE);
+                pendingDriversCount = userRepository.countByRoleAndDriverVerificationStatus(
+                        UserRole.DRIVER, DriverVerificationStatus.PENDING);
+            }
 
             Map<String, Object> response = new HashMap<>();
             response.put("activeEmergencies", activeEmergenciesCount);
@@ -389,7 +388,10 @@ public class AdminController {
      * GET /api/admin/active-emergencies
      */
     @GetMapping("/active-emergencies")
-    public ResponseEntity<?> getActiveEmergencies(@RequestHeader("Authorization") String authHeader) {
+    public ResponseEntity<?> getActiveEmergencies(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         try {
             String token = authHeader.replace("Bearer ", "");
             AuthTokenPayload payload = tokenService.validateAndParse(token);
@@ -400,14 +402,15 @@ public class AdminController {
 
             java.util.List<EmergencyStatus> inactiveStatuses = java.util.Arrays.asList(
                     EmergencyStatus.COMPLETED, EmergencyStatus.CANCELLED);
-            List<Emergency> active = emergencyRepository.findByStatusNotIn(inactiveStatuses);
-
-            // Note: Enum has CREATED, IN_PROGRESS, DISPATCHED, AT_PATIENT, TO_HOSPITAL,
-            // COMPLETED, CANCELLED, UNASSIGNED
-            // We want all except COMPLETED and CANCELLED.
+            KeysetPage<EmergencyListRow> page = KeysetPage.of(
+                    emergencyRepository.findListRowsByStatusNotIn(
+                            inactiveStatuses, KeysetPage.afterId(cursor), fetchSize(limit)),
+                    pageSize(limit), EmergencyListRow::id);
 
-            return ResponseEntity.ok(active);
+            return withNextCursor(page).body(page.items());
 
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         } catch (RuntimeException e) {
             logger.error("❌ Error fetching active emergencies: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
@@ -417,4 +420,122 @@ public class AdminController {
                     .body("Failed to fetch active emergencies");
         }
     }
+
+    /**
+     * Probable duplicate SOS reports that auto-dispatch is holding back while
+     * the first report of their incident is being served.
+     * GET /api/admin/held-emergencies
+     *
+     * Each row carries its incidentId; an operator who sees a separate patient
+     * dispatches it with POST /api/emergencies/{id}/dispatch.
+     */
+    @GetMapping("/held-emergencies")
+    public ResponseEntity<?> getHeldEmergencies(
+            @RequestHeader("Authorization") String authHeader,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            AuthTokenPayload payload = tokenService.validateAndParse(token);
+
+            User admin = userRepository.findById(payload.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+
+            if (admin.getRole() != UserRole.ADMIN) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("Only admins can view held emergencies");
+            }
+
+            java.time.LocalDateTime now = java.time.LocalDateTime.now();
+            KeysetPage<EmergencyListRow> page = KeysetPage.of(
+                    emergencyRepository.findHeldDuplicateRows(
+                            now, now.minusSeconds(maxHoldSeconds), KeysetPage.afterId(cursor), fetchSize(limit)),
+                    pageSize(limit), EmergencyListRow::id);
+
+            return withNextCursor(page).body(page.items());
+
+        } catch (InvalidCursorException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("❌ Error fetching held emergencies: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+        } catch (Exception e) {
+            logger.error("❌ Error fetching held emergencies: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body("Failed to fetch held emergencies");
+        }
+    }
+
+    /**
+     * Export every emergency (history included) as one JSON array.
+     * GET /api/admin/emergencies/export
+     *
+     * Rows are read EXPORT_PAGE_SIZE at a time by id and written straight to
+     * the response, so memory stays flat however long the history is.
+     */
+    @GetMapping("/emergencies/export")
+    public void exportEmergencies(
+            @RequestHeader("Authorization") String authHeader,
+            HttpServletResponse response) throws IOException {
+        User admin;
+        try {
+            String token = authHeader.replace("Bearer ", "");
+            AuthTokenPayload payload = tokenService.validateAndParse(token);
+
+            admin = userRepository.findById(payload.getUserId())
+                    .orElseThrow(() -> new RuntimeException("User not found"));
+        } catch (RuntimeException e) {
+            logger.error("❌ Error exporting emergencies: {}", e.getMessage());
+            response.sendError(HttpStatus.UNAUTHORIZED.value(), e.getMessage());
+            return;
+        }
+
+        if (admin.getRole() != UserRole.ADMIN) {
+            response.sendError(HttpStatus.FORBIDDEN.value(), "Only admins can export emergencies");
+            return;
+        }
+
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"emergencies.json\"");
+
+        long exported = 0;
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            json.writeStartArray();
+            long afterId = 0;
+            List<EmergencyListRow> page;
+            do {
+                page = emergencyRepository.findListRows(afterId, PageRequest.ofSize(EXPORT_PAGE_SIZE));
+                for (EmergencyListRow row : page) {
+                    json.writeObject(row);
+                }
+                json.flush();
+                exported += page.size();
+                if (!page.isEmpty()) {
+                    afterId = page.get(page.size() - 1).id();
+                }
+            } while (page.size() == EXPORT_PAGE_SIZE);
+            json.writeEndArray();
+        }
+
+        logger.info("📤 Admin {} exported {} emergencies", admin.getId(), exported);
+    }
+
+    // ---- keyset pagination ----
+
+    private int pageSize(Integer limit) {
+        return KeysetPage.pageSize(limit, defaultPageSize, maxPageSize);
+    }
+
+    /** One row more than the page, to learn whether another page follows. */
+    private Pageable fetchSize(Integer limit) {
+        return PageRequest.ofSize(pageSize(limit) + 1);
+    }
+
+    private static ResponseEntity.BodyBuilder withNextCursor(KeysetPage<?> page) {
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(KeysetPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return ok;
+    }
 }
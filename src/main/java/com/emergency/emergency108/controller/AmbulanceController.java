@@ -2,18 +2,21 @@ package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.token.AuthTokenPayload;
 import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.dto.AmbulanceListRow;
+import com.emergency.emergency108.dto.KeysetPage;
 import com.emergency.emergency108.entity.Ambulance;
 import com.emergency.emergency108.entity.AmbulanceStatus;
 import com.emergency.emergency108.entity.User;
 import com.emergency.emergency108.entity.UserRole;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -23,18 +26,40 @@ public class AmbulanceController {
     private final AmbulanceRepository ambulanceRepository;
     private final UserRepository userRepository;
     private final TokenService tokenService;
+    private final int defaultPageSize;
+    private final int maxPageSize;
 
     public AmbulanceController(AmbulanceRepository ambulanceRepository,
             UserRepository userRepository,
-            TokenService tokenService) {
+            TokenService tokenService,
+            @Value("${app.admin.page.default-size:100}") int defaultPageSize,
+            @Value("${app.admin.page.max-size:500}") int maxPageSize) {
         this.ambulanceRepository = ambulanceRepository;
         this.userRepository = userRepository;
         this.tokenService = tokenService;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
+    /**
+     * List the fleet, one keyset page at a time
+     * GET /api/ambulances?limit=&cursor=
+     * The next page's cursor is in the X-Next-Cursor header (absent on the last page).
+     */
     @GetMapping
-    public List<Ambulance> getAllAmbulances() {
-        return ambulanceRepository.findAll();
+    public ResponseEntity<?> getAllAmbulances(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        int pageSize = KeysetPage.pageSize(limit, defaultPageSize, maxPageSize);
+        KeysetPage<AmbulanceListRow> page = KeysetPage.of(
+                ambulanceRepository.findListRows(KeysetPage.afterId(cursor), PageRequest.ofSize(pageSize + 1)),
+                pageSize, AmbulanceListRow::id);
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (page.nextCursor() != null) {
+            ok.header(KeysetPage.NEXT_CURSOR_HEADER, page.nextCursor());
+        }
+        return ok.body(page.items());
     }
 
     /**
@@ -2,6 +2,7 @@ package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.guard.AuthGuard;
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.dto.LocationUpdateRequest;
 import com.emergency.emergency108.dto.StartShiftRequest;
 import com.emergency.emergency108.entity.DriverSession;
@@ -9,6 +10,7 @@ import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyAssignment;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.entity.Hospital;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.HospitalRepository;
@@ -41,18 +43,24 @@ public class DriverController {
     private final HospitalRepository hospitalRepository;
     private final EmergencyAssignmentRepository assignmentRepository;
     private final EmergencyRepository emergencyRepository;
+    private final DispatchLatencyMetrics latencyMetrics;
+    private final GeoPartitioner geoPartitioner;
 
     public DriverController(
             DriverSessionService sessionService,
             AuthGuard authGuard,
             HospitalRepository hospitalRepository,
             EmergencyAssignmentRepository assignmentRepository,
-            EmergencyRepository emergencyRepository) {
+            EmergencyRepository emergencyRepository,
+            DispatchLatencyMetrics latencyMetrics,
+            GeoPartitioner geoPartitioner) {
         this.sessionService = sessionService;
         this.authGuard = authGuard;
         this.hospitalRepository = hospitalRepository;
         this.assignmentRepository = assignmentRepository;
         this.emergencyRepository = emergencyRepository;
+        this.latencyMetrics = latencyMetrics;
+        this.geoPartitioner = geoPartitioner;
     }
 
     /**
@@ -150,10 +158,14 @@ public class DriverController {
      * Body: { "lat": 28.6139, "lng": 77.209 }
      * 
      * HEARTBEAT MECHANISM:
-     * - Driver app must call this endpoint every 3-5 seconds automatically
+     * - Driver app must call this endpoint again after nextHeartbeatSeconds
+     *   (3 s on a trip, with a pending offer or during a surge; slower when idle)
      * - Updates both GPS location AND heartbeat timestamp
      * - If heartbeat not received for 30+ seconds, driver auto-marked OFFLINE
      * - This prevents crashed/disconnected drivers from receiving assignments
+     * - Drivers on the /ws/driver channel send the same heartbeat as a frame instead
+     * - With geo cell ownership on, the node owning the driver's current cell is
+     *   named in X-Partition-Owner(-Url) when that is another node
      */
     @PutMapping("/location")
     public ResponseEntity<?> updateLocation(@RequestBody LocationUpdateRequest request) {
@@ -168,14 +180,17 @@ public class DriverController {
                     "Invalid coordinates. Lat must be -90 to 90, Lng must be -180 to 180");
         }
 
+        geoPartitioner.adviseOwner(request.getLat(), request.getLng());
+
         try {
-            sessionService.updateLocation(driverId, request.getLat(), request.getLng());
+            DriverSession session = sessionService.updateLocation(driverId, request.getLat(), request.getLng());
 
             return ResponseEntity.ok(Map.of(
                     "message", "Location and heartbeat updated",
                     "lat", request.getLat(),
                     "lng", request.getLng(),
-                    "timestamp", LocalDateTime.now()));
+                    "timestamp", LocalDateTime.now(),
+                    "nextHeartbeatSeconds", session.getHeartbeatIntervalSeconds()));
 
         } catch (IllegalStateException e) {
             log.warn("Failed to update location for driver {}: {}", driverId, e.getMessage());
@@ -265,9 +280,14 @@ public class DriverController {
             assignment.setDestinationHospital(nearestHospital);
             assignmentRepository.save(assignment);
 
+            LocalDateTime pickedUpAt = LocalDateTime.now();
             emergency.setStatus(EmergencyStatus.TO_HOSPITAL);
+            emergency.setStatusUpdatedAt(pickedUpAt); // start of the picked-up -> arrived stage
             emergencyRepository.save(emergency);
 
+            latencyMetrics.patientPickedUp(emergency, assignment.getAmbulance(),
+                    assignment.getAcceptedAt(), pickedUpAt);
+
             log.info("Driver {}: Picked up patient for emergency {}. Routing to Hospital {}.",
                     AuthContext.getUserId(), emergencyId, nearestHospital.getName());
 
@@ -345,7 +365,11 @@ public class DriverController {
             }
 
             // 4. Complete the Emergency and Assignment Lifecycle
-            assignment.setCompletedAt(LocalDateTime.now());
+            LocalDateTime arrivedAt = LocalDateTime.now();
+            latencyMetrics.arrivedAtHospital(emergency, assignment.getAmbulance(),
+                    emergency.getStatusUpdatedAt(), arrivedAt);
+
+            assignment.setCompletedAt(arrivedAt);
             assignmentRepository.save(assignment);
 
             emergency.setStatus(EmergencyStatus.COMPLETED);
@@ -1,7 +1,11 @@
 package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.exception.AssignmentAccessDeniedException;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
 import com.emergency.emergency108.service.EmergencyAssignmentService;
 import com.emergency.emergency108.service.EmergencyAuthorizationService;
 import org.springframework.http.ResponseEntity;
@@ -20,12 +24,18 @@ public class DriverEmergencyController {
 
     private final EmergencyAssignmentService assignmentService;
     private final EmergencyAuthorizationService authorizationService;
+    private final LiveAssignmentRegistry liveAssignments;
+    private final GeoPartitioner geoPartitioner;
 
     public DriverEmergencyController(
             EmergencyAssignmentService assignmentService,
-            EmergencyAuthorizationService authorizationService) {
+            EmergencyAuthorizationService authorizationService,
+            LiveAssignmentRegistry liveAssignments,
+            GeoPartitioner geoPartitioner) {
         this.assignmentService = assignmentService;
         this.authorizationService = authorizationService;
+        this.liveAssignments = liveAssignments;
+        this.geoPartitioner = geoPartitioner;
     }
 
     /**
@@ -33,26 +43,19 @@ public class DriverEmergencyController {
      * Authorization: Only VERIFIED + ONLINE driver who is assigned can accept.
      * 
      * POST /api/driver/emergencies/{emergencyId}/accept
+     *
+     * The checks and the accept run in one transaction inside
+     * {@link EmergencyAssignmentService#acceptEmergency}; a failure there rolls
+     * back and is mapped to the response here.
+     * Accepted wherever it lands; with geo cell ownership on, the node owning
+     * the emergency's cell is named on the response.
      */
     @PostMapping("/{emergencyId}/accept")
     public ResponseEntity<?> acceptEmergency(@PathVariable Long emergencyId) {
         Long driverId = AuthContext.getUserId();
 
-        // Authorization: Check if driver can accept emergencies
-        if (!authorizationService.canDriverAcceptEmergency(driverId)) {
-            return ResponseEntity.status(403).body(Map.of(
-                    "error", "Unauthorized",
-                    "message", "Only VERIFIED and ONLINE drivers can accept emergencies"
-            ));
-        }
-
-        // Authorization: Check if driver is assigned to this emergency
-        if (!authorizationService.isDriverAssignedToEmergency(driverId, emergencyId)) {
-            return ResponseEntity.status(403).body(Map.of(
-                    "error", "Unauthorized",
-                    "message", "You are not assigned to this emergency"
-            ));
-        }
+        liveAssignments.emergency(emergencyId).ifPresent(emergency ->
+                geoPartitioner.adviseOwner(emergency.latitude(), emergency.longitude()));
 
         try {
             EmergencyAssignment assignment = assignmentService.acceptEmergency(emergencyId, driverId);
@@ -62,6 +65,11 @@ public class DriverEmergencyController {
                     "assignment", assignment,
                     "emergencyId", emergencyId
             ));
+        } catch (AssignmentAccessDeniedException e) {
+            return ResponseEntity.status(403).body(Map.of(
+                    "error", "Unauthorized",
+                    "message", e.getMessage()
+            ));
         } catch (IllegalStateException e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "error", "Invalid State",
@@ -117,14 +125,17 @@ public class DriverEmergencyController {
      * Authorization: Only VERIFIED driver.
      * 
      * GET /api/driver/emergencies/assigned
+     *
+     * The assignment entity with its emergency and ambulance nested, read
+     * from the database. Pollers should move to ?v=2.
      */
     @GetMapping("/assigned")
     public ResponseEntity<?> getAssignedEmergency() {
         Long driverId = AuthContext.getUserId();
 
         try {
-            EmergencyAssignment assignment = assignmentService.getCurrentAssignment(driverId);
-            
+            EmergencyAssignment assignment = assignmentService.getCurrentAssignmentDetails(driverId);
+
             if (assignment == null) {
                 return ResponseEntity.ok(Map.of(
                         "assigned", false,
@@ -147,4 +158,45 @@ public class DriverEmergencyController {
             ));
         }
     }
+
+    /**
+     * Get currently assigned emergency for driver, from the live assignment
+     * registry (no SQL once it is built).
+     * Authorization: Only VERIFIED driver.
+     * 
+     * GET /api/driver/emergencies/assigned?v=2
+     *
+     * Same keys as v1, but assignment is the flat AssignmentView (emergencyId
+     * and ambulanceId instead of nested objects) and emergency is an
+     * EmergencyView.
+     */
+    @GetMapping(value = "/assigned", params = "v=2")
+    public ResponseEntity<?> getAssignedEmergencyV2() {
+        Long driverId = AuthContext.getUserId();
+
+        try {
+            AssignmentView assignment = assignmentService.getCurrentAssignment(driverId);
+            
+            if (assignment == null) {
+                return ResponseEntity.ok(Map.of(
+                        "assigned", false,
+                        "message", "No emergency currently assigned"
+                ));
+            }
+
+            return ResponseEntity.ok(Map.of(
+                    "assigned", true,
+                    "assignment", assignment,
+                    "emergency", assignmentService.getAssignedEmergency(assignment.emergencyId()),
+                    "status", assignment.status(),
+                    "assignedAt", assignment.assignedAt(),
+                    "responseDeadline", assignment.responseDeadline()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.internalServerError().body(Map.of(
+                    "error", "Internal Error",
+                    "message", "Failed to get assigned emergency: " + e.getMessage()
+            ));
+        }
+    }
 }
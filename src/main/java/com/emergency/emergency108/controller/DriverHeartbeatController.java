@@ -0,0 +1,117 @@
+package com.emergency.emergency108.controller;
+
+import com.emergency.emergency108.auth.guard.AuthGuard;
+import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.GeoPartitioner;
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.heartbeat.BinaryHeartbeat;
+import com.emergency.emergency108.heartbeat.BinaryHeartbeatService;
+import com.emergency.emergency108.heartbeat.HeartbeatKeyService;
+import com.emergency.emergency108.service.DriverSessionService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import java.util.Map;
+
+/**
+ * Compact binary heartbeats: an alternative to PUT /api/driver/location for
+ * apps that send a fix every few seconds.
+ *
+ * GET  /api/driver/heartbeat/key  per-session key for signing frames (once per shift)
+ * POST /api/driver/heartbeat      one 68-byte frame, application/octet-stream;
+ *                                  204 with X-Next-Heartbeat-Seconds when accepted
+ *
+ * The same frames can be sent over UDP when app.heartbeat.udp.enabled is set.
+ * Frames are applied wherever they arrive. With geo cell ownership on, a frame
+ * for a cell owned by another node gets that node in X-Partition-Owner /
+ * X-Partition-Owner-Url, so the app can send its next frames there.
+ */
+@RestController
+@RequestMapping("/api/driver/heartbeat")
+public class DriverHeartbeatController {
+
+    /** Seconds until the driver app should send its next heartbeat. */
+    public static final String NEXT_HEARTBEAT_HEADER = "X-Next-Heartbeat-Seconds";
+
+    private final BinaryHeartbeatService heartbeatService;
+    private final HeartbeatKeyService keyService;
+    private final DriverSessionService sessionService;
+    private final AuthGuard authGuard;
+    private final GeoPartitioner geoPartitioner;
+
+    public DriverHeartbeatController(
+            BinaryHeartbeatService heartbeatService,
+            HeartbeatKeyService keyService,
+            DriverSessionService sessionService,
+            AuthGuard authGuard,
+            GeoPartitioner geoPartitioner) {
+        this.heartbeatService = heartbeatService;
+        this.keyService = keyService;
+        this.sessionService = sessionService;
+        this.authGuard = authGuard;
+        this.geoPartitioner = geoPartitioner;
+    }
+
+    @GetMapping("/key")
+    public ResponseEntity<?> getHeartbeatKey() {
+        authGuard.requireVerifiedDriver();
+
+        Long driverId = AuthContext.get().getUserId();
+        DriverSession session = sessionService.getCurrentSession(driverId)
+                .orElseThrow(() -> new ResponseStatusException(
+                        HttpStatus.NOT_FOUND,
+                        "No active session found. Start a shift first."));
+
+        byte[] key = keyService.sessionKey(driverId, session.getId());
+
+        return ResponseEntity.ok(Map.of(
+                "driverId", driverId,
+                "sessionId", session.getId(),
+                "key", Base64.getEncoder().encodeToString(key),
+                "algorithm", "HmacSHA256",
+                "frameSize", BinaryHeartbeat.FRAME_SIZE));
+    }
+
+    @PostMapping(consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<Void> heartbeat(@RequestBody byte[] frame) {
+        authGuard.requireVerifiedDriver();
+
+        Long driverId = AuthContext.get().getUserId();
+        adviseOwner(frame);
+
+        BinaryHeartbeatService.Outcome outcome = heartbeatService.ingest(
+                ByteBuffer.wrap(frame), driverId, BinaryHeartbeatService.Transport.HTTP);
+
+        if (outcome.nextHeartbeatSeconds() != null) {
+            return ResponseEntity.noContent()
+                    .header(NEXT_HEARTBEAT_HEADER, String.valueOf(outcome.nextHeartbeatSeconds()))
+                    .build();
+        }
+
+        HttpStatus status = switch (outcome.result()) {
+            case ACCEPTED -> HttpStatus.NO_CONTENT;
+            case MALFORMED -> HttpStatus.BAD_REQUEST;
+            case BAD_SIGNATURE -> HttpStatus.UNAUTHORIZED;
+            case WRONG_DRIVER, NOT_ALLOWED -> HttpStatus.FORBIDDEN;
+            case STALE, REPLAYED, NO_SESSION -> HttpStatus.CONFLICT;
+        };
+        return ResponseEntity.status(status).build();
+    }
+
+    private void adviseOwner(byte[] frame) {
+        if (!geoPartitioner.isEnabled()) {
+            return;
+        }
+        try {
+            BinaryHeartbeat fix = BinaryHeartbeat.decode(ByteBuffer.wrap(frame));
+            geoPartitioner.adviseOwner(fix.latitude(), fix.longitude());
+        } catch (IllegalArgumentException e) {
+            // Malformed: ingest() rejects it below
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.guard.AuthGuard;
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.dto.EmergencyTimelineEvent;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.metrics.DomainMetrics;
@@ -46,6 +47,8 @@ public class EmergencyController {
     private final AiAssistanceService aiAssistanceService;
     private final HelpingHandService helpingHandService;
     private final FCMNotificationService fcmNotificationService;
+    private final GeoPartitioner geoPartitioner;
+    private final IncidentClusterer incidentClusterer;
 
     public EmergencyController(EmergencyRepository emergencyRepository,
             EmergencyDispatchService emergencyDispatchService,
@@ -61,7 +64,9 @@ public class EmergencyController {
             NotificationService notificationService,
             AiAssistanceService aiAssistanceService,
             HelpingHandService helpingHandService,
-            FCMNotificationService fcmNotificationService) {
+            FCMNotificationService fcmNotificationService,
+            GeoPartitioner geoPartitioner,
+            IncidentClusterer incidentClusterer) {
         this.emergencyDispatchService = emergencyDispatchService;
         this.authGuard = authGuard;
         this.metrics = metrics;
@@ -78,6 +83,8 @@ public class EmergencyController {
         this.aiAssistanceService = aiAssistanceService;
         this.helpingHandService = helpingHandService;
         this.fcmNotificationService = fcmNotificationService;
+        this.geoPartitioner = geoPartitioner;
+        this.incidentClusterer = incidentClusterer;
     }
 
     /**
@@ -108,6 +115,12 @@ public class EmergencyController {
 
             emergency.setEmergencyFor(ownership);
 
+            // 🧩 A bystander report of a scene already reported describes a patient reported before
+            if (ownership == EmergencyFor.OTHER && emergency.getIncidentId() != null
+                    && !emergency.getIncidentId().equals(emergency.getId())) {
+                emergency.setProbableDuplicate(true);
+            }
+
             if (ownership == EmergencyFor.SELF) {
                 // Trigger Mock Notification immediately
                 notificationService.notifyContacts(emergency);
@@ -176,13 +189,36 @@ public class EmergencyController {
         authGuard.requireAuthenticated();
         Long userId = AuthContext.getUserId();
 
+        // 🧭 Created wherever it lands; the owner of the emergency's cell is named on the response
+        geoPartitioner.adviseOwner(emergency.getLatitude(), emergency.getLongitude());
+
         emergency.setStatus(EmergencyStatus.CREATED);
         emergency.setUserId(userId);
 
+        // 🧩 Another report of a scene already reported moments ago joins its incident
+        boolean located = emergency.getLatitude() != null && emergency.getLongitude() != null;
+        IncidentClusterer.Match incident = located
+                ? incidentClusterer.incidentFor(emergency.getLatitude(), emergency.getLongitude(), userId)
+                : null;
+        Long incidentId = incident != null ? incident.incidentId() : null;
+        emergency.setIncidentId(incidentId);
+        emergency.setProbableDuplicate(incident != null && incident.repeatReport());
+
         log.info("Emergency created by user {} with 100s confirmation deadline", userId);
 
         Emergency savedEmergency = emergencyRepository.save(emergency);
 
+        if (located) {
+            incidentClusterer.record(savedEmergency.getId(), incidentId, userId,
+                    savedEmergency.getLatitude(), savedEmergency.getLongitude());
+        }
+        if (incidentId != null) {
+            // Helpers nearby were already alerted for this scene
+            log.info("🧩 Emergency {} joined incident {}{}", savedEmergency.getId(), incidentId,
+                    savedEmergency.getProbableDuplicate() ? " as a repeat report" : "");
+            return savedEmergency;
+        }
+
         // Async: Notify nearby helping hands
         try {
             // Find nearby helpers (3km radius)
@@ -0,0 +1,49 @@
+package com.emergency.emergency108.controller;
+
+import com.emergency.emergency108.standby.StateStreamServer;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+
+/**
+ * GET /internal/state-stream   a hot standby follows this node's dispatch
+ *                              state here (see {@link StateStreamServer});
+ *                              the response never ends while both are up
+ *
+ * Authenticated by the shared app.standby.token in X-Standby-Token, not by a
+ * user JWT; 404 when no token is configured.
+ */
+@RestController
+public class StateStreamController {
+
+    private final StateStreamServer streamServer;
+
+    public StateStreamController(StateStreamServer streamServer) {
+        this.streamServer = streamServer;
+    }
+
+    @GetMapping(value = StateStreamServer.PATH, produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public void stream(
+            @RequestHeader(value = StateStreamServer.TOKEN_HEADER, required = false) String token,
+            HttpServletResponse response) throws IOException {
+
+        if (!streamServer.isEnabled()) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+        if (!streamServer.isAuthorized(token)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Invalid standby token");
+        }
+        if (!streamServer.canServe()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "State not loaded yet");
+        }
+
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        streamServer.stream(response.getOutputStream());
+    }
+}
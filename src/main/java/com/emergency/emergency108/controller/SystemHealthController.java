@@ -1,5 +1,6 @@
 package com.emergency.emergency108.controller;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
 import com.emergency.emergency108.system.SystemReadiness;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -10,16 +11,21 @@ import java.util.Map;
 public class SystemHealthController {
 
     private final SystemReadiness systemReadiness;
+    private final ClusterCoordinator cluster;
 
-    public SystemHealthController(SystemReadiness systemReadiness) {
+    public SystemHealthController(SystemReadiness systemReadiness, ClusterCoordinator cluster) {
         this.systemReadiness = systemReadiness;
+        this.cluster = cluster;
     }
 
     @GetMapping("/health/system")
     public Map<String, Object> systemHealth() {
+        String status = systemReadiness.isReady() ? "READY"
+                : cluster.isStandby() ? "STANDBY"
+                : "RECOVERING";
         return Map.of(
                 "ready", systemReadiness.isReady(),
-                "status", systemReadiness.isReady() ? "READY" : "RECOVERING"
+                "status", status
         );
     }
 }
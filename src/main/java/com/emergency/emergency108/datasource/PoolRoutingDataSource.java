@@ -0,0 +1,57 @@
+package com.emergency.emergency108.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Picks the pool for each physical connection: the replica when
+ * {@link ReplicaLagMonitor#route()} says so, otherwise the pool of the
+ * current {@link WorkloadClass} (the primary pool for GENERAL, or for any
+ * class without a pool of its own).
+ *
+ * Must sit behind a LazyConnectionDataSourceProxy: the JPA transaction
+ * manager asks for a connection before it marks the transaction read-only,
+ * the proxy only fetches one at the first statement.
+ */
+public class PoolRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String REPLICA = "replica";
+
+    private final Map<WorkloadClass, DataSource> workloadPools;
+    private final ReplicaLagMonitor replicaMonitor;
+
+    /**
+     * @param workloadPools  pools by workload class, may be empty
+     * @param replica        replica pool, or null for none
+     * @param replicaMonitor required when replica is given
+     */
+    public PoolRoutingDataSource(
+            DataSource primary,
+            Map<WorkloadClass, DataSource> workloadPools,
+            DataSource replica,
+            ReplicaLagMonitor replicaMonitor) {
+        this.workloadPools = Map.copyOf(workloadPools);
+        this.replicaMonitor = replica != null ? replicaMonitor : null;
+
+        Map<Object, Object> targets = new HashMap<>(workloadPools);
+        targets.put(WorkloadClass.GENERAL, primary);
+        if (replica != null) {
+            targets.put(REPLICA, replica);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (replicaMonitor != null && replicaMonitor.route() == ReplicaLagMonitor.Pool.REPLICA) {
+            return REPLICA;
+        }
+        WorkloadClass workload = WorkloadContext.current();
+        return workloadPools.containsKey(workload) ? workload : WorkloadClass.GENERAL;
+    }
+}
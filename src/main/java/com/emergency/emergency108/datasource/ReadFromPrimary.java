@@ -0,0 +1,24 @@
+package com.emergency.emergency108.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Keeps the read-only transactions of a bean method (or of every public
+ * method of a bean) on the primary, however current the replica is.
+ *
+ * For checks whose answer must include writes made by someone else: an
+ * offer written by the dispatcher is not the driver's own write, so
+ * read-your-writes does not pin the driver's next read, and the replica may
+ * not have it yet. The marker only applies to transactions that get their
+ * connection inside the call; an enclosing read-only transaction that
+ * already reads from the replica keeps it.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadFromPrimary {
+}
@@ -0,0 +1,31 @@
+package com.emergency.emergency108.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Marks the thread for the duration of a {@link ReadFromPrimary} call, so
+ * {@link ReplicaLagMonitor#route()} sends its read-only transactions to the
+ * primary. Nested annotated calls leave the outer mark in place.
+ */
+public class ReadFromPrimaryInterceptor implements MethodInterceptor {
+
+    private static final ThreadLocal<Boolean> ACTIVE = new ThreadLocal<>();
+
+    static boolean isActive() {
+        return ACTIVE.get() != null;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (isActive()) {
+            return invocation.proceed();
+        }
+        ACTIVE.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            ACTIVE.remove();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.emergency.emergency108.datasource;
+
+import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.auth.security.AuthUserPrincipal;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which pool a connection comes from, and measures how far the
+ * replica is behind.
+ *
+ * Lag: every probe-ms this process writes the current time to its own row
+ * of replica_heartbeat on the primary and reads the row back from the
+ * replica. The value read is how far the replica has caught up, in this
+ * process's clock; a replica that answers nothing newer than max-lag-ms (or
+ * does not answer) gets no reads until it catches up.
+ *
+ * Read-your-writes: when a read-write transaction commits, the time is
+ * remembered for its user (or for "system" work without one). A later
+ * read-only transaction of the same user stays on the primary until the
+ * replica has caught up past that time, so a just-committed write is never
+ * invisible to whoever made it. Pins are per process; a write made through
+ * another instance is only covered by max-lag-ms.
+ *
+ * Writes made by someone else (an offer the dispatcher wrote for a driver)
+ * pin nobody, so checks that must see them are marked {@link ReadFromPrimary}.
+ *
+ * Metrics: db.replica.lag (ms) and db.routing.connections{pool,reason}.
+ * Per-pool connection wait and usage times are Hikari's
+ * hikaricp.connections.acquire / .usage, tagged pool=primary|replica.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    public enum Pool { PRIMARY, REPLICA }
+
+    static final String SYSTEM_ACTOR = "system";
+
+    // Rows of processes gone for this long are deleted
+    private static final Duration FORGET_AFTER = Duration.ofHours(1);
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final String heartbeatId;
+    private final long maxLagMillis;
+
+    // Actor -> time of the actor's last committed write
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private final Map<Pool, Map<String, Counter>> routed = new EnumMap<>(Pool.class);
+
+    private volatile long replicatedUpTo;
+    private volatile long lagMillis = -1;
+    private volatile boolean replicaUsable;
+
+    public ReplicaLagMonitor(JdbcTemplate primary, JdbcTemplate replica, Duration maxLag, MeterRegistry registry) {
+        this.primary = primary;
+        this.replica = replica;
+        // pid@host: one row per process, so every lag reading is in one clock
+        this.heartbeatId = ManagementFactory.getRuntimeMXBean().getName();
+        this.maxLagMillis = maxLag.toMillis();
+
+        Gauge.builder("db.replica.lag", this, ReplicaLagMonitor::lagMillis)
+                .description("How far the read replica is behind the primary (-1 = unknown)")
+                .baseUnit("milliseconds")
+                .register(registry);
+        for (Pool pool : Pool.values()) {
+            Map<String, Counter> byReason = new ConcurrentHashMap<>();
+            for (String reason : List.of("read-write", "read-only", "replica-lagging", "read-your-writes",
+                    "primary-read")) {
+                byReason.put(reason, Counter.builder("db.routing.connections")
+                        .description("Connections handed out by the routing data source")
+                        .tag("pool", pool.name().toLowerCase())
+                        .tag("reason", reason)
+                        .register(registry));
+            }
+            routed.put(pool, byReason);
+        }
+    }
+
+    public long lagMillis() {
+        return lagMillis;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    // ---- routing ----
+
+    /** Called for every physical connection, at the first statement of a transaction. */
+    public Pool route() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            rememberWriteOnCommit();
+            return routed(Pool.PRIMARY, "read-write");
+        }
+        if (ReadFromPrimaryInterceptor.isActive()) {
+            return routed(Pool.PRIMARY, "primary-read");
+        }
+        if (!replicaUsable) {
+            return routed(Pool.PRIMARY, "replica-lagging");
+        }
+        Long lastWrite = lastWrites.get(actor());
+        if (lastWrite != null && lastWrite > replicatedUpTo) {
+            return routed(Pool.PRIMARY, "read-your-writes");
+        }
+        return routed(Pool.REPLICA, "read-only");
+    }
+
+    private void rememberWriteOnCommit() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        String actor = actor();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recordWrite(actor, System.currentTimeMillis());
+            }
+        });
+    }
+
+    void recordWrite(String actor, long atMillis) {
+        lastWrites.merge(actor, atMillis, Math::max);
+    }
+
+    private static String actor() {
+        AuthUserPrincipal principal = AuthContext.getOrNull();
+        return principal != null ? "user:" + principal.getUserId() : SYSTEM_ACTOR;
+    }
+
+    private Pool routed(Pool pool, String reason) {
+        routed.get(pool).get(reason).increment();
+        return pool;
+    }
+
+    // ---- lag probe ----
+
+    @Scheduled(fixedDelayString = "${app.datasource.replica.probe-ms:1000}")
+    public void probe() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primary.update("UPDATE replica_heartbeat SET beat_millis = ? WHERE node_id = ?",
+                    now, heartbeatId) == 0) {
+                primary.update("DELETE FROM replica_heartbeat WHERE beat_millis < ?",
+                        now - FORGET_AFTER.toMillis());
+                primary.update("INSERT INTO replica_heartbeat (node_id, beat_millis) VALUES (?, ?)",
+                        heartbeatId, now);
+            }
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat write failed: {}", e.getMessage());
+        }
+
+        boolean usable;
+        try {
+            List<Long> seen = replica.queryForList(
+                    "SELECT beat_millis FROM replica_heartbeat WHERE node_id = ?", Long.class, heartbeatId);
+            if (!seen.isEmpty()) {
+                replicatedUpTo = Math.max(replicatedUpTo, seen.get(0));
+            }
+            lagMillis = replicatedUpTo > 0 ? Math.max(0, now - replicatedUpTo) : -1;
+            usable = replicatedUpTo > 0 && lagMillis <= maxLagMillis;
+        } catch (DataAccessException e) {
+            log.warn("Replica heartbeat read failed: {}", e.getMessage());
+            lagMillis = -1;
+            usable = false;
+        }
+
+        if (usable != replicaUsable) {
+            if (usable) {
+                log.info("📗 Read replica in use ({} ms behind)", lagMillis);
+            } else {
+                log.warn("📕 Read replica {} ms behind (max {} ms): read-only transactions go to the primary",
+                        lagMillis, maxLagMillis);
+            }
+        }
+        replicaUsable = usable;
+
+        // Writes the replica already has no longer pin anyone
+        long caughtUp = replicatedUpTo;
+        lastWrites.values().removeIf(at -> at <= caughtUp);
+    }
+}
@@ -0,0 +1,25 @@
+package com.emergency.emergency108.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a bean method (or every public method of a bean) as the given
+ * workload class: its database connections come from that class's pool and
+ * it counts against that class's concurrency limit.
+ *
+ * The outermost annotated call wins. A dispatch call reaching a
+ * heartbeat-annotated method stays dispatch work, and keeps the connection
+ * its transaction already holds. Self-invocation bypasses the proxy, as with
+ * {@code @Transactional}.
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Workload {
+
+    WorkloadClass value();
+}
@@ -0,0 +1,92 @@
+package com.emergency.emergency108.datasource;
+
+import com.emergency.emergency108.exception.WorkloadRejectedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per workload class limit on concurrent calls, so that a burst of one class
+ * cannot occupy every request or scheduler thread while it waits for its
+ * (smaller) connection pool. A call that gets no permit within max-wait is
+ * rejected with {@link WorkloadRejectedException} (503). A limit of 0 means
+ * unlimited.
+ *
+ * Metrics, tagged workload=dispatch|heartbeat|background|primary:
+ *   workload.active    calls in progress
+ *   workload.wait      time spent waiting for a permit
+ *   workload.rejected  calls turned away
+ */
+public class WorkloadBulkheads {
+
+    private final Map<WorkloadClass, Semaphore> permits = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, AtomicInteger> active = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Timer> waits = new EnumMap<>(WorkloadClass.class);
+    private final Map<WorkloadClass, Counter> rejections = new EnumMap<>(WorkloadClass.class);
+    private final Duration maxWait;
+
+    public WorkloadBulkheads(Map<WorkloadClass, Integer> maxConcurrent, Duration maxWait, MeterRegistry registry) {
+        this.maxWait = maxWait;
+        for (WorkloadClass workload : WorkloadClass.values()) {
+            int limit = maxConcurrent.getOrDefault(workload, 0);
+            if (limit > 0) {
+                permits.put(workload, new Semaphore(limit, true));
+            }
+            AtomicInteger inProgress = new AtomicInteger();
+            active.put(workload, inProgress);
+
+            Gauge.builder("workload.active", inProgress, AtomicInteger::get)
+                    .description("Calls in progress per workload class")
+                    .tag("workload", workload.poolName())
+                    .register(registry);
+            waits.put(workload, Timer.builder("workload.wait")
+                    .description("Time spent waiting for a workload class permit")
+                    .tag("workload", workload.poolName())
+                    .register(registry));
+            rejections.put(workload, Counter.builder("workload.rejected")
+                    .description("Calls rejected because their workload class was saturated")
+                    .tag("workload", workload.poolName())
+                    .register(registry));
+        }
+    }
+
+    /**
+     * Takes a permit for the workload, waiting up to max-wait; pair with
+     * {@link #release(WorkloadClass)}.
+     */
+    public void acquire(WorkloadClass workload) {
+        Semaphore semaphore = permits.get(workload);
+        if (semaphore != null && !semaphore.tryAcquire()) {
+            long started = System.nanoTime();
+            boolean acquired;
+            try {
+                acquired = semaphore.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                acquired = false;
+            }
+            waits.get(workload).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            if (!acquired) {
+                rejections.get(workload).increment();
+                throw new WorkloadRejectedException(workload);
+            }
+        }
+        active.get(workload).incrementAndGet();
+    }
+
+    public void release(WorkloadClass workload) {
+        active.get(workload).decrementAndGet();
+        Semaphore semaphore = permits.get(workload);
+        if (semaphore != null) {
+            semaphore.release();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.emergency.emergency108.datasource;
+
+/**
+ * Workload classes with their own connection pool and concurrency limit
+ * (app.datasource.workloads.enabled). Work that is not annotated with
+ * {@link Workload} is GENERAL and uses the spring.datasource pool.
+ */
+public enum WorkloadClass {
+
+    /** SOS creation, dispatch, driver accept/reject, reassignment. */
+    DISPATCH,
+    /** Driver heartbeats and helper location updates. */
+    HEARTBEAT,
+    /** Admin screens, invariant scans, cleanups. */
+    BACKGROUND,
+    /** Everything else. */
+    GENERAL;
+
+    /** Hikari pool name and metric tag: "dispatch", "heartbeat", ... */
+    public String poolName() {
+        return this == GENERAL ? "primary" : name().toLowerCase();
+    }
+}
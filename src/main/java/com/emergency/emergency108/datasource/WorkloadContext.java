@@ -0,0 +1,31 @@
+package com.emergency.emergency108.datasource;
+
+/**
+ * The workload class of the work running on the current thread, bound by
+ * {@link WorkloadInterceptor} and read by {@link PoolRoutingDataSource}.
+ */
+public final class WorkloadContext {
+
+    private static final ThreadLocal<WorkloadClass> CURRENT = new ThreadLocal<>();
+
+    private WorkloadContext() {
+    }
+
+    /** GENERAL when nothing is bound. */
+    public static WorkloadClass current() {
+        WorkloadClass workload = CURRENT.get();
+        return workload != null ? workload : WorkloadClass.GENERAL;
+    }
+
+    static boolean isBound() {
+        return CURRENT.get() != null;
+    }
+
+    static void bind(WorkloadClass workload) {
+        CURRENT.set(workload);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,67 @@
+package com.emergency.emergency108.datasource;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+
+import java.lang.reflect.Method;
+import java.util.function.Supplier;
+
+/**
+ * Binds the {@link Workload} of the outermost annotated call to the thread
+ * and holds a permit of that class for the call's duration. Nested annotated
+ * calls run under the outer class without taking another permit.
+ */
+public class WorkloadInterceptor implements MethodInterceptor {
+
+    private final Supplier<WorkloadBulkheads> bulkheadsSupplier;
+    private volatile WorkloadBulkheads bulkheads;
+
+    public WorkloadInterceptor(Supplier<WorkloadBulkheads> bulkheads) {
+        this.bulkheadsSupplier = bulkheads;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (WorkloadContext.isBound()) {
+            return invocation.proceed();
+        }
+        WorkloadClass workload = workloadOf(invocation);
+        if (workload == null) {
+            return invocation.proceed();
+        }
+
+        WorkloadBulkheads bulkheads = bulkheads();
+        bulkheads.acquire(workload);
+        WorkloadContext.bind(workload);
+        try {
+            return invocation.proceed();
+        } finally {
+            WorkloadContext.clear();
+            bulkheads.release(workload);
+        }
+    }
+
+    private WorkloadBulkheads bulkheads() {
+        WorkloadBulkheads resolved = bulkheads;
+        if (resolved == null) {
+            resolved = bulkheadsSupplier.get();
+            bulkheads = resolved;
+        }
+        return resolved;
+    }
+
+    private static WorkloadClass workloadOf(MethodInvocation invocation) {
+        Class<?> targetClass = invocation.getThis() != null
+                ? AopUtils.getTargetClass(invocation.getThis())
+                : invocation.getMethod().getDeclaringClass();
+        Method method = AopUtils.getMostSpecificMethod(invocation.getMethod(), targetClass);
+
+        Workload workload = AnnotatedElementUtils.findMergedAnnotation(method, Workload.class);
+        if (workload == null) {
+            workload = AnnotatedElementUtils.findMergedAnnotation(targetClass, Workload.class);
+        }
+        return workload != null ? workload.value() : null;
+    }
+}
@@ -0,0 +1,18 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.EmergencyStatus;
+
+/**
+ * An open emergency with its victim's name, as loaded into the Helping Hand
+ * index. victimName is the user's full name, null for anonymous SOS.
+ */
+public record ActiveEmergencyRow(
+        Long id,
+        String type,
+        Double latitude,
+        Double longitude,
+        EmergencyStatus status,
+        Long userId,
+        String victimName,
+        Long version) {
+}
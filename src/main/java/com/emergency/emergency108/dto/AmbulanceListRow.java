@@ -0,0 +1,25 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.AmbulanceType;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ambulance columns shown in fleet listings. Property names match the
+ * Ambulance entity.
+ */
+public record AmbulanceListRow(
+        Long id,
+        String code,
+        String driver,
+        String driverPhone,
+        String licensePlate,
+        AmbulanceStatus status,
+        Double latitude,
+        Double longitude,
+        LocalDateTime updatedAt,
+        AmbulanceType ambulanceType,
+        Double baseFare,
+        Double perKmRate) {
+}
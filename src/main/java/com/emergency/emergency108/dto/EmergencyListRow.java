@@ -0,0 +1,30 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencySourceType;
+import com.emergency.emergency108.entity.EmergencyStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Emergency columns shown on the admin live map and in exports, selected
+ * directly by the query. Property names match the Emergency entity.
+ */
+public record EmergencyListRow(
+        Long id,
+        String type,
+        String severity,
+        Double latitude,
+        Double longitude,
+        EmergencyStatus status,
+        Long userId,
+        EmergencySourceType sourceType,
+        EmergencyFor emergencyFor,
+        Double hospitalLatitude,
+        Double hospitalLongitude,
+        LocalDateTime createdAt,
+        LocalDateTime statusUpdatedAt,
+        LocalDateTime completedAt,
+        Long incidentId,
+        Boolean probableDuplicate) {
+}
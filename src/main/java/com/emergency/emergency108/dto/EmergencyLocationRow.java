@@ -0,0 +1,13 @@
+package com.emergency.emergency108.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Creation time and location of a recent SOS, as counted by zone demand in
+ * cluster mode.
+ */
+public record EmergencyLocationRow(
+        LocalDateTime createdAt,
+        Double latitude,
+        Double longitude) {
+}
@@ -0,0 +1,13 @@
+package com.emergency.emergency108.dto;
+
+/**
+ * A recent located SOS, as matched by incident grouping in cluster mode.
+ * incidentId is null for the first report of an incident.
+ */
+public record IncidentReportRow(
+        Long id,
+        Long incidentId,
+        Long userId,
+        Double latitude,
+        Double longitude) {
+}
@@ -0,0 +1,62 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a listing ordered by id, plus the opaque cursor of the next
+ * page (null on the last one). Listings fetch limit + 1 rows; the extra row
+ * only tells whether another page exists.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor) {
+
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    public static <T> KeysetPage<T> of(List<T> fetched, int limit, Function<T, Long> idOf) {
+        if (fetched.size() <= limit) {
+            return new KeysetPage<>(fetched, null);
+        }
+        List<T> items = fetched.subList(0, limit);
+        return new KeysetPage<>(items, encode(idOf.apply(items.get(limit - 1))));
+    }
+
+    /** Requested page size, or the default when absent, kept within 1..maxSize. */
+    public static int pageSize(Integer requested, int defaultSize, int maxSize) {
+        if (requested == null) {
+            return defaultSize;
+        }
+        return Math.max(1, Math.min(requested, maxSize));
+    }
+
+    /** Id to continue after: 0 for the first page. */
+    public static long afterId(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            decoded = "";
+        }
+        if (decoded.startsWith(CURSOR_PREFIX)) {
+            try {
+                return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+            } catch (NumberFormatException e) {
+                // not an id: rejected below
+            }
+        }
+        throw new InvalidCursorException();
+    }
+
+    private static String encode(long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,23 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.DriverSessionStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * An online driver session with its driver and ambulance, loaded in one
+ * joined query. driverName / driverPhone / licensePlate are null when the
+ * referenced row is missing.
+ */
+public record OnlineDriverRow(
+        Long sessionId,
+        Long driverId,
+        Long ambulanceId,
+        DriverSessionStatus status,
+        Double latitude,
+        Double longitude,
+        LocalDateTime sessionStartTime,
+        String driverName,
+        String driverPhone,
+        String licensePlate) {
+}
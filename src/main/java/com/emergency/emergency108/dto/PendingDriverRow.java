@@ -0,0 +1,19 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * A driver awaiting verification, as listed to admins.
+ */
+public record PendingDriverRow(
+        Long id,
+        String name,
+        String phone,
+        String email,
+        String address,
+        String documentUrl,
+        DriverVerificationStatus verificationStatus,
+        LocalDateTime createdAt) {
+}
@@ -0,0 +1,9 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+
+/**
+ * A verified driver, as listed to admins for assignment.
+ */
+public record VerifiedDriverRow(Long id, String name, String phone, DriverVerificationStatus status) {
+}
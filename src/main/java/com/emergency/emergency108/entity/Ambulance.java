@@ -1,5 +1,6 @@
 package com.emergency.emergency108.entity;
 
+import com.emergency.emergency108.readmodel.AmbulanceChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
 @Table(name = "ambulances")
+@EntityListeners(AmbulanceChangeListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Ambulance {
 
@@ -0,0 +1,40 @@
+package com.emergency.emergency108.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * One running instance of the service. Each node refreshes lastSeenAt every
+ * few seconds; nodes seen recently form the membership that scheduled sweeps
+ * and geographic cells are spread across. baseUrl is what other nodes name
+ * to clients sending requests for the cells this node owns.
+ */
+@Entity
+@Table(
+        name = "cluster_nodes",
+        indexes = {
+                @Index(name = "idx_cluster_nodes_last_seen", columnList = "last_seen_at")
+        }
+)
+public class ClusterNode {
+
+    @Id
+    @Column(name = "node_id", length = 100)
+    private String nodeId;
+
+    @Column(name = "base_url", length = 255)
+    private String baseUrl;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+
+    protected ClusterNode() {}
+
+    public String getNodeId() { return nodeId; }
+    public String getBaseUrl() { return baseUrl; }
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+}
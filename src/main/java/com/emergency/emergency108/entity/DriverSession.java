@@ -25,6 +25,9 @@ import java.time.LocalDateTime;
 })
 public class DriverSession {
 
+    /** Heartbeat age after which a session is stale at the fastest cadence. */
+    public static final long MIN_STALE_SECONDS = 15;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -66,6 +69,13 @@ public class DriverSession {
     @Column(name = "last_heartbeat")
     private LocalDateTime lastHeartbeat;
 
+    /**
+     * Heartbeat interval the server last recommended to the driver app
+     * (see HeartbeatCadencePolicy). Null until the first heartbeat.
+     */
+    @Column(name = "heartbeat_interval_seconds")
+    private Integer heartbeatIntervalSeconds;
+
     /**
      * Total emergencies handled in this session
      */
@@ -189,7 +199,20 @@ public class DriverSession {
         }
 
         long secondsSinceLastHeartbeat = Duration.between(lastHeartbeat, LocalDateTime.now()).getSeconds();
-        return secondsSinceLastHeartbeat > 15;
+        return secondsSinceLastHeartbeat > staleAfterSeconds();
+    }
+
+    /**
+     * Heartbeat age after which the session is stale: 15 seconds, or three
+     * missed beats at the recommended interval when the driver has been told
+     * to slow down.
+     */
+    public long staleAfterSeconds() {
+        long staleAfter = MIN_STALE_SECONDS;
+        if (heartbeatIntervalSeconds != null) {
+            staleAfter = Math.max(staleAfter, 3L * heartbeatIntervalSeconds);
+        }
+        return staleAfter;
     }
 
     /**
@@ -296,6 +319,14 @@ public class DriverSession {
         this.emergenciesHandled = emergenciesHandled;
     }
 
+    public Integer getHeartbeatIntervalSeconds() {
+        return heartbeatIntervalSeconds;
+    }
+
+    public void setHeartbeatIntervalSeconds(Integer heartbeatIntervalSeconds) {
+        this.heartbeatIntervalSeconds = heartbeatIntervalSeconds;
+    }
+
     public Long getVersion() {
         return version;
     }
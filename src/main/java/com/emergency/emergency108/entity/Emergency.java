@@ -1,5 +1,6 @@
 package com.emergency.emergency108.entity;
 
+import com.emergency.emergency108.readmodel.EmergencyChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
@@ -7,6 +8,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 @Entity
 @Table(name = "emergencies")
+@EntityListeners(EmergencyChangeListener.class)
 @JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 public class Emergency {
 
@@ -73,6 +75,22 @@ public class Emergency {
     @Column(name = "is_suspect_cancellation", nullable = false)
     private Boolean isSuspectCancellation = false;
 
+    /**
+     * Incident this report was grouped into: the id of the first SOS of the
+     * incident. NULL for a first report.
+     */
+    @Column(name = "incident_id")
+    private Long incidentId;
+
+    /**
+     * True if the report probably describes a patient already reported: a
+     * repeat SOS from the same user, or a bystander (OTHER) report within an
+     * incident. Held back from auto-dispatch while that incident is being
+     * served; a SELF report by another user is grouped but never flagged.
+     */
+    @Column(name = "probable_duplicate", nullable = false)
+    private Boolean probableDuplicate = false;
+
     @Version
     @Column(nullable = false)
     private Long version;
@@ -353,4 +371,20 @@ public class Emergency {
     public void setAiAssessment(String aiAssessment) {
         this.aiAssessment = aiAssessment;
     }
+
+    public Long getIncidentId() {
+        return incidentId;
+    }
+
+    public void setIncidentId(Long incidentId) {
+        this.incidentId = incidentId;
+    }
+
+    public Boolean getProbableDuplicate() {
+        return probableDuplicate;
+    }
+
+    public void setProbableDuplicate(Boolean probableDuplicate) {
+        this.probableDuplicate = probableDuplicate;
+    }
 }
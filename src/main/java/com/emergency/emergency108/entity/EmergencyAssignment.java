@@ -1,10 +1,12 @@
 package com.emergency.emergency108.entity;
 
+import com.emergency.emergency108.readmodel.AssignmentChangeListener;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "emergency_assignments")
+@EntityListeners(AssignmentChangeListener.class)
 public class EmergencyAssignment {
 
     @Id
@@ -178,6 +180,10 @@ public class EmergencyAssignment {
         this.responseTimeSeconds = responseTimeSeconds;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Hospital getDestinationHospital() {
         return destinationHospital;
     }
@@ -0,0 +1,33 @@
+package com.emergency.emergency108.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Time-bounded ownership of a singleton scheduled job. The owner renews the
+ * lease on every run; once it expires any node may take it over.
+ */
+@Entity
+@Table(name = "scheduler_leases")
+public class SchedulerLease {
+
+    @Id
+    @Column(name = "name", length = 100)
+    private String name;
+
+    @Column(name = "owner_node", nullable = false, length = 100)
+    private String ownerNode;
+
+    @Column(name = "acquired_at", nullable = false)
+    private LocalDateTime acquiredAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    protected SchedulerLease() {}
+
+    public String getName() { return name; }
+    public String getOwnerNode() { return ownerNode; }
+    public LocalDateTime getAcquiredAt() { return acquiredAt; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+}
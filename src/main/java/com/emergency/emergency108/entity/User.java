@@ -1,6 +1,8 @@
 package com.emergency.emergency108.entity;
 
+import com.emergency.emergency108.readmodel.UserChangeListener;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -13,6 +15,7 @@ import jakarta.persistence.Column;
 
 @Entity
 @Table(name = "users")
+@EntityListeners(UserChangeListener.class)
 public class User {
 
     @Id
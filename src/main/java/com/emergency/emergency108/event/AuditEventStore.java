@@ -6,6 +6,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class AuditEventStore {
 
@@ -18,13 +20,22 @@ public class AuditEventStore {
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void persist(DomainEvent event) {
 
-        AuditEvent audit = new AuditEvent(
+        repository.save(toAudit(event));
+    }
+
+    /** Persists a batch of events in one transaction. */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void persistAll(List<? extends DomainEvent> events) {
+
+        repository.saveAll(events.stream().map(AuditEventStore::toAudit).toList());
+    }
+
+    private static AuditEvent toAudit(DomainEvent event) {
+        return new AuditEvent(
                 event.eventType(),
                 event.aggregateType(),
                 event.aggregateId(),
                 event.message()
         );
-
-        repository.save(audit);
     }
 }
@@ -5,6 +5,8 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
+import java.util.List;
+
 @Component
 public class DomainEventPublisher {
 
@@ -24,5 +26,17 @@ public class DomainEventPublisher {
                 () -> store.persist(event)
         );
     }
+
+    public void publishAll(List<? extends DomainEvent> events) {
+
+        if (events.isEmpty()) {
+            return;
+        }
+
+        DomainSafety.runSafely(
+                "AUDIT_EVENT_PERSIST",
+                () -> store.persistAll(events)
+        );
+    }
 }
 
@@ -0,0 +1,12 @@
+package com.emergency.emergency108.exception;
+
+/**
+ * Thrown when a driver may not act on an assignment: not a verified, online
+ * driver, or not the driver the emergency is assigned to. Answered with a 403.
+ */
+public class AssignmentAccessDeniedException extends RuntimeException {
+
+    public AssignmentAccessDeniedException(String message) {
+        super(message);
+    }
+}
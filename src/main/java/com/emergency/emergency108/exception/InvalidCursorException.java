@@ -0,0 +1,12 @@
+package com.emergency.emergency108.exception;
+
+/**
+ * Thrown when a listing's ?cursor= is not one the server issued.
+ * Answered with a 400.
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException() {
+        super("Invalid cursor");
+    }
+}
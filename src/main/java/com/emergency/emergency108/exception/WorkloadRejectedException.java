@@ -0,0 +1,21 @@
+package com.emergency.emergency108.exception;
+
+import com.emergency.emergency108.datasource.WorkloadClass;
+
+/**
+ * Thrown when a workload class stays at its concurrency limit for longer
+ * than app.datasource.workloads.max-wait-ms. Answered with a 503.
+ */
+public class WorkloadRejectedException extends RuntimeException {
+
+    private final WorkloadClass workload;
+
+    public WorkloadRejectedException(WorkloadClass workload) {
+        super("Too many " + workload.poolName() + " requests in progress, try again shortly");
+        this.workload = workload;
+    }
+
+    public WorkloadClass getWorkload() {
+        return workload;
+    }
+}
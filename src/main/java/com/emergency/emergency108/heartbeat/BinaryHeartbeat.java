@@ -0,0 +1,81 @@
+package com.emergency.emergency108.heartbeat;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact heartbeat frame, the binary counterpart of PUT /api/driver/location.
+ *
+ * Fixed 68 bytes, big-endian:
+ *
+ *   offset  size  field
+ *        0     2  magic 0xE108
+ *        2     1  version (1)
+ *        3     1  flags (reserved, 0)
+ *        4     8  driver id
+ *       12     8  driver session id
+ *       20     8  sequence number, strictly increasing per session
+ *       28     8  fix timestamp, epoch millis
+ *       36     8  latitude (IEEE 754 double)
+ *       44     8  longitude (IEEE 754 double)
+ *       52     4  horizontal accuracy in metres (float)
+ *       56    12  HMAC-SHA256 of bytes 0..55 with the session key, truncated
+ *
+ * See {@link HeartbeatKeyService} for how the session key is derived.
+ */
+public record BinaryHeartbeat(
+        long driverId,
+        long sessionId,
+        long sequence,
+        long timestampMillis,
+        double latitude,
+        double longitude,
+        float accuracyMeters) {
+
+    public static final int FRAME_SIZE = 68;
+    public static final int SIGNED_LENGTH = 56;
+    public static final int MAC_LENGTH = FRAME_SIZE - SIGNED_LENGTH;
+
+    static final short MAGIC = (short) 0xE108;
+    static final byte VERSION = 1;
+
+    /**
+     * Read a frame without moving the buffer's position.
+     *
+     * @throws IllegalArgumentException if the buffer does not hold exactly one
+     *         frame of a supported version
+     */
+    public static BinaryHeartbeat decode(ByteBuffer frame) {
+        if (frame.remaining() != FRAME_SIZE) {
+            throw new IllegalArgumentException("Heartbeat frame must be " + FRAME_SIZE + " bytes, got " + frame.remaining());
+        }
+        int p = frame.position();
+        if (frame.getShort(p) != MAGIC || frame.get(p + 2) != VERSION) {
+            throw new IllegalArgumentException("Unsupported heartbeat frame");
+        }
+        return new BinaryHeartbeat(
+                frame.getLong(p + 4),
+                frame.getLong(p + 12),
+                frame.getLong(p + 20),
+                frame.getLong(p + 28),
+                frame.getDouble(p + 36),
+                frame.getDouble(p + 44),
+                frame.getFloat(p + 52));
+    }
+
+    /**
+     * Write the unsigned part (bytes 0..55) at the buffer's position and leave
+     * the position just after it. The caller appends the MAC.
+     */
+    public void encodeUnsigned(ByteBuffer out) {
+        out.putShort(MAGIC)
+                .put(VERSION)
+                .put((byte) 0)
+                .putLong(driverId)
+                .putLong(sessionId)
+                .putLong(sequence)
+                .putLong(timestampMillis)
+                .putDouble(latitude)
+                .putDouble(longitude)
+                .putFloat(accuracyMeters);
+    }
+}
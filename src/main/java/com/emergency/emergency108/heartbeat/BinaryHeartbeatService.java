@@ -0,0 +1,218 @@
+package com.emergency.emergency108.heartbeat;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.DriverSessionRepository;
+import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.service.DriverSessionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Verifies binary heartbeat frames (HTTP or UDP) and applies them with the
+ * same semantics as PUT /api/driver/location.
+ *
+ * Checks, cheapest first: frame shape, MAC with the session key, fix
+ * timestamp within app.heartbeat.max-skew-seconds of the server clock, and a
+ * sequence number strictly above the last one accepted for the session
+ * (replay protection). The last sequence is kept in memory; after a restart
+ * the timestamp window bounds what can be replayed.
+ *
+ * Over HTTP the caller's JWT has already been checked for a verified,
+ * unblocked driver. A UDP frame has only its MAC, and the session key stays
+ * valid for the whole shift, so the driver's account is re-read before a
+ * frame is applied: at most once per app.heartbeat.driver-recheck-seconds
+ * per session, and a blocked or no longer verified driver gets NOT_ALLOWED.
+ *
+ * With clustering on, a frame accepted by one node could be replayed to
+ * another (UDP frames reach whichever node they are sent to), so the
+ * sequence is also advanced in driver_sessions.heartbeat_sequence with a
+ * conditional UPDATE and the frame is refused when another node already
+ * took it.
+ */
+@Service
+public class BinaryHeartbeatService {
+
+    private static final Logger log = LoggerFactory.getLogger(BinaryHeartbeatService.class);
+
+    private static final long IDLE_SESSION_MILLIS = 10 * 60 * 1000L;
+
+    public enum Transport { HTTP, UDP }
+
+    public enum Result { ACCEPTED, MALFORMED, BAD_SIGNATURE, WRONG_DRIVER, STALE, REPLAYED, NO_SESSION, NOT_ALLOWED }
+
+    /** Outcome of one frame; nextHeartbeatSeconds is only set when it was accepted. */
+    public record Outcome(Result result, Integer nextHeartbeatSeconds) {
+
+        static Outcome rejected(Result result) {
+            return new Outcome(result, null);
+        }
+    }
+
+    private final HeartbeatKeyService keyService;
+    private final DriverSessionService sessionService;
+    private final DriverSessionRepository sessionRepository;
+    private final UserRepository userRepository;
+    private final long maxSkewMillis;
+    private final long driverRecheckMillis;
+    private final boolean clustered;
+
+    private final Map<Long, LastSeen> lastSeenBySession = new ConcurrentHashMap<>();
+    private final Map<Long, DriverCheck> driverCheckBySession = new ConcurrentHashMap<>();
+    private final Map<Transport, Map<Result, Counter>> counters = new EnumMap<>(Transport.class);
+
+    public BinaryHeartbeatService(
+            HeartbeatKeyService keyService,
+            DriverSessionService sessionService,
+            DriverSessionRepository sessionRepository,
+            UserRepository userRepository,
+            MeterRegistry registry,
+            @Value("${app.heartbeat.max-skew-seconds:120}") long maxSkewSeconds,
+            @Value("${app.heartbeat.driver-recheck-seconds:30}") long driverRecheckSeconds,
+            @Value("${app.cluster.enabled:false}") boolean clustered) {
+        this.keyService = keyService;
+        this.sessionService = sessionService;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.maxSkewMillis = maxSkewSeconds * 1000L;
+        this.driverRecheckMillis = driverRecheckSeconds * 1000L;
+        this.clustered = clustered;
+
+        for (Transport transport : Transport.values()) {
+            Map<Result, Counter> byResult = new EnumMap<>(Result.class);
+            for (Result result : Result.values()) {
+                byResult.put(result, Counter.builder("driver.heartbeat.binary")
+                        .description("Binary heartbeat frames received, by transport and outcome")
+                        .tag("transport", transport.name().toLowerCase())
+                        .tag("result", result.name().toLowerCase())
+                        .register(registry));
+            }
+            counters.put(transport, byResult);
+        }
+    }
+
+    /**
+     * @param frame                 exactly one frame between position and limit
+     * @param authenticatedDriverId driver authenticated by the transport (JWT
+     *                              over HTTP), or null when the MAC is the only
+     *                              credential (UDP)
+     */
+    public Outcome ingest(ByteBuffer frame, Long authenticatedDriverId, Transport transport) {
+        Outcome outcome = process(frame, authenticatedDriverId);
+        counters.get(transport).get(outcome.result()).increment();
+        return outcome;
+    }
+
+    private Outcome process(ByteBuffer frame, Long authenticatedDriverId) {
+        BinaryHeartbeat heartbeat;
+        try {
+            heartbeat = BinaryHeartbeat.decode(frame);
+        } catch (IllegalArgumentException e) {
+            return Outcome.rejected(Result.MALFORMED);
+        }
+
+        if (authenticatedDriverId != null && authenticatedDriverId != heartbeat.driverId()) {
+            return Outcome.rejected(Result.WRONG_DRIVER);
+        }
+
+        byte[] key = keyService.sessionKey(heartbeat.driverId(), heartbeat.sessionId());
+        if (!HeartbeatKeyService.verify(key, frame)) {
+            return Outcome.rejected(Result.BAD_SIGNATURE);
+        }
+
+        long now = System.currentTimeMillis();
+        if (Math.abs(now - heartbeat.timestampMillis()) > maxSkewMillis) {
+            return Outcome.rejected(Result.STALE);
+        }
+
+        if (!isValidCoordinate(heartbeat.latitude(), heartbeat.longitude())) {
+            return Outcome.rejected(Result.MALFORMED);
+        }
+
+        if (authenticatedDriverId == null && !driverAllowed(heartbeat.driverId(), heartbeat.sessionId(), now)) {
+            return Outcome.rejected(Result.NOT_ALLOWED);
+        }
+
+        if (!advanceSequence(heartbeat.sessionId(), heartbeat.sequence(), now)) {
+            return Outcome.rejected(Result.REPLAYED);
+        }
+        if (clustered && sessionRepository.advanceHeartbeatSequence(heartbeat.sessionId(), heartbeat.sequence()) == 0) {
+            return Outcome.rejected(Result.REPLAYED);
+        }
+
+        DriverSession session;
+        try {
+            session = sessionService.updateLocation(
+                    heartbeat.driverId(), heartbeat.sessionId(), heartbeat.latitude(), heartbeat.longitude());
+        } catch (IllegalStateException e) {
+            lastSeenBySession.remove(heartbeat.sessionId());
+            log.debug("Binary heartbeat for driver {} rejected: {}", heartbeat.driverId(), e.getMessage());
+            return Outcome.rejected(Result.NO_SESSION);
+        }
+        return new Outcome(Result.ACCEPTED, session != null ? session.getHeartbeatIntervalSeconds() : null);
+    }
+
+    /** Atomically accept the sequence number if it is above the last accepted one. */
+    private boolean advanceSequence(long sessionId, long sequence, long now) {
+        boolean[] accepted = new boolean[1];
+        lastSeenBySession.compute(sessionId, (id, last) -> {
+            if (last != null && sequence <= last.sequence()) {
+                return last;
+            }
+            accepted[0] = true;
+            return new LastSeen(sequence, now);
+        });
+        return accepted[0];
+    }
+
+    /**
+     * A verified driver who is not blocked, checked for frames that carry
+     * no JWT. The answer is kept per session for driverRecheckMillis, so a
+     * block or rejection takes effect within that.
+     */
+    private boolean driverAllowed(long driverId, long sessionId, long now) {
+        DriverCheck check = driverCheckBySession.get(sessionId);
+        if (check == null || now - check.checkedAt() >= driverRecheckMillis) {
+            boolean allowed = userRepository.findById(driverId)
+                    .map(user -> user.getRole() == UserRole.DRIVER
+                            && !user.isBlocked()
+                            && user.getDriverVerificationStatus() == DriverVerificationStatus.VERIFIED)
+                    .orElse(false);
+            check = new DriverCheck(allowed, now);
+            driverCheckBySession.put(sessionId, check);
+            if (!allowed) {
+                log.debug("UDP heartbeat for driver {} refused: not an active verified driver", driverId);
+            }
+        }
+        return check.allowed();
+    }
+
+    /** Forget sessions that have gone quiet; ended shifts never send again. */
+    @Scheduled(fixedDelay = 10 * 60 * 1000L)
+    public void pruneIdleSessions() {
+        long cutoff = System.currentTimeMillis() - IDLE_SESSION_MILLIS;
+        lastSeenBySession.values().removeIf(last -> last.receivedAt() < cutoff);
+        driverCheckBySession.values().removeIf(check -> check.checkedAt() < cutoff);
+    }
+
+    private static boolean isValidCoordinate(double lat, double lng) {
+        return lat >= -90 && lat <= 90 && lng >= -180 && lng <= 180;
+    }
+
+    private record LastSeen(long sequence, long receivedAt) {
+    }
+
+    private record DriverCheck(boolean allowed, long checkedAt) {
+    }
+}
@@ -0,0 +1,113 @@
+package com.emergency.emergency108.heartbeat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Per-session heartbeat keys and frame signatures.
+ *
+ * A session key is HMAC-SHA256(master secret, "heartbeat|driverId|sessionId"),
+ * so nothing has to be stored: the key dies with the session and any instance
+ * sharing app.heartbeat.secret can verify it. The driver app fetches its key
+ * once per shift over the authenticated REST API.
+ *
+ * Without a configured secret a random one is generated at startup; keys then
+ * stop verifying after a restart and the app has to fetch a new one. With
+ * clustering on the secret is required: heartbeats are sent to whichever node
+ * owns the driver's cell, and every node must verify the same keys.
+ */
+@Service
+public class HeartbeatKeyService {
+
+    private static final Logger log = LoggerFactory.getLogger(HeartbeatKeyService.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final ThreadLocal<Mac> MAC = ThreadLocal.withInitial(HeartbeatKeyService::newMac);
+    private static final ThreadLocal<byte[]> DIGEST = ThreadLocal.withInitial(() -> new byte[32]);
+
+    private final SecretKeySpec masterKey;
+
+    public HeartbeatKeyService(
+            @Value("${app.heartbeat.secret:}") String secret,
+            @Value("${app.cluster.enabled:false}") boolean clustered) {
+        byte[] master;
+        if (secret == null || secret.isBlank()) {
+            if (clustered) {
+                throw new IllegalStateException("app.heartbeat.secret is required with app.cluster.enabled: "
+                        + "every node must verify the binary heartbeat keys the others hand out");
+            }
+            master = new byte[32];
+            new SecureRandom().nextBytes(master);
+            log.warn("⚠️ app.heartbeat.secret not set - binary heartbeat keys will not survive a restart");
+        } else {
+            master = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.masterKey = new SecretKeySpec(master, ALGORITHM);
+    }
+
+    public byte[] sessionKey(long driverId, long sessionId) {
+        Mac mac = MAC.get();
+        try {
+            mac.init(masterKey);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot derive heartbeat key", e);
+        }
+        return mac.doFinal(("heartbeat|" + driverId + "|" + sessionId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write the truncated MAC of the frame's first 56 bytes into bytes 56..67.
+     * Positions are relative to the buffer's position, which is not moved.
+     */
+    public static void sign(byte[] sessionKey, ByteBuffer frame) {
+        byte[] digest = digest(sessionKey, frame);
+        int p = frame.position();
+        for (int i = 0; i < BinaryHeartbeat.MAC_LENGTH; i++) {
+            frame.put(p + BinaryHeartbeat.SIGNED_LENGTH + i, digest[i]);
+        }
+    }
+
+    /** Constant-time check of the frame's MAC. Does not move the buffer's position. */
+    public static boolean verify(byte[] sessionKey, ByteBuffer frame) {
+        byte[] digest = digest(sessionKey, frame);
+        int p = frame.position();
+        int diff = 0;
+        for (int i = 0; i < BinaryHeartbeat.MAC_LENGTH; i++) {
+            diff |= digest[i] ^ frame.get(p + BinaryHeartbeat.SIGNED_LENGTH + i);
+        }
+        return diff == 0;
+    }
+
+    private static byte[] digest(byte[] sessionKey, ByteBuffer frame) {
+        Mac mac = MAC.get();
+        byte[] digest = DIGEST.get();
+        try {
+            mac.init(new SecretKeySpec(sessionKey, ALGORITHM));
+            ByteBuffer signed = frame.duplicate();
+            signed.limit(signed.position() + BinaryHeartbeat.SIGNED_LENGTH);
+            mac.update(signed);
+            mac.doFinal(digest, 0);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot compute heartbeat MAC", e);
+        }
+        return digest;
+    }
+
+    private static Mac newMac() {
+        try {
+            return Mac.getInstance(ALGORITHM);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        }
+    }
+}
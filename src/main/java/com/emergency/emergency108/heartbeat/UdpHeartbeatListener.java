@@ -0,0 +1,108 @@
+package com.emergency.emergency108.heartbeat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives binary heartbeat frames as UDP datagrams (one frame per datagram,
+ * no reply). Off by default: set app.heartbeat.udp.enabled=true.
+ *
+ * One thread drains the socket; frames are copied off the receive buffer and
+ * verified/applied by a small worker pool. When the pool falls behind, the
+ * oldest queued frames are dropped - a newer heartbeat supersedes them anyway.
+ */
+@Component
+@ConditionalOnProperty(name = "app.heartbeat.udp.enabled", havingValue = "true")
+public class UdpHeartbeatListener {
+
+    private static final Logger log = LoggerFactory.getLogger(UdpHeartbeatListener.class);
+
+    private static final int QUEUE_CAPACITY = 10_000;
+
+    private final BinaryHeartbeatService heartbeatService;
+    private final int port;
+    private final ThreadPoolExecutor workers;
+
+    private volatile DatagramChannel channel;
+
+    public UdpHeartbeatListener(
+            BinaryHeartbeatService heartbeatService,
+            @Value("${app.heartbeat.udp.port:9108}") int port,
+            @Value("${app.heartbeat.udp.workers:4}") int workerCount) {
+        this.heartbeatService = heartbeatService;
+        this.port = port;
+        this.workers = new ThreadPoolExecutor(
+                workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "heartbeat-udp-worker");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        channel.bind(new InetSocketAddress(port));
+
+        Thread receiver = new Thread(this::receiveLoop, "heartbeat-udp-receiver");
+        receiver.setDaemon(true);
+        receiver.start();
+
+        log.info("📡 UDP heartbeat listener bound to port {}", port);
+    }
+
+    @PreDestroy
+    public void stop() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            log.debug("Error closing UDP heartbeat channel: {}", e.getMessage());
+        }
+        workers.shutdownNow();
+    }
+
+    private void receiveLoop() {
+        // One byte of slack so oversized datagrams show up as malformed instead of truncated frames
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BinaryHeartbeat.FRAME_SIZE + 1);
+        while (channel.isOpen()) {
+            try {
+                buffer.clear();
+                if (channel.receive(buffer) == null) {
+                    continue;
+                }
+                buffer.flip();
+
+                byte[] frame = new byte[buffer.remaining()];
+                buffer.get(frame);
+                workers.execute(() -> heartbeatService.ingest(
+                        ByteBuffer.wrap(frame), null, BinaryHeartbeatService.Transport.UDP));
+
+            } catch (ClosedChannelException e) {
+                break;
+            } catch (Exception e) {
+                log.warn("UDP heartbeat receive failed: {}", e.getMessage());
+            }
+        }
+        log.info("📡 UDP heartbeat listener stopped");
+    }
+}
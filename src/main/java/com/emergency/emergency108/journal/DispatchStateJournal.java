@@ -0,0 +1,419 @@
+package com.emergency.emergency108.journal;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+/**
+ * Local snapshot + write-ahead log of the in-memory dispatch state: the live
+ * assignments (with their emergency snapshots) and the heartbeat deadlines.
+ * MySQL stays the system of record; the journal only lets a restarted node
+ * skip the full reloads at startup.
+ *
+ *   snapshot.bin      whole state, rewritten every snapshot-interval-ms
+ *                     (written to a temp file, fsynced, then renamed)
+ *   wal-<seq>.log     changes since the snapshot that names <seq>, one
+ *                     CRC-checked record each (from the StateChangeFeed);
+ *                     written, flushed and fsynced every flush-ms, so a
+ *                     crash loses at most that much
+ *
+ * Committing threads only add their record to a pending batch; the flush
+ * swaps the batch out and does the writes and the fsync, so a slow disk
+ * never blocks a commit. A snapshot first writes the pending batch to the
+ * current WAL file, starts a new one and then copies the state, so every
+ * change after the copy is in the new file (the feed runs after the registry
+ * has applied a change). Replayed records are idempotent, so changes that
+ * made it into both are harmless. The format is {@link StateRecords}, the
+ * same one the standby state stream uses.
+ *
+ * On startup the snapshot and WAL are loaded if they are younger than
+ * max-age-seconds; otherwise (or if the snapshot is damaged) the registry
+ * and index are rebuilt from the database as before. Replay stops at the
+ * first torn or corrupt record. Startup recovery still runs its bulk repair
+ * against MySQL afterwards, and reloads the registry if that changed anything.
+ *
+ * Off by default (app.state.journal.enabled), and always off in cluster
+ * mode (see {@link ClusterCoordinator}).
+ */
+@Component
+public class DispatchStateJournal {
+
+    private static final Logger log = LoggerFactory.getLogger(DispatchStateJournal.class);
+
+    static final String SNAPSHOT_FILE = "snapshot.bin";
+    static final String WAL_PREFIX = "wal-";
+    static final String WAL_SUFFIX = ".log";
+
+    private final LiveAssignmentRegistry registry;
+    private final HeartbeatDeadlineIndex deadlineIndex;
+    private final StateChangeFeed feed;
+    private final boolean enabled;
+    private final Path dir;
+    private final long snapshotIntervalMillis;
+    private final Duration maxAge;
+
+    // Guards the open WAL file; held across writes and fsyncs, never by committing threads
+    private final Object walLock = new Object();
+    private FileChannel walChannel;
+    private DataOutputStream wal;
+    private long walSeq;
+    private Runnable unsubscribe = () -> { };
+
+    // Records not yet written, in feed order; swapped out whole by each write
+    private final Object pendingLock = new Object();
+    private List<byte[]> pending = new ArrayList<>();
+
+    // Serializes snapshots (scheduled, requested after a rebuild, shutdown)
+    private final Object snapshotLock = new Object();
+    private volatile long lastSnapshotMillis;
+    private volatile boolean snapshotRequested;
+
+    public DispatchStateJournal(
+            LiveAssignmentRegistry registry,
+            HeartbeatDeadlineIndex deadlineIndex,
+            StateChangeFeed feed,
+            @Value("${app.state.journal.enabled:false}") boolean enabled,
+            @Value("${app.state.journal.dir:./data/journal}") String dir,
+            @Value("${app.state.journal.snapshot-interval-ms:30000}") long snapshotIntervalMillis,
+            @Value("${app.state.journal.max-age-seconds:120}") long maxAgeSeconds,
+            ClusterCoordinator cluster) {
+        this.registry = registry;
+        this.deadlineIndex = deadlineIndex;
+        this.feed = feed;
+        this.enabled = enabled && !cluster.isEnabled();
+        if (enabled && cluster.isEnabled()) {
+            log.warn("State journal disabled: app.cluster.enabled is set, state is loaded from the database");
+        }
+        this.dir = Path.of(dir);
+        this.snapshotIntervalMillis = snapshotIntervalMillis;
+        this.maxAge = Duration.ofSeconds(maxAgeSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // ---- startup ----
+
+    /**
+     * Runs before the ApplicationReadyEvent listeners: a successful restore
+     * makes the registry ready and the deadline index seeded, so their own
+     * startup loads are skipped.
+     */
+    @EventListener(ApplicationStartedEvent.class)
+    public void recover() {
+        if (!enabled) {
+            return;
+        }
+        long started = System.nanoTime();
+        try {
+            Files.createDirectories(dir);
+            Restored restored = load(System.currentTimeMillis());
+            if (restored != null) {
+                log.info("♻️ State journal: restored {} live assignments and {} session deadlines "
+                                + "({} WAL records) in {} ms",
+                        restored.assignments(), restored.deadlines(), restored.walRecords(),
+                        Duration.ofNanos(System.nanoTime() - started).toMillis());
+            } else {
+                // This run starts from the database: old files must never be replayed over it
+                discard();
+            }
+            open();
+        } catch (IOException e) {
+            log.error("State journal unavailable, continuing without it: {}", e.getMessage(), e);
+        }
+    }
+
+    /** Outcome of a restore. */
+    record Restored(int assignments, int deadlines, int walRecords) {
+    }
+
+    /**
+     * Load the snapshot and replay the WAL after it into the registry and the
+     * index. Null (nothing restored) if there is no usable, recent snapshot.
+     */
+    Restored load(long nowMillis) throws IOException {
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshotFile)) {
+            return null;
+        }
+
+        StateRecords.Snapshot snapshot;
+        try {
+            snapshot = StateRecords.readSnapshot(Files.readAllBytes(snapshotFile));
+        } catch (IOException | RuntimeException e) {
+            log.warn("State journal snapshot unreadable, rebuilding from the database: {}", e.getMessage());
+            return null;
+        }
+
+        // Read everything before touching the registry: an I/O error leaves it to the database
+        long lastWrite = snapshot.createdAtMillis();
+        Map<Path, byte[]> wals = new LinkedHashMap<>();
+        for (Path wal : walFiles().tailMap(snapshot.walSeq()).values()) {
+            lastWrite = Math.max(lastWrite, Files.getLastModifiedTime(wal).toMillis());
+            wals.put(wal, Files.readAllBytes(wal));
+        }
+        if (nowMillis - lastWrite > maxAge.toMillis()) {
+            log.info("State journal is {} s old, rebuilding from the database",
+                    (nowMillis - lastWrite) / 1000);
+            return null;
+        }
+
+        registry.restore(snapshot.assignments());
+        deadlineIndex.restore(snapshot.deadlines());
+
+        int records = 0;
+        for (Map.Entry<Path, byte[]> wal : wals.entrySet()) {
+            ReplayResult result = replay(wal.getValue());
+            records += result.records();
+            if (result.torn()) {
+                log.warn("State journal: {} ends in a torn or corrupt record, replayed {} before it",
+                        wal.getKey().getFileName(), result.records());
+                break;
+            }
+        }
+        return new Restored(snapshot.assignments().size(), deadlineIndex.size(), records);
+    }
+
+    private void discard() throws IOException {
+        Files.deleteIfExists(dir.resolve(SNAPSHOT_FILE));
+        for (Path wal : walFiles().values()) {
+            Files.deleteIfExists(wal);
+        }
+    }
+
+    /**
+     * Start a fresh WAL and hook into the registry and index. The first
+     * snapshot is taken as soon as both hold a full state (right away after a
+     * restore, after their database loads otherwise).
+     */
+    private void open() throws IOException {
+        TreeMap<Long, Path> wals = walFiles();
+        long nextSeq = wals.isEmpty() ? 1 : wals.lastKey() + 1;
+        synchronized (walLock) {
+            openWal(nextSeq);
+        }
+
+        unsubscribe = feed.subscribe(this::append);
+        registry.setRebuildListener(() -> snapshotRequested = true);
+
+        snapshot();
+    }
+
+    // ---- changes ----
+
+    /** Called by committing threads: queue only, the flush does the I/O. */
+    private void append(byte[] record) {
+        synchronized (pendingLock) {
+            pending.add(record);
+        }
+    }
+
+    /** Write the pending records to the open WAL file. Caller holds walLock. */
+    private void writePending() {
+        List<byte[]> batch;
+        synchronized (pendingLock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new ArrayList<>(batch.size());
+        }
+        if (wal == null) {
+            return;
+        }
+        try {
+            for (byte[] record : batch) {
+                StateRecords.writeFrame(wal, record);
+            }
+        } catch (IOException e) {
+            // The database still has the changes; the next snapshot captures them
+            log.warn("State journal append failed: {}", e.getMessage());
+            snapshotRequested = true;
+        }
+    }
+
+    // ---- flush / snapshot ----
+
+    /** Group commit: write the pending records, fsync the WAL, and snapshot when one is due. */
+    @Scheduled(fixedDelayString = "${app.state.journal.flush-ms:200}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (walLock) {
+            writePending();
+            if (wal == null) {
+                return;
+            }
+            try {
+                wal.flush();
+                walChannel.force(false);
+            } catch (IOException e) {
+                log.warn("State journal flush failed: {}", e.getMessage());
+            }
+        }
+        if (snapshotRequested || System.currentTimeMillis() - lastSnapshotMillis >= snapshotIntervalMillis) {
+            snapshot();
+        }
+    }
+
+    /** Rotate the WAL, then write the whole state and drop the WAL files it covers. */
+    public void snapshot() {
+        synchronized (snapshotLock) {
+            if (!registry.isReady() || !deadlineIndex.isSeeded()) {
+                // Still loading from the database: a snapshot now would be missing rows
+                snapshotRequested = true;
+                return;
+            }
+            snapshotRequested = false;
+            long seq;
+            synchronized (walLock) {
+                if (wal == null) {
+                    return;
+                }
+                try {
+                    seq = walSeq + 1;
+                    writePending();
+                    closeWal();
+                    openWal(seq);
+                } catch (IOException e) {
+                    log.error("State journal WAL rotation failed: {}", e.getMessage(), e);
+                    return;
+                }
+            }
+
+            try {
+                long now = System.currentTimeMillis();
+                byte[] bytes = StateRecords.writeSnapshot(new StateRecords.Snapshot(
+                        now, seq, registry.snapshot(), deadlineIndex.deadlines()));
+
+                Path tmp = dir.resolve(SNAPSHOT_FILE + ".tmp");
+                try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                    channel.write(ByteBuffer.wrap(bytes));
+                    channel.force(true);
+                }
+                Files.move(tmp, dir.resolve(SNAPSHOT_FILE),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                lastSnapshotMillis = now;
+
+                for (Path old : walFiles().headMap(seq).values()) {
+                    Files.deleteIfExists(old);
+                }
+            } catch (IOException e) {
+                // The previous snapshot and all WAL files since it are still on disk
+                log.error("State journal snapshot failed: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Clean shutdown: a final snapshot, so the next start replays nothing. */
+    @PreDestroy
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        snapshot();
+        unsubscribe.run();
+        synchronized (walLock) {
+            try {
+                writePending();
+                closeWal();
+            } catch (IOException e) {
+                log.warn("State journal close failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // ---- files ----
+
+    private void openWal(long seq) throws IOException {
+        walChannel = FileChannel.open(dir.resolve(WAL_PREFIX + seq + WAL_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        OutputStream out = Channels.newOutputStream(walChannel);
+        wal = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        walSeq = seq;
+    }
+
+    private void closeWal() throws IOException {
+        if (wal == null) {
+            return;
+        }
+        wal.flush();
+        walChannel.force(false);
+        wal.close();
+        wal = null;
+        walChannel = null;
+    }
+
+    private TreeMap<Long, Path> walFiles() throws IOException {
+        TreeMap<Long, Path> wals = new TreeMap<>();
+        try (Stream<Path> files = Files.list(dir)) {
+            files.forEach(file -> {
+                String name = file.getFileName().toString();
+                if (name.startsWith(WAL_PREFIX) && name.endsWith(WAL_SUFFIX)) {
+                    try {
+                        wals.put(Long.parseLong(
+                                name.substring(WAL_PREFIX.length(), name.length() - WAL_SUFFIX.length())), file);
+                    } catch (NumberFormatException ignored) {
+                        // not one of ours
+                    }
+                }
+            });
+        }
+        return wals;
+    }
+
+    // ---- WAL replay ----
+
+    record ReplayResult(int records, boolean torn) {
+    }
+
+    private ReplayResult replay(byte[] bytes) {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        int records = 0;
+        try {
+            byte[] record;
+            while ((record = StateRecords.readFrame(in)) != null) {
+                if (!StateRecords.apply(record, registry, deadlineIndex)) {
+                    log.warn("State journal: skipping unknown record type {}", record[0]);
+                }
+                records++;
+            }
+            return new ReplayResult(records, false);
+        } catch (IOException | RuntimeException e) {
+            // Torn or corrupt, or a record that passed its CRC but does not decode (e.g. an unknown enum name)
+            return new ReplayResult(records, true);
+        }
+    }
+}
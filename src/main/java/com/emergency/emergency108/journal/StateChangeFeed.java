@@ -0,0 +1,74 @@
+package com.emergency.emergency108.journal;
+
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyChangedEvent;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Every change to the in-memory dispatch state, encoded once as a
+ * {@link StateRecords} record and handed to each subscriber: the state
+ * journal's WAL and any standby following this node.
+ *
+ * Assignment and emergency changes arrive after commit, right after the
+ * registry has applied them ({@link LiveAssignmentRegistry#EVENT_ORDER}), so
+ * a journal snapshot taken after a record is queued already contains its
+ * change. Deadline changes arrive from the index, under its lock, so they
+ * reach subscribers in the order they were made. Subscribers must not block.
+ * Nothing is encoded while there are no subscribers.
+ */
+@Component
+public class StateChangeFeed {
+
+    private final List<Consumer<byte[]>> subscribers = new CopyOnWriteArrayList<>();
+
+    public StateChangeFeed(HeartbeatDeadlineIndex deadlineIndex) {
+        deadlineIndex.setListener(new HeartbeatDeadlineIndex.Listener() {
+            @Override
+            public void tracked(long sessionId, long deadlineMillis) {
+                publish(() -> StateRecords.tracked(sessionId, deadlineMillis));
+            }
+
+            @Override
+            public void untracked(long sessionId) {
+                publish(() -> StateRecords.untracked(sessionId));
+            }
+        });
+    }
+
+    /** Start receiving records; run the returned handle to stop. */
+    public Runnable subscribe(Consumer<byte[]> subscriber) {
+        subscribers.add(subscriber);
+        return () -> subscribers.remove(subscriber);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(LiveAssignmentRegistry.EVENT_ORDER + 1)
+    public void onAssignmentChanged(AssignmentChangedEvent event) {
+        publish(() -> StateRecords.assignment(event));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(LiveAssignmentRegistry.EVENT_ORDER + 1)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        publish(() -> StateRecords.emergency(event));
+    }
+
+    private void publish(Supplier<byte[]> record) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        byte[] body = record.get();
+        for (Consumer<byte[]> subscriber : subscribers) {
+            subscriber.accept(body);
+        }
+    }
+}
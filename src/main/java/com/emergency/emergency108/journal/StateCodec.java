@@ -0,0 +1,195 @@
+package com.emergency.emergency108.journal;
+
+import com.emergency.emergency108.entity.ContactNotificationStatus;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencySourceType;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.PaymentStatus;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Binary encoding of the dispatch read-model records, shared by the
+ * snapshot and the write-ahead log.
+ *
+ * Every nullable field is preceded by a presence byte; enums are written by
+ * name so reordering the constants does not corrupt old files; times keep
+ * their nanoseconds so a restored record equals the one that was written.
+ */
+public final class StateCodec {
+
+    private StateCodec() {
+        // utility class
+    }
+
+    public static void writeAssignment(DataOutput out, AssignmentView a) throws IOException {
+        writeLong(out, a.id());
+        writeLong(out, a.emergencyId());
+        writeLong(out, a.ambulanceId());
+        writeLong(out, a.driverId());
+        writeEnum(out, a.status());
+        writeTime(out, a.assignedAt());
+        writeTime(out, a.acceptedAt());
+        writeTime(out, a.responseDeadline());
+        writeLong(out, a.version());
+    }
+
+    public static AssignmentView readAssignment(DataInput in) throws IOException {
+        return new AssignmentView(
+                readLong(in),
+                readLong(in),
+                readLong(in),
+                readLong(in),
+                readEnum(in, EmergencyAssignmentStatus.class),
+                readTime(in),
+                readTime(in),
+                readTime(in),
+                readLong(in));
+    }
+
+    public static void writeEmergency(DataOutput out, EmergencyView e) throws IOException {
+        writeLong(out, e.id());
+        writeString(out, e.type());
+        writeString(out, e.severity());
+        writeDouble(out, e.latitude());
+        writeDouble(out, e.longitude());
+        writeEnum(out, e.status());
+        writeLong(out, e.userId());
+        writeEnum(out, e.sourceType());
+        writeEnum(out, e.emergencyFor());
+        writeString(out, e.aiFirstAid());
+        writeDouble(out, e.hospitalLatitude());
+        writeDouble(out, e.hospitalLongitude());
+        writeDouble(out, e.distanceToHospital());
+        writeString(out, e.aiAssessment());
+        writeString(out, e.aiDoctorSummary());
+        writeEnum(out, e.paymentStatus());
+        writeDouble(out, e.fareAmount());
+        writeEnum(out, e.contactNotificationStatus());
+        writeTime(out, e.confirmationDeadline());
+        writeTime(out, e.confirmOwnershipDeadline());
+        writeTime(out, e.completedAt());
+        writeTime(out, e.createdAt());
+        writeTime(out, e.statusUpdatedAt());
+        writeLong(out, e.version());
+    }
+
+    public static EmergencyView readEmergency(DataInput in) throws IOException {
+        return new EmergencyView(
+                readLong(in),
+                readString(in),
+                readString(in),
+                readDouble(in),
+                readDouble(in),
+                readEnum(in, EmergencyStatus.class),
+                readLong(in),
+                readEnum(in, EmergencySourceType.class),
+                readEnum(in, EmergencyFor.class),
+                readString(in),
+                readDouble(in),
+                readDouble(in),
+                readDouble(in),
+                readString(in),
+                readString(in),
+                readEnum(in, PaymentStatus.class),
+                readDouble(in),
+                readEnum(in, ContactNotificationStatus.class),
+                readTime(in),
+                readTime(in),
+                readTime(in),
+                readTime(in),
+                readTime(in),
+                readLong(in));
+    }
+
+    /** An emergency snapshot that may be absent. */
+    public static void writeOptionalEmergency(DataOutput out, EmergencyView e) throws IOException {
+        out.writeBoolean(e != null);
+        if (e != null) {
+            writeEmergency(out, e);
+        }
+    }
+
+    public static EmergencyView readOptionalEmergency(DataInput in) throws IOException {
+        return in.readBoolean() ? readEmergency(in) : null;
+    }
+
+    // ---- fields ----
+
+    private static void writeLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    private static Long readLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    private static void writeDouble(DataOutput out, Double value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeDouble(value);
+        }
+    }
+
+    private static Double readDouble(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readDouble() : null;
+    }
+
+    // Length-prefixed UTF-8: writeUTF stops at 64 KB, first-aid text may not
+    private static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeEnum(DataOutput out, Enum<?> value) throws IOException {
+        writeString(out, value != null ? value.name() : null);
+    }
+
+    private static <E extends Enum<E>> E readEnum(DataInput in, Class<E> type) throws IOException {
+        String name = readString(in);
+        return name != null ? Enum.valueOf(type, name) : null;
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        long seconds = in.readLong();
+        int nanos = in.readInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,257 @@
+package com.emergency.emergency108.journal;
+
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyChangedEvent;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Wire format of the dispatch state, shared by the state journal (snapshot
+ * file + WAL) and the standby state stream (snapshot, then live records; the
+ * stream carries the heartbeat deadlines only).
+ *
+ * A record is one change: a type byte followed by its fields (StateCodec).
+ * Records are framed as int length, body, int CRC32 of the body, so a reader
+ * can tell a torn or corrupt tail from the end of the input.
+ */
+public final class StateRecords {
+
+    /** Stream only: sent when there is nothing else to send, so the reader can spot a dead primary. */
+    public static final byte KEEPALIVE = 0;
+    public static final byte ASSIGNMENT = 1;
+    public static final byte EMERGENCY = 2;
+    public static final byte TRACKED = 3;
+    public static final byte UNTRACKED = 4;
+
+    // Anything longer is a torn length prefix, not a record
+    private static final int MAX_RECORD_BYTES = 1 << 20;
+
+    private static final int SNAPSHOT_MAGIC = 0xE108_5A50;
+    // 2: emergency snapshots carry the assessment, payment and deadline fields
+    private static final int SNAPSHOT_VERSION = 2;
+
+    private StateRecords() {
+        // utility class
+    }
+
+    // ---- records ----
+
+    public static byte[] assignment(AssignmentChangedEvent event) {
+        return encode(ASSIGNMENT, out -> {
+            StateCodec.writeAssignment(out, event.assignment());
+            StateCodec.writeOptionalEmergency(out, event.emergency());
+        });
+    }
+
+    public static byte[] emergency(EmergencyChangedEvent event) {
+        return encode(EMERGENCY, out -> StateCodec.writeEmergency(out, event.emergency()));
+    }
+
+    public static byte[] tracked(long sessionId, long deadlineMillis) {
+        return encode(TRACKED, out -> {
+            out.writeLong(sessionId);
+            out.writeLong(deadlineMillis);
+        });
+    }
+
+    public static byte[] untracked(long sessionId) {
+        return encode(UNTRACKED, out -> out.writeLong(sessionId));
+    }
+
+    public static byte[] keepalive() {
+        return new byte[] {KEEPALIVE};
+    }
+
+    @FunctionalInterface
+    private interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private static byte[] encode(byte type, BodyWriter body) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(type);
+            body.write(out);
+        } catch (IOException e) {
+            // In-memory stream: only a bug gets here
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Apply one record to the registry and the index. Records are idempotent
+     * (assignments and emergencies apply by @Version, deadlines are
+     * set/remove), so replaying one twice is harmless.
+     *
+     * @return false for a keepalive or a record type this version does not know
+     */
+    public static boolean apply(byte[] body, LiveAssignmentRegistry registry,
+            HeartbeatDeadlineIndex deadlineIndex) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        switch (in.readByte()) {
+            case ASSIGNMENT -> registry.onAssignmentChanged(new AssignmentChangedEvent(
+                    StateCodec.readAssignment(in), StateCodec.readOptionalEmergency(in)));
+            case EMERGENCY -> registry.onEmergencyChanged(
+                    new EmergencyChangedEvent(StateCodec.readEmergency(in)));
+            case TRACKED -> deadlineIndex.track(in.readLong(), in.readLong());
+            case UNTRACKED -> deadlineIndex.untrack(in.readLong());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Whether a record is a heartbeat-deadline change (the only kind the standby stream carries). */
+    public static boolean isDeadline(byte[] body) {
+        return body.length > 0 && (body[0] == TRACKED || body[0] == UNTRACKED);
+    }
+
+    /**
+     * Apply a deadline record to the index.
+     *
+     * @return false for any other record
+     */
+    public static boolean applyDeadline(byte[] body, HeartbeatDeadlineIndex deadlineIndex) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+        switch (in.readByte()) {
+            case TRACKED -> deadlineIndex.track(in.readLong(), in.readLong());
+            case UNTRACKED -> deadlineIndex.untrack(in.readLong());
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // ---- framing ----
+
+    public static void writeFrame(DataOutput out, byte[] body) throws IOException {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        out.writeInt(body.length);
+        out.write(body);
+        out.writeInt((int) crc.getValue());
+    }
+
+    /**
+     * The body of the next record, or null at a clean end of input.
+     *
+     * @throws IOException on a torn or corrupt record
+     */
+    public static byte[] readFrame(DataInput in) throws IOException {
+        int length;
+        try {
+            length = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if (length <= 0 || length > MAX_RECORD_BYTES) {
+            throw new IOException("bad record length " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        if ((int) crc.getValue() != in.readInt()) {
+            throw new IOException("record checksum mismatch");
+        }
+        return body;
+    }
+
+    // ---- snapshot ----
+
+    /**
+     * The whole state at one point: the live assignments with their emergency
+     * snapshots, and the heartbeat deadlines. walSeq is the first WAL file
+     * after it (journal only, 0 on the stream).
+     */
+    public record Snapshot(long createdAtMillis, long walSeq,
+            List<AssignmentChangedEvent> assignments, Map<Long, Long> deadlines) {
+    }
+
+    /**
+     * magic, version, created-at millis, WAL seq,
+     * assignment count + (assignment, optional emergency)...,
+     * deadline count + (session id, deadline millis)..., CRC32 of all before.
+     */
+    public static byte[] writeSnapshot(Snapshot snapshot) {
+        List<AssignmentChangedEvent> assignments = snapshot.assignments();
+        Map<Long, Long> deadlines = snapshot.deadlines();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + assignments.size() * 256 + deadlines.size() * 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(snapshot.createdAtMillis());
+            out.writeLong(snapshot.walSeq());
+
+            out.writeInt(assignments.size());
+            for (AssignmentChangedEvent entry : assignments) {
+                StateCodec.writeAssignment(out, entry.assignment());
+                StateCodec.writeOptionalEmergency(out, entry.emergency());
+            }
+            out.writeInt(deadlines.size());
+            for (Map.Entry<Long, Long> deadline : deadlines.entrySet()) {
+                out.writeLong(deadline.getKey());
+                out.writeLong(deadline.getValue());
+            }
+            out.flush();
+
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static Snapshot readSnapshot(byte[] bytes) throws IOException {
+        if (bytes.length < 4) {
+            throw new IOException("snapshot truncated");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes, 0, bytes.length - 4);
+        int expected = new DataInputStream(new ByteArrayInputStream(bytes, bytes.length - 4, 4)).readInt();
+        if ((int) crc.getValue() != expected) {
+            throw new IOException("snapshot checksum mismatch");
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 0, bytes.length - 4));
+        if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+            throw new IOException("not a version " + SNAPSHOT_VERSION + " snapshot");
+        }
+        long createdAt = in.readLong();
+        long walSeq = in.readLong();
+
+        int assignmentCount = in.readInt();
+        List<AssignmentChangedEvent> assignments = new ArrayList<>(assignmentCount);
+        for (int i = 0; i < assignmentCount; i++) {
+            assignments.add(new AssignmentChangedEvent(
+                    StateCodec.readAssignment(in), StateCodec.readOptionalEmergency(in)));
+        }
+        int deadlineCount = in.readInt();
+        Map<Long, Long> deadlines = new HashMap<>(deadlineCount * 2);
+        for (int i = 0; i < deadlineCount; i++) {
+            deadlines.put(in.readLong(), in.readLong());
+        }
+        return new Snapshot(createdAt, walSeq, assignments, deadlines);
+    }
+}
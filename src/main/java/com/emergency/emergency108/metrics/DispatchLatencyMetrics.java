@@ -0,0 +1,171 @@
+package com.emergency.emergency108.metrics;
+
+import com.emergency.emergency108.entity.Ambulance;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.resilience.DomainSafety;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * Call-to-wheels latency, broken down by lifecycle stage.
+ *
+ * Each stage is the timer emergency.stage.duration with a percentile
+ * histogram (Prometheus: emergency_stage_duration_seconds_bucket), tagged by
+ * stage, region (a coarse lat/lng grid cell) and ambulance type:
+ *
+ *   created_to_dispatched   emergency created -> first driver offered
+ *   dispatched_to_accepted  offer sent -> driver accepted
+ *   accepted_to_picked_up   driver accepted -> patient on board
+ *   picked_up_to_arrived    patient on board -> arrived at hospital
+ *
+ * The SLO is "a driver accepts within the target after the emergency was
+ * created". Every acceptance and every emergency that runs out of drivers is
+ * one event; burn rate over 5 minutes and 1 hour is exported as
+ * emergency.dispatch.slo.burn.rate{window}.
+ */
+@Component
+public class DispatchLatencyMetrics {
+
+    public static final String STAGE_CREATED_TO_DISPATCHED = "created_to_dispatched";
+    public static final String STAGE_DISPATCHED_TO_ACCEPTED = "dispatched_to_accepted";
+    public static final String STAGE_ACCEPTED_TO_PICKED_UP = "accepted_to_picked_up";
+    public static final String STAGE_PICKED_UP_TO_ARRIVED = "picked_up_to_arrived";
+
+    private static final String UNKNOWN = "unknown";
+
+    private final MeterRegistry registry;
+    private final double regionCellDegrees;
+    private final Duration acceptTarget;
+    private final SloTracker acceptSlo;
+
+    public DispatchLatencyMetrics(
+            MeterRegistry registry,
+            @Value("${app.metrics.region-cell-degrees:1.0}") double regionCellDegrees,
+            @Value("${app.slo.accept.target-seconds:120}") long acceptTargetSeconds,
+            @Value("${app.slo.accept.objective:0.99}") double acceptObjective) {
+        this.registry = registry;
+        this.regionCellDegrees = regionCellDegrees;
+        this.acceptTarget = Duration.ofSeconds(acceptTargetSeconds);
+        this.acceptSlo = new SloTracker(acceptObjective, 60, System::currentTimeMillis);
+
+        Gauge.builder("emergency.dispatch.slo.burn.rate", acceptSlo, slo -> slo.burnRate(5))
+                .description("Error budget burn rate of the created-to-accepted SLO")
+                .tag("window", "5m")
+                .register(registry);
+
+        Gauge.builder("emergency.dispatch.slo.burn.rate", acceptSlo, slo -> slo.burnRate(60))
+                .description("Error budget burn rate of the created-to-accepted SLO")
+                .tag("window", "1h")
+                .register(registry);
+
+        Gauge.builder("emergency.dispatch.slo.objective", acceptSlo, SloTracker::getObjective)
+                .description("Target fraction of emergencies accepted within the SLO")
+                .register(registry);
+    }
+
+    // ---- stages ----
+
+    /**
+     * First offer for an emergency went out. Re-dispatches (after a rejection
+     * or timeout) only bump the re-dispatch counter, so this stage stays the
+     * time to the first offer.
+     */
+    public void emergencyDispatched(Emergency emergency, Ambulance ambulance, boolean redispatch) {
+        DomainSafety.runSafely("METRIC_STAGE_DISPATCHED", () -> {
+            if (redispatch) {
+                Counter.builder("emergency.redispatch")
+                        .description("Emergencies offered to another driver after a rejection or timeout")
+                        .tag("region", region(emergency))
+                        .tag("ambulanceType", ambulanceType(ambulance))
+                        .register(registry)
+                        .increment();
+                return;
+            }
+            record(STAGE_CREATED_TO_DISPATCHED, emergency, ambulance,
+                    emergency.getCreatedAt(), LocalDateTime.now());
+        });
+    }
+
+    public void assignmentAccepted(Emergency emergency, Ambulance ambulance,
+            LocalDateTime assignedAt, LocalDateTime acceptedAt) {
+        DomainSafety.runSafely("METRIC_STAGE_ACCEPTED", () -> {
+            record(STAGE_DISPATCHED_TO_ACCEPTED, emergency, ambulance, assignedAt, acceptedAt);
+
+            if (emergency.getCreatedAt() != null && acceptedAt != null) {
+                Duration callToAccept = Duration.between(emergency.getCreatedAt(), acceptedAt);
+                acceptSlo.record(callToAccept.compareTo(acceptTarget) <= 0);
+            }
+        });
+    }
+
+    public void patientPickedUp(Emergency emergency, Ambulance ambulance,
+            LocalDateTime acceptedAt, LocalDateTime pickedUpAt) {
+        DomainSafety.runSafely("METRIC_STAGE_PICKED_UP",
+                () -> record(STAGE_ACCEPTED_TO_PICKED_UP, emergency, ambulance, acceptedAt, pickedUpAt));
+    }
+
+    public void arrivedAtHospital(Emergency emergency, Ambulance ambulance,
+            LocalDateTime pickedUpAt, LocalDateTime arrivedAt) {
+        DomainSafety.runSafely("METRIC_STAGE_ARRIVED",
+                () -> record(STAGE_PICKED_UP_TO_ARRIVED, emergency, ambulance, pickedUpAt, arrivedAt));
+    }
+
+    /**
+     * No driver could be found for the emergency: counts against the SLO.
+     */
+    public void dispatchExhausted(Emergency emergency) {
+        DomainSafety.runSafely("METRIC_DISPATCH_EXHAUSTED", () -> {
+            Counter.builder("emergency.dispatch.exhausted")
+                    .description("Emergencies left without any available driver")
+                    .tag("region", region(emergency))
+                    .register(registry)
+                    .increment();
+            acceptSlo.record(false);
+        });
+    }
+
+    private void record(String stage, Emergency emergency, Ambulance ambulance,
+            LocalDateTime from, LocalDateTime to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            return;
+        }
+
+        Timer.builder("emergency.stage.duration")
+                .description("Time spent in each stage of the emergency lifecycle")
+                .tag("stage", stage)
+                .tag("region", region(emergency))
+                .tag("ambulanceType", ambulanceType(ambulance))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofSeconds(1))
+                .maximumExpectedValue(Duration.ofHours(2))
+                .register(registry)
+                .record(Duration.between(from, to));
+    }
+
+    /**
+     * South-west corner of the grid cell containing the emergency, e.g.
+     * "28.0_77.0" for 1-degree cells. Keeps the tag cardinality bounded.
+     */
+    String region(Emergency emergency) {
+        if (emergency == null || emergency.getLatitude() == null || emergency.getLongitude() == null) {
+            return UNKNOWN;
+        }
+        double lat = Math.floor(emergency.getLatitude() / regionCellDegrees) * regionCellDegrees;
+        double lng = Math.floor(emergency.getLongitude() / regionCellDegrees) * regionCellDegrees;
+        return String.format(Locale.ROOT, "%.1f_%.1f", lat, lng);
+    }
+
+    private static String ambulanceType(Ambulance ambulance) {
+        return ambulance != null && ambulance.getAmbulanceType() != null
+                ? ambulance.getAmbulanceType().name()
+                : UNKNOWN;
+    }
+}
@@ -7,6 +7,9 @@ import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Component
 public class DomainMetrics {
 
@@ -28,9 +31,16 @@ public class DomainMetrics {
 
     private final Timer dispatchTimer;
     private final Timer acceptTimer;
+    private final Timer failedAcceptTimer;
+
+    // Heartbeats by driver state (driver.heartbeat.ingested{state}), registered on first use
+    private final MeterRegistry registry;
+    private final Map<String, Counter> heartbeatsByState = new ConcurrentHashMap<>();
 
     public DomainMetrics(MeterRegistry registry) {
 
+        this.registry = registry;
+
         this.dispatchAttempt =
                 Counter.builder("emergency.dispatch.attempt")
                         .description("Dispatch attempts")
@@ -69,6 +79,13 @@ public class DomainMetrics {
         this.acceptTimer =
                 Timer.builder("assignment.accept.time")
                         .description("Assignment accept time")
+                        .tag("outcome", "accepted")
+                        .register(registry);
+
+        this.failedAcceptTimer =
+                Timer.builder("assignment.accept.time")
+                        .description("Assignment accept time")
+                        .tag("outcome", "failed")
                         .register(registry);
 
         this.assignmentCompleted =
@@ -143,6 +160,14 @@ public class DomainMetrics {
             heartbeatReceived::increment
     ); }
     
+    public void heartbeatIngested(String state) { DomainSafety.runSafely(
+            "METRIC_HEARTBEAT_INGESTED",
+            () -> heartbeatsByState.computeIfAbsent(state, s -> Counter.builder("driver.heartbeat.ingested")
+                    .description("GPS heartbeats ingested, by driver state")
+                    .tag("state", s)
+                    .register(registry)).increment()
+    ); }
+
     public void staleDriverDetected() { DomainSafety.runSafely(
             "METRIC_STALE_DRIVER_DETECTED",
             staleDriverDetected::increment
@@ -178,7 +203,8 @@ public class DomainMetrics {
         return Timer.start();
     }
 
-    public void stopAcceptTimer(Timer.Sample sample) {
-        sample.stop(acceptTimer);
+    /** outcome=accepted, or outcome=failed when the accept threw. */
+    public void stopAcceptTimer(Timer.Sample sample, boolean accepted) {
+        sample.stop(accepted ? acceptTimer : failedAcceptTimer);
     }
 }
@@ -0,0 +1,75 @@
+package com.emergency.emergency108.metrics;
+
+import com.emergency.emergency108.realtime.DriverChannelRegistry;
+import com.emergency.emergency108.resilience.DomainSafety;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Latency of assignment offers pushed over the driver channel, measured from
+ * the assignment's assignedAt:
+ *
+ *   driver.offer.delivery{stage=sent}          frame handed to the driver's connection
+ *   driver.offer.delivery{stage=acknowledged}  driver app acknowledged the offer
+ *
+ * Offers for drivers without an open channel are counted as
+ * driver.offer.undelivered (the app picks them up by polling or on reconnect).
+ */
+@Component
+public class OfferDeliveryMetrics {
+
+    private final Timer sent;
+    private final Timer acknowledged;
+    private final Counter undelivered;
+
+    public OfferDeliveryMetrics(MeterRegistry registry, DriverChannelRegistry channels) {
+        this.sent = deliveryTimer(registry, "sent");
+        this.acknowledged = deliveryTimer(registry, "acknowledged");
+
+        this.undelivered = Counter.builder("driver.offer.undelivered")
+                .description("Assignment offers not pushed because the driver had no open channel")
+                .register(registry);
+
+        Gauge.builder("driver.channel.connected", channels, DriverChannelRegistry::connectedCount)
+                .description("Drivers with an open push channel")
+                .register(registry);
+    }
+
+    public void offerSent(LocalDateTime assignedAt) {
+        DomainSafety.runSafely("METRIC_OFFER_SENT", () -> record(sent, assignedAt));
+    }
+
+    public void offerAcknowledged(LocalDateTime assignedAt) {
+        DomainSafety.runSafely("METRIC_OFFER_ACKNOWLEDGED", () -> record(acknowledged, assignedAt));
+    }
+
+    public void offerUndelivered() {
+        DomainSafety.runSafely("METRIC_OFFER_UNDELIVERED", undelivered::increment);
+    }
+
+    private static void record(Timer timer, LocalDateTime assignedAt) {
+        if (assignedAt == null) {
+            return;
+        }
+        Duration latency = Duration.between(assignedAt, LocalDateTime.now());
+        if (!latency.isNegative()) {
+            timer.record(latency);
+        }
+    }
+
+    private static Timer deliveryTimer(MeterRegistry registry, String stage) {
+        return Timer.builder("driver.offer.delivery")
+                .description("Time from assignment creation to the offer reaching the driver")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(60))
+                .register(registry);
+    }
+}
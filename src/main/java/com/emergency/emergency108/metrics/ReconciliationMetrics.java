@@ -0,0 +1,97 @@
+package com.emergency.emergency108.metrics;
+
+import com.emergency.emergency108.resilience.DomainSafety;
+import com.emergency.emergency108.resilience.StateReconciler;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Startup recovery and invariant sweep metrics:
+ *
+ *   system.startup.time_to_ready            JVM start -> system marked ready
+ *   system.reconciliation.duration{phase}   one reconciliation pass (startup | sweep)
+ *   system.reconciliation.repaired{phase,invariant}
+ *                                           rows fixed, by broken invariant
+ *   driver.session.invariant.duration{check}
+ *                                           one driver-session invariant check
+ *   driver.session.invariant.violations{check}
+ *                                           violations found by the last run of a check
+ */
+@Component
+public class ReconciliationMetrics {
+
+    public static final String PHASE_STARTUP = "startup";
+    public static final String PHASE_SWEEP = "sweep";
+
+    private final MeterRegistry registry;
+    private final AtomicLong timeToReadyMillis = new AtomicLong();
+    private final Map<String, AtomicInteger> violationsByCheck = new ConcurrentHashMap<>();
+
+    public ReconciliationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+
+        TimeGauge.builder("system.startup.time_to_ready", timeToReadyMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+                .description("Time from JVM start until startup recovery marked the system ready")
+                .register(registry);
+    }
+
+    public void systemReady(Duration sinceJvmStart) {
+        DomainSafety.runSafely("METRIC_TIME_TO_READY",
+                () -> timeToReadyMillis.set(sinceJvmStart.toMillis()));
+    }
+
+    public void reconciled(String phase, Duration duration, StateReconciler.Report report) {
+        DomainSafety.runSafely("METRIC_RECONCILIATION", () -> {
+            Timer.builder("system.reconciliation.duration")
+                    .description("Duration of one set-based reconciliation pass")
+                    .tag("phase", phase)
+                    .register(registry)
+                    .record(duration);
+
+            repaired(phase, "expired_offer", report.expiredOffers());
+            repaired(phase, "busy_ambulance_without_assignment", report.releasedAmbulances());
+            repaired(phase, "emergency_without_assignment", report.unassignedEmergencies());
+        });
+    }
+
+    public void invariantChecked(String check, Duration duration, int violations) {
+        DomainSafety.runSafely("METRIC_INVARIANT_CHECK", () -> {
+            Timer.builder("driver.session.invariant.duration")
+                    .description("Duration of one driver session invariant check")
+                    .tag("check", check)
+                    .register(registry)
+                    .record(duration);
+
+            violationsByCheck.computeIfAbsent(check, c -> {
+                AtomicInteger holder = new AtomicInteger();
+                Gauge.builder("driver.session.invariant.violations", holder, AtomicInteger::get)
+                        .description("Violations found by the last run of a driver session invariant check")
+                        .tag("check", c)
+                        .register(registry);
+                return holder;
+            }).set(violations);
+        });
+    }
+
+    private void repaired(String phase, String invariant, int rows) {
+        Counter counter = Counter.builder("system.reconciliation.repaired")
+                .description("Rows repaired by reconciliation, by broken invariant")
+                .tag("phase", phase)
+                .tag("invariant", invariant)
+                .register(registry);
+        if (rows > 0) {
+            counter.increment(rows);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.emergency.emergency108.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Sliding-window good/bad event counter for one SLO.
+ *
+ * Events land in per-minute buckets of a fixed ring (one hour by default).
+ * A bucket is lazily reset the first time it is touched in a new minute, so
+ * recording is lock-free and constant time. Burn rate over a window is the
+ * observed error ratio divided by the error budget (1 - objective): 1.0 means
+ * the budget is being spent exactly as fast as the SLO allows, 14.4 over one
+ * hour is the usual page threshold.
+ */
+public class SloTracker {
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final double objective;
+    private final int buckets;
+    private final LongSupplier clock;
+
+    // Per slot: minute the slot currently holds, total events, bad events
+    private final AtomicLongArray slotMinute;
+    private final AtomicLongArray total;
+    private final AtomicLongArray bad;
+
+    public SloTracker(double objective, int windowMinutes, LongSupplier clock) {
+        if (objective <= 0 || objective >= 1) {
+            throw new IllegalArgumentException("SLO objective must be between 0 and 1: " + objective);
+        }
+        if (windowMinutes < 1) {
+            throw new IllegalArgumentException("SLO window must be at least one minute: " + windowMinutes);
+        }
+        this.objective = objective;
+        this.buckets = windowMinutes;
+        this.clock = clock;
+        this.slotMinute = new AtomicLongArray(windowMinutes);
+        this.total = new AtomicLongArray(windowMinutes);
+        this.bad = new AtomicLongArray(windowMinutes);
+        for (int i = 0; i < windowMinutes; i++) {
+            slotMinute.set(i, Long.MIN_VALUE);
+        }
+    }
+
+    public double getObjective() {
+        return objective;
+    }
+
+    public void record(boolean good) {
+        long minute = clock.getAsLong() / MINUTE_MILLIS;
+        int slot = slot(minute);
+        total.incrementAndGet(slot);
+        if (!good) {
+            bad.incrementAndGet(slot);
+        }
+    }
+
+    /**
+     * Error ratio over the last windowMinutes (including the current minute),
+     * or 0 when no events were recorded.
+     */
+    public double errorRatio(int windowMinutes) {
+        long now = clock.getAsLong() / MINUTE_MILLIS;
+        int window = Math.min(windowMinutes, buckets);
+
+        long events = 0;
+        long errors = 0;
+        for (int i = 0; i < buckets; i++) {
+            long minute = slotMinute.get(i);
+            if (minute > now - window && minute <= now) {
+                events += total.get(i);
+                errors += bad.get(i);
+            }
+        }
+        return events == 0 ? 0.0 : (double) errors / events;
+    }
+
+    public double burnRate(int windowMinutes) {
+        return errorRatio(windowMinutes) / (1.0 - objective);
+    }
+
+    private int slot(long minute) {
+        int slot = (int) Math.floorMod(minute, (long) buckets);
+        long held = slotMinute.get(slot);
+        if (held != minute && slotMinute.compareAndSet(slot, held, minute)) {
+            // First event of a new minute in this slot: drop the stale counts.
+            // A concurrent increment racing the reset can be lost; acceptable for a gauge.
+            total.set(slot, 0);
+            bad.set(slot, 0);
+        }
+        return slot;
+    }
+}
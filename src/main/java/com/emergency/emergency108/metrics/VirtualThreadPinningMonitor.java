@@ -0,0 +1,120 @@
+package com.emergency.emergency108.metrics;
+
+import com.emergency.emergency108.resilience.DomainSafety;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedMethod;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Detects virtual threads pinned to their carrier thread.
+ *
+ * A virtual thread that blocks inside a synchronized block or a native frame
+ * (JDBC driver internals, Firebase HTTP client locks) cannot unmount and holds
+ * a carrier for the whole wait. The JVM reports this as the JFR event
+ * jdk.VirtualThreadPinned; this monitor streams that event in-process and
+ * records it as the timer jvm.threads.virtual.pinned tagged by call site.
+ *
+ * Only active when spring.threads.virtual.enabled=true and the runtime is
+ * Java 21+. On older runtimes Spring Boot silently keeps platform threads.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APP_PACKAGE = "com.emergency.";
+
+    private final MeterRegistry registry;
+    private final Duration threshold;
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(
+            MeterRegistry registry,
+            @Value("${app.threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.registry = registry;
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    public void start() {
+        int feature = Runtime.version().feature();
+        if (feature < 21) {
+            log.warn("⚠️ Virtual threads requested but JVM is Java {} - request, scheduler and async " +
+                    "threads stay on platform threads (Java 21+ required)", feature);
+            return;
+        }
+
+        DomainSafety.runSafely("VTHREAD_PINNING_MONITOR_START", () -> {
+            RecordingStream rs = new RecordingStream();
+            rs.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+            rs.onEvent(PINNED_EVENT, this::record);
+            rs.startAsync();
+            stream = rs;
+            log.info("🧵 Virtual thread pinning monitor started (threshold {} ms)", threshold.toMillis());
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void record(RecordedEvent event) {
+        String site = callSite(event.getStackTrace());
+
+        Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads spent pinned to a carrier thread")
+                .tag("site", site)
+                .register(registry)
+                .record(event.getDuration());
+
+        log.debug("📌 Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), site);
+    }
+
+    /**
+     * Reduces a pinned stack to a low-cardinality tag: "jdbc" when the pin
+     * happened inside the driver or pool, otherwise the innermost application
+     * frame (Class.method), otherwise "other".
+     */
+    static String callSite(RecordedStackTrace trace) {
+        if (trace == null) {
+            return "unknown";
+        }
+
+        String appFrame = null;
+        for (RecordedFrame frame : trace.getFrames()) {
+            RecordedMethod method = frame.getMethod();
+            if (method == null || method.getType() == null) {
+                continue;
+            }
+
+            String type = method.getType().getName();
+            if (type.startsWith("com.mysql.") || type.startsWith("com.zaxxer.hikari.")) {
+                return "jdbc";
+            }
+            if (appFrame == null && type.startsWith(APP_PACKAGE)) {
+                appFrame = type.substring(type.lastIndexOf('.') + 1) + "." + method.getName();
+            }
+        }
+
+        return appFrame != null ? appFrame : "other";
+    }
+}
@@ -0,0 +1,348 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.dto.ActiveEmergencyRow;
+import com.emergency.emergency108.dto.NearbyEmergencyDTO;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.util.GeoUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory geo index of the emergencies a Helping Hand user may see: SOS
+ * raised for oneself (SELF) that are still CREATED, IN_PROGRESS or
+ * DISPATCHED. Entries sit in a lat/lng grid with the victim's first name
+ * already resolved, so a radius query only looks at the cells around the
+ * helper and never touches the database.
+ *
+ * Built on startup, then maintained from {@link EmergencyChangedEvent}
+ * after each commit (creation, every status change) and ordered by the
+ * entity @Version. Bulk reconciliation UPDATEs bypass the events, so the
+ * index is also rebuilt every app.helping-hand.index.rebuild-ms. Reads are
+ * lock-free; writes are serialized. Until the first build
+ * {@link #isReady()} is false and callers fall back to the repository.
+ *
+ * Not built in cluster mode; see {@link ClusterCoordinator}.
+ */
+@Component
+public class ActiveEmergencyIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ActiveEmergencyIndex.class);
+
+    /** Statuses a helper can still respond to. */
+    public static final List<EmergencyStatus> VISIBLE =
+            List.of(EmergencyStatus.CREATED, EmergencyStatus.IN_PROGRESS, EmergencyStatus.DISPATCHED);
+
+    public static final String ANONYMOUS_VICTIM = "User nearby";
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    // Versions of recently removed emergencies, to drop stale events that arrive after the removal
+    private static final int REMOVED_VERSIONS_CAPACITY = 10_000;
+
+    private final EmergencyRepository emergencyRepository;
+    private final UserRepository userRepository;
+    private final double cellDegrees;
+
+    private final Map<Long, Entry> byId = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Entry>> byCell = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> removedVersions = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > REMOVED_VERSIONS_CAPACITY;
+        }
+    };
+
+    // Emergencies changed by events while a rebuild is loading; they keep the event's state
+    private Set<Long> changedDuringRebuild;
+
+    private volatile boolean ready;
+    private final ClusterCoordinator cluster;
+
+    public ActiveEmergencyIndex(
+            EmergencyRepository emergencyRepository,
+            UserRepository userRepository,
+            @Value("${app.helping-hand.index.cell-degrees:0.05}") double cellDegrees,
+            ClusterCoordinator cluster) {
+        this.emergencyRepository = emergencyRepository;
+        this.userRepository = userRepository;
+        this.cellDegrees = cellDegrees;
+        this.cluster = cluster;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public int size() {
+        return byId.size();
+    }
+
+    // ---- queries ----
+
+    /**
+     * Up to limit indexed emergencies within radiusKm of the point, nearest
+     * first, leaving out those raised by excludeUserId.
+     */
+    public List<NearbyEmergencyDTO> nearby(double lat, double lng, double radiusKm, Long excludeUserId, int limit) {
+        if (limit <= 0 || radiusKm < 0) {
+            return List.of();
+        }
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double lngSpan = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        long rowFrom = cellIndex(lat - latSpan);
+        long rowTo = cellIndex(lat + latSpan);
+        long colFrom = cellIndex(lng - lngSpan);
+        long colTo = cellIndex(lng + lngSpan);
+
+        // Farthest on top, so the heap keeps the nearest `limit`
+        PriorityQueue<Match> nearest = new PriorityQueue<>(
+                Math.min(limit, 64) + 1, Comparator.comparingDouble(Match::distanceKm).reversed());
+
+        if ((rowTo - rowFrom + 1) * (colTo - colFrom + 1) > byCell.size()) {
+            // A radius wider than the populated area: visiting the cells that exist is cheaper
+            for (Map<Long, Entry> cell : byCell.values()) {
+                collect(cell, lat, lng, radiusKm, excludeUserId, limit, nearest);
+            }
+        } else {
+            for (long row = rowFrom; row <= rowTo; row++) {
+                for (long col = colFrom; col <= colTo; col++) {
+                    Map<Long, Entry> cell = byCell.get(cellKey(row, col));
+                    if (cell != null) {
+                        collect(cell, lat, lng, radiusKm, excludeUserId, limit, nearest);
+                    }
+                }
+            }
+        }
+
+        List<Match> matches = new ArrayList<>(nearest);
+        matches.sort(Comparator.comparingDouble(Match::distanceKm));
+        List<NearbyEmergencyDTO> results = new ArrayList<>(matches.size());
+        for (Match match : matches) {
+            Entry e = match.entry();
+            results.add(new NearbyEmergencyDTO(e.id(), e.type(), e.lat(), e.lng(), match.distanceKm(),
+                    e.victimName(), e.status().toString()));
+        }
+        return results;
+    }
+
+    private static void collect(Map<Long, Entry> cell, double lat, double lng, double radiusKm,
+                                Long excludeUserId, int limit, PriorityQueue<Match> nearest) {
+        for (Entry entry : cell.values()) {
+            if (excludeUserId != null && excludeUserId.equals(entry.userId())) {
+                continue;
+            }
+            double distanceKm = GeoUtil.distanceKm(lat, lng, entry.lat(), entry.lng());
+            if (distanceKm > radiusKm) {
+                continue;
+            }
+            if (nearest.size() < limit) {
+                nearest.add(new Match(entry, distanceKm));
+            } else if (distanceKm < nearest.peek().distanceKm()) {
+                nearest.poll();
+                nearest.add(new Match(entry, distanceKm));
+            }
+        }
+    }
+
+    /** First name for display, or {@link #ANONYMOUS_VICTIM} when there is none. */
+    public static String firstName(String fullName) {
+        if (fullName == null || fullName.isBlank()) {
+            return ANONYMOUS_VICTIM;
+        }
+        return fullName.trim().split(" ")[0];
+    }
+
+    // ---- maintenance ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void buildOnStartup() {
+        rebuild();
+    }
+
+    /** Reload the index from the database. */
+    @Scheduled(
+            fixedDelayString = "${app.helping-hand.index.rebuild-ms:60000}",
+            initialDelayString = "${app.helping-hand.index.rebuild-ms:60000}")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void rebuild() {
+        if (cluster.isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        load(emergencyRepository.findActiveRows(VISIBLE, EmergencyFor.SELF));
+    }
+
+    /**
+     * Replace the contents with the given rows and mark the index ready.
+     * Emergencies changed by events since {@link #rebuild()} started keep
+     * their event state.
+     */
+    public synchronized void load(List<ActiveEmergencyRow> rows) {
+        Set<Long> keep = changedDuringRebuild != null ? changedDuringRebuild : Set.of();
+        changedDuringRebuild = null;
+
+        Set<Long> stale = new HashSet<>(byId.keySet());
+        long corrected = 0;
+        for (ActiveEmergencyRow row : rows) {
+            if (row.id() == null || row.latitude() == null || row.longitude() == null) {
+                continue;
+            }
+            stale.remove(row.id());
+            if (keep.contains(row.id())) {
+                continue;
+            }
+            Entry current = byId.get(row.id());
+            Entry loaded = new Entry(row.id(), row.type(), row.latitude(), row.longitude(), row.status(),
+                    row.userId(), firstName(row.victimName()), row.version(),
+                    cellKey(cellIndex(row.latitude()), cellIndex(row.longitude())));
+            if (!loaded.equals(current)) {
+                corrected++;
+                if (current != null) {
+                    unlink(current);
+                }
+                link(loaded);
+            }
+        }
+        for (Long id : stale) {
+            if (!keep.contains(id)) {
+                corrected++;
+                unlink(byId.get(id));
+            }
+        }
+
+        if (!ready) {
+            ready = true;
+            log.info("🙌 Helping Hand index built: {} open SELF emergencies", byId.size());
+        } else if (corrected > 0) {
+            log.info("🙌 Helping Hand index corrected {} emergencies from the database", corrected);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        EmergencyView view = event.emergency();
+        if (cluster.isEnabled() || view.id() == null) {
+            return;
+        }
+
+        boolean visible = view.emergencyFor() == EmergencyFor.SELF
+                && VISIBLE.contains(view.status())
+                && view.latitude() != null && view.longitude() != null;
+        // Resolved once per emergency, outside the lock; later status changes reuse it
+        String victimName = visible ? victimName(view) : null;
+
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(view.id());
+            }
+            Entry incoming = visible
+                    ? new Entry(view.id(), view.type(), view.latitude(), view.longitude(), view.status(),
+                            view.userId(), victimName, view.version(),
+                            cellKey(cellIndex(view.latitude()), cellIndex(view.longitude())))
+                    : null;
+            apply(view.id(), incoming, view.version());
+        }
+    }
+
+    private String victimName(EmergencyView view) {
+        Entry indexed = byId.get(view.id());
+        if (indexed != null) {
+            return indexed.victimName();
+        }
+        if (view.userId() == null) {
+            return ANONYMOUS_VICTIM;
+        }
+        try {
+            return firstName(userRepository.findById(view.userId()).map(User::getName).orElse(null));
+        } catch (RuntimeException e) {
+            log.warn("Could not resolve the victim name of emergency {}: {}", view.id(), e.getMessage());
+            return ANONYMOUS_VICTIM;
+        }
+    }
+
+    /** Index, move or remove (incoming null) one emergency, unless the change is older than what is held. */
+    private void apply(long id, Entry incoming, Long version) {
+        Entry current = byId.get(id);
+        if (current != null && version != null && current.version() != null && version < current.version()) {
+            return;
+        }
+        Long removedAt = removedVersions.get(id);
+        if (removedAt != null && (version == null || version <= removedAt)) {
+            return;
+        }
+
+        if (current != null) {
+            unlink(current);
+        }
+        if (incoming != null) {
+            link(incoming);
+        } else if (current != null) {
+            removedVersions.put(id, version != null ? version : Long.MAX_VALUE);
+        }
+    }
+
+    private void link(Entry entry) {
+        byId.put(entry.id(), entry);
+        byCell.computeIfAbsent(entry.cell(), c -> new ConcurrentHashMap<>()).put(entry.id(), entry);
+    }
+
+    private void unlink(Entry entry) {
+        byId.remove(entry.id());
+        Map<Long, Entry> cell = byCell.get(entry.cell());
+        if (cell != null) {
+            cell.remove(entry.id());
+            if (cell.isEmpty()) {
+                byCell.remove(entry.cell());
+            }
+        }
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    private record Entry(long id, String type, double lat, double lng, EmergencyStatus status, Long userId,
+                         String victimName, Long version, long cell) {
+    }
+
+    private record Match(Entry entry, double distanceKm) {
+    }
+}
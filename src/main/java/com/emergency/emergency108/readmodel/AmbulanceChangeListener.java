@@ -0,0 +1,27 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.Ambulance;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every Ambulance write into an
+ * {@link AmbulanceChangedEvent}.
+ */
+@Component
+public class AmbulanceChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    public AmbulanceChangeListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Ambulance ambulance) {
+        events.publishEvent(new AmbulanceChangedEvent(AmbulanceView.of(ambulance)));
+    }
+}
@@ -0,0 +1,32 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.Ambulance;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.AmbulanceType;
+
+/**
+ * Immutable snapshot of the Ambulance fields read models need: status for
+ * the dashboard counters, position for the fleet map.
+ */
+public record AmbulanceView(
+        Long id,
+        String code,
+        String licensePlate,
+        AmbulanceStatus status,
+        AmbulanceType ambulanceType,
+        Double latitude,
+        Double longitude,
+        Long version) {
+
+    public static AmbulanceView of(Ambulance ambulance) {
+        return new AmbulanceView(
+                ambulance.getId(),
+                ambulance.getCode(),
+                ambulance.getLicensePlate(),
+                ambulance.getStatus(),
+                ambulance.getAmbulanceType(),
+                ambulance.getLatitude(),
+                ambulance.getLongitude(),
+                ambulance.getVersion());
+    }
+}
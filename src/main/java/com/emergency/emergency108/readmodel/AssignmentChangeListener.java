@@ -0,0 +1,33 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every EmergencyAssignment write into an
+ * {@link AssignmentChangedEvent}. Hibernate resolves it through Spring's bean
+ * container, so it gets constructor injection like any other bean.
+ */
+@Component
+public class AssignmentChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    public AssignmentChangeListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(EmergencyAssignment assignment) {
+        // Never trigger a lazy load from inside a flush
+        EmergencyView emergency = assignment.getEmergency() != null && Hibernate.isInitialized(assignment.getEmergency())
+                ? EmergencyView.of(assignment.getEmergency())
+                : null;
+        events.publishEvent(new AssignmentChangedEvent(AssignmentView.of(assignment), emergency));
+    }
+}
@@ -0,0 +1,12 @@
+package com.emergency.emergency108.readmodel;
+
+/**
+ * An EmergencyAssignment was inserted or updated. Published from the JPA
+ * flush; consume with @TransactionalEventListener so only committed changes
+ * are seen.
+ *
+ * @param emergency snapshot of the emergency when it was already loaded in
+ *                  the persistence context, otherwise null
+ */
+public record AssignmentChangedEvent(AssignmentView assignment, EmergencyView emergency) {
+}
@@ -0,0 +1,42 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of an EmergencyAssignment, safe to keep after the
+ * persistence context is gone. Associations are reduced to ids.
+ */
+public record AssignmentView(
+        Long id,
+        Long emergencyId,
+        Long ambulanceId,
+        Long driverId,
+        EmergencyAssignmentStatus status,
+        LocalDateTime assignedAt,
+        LocalDateTime acceptedAt,
+        LocalDateTime responseDeadline,
+        Long version) {
+
+    public static AssignmentView of(EmergencyAssignment assignment) {
+        // getId() on an uninitialized proxy does not hit the database
+        return new AssignmentView(
+                assignment.getId(),
+                assignment.getEmergency() != null ? assignment.getEmergency().getId() : null,
+                assignment.getAmbulance() != null ? assignment.getAmbulance().getId() : null,
+                assignment.getDriverId(),
+                assignment.getStatus(),
+                assignment.getAssignedAt(),
+                assignment.getAcceptedAt(),
+                assignment.getResponseDeadline(),
+                assignment.getVersion());
+    }
+
+    /** ASSIGNED (offer pending) or ACCEPTED (on the way / on trip). */
+    public boolean isActive() {
+        return status == EmergencyAssignmentStatus.ASSIGNED
+                || status == EmergencyAssignmentStatus.ACCEPTED;
+    }
+}
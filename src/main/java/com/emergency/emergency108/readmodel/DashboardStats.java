@@ -0,0 +1,201 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+/**
+ * In-memory counters behind the admin dashboard: emergencies by status
+ * (open ones only), ambulances by status and drivers by verification
+ * status. Reading them costs no query, however often control-room
+ * screens refresh.
+ *
+ * Maintained from the entity change events after each commit, so every
+ * transition (dispatch, accept, complete, cancel, driver verification,
+ * ambulance busy / free) is counted where it happens. Bulk reconciliation
+ * UPDATEs bypass the entity listeners, so the counters are also rebuilt
+ * from the database on startup and every app.dashboard.reconcile-ms.
+ * Until the first rebuild {@link #isReady()} is false and callers fall
+ * back to count queries.
+ *
+ * Not built in cluster mode; see {@link ClusterCoordinator}.
+ *
+ * Metrics:
+ *   dashboard.emergencies{status}          open emergencies per status
+ *   dashboard.ambulances{status}           ambulances per status
+ *   dashboard.drivers{verification}        drivers per verification status
+ *   dashboard.reconcile.drift{entity}      counts corrected by a rebuild
+ */
+@Component
+public class DashboardStats {
+
+    private static final Logger log = LoggerFactory.getLogger(DashboardStats.class);
+
+    private static final List<EmergencyStatus> CLOSED = List.of(EmergencyStatus.COMPLETED, EmergencyStatus.CANCELLED);
+
+    private final EmergencyRepository emergencyRepository;
+    private final AmbulanceRepository ambulanceRepository;
+    private final UserRepository userRepository;
+
+    private final StatusTally<EmergencyStatus> emergencies = new StatusTally<>(EmergencyStatus.class);
+    private final StatusTally<AmbulanceStatus> ambulances = new StatusTally<>(AmbulanceStatus.class);
+    private final StatusTally<DriverVerificationStatus> drivers = new StatusTally<>(DriverVerificationStatus.class);
+
+    private final Counter emergencyDrift;
+    private final Counter ambulanceDrift;
+    private final Counter driverDrift;
+
+    private volatile boolean ready;
+    private final ClusterCoordinator cluster;
+
+    public DashboardStats(
+            EmergencyRepository emergencyRepository,
+            AmbulanceRepository ambulanceRepository,
+            UserRepository userRepository,
+            MeterRegistry registry,
+            ClusterCoordinator cluster) {
+        this.emergencyRepository = emergencyRepository;
+        this.ambulanceRepository = ambulanceRepository;
+        this.userRepository = userRepository;
+        this.cluster = cluster;
+
+        for (EmergencyStatus status : EmergencyStatus.values()) {
+            if (!CLOSED.contains(status)) {
+                Gauge.builder("dashboard.emergencies", emergencies, t -> t.count(status))
+                        .description("Open emergencies per status")
+                        .tag("status", status.name().toLowerCase())
+                        .register(registry);
+            }
+        }
+        for (AmbulanceStatus status : AmbulanceStatus.values()) {
+            Gauge.builder("dashboard.ambulances", ambulances, t -> t.count(status))
+                    .description("Ambulances per status")
+                    .tag("status", status.name().toLowerCase())
+                    .register(registry);
+        }
+        for (DriverVerificationStatus status : DriverVerificationStatus.values()) {
+            Gauge.builder("dashboard.drivers", drivers, t -> t.count(status))
+                    .description("Drivers per verification status")
+                    .tag("verification", status.name().toLowerCase())
+                    .register(registry);
+        }
+        emergencyDrift = driftCounter(registry, "emergency");
+        ambulanceDrift = driftCounter(registry, "ambulance");
+        driverDrift = driftCounter(registry, "driver");
+    }
+
+    private static Counter driftCounter(MeterRegistry registry, String entity) {
+        return Counter.builder("dashboard.reconcile.drift")
+                .description("Dashboard counts corrected by a rebuild from the database")
+                .tag("entity", entity)
+                .register(registry);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ---- queries ----
+
+    public long activeEmergencies() {
+        long active = 0;
+        for (EmergencyStatus status : EmergencyStatus.values()) {
+            active += emergencies.count(status);
+        }
+        return active;
+    }
+
+    public long emergencies(EmergencyStatus status) {
+        return emergencies.count(status);
+    }
+
+    public long ambulances(AmbulanceStatus status) {
+        return ambulances.count(status);
+    }
+
+    public long drivers(DriverVerificationStatus status) {
+        return drivers.count(status);
+    }
+
+    // ---- maintenance ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void buildOnStartup() {
+        reconcile();
+    }
+
+    /** Rebuild every counter from the database. */
+    @Scheduled(
+            fixedDelayString = "${app.dashboard.reconcile-ms:60000}",
+            initialDelayString = "${app.dashboard.reconcile-ms:60000}")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void reconcile() {
+        if (cluster.isEnabled()) {
+            return;
+        }
+        emergencies.beginReload();
+        ambulances.beginReload();
+        drivers.beginReload();
+
+        long emergencyDrifted = emergencies.reload(emergencyRepository.findStatusRowsByStatusNotIn(CLOSED));
+        long ambulanceDrifted = ambulances.reload(ambulanceRepository.findAllStatusRows());
+        long driverDrifted = drivers.reload(userRepository.findVerificationStatusRowsByRole(UserRole.DRIVER));
+
+        if (ready && emergencyDrifted + ambulanceDrifted + driverDrifted > 0) {
+            emergencyDrift.increment(emergencyDrifted);
+            ambulanceDrift.increment(ambulanceDrifted);
+            driverDrift.increment(driverDrifted);
+            log.info("📊 Dashboard counters corrected from the database: emergencies {}, ambulances {}, drivers {}",
+                    emergencyDrifted, ambulanceDrifted, driverDrifted);
+        } else if (!ready) {
+            log.info("📊 Dashboard counters built: {} open emergencies, {} ambulances, {} drivers",
+                    emergencies.size(), ambulances.size(), drivers.size());
+        }
+        ready = true;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        EmergencyView view = event.emergency();
+        EmergencyStatus status = view.status() == null || CLOSED.contains(view.status()) ? null : view.status();
+        emergencies.apply(view.id(), status, view.version());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAmbulanceChanged(AmbulanceChangedEvent event) {
+        AmbulanceView view = event.ambulance();
+        ambulances.apply(view.id(), view.status(), view.version());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserChanged(UserChangedEvent event) {
+        DriverVerificationStatus status = event.role() == UserRole.DRIVER ? event.driverVerificationStatus() : null;
+        drivers.apply(event.id(), status, null);
+    }
+}
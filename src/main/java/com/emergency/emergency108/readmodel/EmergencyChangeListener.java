@@ -0,0 +1,27 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.Emergency;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every Emergency write into an
+ * {@link EmergencyChangedEvent}.
+ */
+@Component
+public class EmergencyChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    public EmergencyChangeListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(Emergency emergency) {
+        events.publishEvent(new EmergencyChangedEvent(EmergencyView.of(emergency)));
+    }
+}
@@ -0,0 +1,8 @@
+package com.emergency.emergency108.readmodel;
+
+/**
+ * An Emergency was inserted or updated. Published from the JPA flush;
+ * consume with @TransactionalEventListener so only committed changes are seen.
+ */
+public record EmergencyChangedEvent(EmergencyView emergency) {
+}
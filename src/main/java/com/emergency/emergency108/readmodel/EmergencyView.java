@@ -0,0 +1,71 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.ContactNotificationStatus;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencySourceType;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * Immutable snapshot of the Emergency fields a driver app needs. Property
+ * names match the Emergency entity, so each field serializes as before; the
+ * entity's payment intent id, suspect-cancellation flag and incident
+ * grouping fields are left out.
+ */
+public record EmergencyView(
+        Long id,
+        String type,
+        String severity,
+        Double latitude,
+        Double longitude,
+        EmergencyStatus status,
+        Long userId,
+        EmergencySourceType sourceType,
+        EmergencyFor emergencyFor,
+        String aiFirstAid,
+        Double hospitalLatitude,
+        Double hospitalLongitude,
+        Double distanceToHospital,
+        String aiAssessment,
+        String aiDoctorSummary,
+        PaymentStatus paymentStatus,
+        Double fareAmount,
+        ContactNotificationStatus contactNotificationStatus,
+        LocalDateTime confirmationDeadline,
+        LocalDateTime confirmOwnershipDeadline,
+        LocalDateTime completedAt,
+        LocalDateTime createdAt,
+        LocalDateTime statusUpdatedAt,
+        Long version) {
+
+    public static EmergencyView of(Emergency emergency) {
+        return new EmergencyView(
+                emergency.getId(),
+                emergency.getType(),
+                emergency.getSeverity(),
+                emergency.getLatitude(),
+                emergency.getLongitude(),
+                emergency.getStatus(),
+                emergency.getUserId(),
+                emergency.getSourceType(),
+                emergency.getEmergencyFor(),
+                emergency.getAiFirstAid(),
+                emergency.getHospitalLatitude(),
+                emergency.getHospitalLongitude(),
+                emergency.getDistanceToHospital(),
+                emergency.getAiAssessment(),
+                emergency.getAiDoctorSummary(),
+                emergency.getPaymentStatus(),
+                emergency.getFareAmount(),
+                emergency.getContactNotificationStatus(),
+                emergency.getConfirmationDeadline(),
+                emergency.getConfirmOwnershipDeadline(),
+                emergency.getCompletedAt(),
+                emergency.getCreatedAt(),
+                emergency.getStatusUpdatedAt(),
+                emergency.getVersion());
+    }
+}
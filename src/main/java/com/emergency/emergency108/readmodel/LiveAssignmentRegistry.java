@@ -0,0 +1,320 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory read model of live (ASSIGNED / ACCEPTED) assignments, keyed by
+ * driver and by emergency, plus a snapshot of each live assignment's
+ * emergency. Serves the driver polling path without touching the database.
+ *
+ * Built from emergency_assignments on startup, then maintained from
+ * {@link AssignmentChangedEvent} / {@link EmergencyChangedEvent} after each
+ * commit. Reads are lock-free; writes are serialized (they are rare) and
+ * ordered by the entity @Version so a late event can never roll state back.
+ * Until the first build finishes {@link #isReady()} is false and callers
+ * fall back to the repository. A node restarting with a recent state journal
+ * is {@link #restore restored} from it instead and skips the startup build.
+ *
+ * In cluster mode the queries read the primary database instead and nothing
+ * is held in memory; see {@link ClusterCoordinator}.
+ */
+@Component
+public class LiveAssignmentRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LiveAssignmentRegistry.class);
+
+    // Versions of recently closed assignments, to drop stale events that arrive after the close
+    private static final int CLOSED_VERSIONS_CAPACITY = 10_000;
+
+    /**
+     * Order of the after-commit listeners. The state change feed runs after
+     * (EVENT_ORDER + 1), so a change is applied here before the journal or a
+     * follower can see its record.
+     */
+    public static final int EVENT_ORDER = 0;
+
+    private static final EnumSet<EmergencyAssignmentStatus> LIVE =
+            EnumSet.of(EmergencyAssignmentStatus.ASSIGNED, EmergencyAssignmentStatus.ACCEPTED);
+
+    private final EmergencyAssignmentRepository assignmentRepository;
+    private final ClusterCoordinator cluster;
+
+    private final Map<Long, AssignmentView> byId = new ConcurrentHashMap<>();
+    private final Map<Long, AssignmentView> assignedByDriver = new ConcurrentHashMap<>();
+    private final Map<Long, AssignmentView> acceptedByDriver = new ConcurrentHashMap<>();
+    private final Map<Long, AssignmentView> byEmergency = new ConcurrentHashMap<>();
+    private final Map<Long, EmergencyView> emergencies = new ConcurrentHashMap<>();
+
+    private final Map<Long, Long> closedVersions = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > CLOSED_VERSIONS_CAPACITY;
+        }
+    };
+
+    // Events that arrive while a rebuild is loading; re-checked against the database afterwards
+    private List<Long> changedDuringRebuild;
+
+    private volatile boolean ready;
+
+    // Told after each rebuild from the database (the state journal snapshots then)
+    private volatile Runnable rebuildListener = () -> { };
+
+    public LiveAssignmentRegistry(
+            EmergencyAssignmentRepository assignmentRepository,
+            ClusterCoordinator cluster) {
+        this.assignmentRepository = assignmentRepository;
+        this.cluster = cluster;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // ---- queries ----
+
+    /**
+     * The driver's current assignment: a pending offer (ASSIGNED) wins over an
+     * accepted one, matching the previous two-query lookup.
+     */
+    @ReadFromPrimary
+    public Optional<AssignmentView> currentForDriver(Long driverId) {
+        if (cluster.isEnabled()) {
+            return assignmentRepository.findCurrentForDriver(driverId).map(AssignmentView::of);
+        }
+        AssignmentView assigned = assignedByDriver.get(driverId);
+        return Optional.ofNullable(assigned != null ? assigned : acceptedByDriver.get(driverId));
+    }
+
+    @ReadFromPrimary
+    public Optional<AssignmentView> activeForEmergency(Long emergencyId) {
+        if (cluster.isEnabled()) {
+            return assignmentRepository.findActiveAssignmentByEmergencyId(emergencyId).map(AssignmentView::of);
+        }
+        return Optional.ofNullable(byEmergency.get(emergencyId));
+    }
+
+    @ReadFromPrimary
+    public boolean hasActiveAssignment(Long emergencyId) {
+        if (cluster.isEnabled()) {
+            return assignmentRepository.existsByEmergencyIdAndStatusIn(emergencyId, LIVE);
+        }
+        return byEmergency.containsKey(emergencyId);
+    }
+
+    /** Snapshot of an emergency that has a live assignment. */
+    @ReadFromPrimary
+    public Optional<EmergencyView> emergency(Long emergencyId) {
+        if (cluster.isEnabled()) {
+            return assignmentRepository.findActiveWithEmergencyByEmergencyId(emergencyId).stream()
+                    .findFirst()
+                    .map(assignment -> EmergencyView.of(assignment.getEmergency()));
+        }
+        return Optional.ofNullable(emergencies.get(emergencyId));
+    }
+
+    /** All live assignments (copy). */
+    public List<AssignmentView> activeAssignments() {
+        return new ArrayList<>(byId.values());
+    }
+
+    /** Every live assignment with its emergency snapshot, as a consistent copy. */
+    public synchronized List<AssignmentChangedEvent> snapshot() {
+        List<AssignmentChangedEvent> live = new ArrayList<>(byId.size());
+        for (AssignmentView assignment : byId.values()) {
+            live.add(new AssignmentChangedEvent(assignment, emergencies.get(assignment.emergencyId())));
+        }
+        return live;
+    }
+
+    // ---- maintenance ----
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void buildOnStartup() {
+        if (ready) {
+            log.info("📋 Live assignment registry restored from the state journal: {} live assignments",
+                    byId.size());
+            return;
+        }
+        rebuild();
+    }
+
+    /**
+     * Replace the contents with a snapshot taken by {@link #snapshot()} and
+     * mark the registry ready. Later events still apply on top by version.
+     */
+    public synchronized void restore(List<AssignmentChangedEvent> live) {
+        clear();
+        for (AssignmentChangedEvent entry : live) {
+            apply(entry.assignment(), entry.emergency());
+        }
+        ready = true;
+    }
+
+    public void setRebuildListener(Runnable listener) {
+        this.rebuildListener = listener;
+    }
+
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        if (cluster.isEnabled()) {
+            ready = true;
+            return;
+        }
+        synchronized (this) {
+            changedDuringRebuild = new ArrayList<>();
+        }
+
+        List<EmergencyAssignment> live = assignmentRepository.findAllActiveWithEmergency();
+
+        List<Long> recheck;
+        synchronized (this) {
+            clear();
+            for (EmergencyAssignment assignment : live) {
+                apply(AssignmentView.of(assignment), EmergencyView.of(assignment.getEmergency()));
+            }
+            recheck = changedDuringRebuild;
+            changedDuringRebuild = null;
+        }
+
+        // Changes committed while the snapshot was loading may or may not be in it
+        if (!recheck.isEmpty()) {
+            List<EmergencyAssignment> current = assignmentRepository.findAllWithEmergencyByIdIn(recheck);
+            synchronized (this) {
+                for (EmergencyAssignment assignment : current) {
+                    apply(AssignmentView.of(assignment), EmergencyView.of(assignment.getEmergency()));
+                }
+            }
+        }
+
+        ready = true;
+        rebuildListener.run();
+        log.info("📋 Live assignment registry built: {} live assignments ({} re-checked)",
+                byId.size(), recheck.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(EVENT_ORDER)
+    public void onAssignmentChanged(AssignmentChangedEvent event) {
+        if (cluster.isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event.assignment().id());
+            }
+            apply(event.assignment(), event.emergency());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(EVENT_ORDER)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        if (cluster.isEnabled()) {
+            return;
+        }
+        EmergencyView view = event.emergency();
+        synchronized (this) {
+            if (byEmergency.containsKey(view.id())) {
+                emergencies.merge(view.id(), view, LiveAssignmentRegistry::newerEmergency);
+            }
+        }
+    }
+
+    private void apply(AssignmentView incoming, EmergencyView emergency) {
+        if (incoming.id() == null) {
+            return;
+        }
+
+        AssignmentView current = byId.get(incoming.id());
+        if (current != null && isOlder(incoming, current)) {
+            return;
+        }
+        Long closedAt = closedVersions.get(incoming.id());
+        if (closedAt != null && (incoming.version() == null || incoming.version() <= closedAt)) {
+            return;
+        }
+
+        if (current != null) {
+            unlink(current);
+        }
+
+        if (!incoming.isActive()) {
+            closedVersions.put(incoming.id(), incoming.version() != null ? incoming.version() : Long.MAX_VALUE);
+            if (!byEmergency.containsKey(incoming.emergencyId())) {
+                emergencies.remove(incoming.emergencyId());
+            }
+            return;
+        }
+
+        byId.put(incoming.id(), incoming);
+        byEmergency.merge(incoming.emergencyId(), incoming, LiveAssignmentRegistry::later);
+        if (incoming.driverId() != null) {
+            Map<Long, AssignmentView> byDriver = incoming.status() == EmergencyAssignmentStatus.ASSIGNED
+                    ? assignedByDriver
+                    : acceptedByDriver;
+            byDriver.merge(incoming.driverId(), incoming, LiveAssignmentRegistry::later);
+        }
+        if (emergency != null) {
+            emergencies.merge(emergency.id(), emergency, LiveAssignmentRegistry::newerEmergency);
+        }
+    }
+
+    private void unlink(AssignmentView view) {
+        byId.remove(view.id());
+        byEmergency.computeIfPresent(view.emergencyId(), (id, v) -> v.id().equals(view.id()) ? null : v);
+        if (view.driverId() != null) {
+            assignedByDriver.computeIfPresent(view.driverId(), (id, v) -> v.id().equals(view.id()) ? null : v);
+            acceptedByDriver.computeIfPresent(view.driverId(), (id, v) -> v.id().equals(view.id()) ? null : v);
+        }
+    }
+
+    private void clear() {
+        byId.clear();
+        assignedByDriver.clear();
+        acceptedByDriver.clear();
+        byEmergency.clear();
+        emergencies.clear();
+        closedVersions.clear();
+    }
+
+    private static boolean isOlder(AssignmentView incoming, AssignmentView current) {
+        return incoming.version() != null && current.version() != null && incoming.version() < current.version();
+    }
+
+    /** Most recently assigned of two live assignments for the same key. */
+    private static AssignmentView later(AssignmentView a, AssignmentView b) {
+        Comparator<AssignmentView> byAssignedAt = Comparator.comparing(
+                AssignmentView::assignedAt, Comparator.nullsFirst(Comparator.naturalOrder()));
+        return byAssignedAt.compare(b, a) >= 0 ? b : a;
+    }
+
+    private static EmergencyView newerEmergency(EmergencyView current, EmergencyView incoming) {
+        if (current.version() != null && incoming.version() != null && incoming.version() < current.version()) {
+            return current;
+        }
+        return incoming;
+    }
+}
@@ -0,0 +1,141 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.repository.StatusRow;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Current status of each tracked row plus a count per status. Counts are
+ * atomics so reads never lock; writes are serialized and, where the entity
+ * has a @Version, ordered by it so a late event can never roll a row back.
+ *
+ * A null status means "no longer tracked" (e.g. a closed emergency); its
+ * version is remembered for a while so stale events for it are dropped.
+ * {@link #reload} replaces everything with rows read from the database,
+ * except rows whose events arrived while those rows were loading.
+ */
+final class StatusTally<S extends Enum<S>> {
+
+    // Versions of recently untracked rows, to drop stale events that arrive afterwards
+    private static final int REMOVED_VERSIONS_CAPACITY = 10_000;
+
+    private record Entry<S>(S status, Long version) {
+    }
+
+    private final Map<S, AtomicLong> counts;
+    private final Map<Long, Entry<S>> byId = new HashMap<>();
+    private final Map<Long, Long> removedVersions = new LinkedHashMap<>(256, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+            return size() > REMOVED_VERSIONS_CAPACITY;
+        }
+    };
+
+    private Set<Long> changedDuringReload;
+
+    StatusTally(Class<S> statuses) {
+        counts = new EnumMap<>(statuses);
+        for (S status : statuses.getEnumConstants()) {
+            counts.put(status, new AtomicLong());
+        }
+    }
+
+    long count(S status) {
+        return counts.get(status).get();
+    }
+
+    synchronized int size() {
+        return byId.size();
+    }
+
+    synchronized void apply(Long id, S status, Long version) {
+        if (id == null) {
+            return;
+        }
+        if (changedDuringReload != null) {
+            changedDuringReload.add(id);
+        }
+
+        Entry<S> current = byId.get(id);
+        if (current != null && isOlder(version, current.version())) {
+            return;
+        }
+        Long removedAt = removedVersions.get(id);
+        if (removedAt != null && (version == null || version <= removedAt)) {
+            return;
+        }
+
+        if (current != null) {
+            counts.get(current.status()).decrementAndGet();
+        }
+        if (status == null) {
+            byId.remove(id);
+            if (version != null) {
+                removedVersions.put(id, version);
+            }
+            return;
+        }
+        byId.put(id, new Entry<>(status, version));
+        counts.get(status).incrementAndGet();
+    }
+
+    /** Start recording which rows change while {@link #reload} rows are being read. */
+    synchronized void beginReload() {
+        changedDuringReload = new HashSet<>();
+    }
+
+    /**
+     * Replace the contents with rows read since {@link #beginReload()}.
+     * Returns how far the counts had drifted (sum of per-status differences).
+     */
+    synchronized long reload(List<StatusRow<S>> rows) {
+        Set<Long> changed = changedDuringReload != null ? changedDuringReload : Set.of();
+        changedDuringReload = null;
+
+        Map<Long, Entry<S>> fresh = new HashMap<>(rows.size() * 2);
+        for (StatusRow<S> row : rows) {
+            if (row.status() != null) {
+                fresh.put(row.id(), new Entry<>(row.status(), row.version()));
+            }
+        }
+        // Changes committed while the rows were loading may or may not be in them
+        for (Long id : changed) {
+            Entry<S> current = byId.get(id);
+            Entry<S> loaded = fresh.get(id);
+            if (loaded != null && current != null && isOlder(current.version(), loaded.version())) {
+                continue;
+            }
+            if (current != null) {
+                fresh.put(id, current);
+            } else if (loaded != null && !isOlder(removedVersions.get(id), loaded.version())) {
+                fresh.remove(id);
+            }
+        }
+
+        Map<S, Long> recounted = new HashMap<>();
+        for (Entry<S> entry : fresh.values()) {
+            recounted.merge(entry.status(), 1L, Long::sum);
+        }
+        long drift = 0;
+        for (Map.Entry<S, AtomicLong> count : counts.entrySet()) {
+            long actual = recounted.getOrDefault(count.getKey(), 0L);
+            drift += Math.abs(count.getValue().getAndSet(actual) - actual);
+        }
+
+        byId.clear();
+        byId.putAll(fresh);
+        return drift;
+    }
+
+    /** True when version a is known to be older than version b. */
+    private static boolean isOlder(Long a, Long b) {
+        return a != null && b != null && a < b;
+    }
+}
@@ -0,0 +1,27 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.User;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA entity listener that turns every User write into a
+ * {@link UserChangedEvent}.
+ */
+@Component
+public class UserChangeListener {
+
+    private final ApplicationEventPublisher events;
+
+    public UserChangeListener(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void onChange(User user) {
+        events.publishEvent(new UserChangedEvent(user.getId(), user.getRole(), user.getDriverVerificationStatus()));
+    }
+}
@@ -0,0 +1,11 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.UserRole;
+
+/**
+ * A User was inserted or updated. Published from the JPA flush;
+ * consume with @TransactionalEventListener so only committed changes are seen.
+ */
+public record UserChangedEvent(Long id, UserRole role, DriverVerificationStatus driverVerificationStatus) {
+}
@@ -0,0 +1,134 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.metrics.OfferDeliveryMetrics;
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes assignment offers to drivers the moment they are committed.
+ *
+ * An ASSIGNED assignment becomes an "offer" frame carrying everything the
+ * driver app shows on the offer screen; a pending offer that times out or is
+ * cancelled becomes "offer_closed". Polling /api/driver/emergencies/assigned
+ * keeps working for apps without the channel.
+ */
+@Component
+public class AssignmentOfferPusher {
+
+    private static final Logger log = LoggerFactory.getLogger(AssignmentOfferPusher.class);
+
+    private final DriverChannelRegistry channels;
+    private final LiveAssignmentRegistry liveAssignments;
+    private final OfferDeliveryMetrics metrics;
+    private final ObjectMapper objectMapper;
+
+    // Offers pushed and not yet acknowledged, by assignment id
+    private final Map<Long, PendingOffer> pendingAcks = new ConcurrentHashMap<>();
+
+    public AssignmentOfferPusher(
+            DriverChannelRegistry channels,
+            LiveAssignmentRegistry liveAssignments,
+            OfferDeliveryMetrics metrics,
+            ObjectMapper objectMapper) {
+        this.channels = channels;
+        this.liveAssignments = liveAssignments;
+        this.metrics = metrics;
+        this.objectMapper = objectMapper;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAssignmentChanged(AssignmentChangedEvent event) {
+        AssignmentView assignment = event.assignment();
+        if (assignment.id() == null || assignment.driverId() == null) {
+            return;
+        }
+
+        if (assignment.status() == EmergencyAssignmentStatus.ASSIGNED) {
+            EmergencyView emergency = event.emergency() != null
+                    ? event.emergency()
+                    : liveAssignments.emergency(assignment.emergencyId()).orElse(null);
+            pushOffer(assignment, emergency);
+            return;
+        }
+
+        PendingOffer pending = pendingAcks.remove(assignment.id());
+        if (pending != null && assignment.status() != EmergencyAssignmentStatus.ACCEPTED) {
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("type", "offer_closed");
+            frame.put("assignmentId", assignment.id());
+            frame.put("emergencyId", assignment.emergencyId());
+            frame.put("status", assignment.status());
+            String payload = toJson(frame);
+            if (payload != null) {
+                channels.send(assignment.driverId(), payload);
+            }
+        }
+    }
+
+    /**
+     * Re-send the driver's pending offer, if any. Called when a channel opens
+     * so that an offer created while the driver was disconnected is not missed.
+     */
+    public void resendPendingOffer(Long driverId) {
+        liveAssignments.currentForDriver(driverId)
+                .filter(assignment -> assignment.status() == EmergencyAssignmentStatus.ASSIGNED)
+                .ifPresent(assignment -> pushOffer(
+                        assignment, liveAssignments.emergency(assignment.emergencyId()).orElse(null)));
+    }
+
+    /** The driver app confirmed it received the offer. */
+    public void acknowledge(Long driverId, Long assignmentId) {
+        PendingOffer pending = pendingAcks.get(assignmentId);
+        if (pending != null && pending.driverId().equals(driverId) && pendingAcks.remove(assignmentId, pending)) {
+            metrics.offerAcknowledged(pending.assignedAt());
+        }
+    }
+
+    private void pushOffer(AssignmentView assignment, EmergencyView emergency) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "offer");
+        frame.put("assignmentId", assignment.id());
+        frame.put("emergencyId", assignment.emergencyId());
+        frame.put("status", assignment.status());
+        frame.put("assignedAt", assignment.assignedAt());
+        frame.put("responseDeadline", assignment.responseDeadline());
+        frame.put("emergency", emergency);
+
+        String payload = toJson(frame);
+        if (payload != null && channels.send(assignment.driverId(), payload)) {
+            pendingAcks.put(assignment.id(), new PendingOffer(assignment.driverId(), assignment.assignedAt()));
+            metrics.offerSent(assignment.assignedAt());
+            log.info("📨 Pushed offer for emergency {} to driver {}", assignment.emergencyId(), assignment.driverId());
+        } else {
+            metrics.offerUndelivered();
+            log.debug("Driver {} has no open channel - offer {} left for polling",
+                    assignment.driverId(), assignment.id());
+        }
+    }
+
+    private String toJson(Map<String, Object> frame) {
+        try {
+            return objectMapper.writeValueAsString(frame);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize {} frame: {}", frame.get("type"), e.getMessage());
+            return null;
+        }
+    }
+
+    private record PendingOffer(Long driverId, LocalDateTime assignedAt) {
+    }
+}
@@ -0,0 +1,171 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.service.DriverSessionService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-driver push channel at /ws/driver.
+ *
+ * Downstream (server -> driver), JSON text frames:
+ *   {"type":"offer", "assignmentId", "emergencyId", "assignedAt", "responseDeadline", "emergency":{...}}
+ *   {"type":"offer_closed", "assignmentId", "emergencyId", "status"}
+ *   {"type":"heartbeat_ack", "timestamp", "nextHeartbeatSeconds"}
+ *   {"type":"error", "message"}
+ *
+ * Upstream (driver -> server):
+ *   {"type":"heartbeat", "lat":28.61, "lng":77.20}   same effect as PUT /api/driver/location
+ *   {"type":"ack", "assignmentId":42}                offer received (delivery latency)
+ *
+ * One connection replaces both the heartbeat PUTs and assignment polling.
+ *
+ * Every heartbeat frame re-checks that the driver is still verified and not
+ * blocked (as the REST heartbeat does through the auth filter); otherwise the
+ * channel is closed with 1008 (policy violation).
+ */
+@Component
+public class DriverChannelHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverChannelHandler.class);
+
+    private final DriverChannelRegistry channels;
+    private final AssignmentOfferPusher offerPusher;
+    private final DriverSessionService sessionService;
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public DriverChannelHandler(
+            DriverChannelRegistry channels,
+            AssignmentOfferPusher offerPusher,
+            DriverSessionService sessionService,
+            UserRepository userRepository,
+            ObjectMapper objectMapper) {
+        this.channels = channels;
+        this.offerPusher = offerPusher;
+        this.sessionService = sessionService;
+        this.userRepository = userRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        Long driverId = driverId(session);
+        channels.register(driverId, session);
+        log.info("🔌 Driver {} channel opened ({})", driverId, session.getId());
+
+        // Catch up on an offer made while the driver was disconnected
+        offerPusher.resendPendingOffer(driverId);
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        Long driverId = driverId(session);
+
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(message.getPayload());
+        } catch (Exception e) {
+            reply(driverId, error("Malformed frame"));
+            return;
+        }
+
+        String type = frame.path("type").asText("");
+        switch (type) {
+            case "heartbeat" -> {
+                if (stillActiveDriver(driverId)) {
+                    handleHeartbeat(driverId, frame);
+                }
+            }
+            case "ack" -> {
+                if (frame.hasNonNull("assignmentId")) {
+                    offerPusher.acknowledge(driverId, frame.get("assignmentId").asLong());
+                }
+            }
+            default -> reply(driverId, error("Unknown frame type: " + type));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        Long driverId = driverId(session);
+        channels.unregister(driverId, session);
+        log.info("🔌 Driver {} channel closed ({}): {}", driverId, session.getId(), status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Driver channel {} transport error: {}", session.getId(), exception.getMessage());
+    }
+
+    private boolean stillActiveDriver(Long driverId) {
+        boolean active = userRepository.findById(driverId)
+                .map(DriverChannelHandshakeInterceptor::isActiveDriver)
+                .orElse(false);
+        if (!active) {
+            log.warn("Driver {} is no longer an active verified driver - closing channel", driverId);
+            channels.disconnect(driverId, CloseStatus.POLICY_VIOLATION.withReason("Driver is not active"));
+        }
+        return active;
+    }
+
+    private void handleHeartbeat(Long driverId, JsonNode frame) {
+        if (!frame.path("lat").isNumber() || !frame.path("lng").isNumber()) {
+            reply(driverId, error("Heartbeat requires numeric lat and lng"));
+            return;
+        }
+
+        double lat = frame.get("lat").asDouble();
+        double lng = frame.get("lng").asDouble();
+        if (lat < -90 || lat > 90 || lng < -180 || lng > 180) {
+            reply(driverId, error("Invalid coordinates. Lat must be -90 to 90, Lng must be -180 to 180"));
+            return;
+        }
+
+        try {
+            DriverSession session = sessionService.updateLocation(driverId, lat, lng);
+
+            Map<String, Object> ack = new LinkedHashMap<>();
+            ack.put("type", "heartbeat_ack");
+            ack.put("timestamp", LocalDateTime.now());
+            ack.put("nextHeartbeatSeconds", session.getHeartbeatIntervalSeconds());
+            reply(driverId, ack);
+        } catch (IllegalStateException e) {
+            reply(driverId, error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Unexpected error handling heartbeat from driver {}: {}", driverId, e.getMessage(), e);
+            reply(driverId, error("Failed to update location. Please try again."));
+        }
+    }
+
+    private void reply(Long driverId, Map<String, Object> frame) {
+        try {
+            channels.send(driverId, objectMapper.writeValueAsString(frame));
+        } catch (Exception e) {
+            log.warn("Failed to reply to driver {}: {}", driverId, e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "error");
+        frame.put("message", message);
+        return frame;
+    }
+
+    private static Long driverId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(DriverChannelHandshakeInterceptor.DRIVER_ID);
+    }
+}
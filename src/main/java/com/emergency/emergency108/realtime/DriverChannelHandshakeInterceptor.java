@@ -0,0 +1,108 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.auth.token.AuthTokenPayload;
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.Map;
+
+/**
+ * Authenticates the driver channel handshake with the same JWT the REST API
+ * uses. Browsers cannot set headers on a WebSocket upgrade, so the token is
+ * also accepted as the access_token query parameter.
+ *
+ * Only verified, unblocked drivers get through; their id is stored in the
+ * session attributes under {@link #DRIVER_ID}. The channel is long-lived, so
+ * {@link DriverChannelHandler} repeats the check on every heartbeat frame.
+ */
+@Component
+public class DriverChannelHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverChannelHandshakeInterceptor.class);
+
+    public static final String DRIVER_ID = "driverId";
+
+    private final TokenService tokenService;
+    private final UserRepository userRepository;
+
+    public DriverChannelHandshakeInterceptor(TokenService tokenService, UserRepository userRepository) {
+        this.tokenService = tokenService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean beforeHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+
+        String token = extractToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        User user;
+        try {
+            AuthTokenPayload payload = tokenService.validateAndParse(token);
+            user = userRepository.findById(payload.getUserId()).orElse(null);
+        } catch (Exception e) {
+            log.warn("Driver channel handshake rejected: invalid token ({})", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        if (!isActiveDriver(user)) {
+            log.warn("Driver channel handshake rejected for user {}: not an active verified driver", user.getId());
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(DRIVER_ID, user.getId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Exception exception) {
+        // nothing to do
+    }
+
+    static boolean isActiveDriver(User user) {
+        return user.getRole() == UserRole.DRIVER
+                && user.getDriverVerificationStatus() == DriverVerificationStatus.VERIFIED
+                && !user.isBlocked();
+    }
+
+    static String extractToken(ServerHttpRequest request) {
+        String authHeader = request.getHeaders().getFirst("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            return authHeader.substring(7);
+        }
+        return UriComponentsBuilder.fromUri(request.getURI())
+                .build()
+                .getQueryParams()
+                .getFirst("access_token");
+    }
+}
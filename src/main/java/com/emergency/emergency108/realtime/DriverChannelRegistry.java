@@ -0,0 +1,99 @@
+package com.emergency.emergency108.realtime;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Open driver channels, one per driver. A new connection from the same driver
+ * (app restart, network switch) replaces and closes the previous one.
+ *
+ * Sessions are wrapped so that sends from the dispatch path and from the
+ * handler never interleave, and a slow client is dropped instead of blocking
+ * the sender.
+ */
+@Component
+public class DriverChannelRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(DriverChannelRegistry.class);
+
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int BUFFER_SIZE_LIMIT_BYTES = 64 * 1024;
+
+    private final Map<Long, WebSocketSession> channels = new ConcurrentHashMap<>();
+
+    public void register(Long driverId, WebSocketSession session) {
+        WebSocketSession channel = new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MILLIS, BUFFER_SIZE_LIMIT_BYTES);
+        WebSocketSession previous = channels.put(driverId, channel);
+        if (previous != null && !previous.getId().equals(session.getId())) {
+            log.info("🔌 Driver {} reconnected - closing previous channel {}", driverId, previous.getId());
+            closeQuietly(previous, CloseStatus.POLICY_VIOLATION.withReason("Replaced by a newer connection"));
+        }
+    }
+
+    /** Remove the driver's channel, unless it has already been replaced by a newer one. */
+    public void unregister(Long driverId, WebSocketSession session) {
+        channels.computeIfPresent(driverId,
+                (id, channel) -> channel.getId().equals(session.getId()) ? null : channel);
+    }
+
+    /**
+     * Close the driver's channel, e.g. when the driver is rejected or blocked.
+     * A no-op if the driver has no channel on this node.
+     */
+    public void disconnect(Long driverId, CloseStatus status) {
+        WebSocketSession channel = channels.remove(driverId);
+        if (channel != null) {
+            log.info("🔌 Closing driver {} channel {}: {}", driverId, channel.getId(), status.getReason());
+            closeQuietly(channel, status);
+        }
+    }
+
+    public boolean isConnected(Long driverId) {
+        WebSocketSession channel = channels.get(driverId);
+        return channel != null && channel.isOpen();
+    }
+
+    public int connectedCount() {
+        return channels.size();
+    }
+
+    /**
+     * Send a text frame to the driver.
+     *
+     * @return true if the frame was handed to the connection, false if the
+     *         driver has no open channel or the send failed
+     */
+    public boolean send(Long driverId, String payload) {
+        WebSocketSession channel = channels.get(driverId);
+        if (channel == null || !channel.isOpen()) {
+            return false;
+        }
+        try {
+            channel.sendMessage(new TextMessage(payload));
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to push to driver {} on channel {}: {}", driverId, channel.getId(), e.getMessage());
+            unregister(driverId, channel);
+            closeQuietly(channel, CloseStatus.SERVER_ERROR);
+            return false;
+        }
+    }
+
+    private static void closeQuietly(WebSocketSession session, CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.debug("Error closing channel {}: {}", session.getId(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.dto.AmbulanceListRow;
+import com.emergency.emergency108.dto.EmergencyListRow;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.readmodel.AmbulanceChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.realtime.MapMarker.Kind;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Live ambulance and open-emergency markers for the control-room map, fanned
+ * out to consoles by viewport.
+ *
+ * A console sends its bounding box and zoom and gets a snapshot of what is
+ * inside; from then on only changes inside the box are sent, batched every
+ * app.fleet-map.flush-ms and carrying only the fields that changed. Below
+ * app.fleet-map.cluster-below-zoom, or when more than
+ * app.fleet-map.max-markers would be on screen, the console gets per-cell
+ * clusters instead of markers. So what a console costs follows what it
+ * shows, not the size of the fleet.
+ *
+ * Markers follow the entity change events after each commit. Bulk UPDATEs
+ * and writes on other nodes do not raise events here, so while anyone is
+ * watching the markers are also re-read from the database every
+ * app.fleet-map.resync-ms and the differences pushed like any other change.
+ *
+ * Metrics:
+ *   fleet.map.subscribers        open map connections
+ *   fleet.map.frames{type}       snapshot / delta frames sent
+ *   fleet.map.bytes{type}        payload bytes sent
+ */
+@Component
+public class FleetMapFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetMapFeed.class);
+
+    private static final List<EmergencyStatus> CLOSED = List.of(EmergencyStatus.COMPLETED, EmergencyStatus.CANCELLED);
+    private static final int LOAD_PAGE_SIZE = 500;
+    private static final int SEND_TIME_LIMIT_MILLIS = 5_000;
+    private static final int BUFFER_SIZE_LIMIT_BYTES = 256 * 1024;
+
+    private final AmbulanceRepository ambulanceRepository;
+    private final EmergencyRepository emergencyRepository;
+    private final ObjectMapper objectMapper;
+    private final int clusterBelowZoom;
+    private final int maxMarkers;
+
+    // Guarded by this
+    private final Map<Kind, Map<Long, MapMarker>> markers = new EnumMap<>(Kind.class);
+    private Map<Kind, Set<Long>> changedDuringResync;
+    private boolean ready;
+
+    private final Map<String, FleetMapSubscription> subscriptions = new ConcurrentHashMap<>();
+
+    private final Counter snapshotFrames;
+    private final Counter deltaFrames;
+    private final Counter snapshotBytes;
+    private final Counter deltaBytes;
+
+    public FleetMapFeed(
+            AmbulanceRepository ambulanceRepository,
+            EmergencyRepository emergencyRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${app.fleet-map.cluster-below-zoom:11}") int clusterBelowZoom,
+            @Value("${app.fleet-map.max-markers:2000}") int maxMarkers) {
+        this.ambulanceRepository = ambulanceRepository;
+        this.emergencyRepository = emergencyRepository;
+        this.objectMapper = objectMapper;
+        this.clusterBelowZoom = clusterBelowZoom;
+        this.maxMarkers = maxMarkers;
+        for (Kind kind : Kind.values()) {
+            markers.put(kind, new HashMap<>());
+        }
+
+        Gauge.builder("fleet.map.subscribers", subscriptions, Map::size)
+                .description("Open fleet map connections")
+                .register(registry);
+        snapshotFrames = frameCounter(registry, "fleet.map.frames", "Fleet map frames sent", "snapshot");
+        deltaFrames = frameCounter(registry, "fleet.map.frames", "Fleet map frames sent", "delta");
+        snapshotBytes = frameCounter(registry, "fleet.map.bytes", "Fleet map payload bytes sent", "snapshot");
+        deltaBytes = frameCounter(registry, "fleet.map.bytes", "Fleet map payload bytes sent", "delta");
+    }
+
+    private static Counter frameCounter(MeterRegistry registry, String name, String description, String type) {
+        return Counter.builder(name)
+                .description(description)
+                .tag("type", type)
+                .register(registry);
+    }
+
+    // ---- subscriptions ----
+
+    public void open(WebSocketSession session) {
+        subscriptions.put(session.getId(), new FleetMapSubscription(new ConcurrentWebSocketSessionDecorator(
+                session, SEND_TIME_LIMIT_MILLIS, BUFFER_SIZE_LIMIT_BYTES)));
+    }
+
+    public void close(WebSocketSession session) {
+        subscriptions.remove(session.getId());
+    }
+
+    /** The console moved or zoomed: replace its viewport and send the snapshot of the new one. */
+    public void viewport(WebSocketSession session, Viewport viewport) {
+        FleetMapSubscription subscription = subscriptions.get(session.getId());
+        if (subscription == null) {
+            return;
+        }
+
+        Map<String, Object> snapshot;
+        synchronized (this) {
+            List<MapMarker> inside = new ArrayList<>();
+            for (Map<Long, MapMarker> ofKind : markers.values()) {
+                for (MapMarker marker : ofKind.values()) {
+                    if (viewport.contains(marker)) {
+                        inside.add(marker);
+                    }
+                }
+            }
+            boolean clustered = viewport.zoom() < clusterBelowZoom || inside.size() > maxMarkers;
+            snapshot = subscription.reset(viewport, clustered, inside);
+        }
+        send(subscription, snapshot, snapshotFrames, snapshotBytes);
+        subscription.snapshotSent();
+    }
+
+    /** Send a one-off frame (errors) through the subscription's serialized channel. */
+    public void reply(WebSocketSession session, Map<String, Object> frame) {
+        FleetMapSubscription subscription = subscriptions.get(session.getId());
+        if (subscription != null) {
+            send(subscription, frame, null, null);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscriptions.size();
+    }
+
+    /** Push what changed on each console's screen since the last flush. */
+    @Scheduled(fixedDelayString = "${app.fleet-map.flush-ms:500}")
+    public void flush() {
+        for (FleetMapSubscription subscription : subscriptions.values()) {
+            Map<String, Object> delta = subscription.flush();
+            if (delta != null) {
+                send(subscription, delta, deltaFrames, deltaBytes);
+            }
+        }
+    }
+
+    // ---- maintenance ----
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAmbulanceChanged(AmbulanceChangedEvent event) {
+        Long id = event.ambulance().id();
+        if (id != null) {
+            apply(Kind.AMBULANCE, id, MapMarker.of(event.ambulance()), true);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        EmergencyView emergency = event.emergency();
+        if (emergency.id() != null) {
+            MapMarker marker = CLOSED.contains(emergency.status()) ? null : MapMarker.of(emergency);
+            apply(Kind.EMERGENCY, emergency.id(), marker, true);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void buildOnStartup() {
+        reload();
+    }
+
+    /** Re-read every marker while consoles are watching. */
+    @Scheduled(
+            fixedDelayString = "${app.fleet-map.resync-ms:10000}",
+            initialDelayString = "${app.fleet-map.resync-ms:10000}")
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    @Workload(WorkloadClass.BACKGROUND)
+    public void resync() {
+        if (!subscriptions.isEmpty()) {
+            reload();
+        }
+    }
+
+    private void reload() {
+        synchronized (this) {
+            changedDuringResync = new EnumMap<>(Kind.class);
+            for (Kind kind : Kind.values()) {
+                changedDuringResync.put(kind, new HashSet<>());
+            }
+        }
+
+        Map<Kind, Map<Long, MapMarker>> fresh = new EnumMap<>(Kind.class);
+        fresh.put(Kind.AMBULANCE, loadAmbulances());
+        fresh.put(Kind.EMERGENCY, loadEmergencies());
+
+        synchronized (this) {
+            try {
+                for (Kind kind : Kind.values()) {
+                    Map<Long, MapMarker> freshOfKind = fresh.get(kind);
+                    Set<Long> ids = new HashSet<>(markers.get(kind).keySet());
+                    ids.addAll(freshOfKind.keySet());
+                    ids.removeAll(changedDuringResync.get(kind));
+                    for (Long id : ids) {
+                        apply(kind, id, freshOfKind.get(id), false);
+                    }
+                }
+            } finally {
+                changedDuringResync = null;
+            }
+            if (!ready) {
+                ready = true;
+                log.info("🗺️ Fleet map built: {} ambulances, {} open emergencies",
+                        markers.get(Kind.AMBULANCE).size(), markers.get(Kind.EMERGENCY).size());
+            }
+        }
+    }
+
+    private Map<Long, MapMarker> loadAmbulances() {
+        Map<Long, MapMarker> loaded = new HashMap<>();
+        long afterId = 0;
+        List<AmbulanceListRow> page;
+        do {
+            page = ambulanceRepository.findListRows(afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            for (AmbulanceListRow row : page) {
+                MapMarker marker = MapMarker.of(row);
+                if (marker != null) {
+                    loaded.put(marker.id(), marker);
+                }
+                afterId = row.id();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        return loaded;
+    }
+
+    private Map<Long, MapMarker> loadEmergencies() {
+        Map<Long, MapMarker> loaded = new HashMap<>();
+        long afterId = 0;
+        List<EmergencyListRow> page;
+        do {
+            page = emergencyRepository.findListRowsByStatusNotIn(CLOSED, afterId, PageRequest.ofSize(LOAD_PAGE_SIZE));
+            for (EmergencyListRow row : page) {
+                MapMarker marker = MapMarker.of(row);
+                if (marker != null) {
+                    loaded.put(marker.id(), marker);
+                }
+                afterId = row.id();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+        return loaded;
+    }
+
+    /**
+     * Replace one marker (null removes it) and tell every console. Events
+     * older than the marker's version are dropped; markers an event touched
+     * while a resync was loading keep the event's state.
+     */
+    private synchronized void apply(Kind kind, long id, MapMarker current, boolean fromEvent) {
+        Map<Long, MapMarker> ofKind = markers.get(kind);
+        MapMarker previous = ofKind.get(id);
+
+        if (fromEvent) {
+            if (previous != null && current != null && previous.version() != null && current.version() != null
+                    && current.version() < previous.version()) {
+                return;
+            }
+            if (changedDuringResync != null) {
+                changedDuringResync.get(kind).add(id);
+            }
+        }
+
+        if (current == null) {
+            if (ofKind.remove(id) == null) {
+                return;
+            }
+        } else {
+            ofKind.put(id, current);
+            if (current.looksLike(previous)) {
+                return;
+            }
+        }
+
+        for (FleetMapSubscription subscription : subscriptions.values()) {
+            subscription.changed(previous, current);
+        }
+    }
+
+    private void send(FleetMapSubscription subscription, Map<String, Object> frame, Counter frames, Counter bytes) {
+        WebSocketSession channel = subscription.channel();
+        if (!channel.isOpen()) {
+            subscriptions.remove(channel.getId());
+            return;
+        }
+        try {
+            String payload = objectMapper.writeValueAsString(frame);
+            channel.sendMessage(new TextMessage(payload));
+            if (frames != null) {
+                frames.increment();
+                bytes.increment(payload.length());
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to push fleet map frame on channel {}: {}", channel.getId(), e.getMessage());
+            subscriptions.remove(channel.getId());
+            try {
+                channel.close(CloseStatus.SERVER_ERROR);
+            } catch (IOException closeError) {
+                log.debug("Error closing fleet map channel {}: {}", channel.getId(), closeError.getMessage());
+            }
+        }
+    }
+}
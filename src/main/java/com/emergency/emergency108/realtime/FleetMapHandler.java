@@ -0,0 +1,96 @@
+package com.emergency.emergency108.realtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Control-room fleet map at /ws/fleet-map.
+ *
+ * Upstream (console -> server), on connect and after every pan / zoom:
+ *   {"type":"viewport", "south":12.8, "west":77.4, "north":13.1, "east":77.8, "zoom":12}
+ *
+ * Downstream (server -> console), JSON text frames:
+ *   {"type":"snapshot", "zoom", "clustered":false, "ambulances":[{id, lat, lng, status, label, detail}], "emergencies":[...]}
+ *   {"type":"snapshot", "zoom", "clustered":true, "clusters":[{cell, lat, lng, ambulances, available, emergencies}]}
+ *   {"type":"delta", "ambulances":[{id, changed fields}], "emergencies":[...], "removed":{"ambulances":[ids], "emergencies":[ids]}}
+ *   {"type":"delta", "clusters":[...], "removedClusters":[cells]}
+ *   {"type":"error", "message"}
+ *
+ * Ambulance label / detail are code and licence plate; emergency label /
+ * detail are type and severity. Empty delta sections are omitted.
+ */
+@Component
+public class FleetMapHandler extends TextWebSocketHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetMapHandler.class);
+
+    private final FleetMapFeed feed;
+    private final ObjectMapper objectMapper;
+
+    public FleetMapHandler(FleetMapFeed feed, ObjectMapper objectMapper) {
+        this.feed = feed;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        feed.open(session);
+        log.info("🗺️ Fleet map opened by admin {} ({}), {} watching",
+                adminId(session), session.getId(), feed.subscriberCount());
+    }
+
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) {
+        JsonNode frame;
+        try {
+            frame = objectMapper.readTree(message.getPayload());
+        } catch (Exception e) {
+            feed.reply(session, error("Malformed frame"));
+            return;
+        }
+
+        String type = frame.path("type").asText("");
+        if (!"viewport".equals(type)) {
+            feed.reply(session, error("Unknown frame type: " + type));
+            return;
+        }
+
+        try {
+            feed.viewport(session, Viewport.parse(frame));
+        } catch (IllegalArgumentException e) {
+            feed.reply(session, error(e.getMessage()));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        feed.close(session);
+        log.info("🗺️ Fleet map closed by admin {} ({}): {}", adminId(session), session.getId(), status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        log.warn("Fleet map channel {} transport error: {}", session.getId(), exception.getMessage());
+    }
+
+    private static Map<String, Object> error(String message) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "error");
+        frame.put("message", message);
+        return frame;
+    }
+
+    private static Long adminId(WebSocketSession session) {
+        return (Long) session.getAttributes().get(FleetMapHandshakeInterceptor.ADMIN_ID);
+    }
+}
@@ -0,0 +1,86 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.auth.token.AuthTokenPayload;
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.util.Map;
+
+/**
+ * Authenticates the fleet map handshake the same way as the driver channel
+ * (Bearer header or access_token query parameter). Only unblocked admins get
+ * through; their id is stored in the session attributes under
+ * {@link #ADMIN_ID}.
+ */
+@Component
+public class FleetMapHandshakeInterceptor implements HandshakeInterceptor {
+
+    private static final Logger log = LoggerFactory.getLogger(FleetMapHandshakeInterceptor.class);
+
+    public static final String ADMIN_ID = "adminId";
+
+    private final TokenService tokenService;
+    private final UserRepository userRepository;
+
+    public FleetMapHandshakeInterceptor(TokenService tokenService, UserRepository userRepository) {
+        this.tokenService = tokenService;
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public boolean beforeHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Map<String, Object> attributes) {
+
+        String token = DriverChannelHandshakeInterceptor.extractToken(request);
+        if (token == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        User user;
+        try {
+            AuthTokenPayload payload = tokenService.validateAndParse(token);
+            user = userRepository.findById(payload.getUserId()).orElse(null);
+        } catch (Exception e) {
+            log.warn("Fleet map handshake rejected: invalid token ({})", e.getMessage());
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        if (user == null) {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+            return false;
+        }
+
+        if (user.getRole() != UserRole.ADMIN || user.isBlocked()) {
+            log.warn("Fleet map handshake rejected for user {}: not an admin", user.getId());
+            response.setStatusCode(HttpStatus.FORBIDDEN);
+            return false;
+        }
+
+        attributes.put(ADMIN_ID, user.getId());
+        return true;
+    }
+
+    @Override
+    public void afterHandshake(
+            ServerHttpRequest request,
+            ServerHttpResponse response,
+            WebSocketHandler wsHandler,
+            Exception exception) {
+        // nothing to do
+    }
+}
@@ -0,0 +1,272 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.realtime.MapMarker.Kind;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What one console has on screen, and what changed there since the last
+ * flush.
+ *
+ * In detail mode it remembers every marker it sent, so a delta carries only
+ * the fields that moved. In clustered mode it keeps per-cell counts,
+ * updated incrementally from each change; a delta carries the cells whose
+ * counts changed. Either way the state is bounded by what the viewport
+ * shows, not by the fleet.
+ *
+ * {@link #reset} and {@link #changed} are called under the feed's lock, so
+ * the cell counts always match the feed's markers inside the viewport.
+ */
+final class FleetMapSubscription {
+
+    private final WebSocketSession channel;
+
+    private Viewport viewport;
+    private boolean clustered;
+    // Deltas wait until the snapshot they build on has been handed to the channel
+    private boolean snapshotInFlight;
+
+    // Detail mode: markers the console has, and the latest state of markers changed since
+    private final Map<Kind, Map<Long, MapMarker>> sent = new EnumMap<>(Kind.class);
+    private final Map<Kind, Map<Long, MapMarker>> pending = new EnumMap<>(Kind.class);
+
+    // Clustered mode
+    private final Map<String, Cluster> clusters = new HashMap<>();
+    private final Set<String> sentCells = new HashSet<>();
+    private final Set<String> dirtyCells = new HashSet<>();
+
+    FleetMapSubscription(WebSocketSession channel) {
+        this.channel = channel;
+        for (Kind kind : Kind.values()) {
+            sent.put(kind, new HashMap<>());
+            pending.put(kind, new LinkedHashMap<>());
+        }
+    }
+
+    WebSocketSession channel() {
+        return channel;
+    }
+
+    synchronized Viewport viewport() {
+        return viewport;
+    }
+
+    /** Switch to a new viewport and build its snapshot frame from the markers inside it. */
+    synchronized Map<String, Object> reset(Viewport viewport, boolean clustered, List<MapMarker> inside) {
+        this.viewport = viewport;
+        this.clustered = clustered;
+        this.snapshotInFlight = true;
+        for (Kind kind : Kind.values()) {
+            sent.get(kind).clear();
+            pending.get(kind).clear();
+        }
+        clusters.clear();
+        sentCells.clear();
+        dirtyCells.clear();
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "snapshot");
+        frame.put("zoom", viewport.zoom());
+        frame.put("clustered", clustered);
+
+        if (clustered) {
+            for (MapMarker marker : inside) {
+                clusters.computeIfAbsent(viewport.cellOf(marker), cell -> new Cluster()).add(marker);
+            }
+            List<Map<String, Object>> cells = new ArrayList<>(clusters.size());
+            clusters.forEach((cell, cluster) -> cells.add(cluster.toFrame(cell)));
+            sentCells.addAll(clusters.keySet());
+            frame.put("clusters", cells);
+            return frame;
+        }
+
+        Map<Kind, List<Map<String, Object>>> markers = new EnumMap<>(Kind.class);
+        for (Kind kind : Kind.values()) {
+            markers.put(kind, new ArrayList<>());
+        }
+        for (MapMarker marker : inside) {
+            sent.get(marker.kind()).put(marker.id(), marker);
+            markers.get(marker.kind()).add(marker.toFrame());
+        }
+        frame.put("ambulances", markers.get(Kind.AMBULANCE));
+        frame.put("emergencies", markers.get(Kind.EMERGENCY));
+        return frame;
+    }
+
+    synchronized void snapshotSent() {
+        snapshotInFlight = false;
+    }
+
+    /** A marker changed in the feed; previous / current are null when it appeared / went away. */
+    synchronized void changed(MapMarker previous, MapMarker current) {
+        if (viewport == null) {
+            return;
+        }
+
+        if (clustered) {
+            if (viewport.contains(previous)) {
+                String cell = viewport.cellOf(previous);
+                Cluster cluster = clusters.get(cell);
+                if (cluster != null) {
+                    cluster.remove(previous);
+                    dirtyCells.add(cell);
+                }
+            }
+            if (viewport.contains(current)) {
+                String cell = viewport.cellOf(current);
+                clusters.computeIfAbsent(cell, c -> new Cluster()).add(current);
+                dirtyCells.add(cell);
+            }
+            return;
+        }
+
+        MapMarker any = current != null ? current : previous;
+        Map<Long, MapMarker> changedOfKind = pending.get(any.kind());
+        if (viewport.contains(current)
+                || sent.get(any.kind()).containsKey(any.id())
+                || changedOfKind.containsKey(any.id())) {
+            changedOfKind.put(any.id(), current);
+        }
+    }
+
+    /** The delta frame for everything changed since the last flush, or null when nothing on screen changed. */
+    synchronized Map<String, Object> flush() {
+        if (viewport == null || snapshotInFlight) {
+            return null;
+        }
+        return clustered ? flushClusters() : flushMarkers();
+    }
+
+    private Map<String, Object> flushMarkers() {
+        Map<String, Object> upserted = new LinkedHashMap<>();
+        Map<String, Object> removed = new LinkedHashMap<>();
+        for (Kind kind : Kind.values()) {
+            Map<Long, MapMarker> sentOfKind = sent.get(kind);
+            List<Map<String, Object>> upserts = new ArrayList<>();
+            List<Long> removals = new ArrayList<>();
+            for (Map.Entry<Long, MapMarker> change : pending.get(kind).entrySet()) {
+                MapMarker current = change.getValue();
+                MapMarker last = sentOfKind.get(change.getKey());
+                if (viewport.contains(current)) {
+                    if (last == null) {
+                        upserts.add(current.toFrame());
+                    } else if (!current.looksLike(last)) {
+                        upserts.add(current.diffFrom(last));
+                    }
+                    sentOfKind.put(current.id(), current);
+                } else if (last != null) {
+                    sentOfKind.remove(change.getKey());
+                    removals.add(change.getKey());
+                }
+            }
+            pending.get(kind).clear();
+
+            String key = kind == Kind.AMBULANCE ? "ambulances" : "emergencies";
+            if (!upserts.isEmpty()) {
+                upserted.put(key, upserts);
+            }
+            if (!removals.isEmpty()) {
+                removed.put(key, removals);
+            }
+        }
+        if (upserted.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "delta");
+        frame.putAll(upserted);
+        if (!removed.isEmpty()) {
+            frame.put("removed", removed);
+        }
+        return frame;
+    }
+
+    private Map<String, Object> flushClusters() {
+        if (dirtyCells.isEmpty()) {
+            return null;
+        }
+        List<Map<String, Object>> changedCells = new ArrayList<>();
+        List<String> removedCells = new ArrayList<>();
+        for (String cell : dirtyCells) {
+            Cluster cluster = clusters.get(cell);
+            if (cluster == null || cluster.isEmpty()) {
+                clusters.remove(cell);
+                if (sentCells.remove(cell)) {
+                    removedCells.add(cell);
+                }
+            } else {
+                changedCells.add(cluster.toFrame(cell));
+                sentCells.add(cell);
+            }
+        }
+        dirtyCells.clear();
+        if (changedCells.isEmpty() && removedCells.isEmpty()) {
+            return null;
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("type", "delta");
+        if (!changedCells.isEmpty()) {
+            frame.put("clusters", changedCells);
+        }
+        if (!removedCells.isEmpty()) {
+            frame.put("removedClusters", removedCells);
+        }
+        return frame;
+    }
+
+    /** Markers of one grid cell, counted and averaged for a cluster icon. */
+    private static final class Cluster {
+        int ambulances;
+        int available;
+        int emergencies;
+        double sumLat;
+        double sumLng;
+
+        void add(MapMarker marker) {
+            count(marker, 1);
+        }
+
+        void remove(MapMarker marker) {
+            count(marker, -1);
+        }
+
+        boolean isEmpty() {
+            return ambulances + emergencies <= 0;
+        }
+
+        Map<String, Object> toFrame(String cell) {
+            int total = ambulances + emergencies;
+            Map<String, Object> frame = new LinkedHashMap<>();
+            frame.put("cell", cell);
+            frame.put("lat", Math.round(sumLat / total * 1e5) / 1e5);
+            frame.put("lng", Math.round(sumLng / total * 1e5) / 1e5);
+            frame.put("ambulances", ambulances);
+            frame.put("available", available);
+            frame.put("emergencies", emergencies);
+            return frame;
+        }
+
+        private void count(MapMarker marker, int delta) {
+            if (marker.kind() == Kind.AMBULANCE) {
+                ambulances += delta;
+                if (marker.isAvailableAmbulance()) {
+                    available += delta;
+                }
+            } else {
+                emergencies += delta;
+            }
+            sumLat += delta * marker.lat();
+            sumLng += delta * marker.lng();
+        }
+    }
+}
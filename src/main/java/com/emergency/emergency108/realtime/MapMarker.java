@@ -0,0 +1,114 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.dto.AmbulanceListRow;
+import com.emergency.emergency108.dto.EmergencyListRow;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.readmodel.AmbulanceView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * One ambulance or emergency as drawn on the fleet map. Positions are
+ * rounded to 5 decimals (about a metre) so GPS jitter does not produce
+ * deltas. version orders concurrent updates and is never sent.
+ *
+ * label / detail: code and licence plate for an ambulance, type and
+ * severity for an emergency.
+ */
+record MapMarker(Kind kind, long id, double lat, double lng, String status, String label, String detail,
+                 Long version) {
+
+    enum Kind { AMBULANCE, EMERGENCY }
+
+    private static final double PRECISION = 1e5;
+
+    static MapMarker of(AmbulanceView ambulance) {
+        return ambulance(ambulance.id(), ambulance.latitude(), ambulance.longitude(), ambulance.status(),
+                ambulance.code(), ambulance.licensePlate(), ambulance.version());
+    }
+
+    static MapMarker of(AmbulanceListRow ambulance) {
+        return ambulance(ambulance.id(), ambulance.latitude(), ambulance.longitude(), ambulance.status(),
+                ambulance.code(), ambulance.licensePlate(), null);
+    }
+
+    static MapMarker of(EmergencyView emergency) {
+        return emergency(emergency.id(), emergency.latitude(), emergency.longitude(),
+                Objects.toString(emergency.status(), null), emergency.type(), emergency.severity(),
+                emergency.version());
+    }
+
+    static MapMarker of(EmergencyListRow emergency) {
+        return emergency(emergency.id(), emergency.latitude(), emergency.longitude(),
+                Objects.toString(emergency.status(), null), emergency.type(), emergency.severity(), null);
+    }
+
+    private static MapMarker ambulance(Long id, Double lat, Double lng, AmbulanceStatus status,
+                                       String code, String licensePlate, Long version) {
+        if (id == null || lat == null || lng == null) {
+            return null;
+        }
+        return new MapMarker(Kind.AMBULANCE, id, round(lat), round(lng), Objects.toString(status, null),
+                code, licensePlate, version);
+    }
+
+    private static MapMarker emergency(Long id, Double lat, Double lng, String status,
+                                       String type, String severity, Long version) {
+        if (id == null || lat == null || lng == null) {
+            return null;
+        }
+        return new MapMarker(Kind.EMERGENCY, id, round(lat), round(lng), status, type, severity, version);
+    }
+
+    boolean isAvailableAmbulance() {
+        return kind == Kind.AMBULANCE && AmbulanceStatus.AVAILABLE.name().equals(status);
+    }
+
+    /** Same drawing as the other marker (version aside). */
+    boolean looksLike(MapMarker other) {
+        return other != null
+                && lat == other.lat && lng == other.lng
+                && Objects.equals(status, other.status)
+                && Objects.equals(label, other.label)
+                && Objects.equals(detail, other.detail);
+    }
+
+    /** Every field, for a marker the console does not have yet. */
+    Map<String, Object> toFrame() {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("id", id);
+        frame.put("lat", lat);
+        frame.put("lng", lng);
+        frame.put("status", status);
+        frame.put("label", label);
+        frame.put("detail", detail);
+        return frame;
+    }
+
+    /** The id plus only the fields that differ from what the console has. */
+    Map<String, Object> diffFrom(MapMarker sent) {
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("id", id);
+        if (lat != sent.lat || lng != sent.lng) {
+            frame.put("lat", lat);
+            frame.put("lng", lng);
+        }
+        if (!Objects.equals(status, sent.status)) {
+            frame.put("status", status);
+        }
+        if (!Objects.equals(label, sent.label)) {
+            frame.put("label", label);
+        }
+        if (!Objects.equals(detail, sent.detail)) {
+            frame.put("detail", detail);
+        }
+        return frame;
+    }
+
+    private static double round(double degrees) {
+        return Math.round(degrees * PRECISION) / PRECISION;
+    }
+}
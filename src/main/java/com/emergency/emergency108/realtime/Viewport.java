@@ -0,0 +1,57 @@
+package com.emergency.emergency108.realtime;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * The map area a control-room console shows: a lat/lng bounding box and a
+ * web-map zoom level (0 = whole world, ~20 = street). Boxes crossing the
+ * antimeridian are not supported.
+ *
+ * At low zoom the box is cut into square grid cells of
+ * {@link #cellDegrees()}, about a quarter of a map tile, for clustering.
+ */
+record Viewport(double south, double west, double north, double east, int zoom) {
+
+    private static final int MAX_ZOOM = 22;
+    private static final int CELLS_PER_TILE = 4;
+
+    /** Parses a console "viewport" frame; IllegalArgumentException if it is unusable. */
+    static Viewport parse(JsonNode frame) {
+        for (String field : new String[] { "south", "west", "north", "east", "zoom" }) {
+            if (!frame.path(field).isNumber()) {
+                throw new IllegalArgumentException("Viewport requires numeric south, west, north, east and zoom");
+            }
+        }
+        Viewport viewport = new Viewport(
+                frame.get("south").asDouble(),
+                frame.get("west").asDouble(),
+                frame.get("north").asDouble(),
+                frame.get("east").asDouble(),
+                frame.get("zoom").asInt());
+        if (viewport.south < -90 || viewport.north > 90 || viewport.south > viewport.north
+                || viewport.west < -180 || viewport.east > 180 || viewport.west > viewport.east) {
+            throw new IllegalArgumentException(
+                    "Invalid viewport. Need -90 <= south <= north <= 90 and -180 <= west <= east <= 180");
+        }
+        if (viewport.zoom < 0 || viewport.zoom > MAX_ZOOM) {
+            throw new IllegalArgumentException("Zoom must be 0 to " + MAX_ZOOM);
+        }
+        return viewport;
+    }
+
+    boolean contains(MapMarker marker) {
+        return marker != null
+                && marker.lat() >= south && marker.lat() <= north
+                && marker.lng() >= west && marker.lng() <= east;
+    }
+
+    double cellDegrees() {
+        return 360.0 / (1L << zoom) / CELLS_PER_TILE;
+    }
+
+    /** Grid cell of the marker at this zoom, as "row:column". */
+    String cellOf(MapMarker marker) {
+        double size = cellDegrees();
+        return (long) Math.floor(marker.lat() / size) + ":" + (long) Math.floor(marker.lng() / size);
+    }
+}
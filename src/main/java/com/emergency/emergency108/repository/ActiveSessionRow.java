@@ -0,0 +1,12 @@
+package com.emergency.emergency108.repository;
+
+import com.emergency.emergency108.entity.Ambulance;
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.User;
+
+/**
+ * An active driver session with its driver and ambulance, loaded in one
+ * joined query. driver / ambulance are null when the referenced row is missing.
+ */
+public record ActiveSessionRow(DriverSession session, User driver, Ambulance ambulance) {
+}
@@ -1,11 +1,15 @@
 package com.emergency.emergency108.repository;
 
+import com.emergency.emergency108.dto.AmbulanceListRow;
 import com.emergency.emergency108.entity.Ambulance;
 import com.emergency.emergency108.entity.AmbulanceStatus;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 
@@ -13,6 +17,22 @@ public interface AmbulanceRepository extends JpaRepository<Ambulance, Long> {
 
   List<Ambulance> findByStatus(AmbulanceStatus status);
 
+  long countByStatus(AmbulanceStatus status);
+
+  @Query("SELECT new com.emergency.emergency108.repository.StatusRow(a.id, a.status, a.version) FROM Ambulance a")
+  List<StatusRow<AmbulanceStatus>> findAllStatusRows();
+
+  /** Keyset page of the fleet: pass PageRequest.ofSize(n), continue after the last id. */
+  @Query("""
+          SELECT new com.emergency.emergency108.dto.AmbulanceListRow(
+              a.id, a.code, a.driver, a.driverPhone, a.licensePlate, a.status, a.latitude, a.longitude,
+              a.updatedAt, a.ambulanceType, a.baseFare, a.perKmRate)
+          FROM Ambulance a
+          WHERE a.id > :afterId
+          ORDER BY a.id
+      """)
+  List<AmbulanceListRow> findListRows(@Param("afterId") long afterId, Pageable page);
+
   java.util.Optional<Ambulance> findByCode(String code);
 
   @Query("SELECT a FROM Ambulance a INNER JOIN DriverSession ds ON a.id = ds.ambulanceId WHERE ds.driverId = :driverId AND ds.sessionEndTime IS NULL")
@@ -49,4 +69,27 @@ public interface AmbulanceRepository extends JpaRepository<Ambulance, Long> {
       """)
   List<Ambulance> findAvailableForUpdate();
 
+  /**
+   * Reconciliation: set every BUSY ambulance that has no ASSIGNED / ACCEPTED
+   * assignment back to AVAILABLE, in one anti-join UPDATE. Bypasses entity
+   * listeners; the version bump fails any concurrent save of a stale copy.
+   */
+  @Modifying
+  @Query("""
+          UPDATE Ambulance am
+          SET am.status = :available, am.version = am.version + 1
+          WHERE am.status = :busy
+            AND NOT EXISTS (
+                SELECT 1 FROM EmergencyAssignment a
+                WHERE a.ambulance = am
+                  AND a.status IN ('ASSIGNED', 'ACCEPTED'))
+      """)
+  int releaseBusyWithoutActiveAssignment(
+      @Param("busy") AmbulanceStatus busy,
+      @Param("available") AmbulanceStatus available);
+
+  default int releaseBusyWithoutActiveAssignment() {
+    return releaseBusyWithoutActiveAssignment(AmbulanceStatus.BUSY, AmbulanceStatus.AVAILABLE);
+  }
+
 }
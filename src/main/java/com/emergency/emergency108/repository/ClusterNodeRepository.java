@@ -0,0 +1,38 @@
+package com.emergency.emergency108.repository;
+
+import com.emergency.emergency108.cluster.ClusterMember;
+import com.emergency.emergency108.entity.ClusterNode;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface ClusterNodeRepository extends JpaRepository<ClusterNode, String> {
+
+    @Modifying
+    @Query("UPDATE ClusterNode n SET n.lastSeenAt = :now, n.baseUrl = :baseUrl WHERE n.nodeId = :nodeId")
+    int touch(@Param("nodeId") String nodeId, @Param("baseUrl") String baseUrl, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO cluster_nodes (node_id, base_url, started_at, last_seen_at)
+            VALUES (:nodeId, :baseUrl, :now, :now)
+            """, nativeQuery = true)
+    int insert(@Param("nodeId") String nodeId, @Param("baseUrl") String baseUrl, @Param("now") LocalDateTime now);
+
+    /** Nodes seen since the cutoff, in a stable order (the shard order). */
+    @Query("""
+            SELECT new com.emergency.emergency108.cluster.ClusterMember(n.nodeId, n.baseUrl)
+            FROM ClusterNode n
+            WHERE n.lastSeenAt > :cutoff
+            ORDER BY n.nodeId
+            """)
+    List<ClusterMember> findLiveNodes(@Param("cutoff") LocalDateTime cutoff);
+
+    @Modifying
+    @Query("DELETE FROM ClusterNode n WHERE n.lastSeenAt < :cutoff")
+    int deleteNotSeenSince(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,13 +1,18 @@
 package com.emergency.emergency108.repository;
 
+import com.emergency.emergency108.dto.OnlineDriverRow;
 import com.emergency.emergency108.entity.DriverSession;
 import com.emergency.emergency108.entity.DriverSessionStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -42,6 +47,24 @@ public interface DriverSessionRepository extends JpaRepository<DriverSession, Lo
            "ORDER BY ds.sessionStartTime ASC")
     List<DriverSession> findAllOnlineDrivers();
 
+    /**
+     * Keyset page of {@link #findAllOnlineDrivers()} with driver and ambulance
+     * display columns: pass PageRequest.ofSize(n), continue after the last
+     * session id. Sessions get their id when they start, so id order is start order.
+     */
+    @Query("SELECT new com.emergency.emergency108.dto.OnlineDriverRow(" +
+           "ds.id, ds.driverId, ds.ambulanceId, ds.status, ds.currentLat, ds.currentLng, ds.sessionStartTime, " +
+           "u.name, u.phone, a.licensePlate) " +
+           "FROM DriverSession ds " +
+           "JOIN User u ON u.id = ds.driverId " +
+           "LEFT JOIN Ambulance a ON a.id = ds.ambulanceId " +
+           "WHERE ds.status = 'ONLINE' " +
+           "AND ds.sessionEndTime IS NULL " +
+           "AND u.driverVerificationStatus = 'VERIFIED' " +
+           "AND ds.id > :afterId " +
+           "ORDER BY ds.id")
+    List<OnlineDriverRow> findOnlineDriverRows(@Param("afterId") long afterId, Pageable page);
+
     /**
      * Find session by driver and ambulance (for validation)
      */
@@ -92,4 +115,90 @@ public interface DriverSessionRepository extends JpaRepository<DriverSession, Lo
     @Query("SELECT ds FROM DriverSession ds WHERE ds.status IN ('ONLINE', 'ON_TRIP') " +
            "AND ds.sessionEndTime IS NULL")
     List<DriverSession> findActiveSessions();
+
+    /**
+     * All active sessions with their driver and ambulance, in one query.
+     * Used by the invariant validator instead of per-session lookups.
+     */
+    @Query("SELECT new com.emergency.emergency108.repository.ActiveSessionRow(ds, u, a) " +
+           "FROM DriverSession ds " +
+           "LEFT JOIN User u ON u.id = ds.driverId " +
+           "LEFT JOIN Ambulance a ON a.id = ds.ambulanceId " +
+           "WHERE ds.status IN ('ONLINE', 'ON_TRIP') " +
+           "AND ds.sessionEndTime IS NULL")
+    List<ActiveSessionRow> findActiveSessionRows();
+
+    /**
+     * Active sessions the incremental invariant run must re-check: those
+     * updated since the watermark, plus every other active session sharing a
+     * driver or ambulance with one of them (so the one-session-per-driver /
+     * per-ambulance checks still see both sides). Also every session whose
+     * problem does not touch its updatedAt: a heartbeat older than
+     * heartbeatBefore, a start older than startedBefore, ON_TRIP (checked
+     * against assignments), or a driver / ambulance that is missing, blocked
+     * or unverified.
+     */
+    @Query("SELECT new com.emergency.emergency108.repository.ActiveSessionRow(ds, u, a) " +
+           "FROM DriverSession ds " +
+           "LEFT JOIN User u ON u.id = ds.driverId " +
+           "LEFT JOIN Ambulance a ON a.id = ds.ambulanceId " +
+           "WHERE ds.status IN ('ONLINE', 'ON_TRIP') " +
+           "AND ds.sessionEndTime IS NULL " +
+           "AND (ds.updatedAt >= :since " +
+           "    OR ds.lastHeartbeat IS NULL OR ds.lastHeartbeat < :heartbeatBefore " +
+           "    OR ds.sessionStartTime < :startedBefore " +
+           "    OR ds.status = 'ON_TRIP' " +
+           "    OR u.id IS NULL OR u.blocked = true OR u.driverVerificationStatus <> 'VERIFIED' " +
+           "    OR a.id IS NULL " +
+           "    OR EXISTS (" +
+           "    SELECT 1 FROM DriverSession o " +
+           "    WHERE o.status IN ('ONLINE', 'ON_TRIP') " +
+           "    AND o.sessionEndTime IS NULL " +
+           "    AND o.updatedAt >= :since " +
+           "    AND (o.driverId = ds.driverId OR o.ambulanceId = ds.ambulanceId)))")
+    List<ActiveSessionRow> findActiveSessionRowsToRecheck(
+            @Param("since") LocalDateTime since,
+            @Param("heartbeatBefore") LocalDateTime heartbeatBefore,
+            @Param("startedBefore") LocalDateTime startedBefore);
+
+    /**
+     * Still-active sessions among the given ids (stale detection re-check)
+     */
+    @Query("SELECT ds FROM DriverSession ds WHERE ds.id IN :ids " +
+           "AND ds.status IN ('ONLINE', 'ON_TRIP') " +
+           "AND ds.sessionEndTime IS NULL")
+    List<DriverSession> findActiveByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * End stale sessions in one statement (session_end_time only, status unchanged).
+     * Rows with a heartbeat newer than freshCutoff are left alone; the version bump
+     * makes any in-flight save of an ended session fail its optimistic lock check.
+     */
+    @Modifying
+    @Query("UPDATE DriverSession ds SET ds.sessionEndTime = :now, ds.updatedAt = :now, " +
+           "ds.version = ds.version + 1 " +
+           "WHERE ds.id IN :ids " +
+           "AND ds.sessionEndTime IS NULL " +
+           "AND (ds.lastHeartbeat IS NULL OR ds.lastHeartbeat < :freshCutoff)")
+    int endStaleSessions(
+        @Param("ids") Collection<Long> ids,
+        @Param("now") LocalDateTime now,
+        @Param("freshCutoff") LocalDateTime freshCutoff
+    );
+
+    /**
+     * Record a binary heartbeat sequence number if it is above the last one
+     * recorded for the session; 0 rows when it is not (a replay). The column
+     * is not mapped, so entity updates never write an older value back.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE driver_sessions SET heartbeat_sequence = :sequence " +
+                   "WHERE id = :sessionId " +
+                   "AND (heartbeat_sequence IS NULL OR heartbeat_sequence < :sequence)",
+           nativeQuery = true)
+    int advanceHeartbeatSequence(
+        @Param("sessionId") long sessionId,
+        @Param("sequence") long sequence
+    );
 }
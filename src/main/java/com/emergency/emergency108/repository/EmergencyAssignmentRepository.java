@@ -5,10 +5,12 @@ import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,6 +53,31 @@ public interface EmergencyAssignmentRepository
                         Long driverId,
                         EmergencyAssignmentStatus status);
 
+        /**
+         * ASSIGNED or ACCEPTED assignments of a driver for an emergency, newest
+         * first, with emergency and ambulance fetched in the same query.
+         */
+        @Query("""
+                        select a from EmergencyAssignment a
+                        join fetch a.emergency
+                        join fetch a.ambulance
+                        where a.emergency.id = :emergencyId
+                        and a.driverId = :driverId
+                        and a.status in ('ASSIGNED', 'ACCEPTED')
+                        order by a.assignedAt desc
+                        """)
+        List<EmergencyAssignment> findActiveByEmergencyIdAndDriverId(
+                        @Param("emergencyId") Long emergencyId,
+                        @Param("driverId") Long driverId);
+
+        /**
+         * Current ASSIGNED or ACCEPTED assignment of a driver for an emergency.
+         * Used by the accept/reject authorization check and the accept itself.
+         */
+        default Optional<EmergencyAssignment> findActiveAssignment(Long emergencyId, Long driverId) {
+                return findActiveByEmergencyIdAndDriverId(emergencyId, driverId).stream().findFirst();
+        }
+
         /**
          * Find assignment by driver ID and status only.
          * Used to get current assignment for driver.
@@ -59,18 +86,117 @@ public interface EmergencyAssignmentRepository
                         Long driverId,
                         EmergencyAssignmentStatus status);
 
+        /**
+         * ASSIGNED or ACCEPTED assignments of a driver, pending offers first,
+         * then newest first.
+         */
+        @Query("""
+                        select a from EmergencyAssignment a
+                        where a.driverId = :driverId
+                        and a.status in ('ASSIGNED', 'ACCEPTED')
+                        order by case when a.status = 'ASSIGNED' then 0 else 1 end, a.assignedAt desc
+                        """)
+        List<EmergencyAssignment> findActiveByDriverId(@Param("driverId") Long driverId);
+
+        /**
+         * Same as {@link #findActiveByDriverId}, with emergency, ambulance and
+         * destination hospital fetched, for responses that serialize the entity.
+         */
+        @Query("""
+                        select a from EmergencyAssignment a
+                        join fetch a.emergency
+                        join fetch a.ambulance
+                        left join fetch a.destinationHospital
+                        where a.driverId = :driverId
+                        and a.status in ('ASSIGNED', 'ACCEPTED')
+                        order by case when a.status = 'ASSIGNED' then 0 else 1 end, a.assignedAt desc
+                        """)
+        List<EmergencyAssignment> findActiveWithDetailsByDriverId(@Param("driverId") Long driverId);
+
+        /**
+         * Current assignment of a driver in one query: a pending offer wins
+         * over an accepted one.
+         */
+        default Optional<EmergencyAssignment> findCurrentForDriver(Long driverId) {
+                return findActiveByDriverId(driverId).stream().findFirst();
+        }
+
         /**
          * Find all assignments with timeout deadline passed.
          * Used by scheduled job to handle driver timeouts.
+         * Sharded by emergency id (id MOD shardCount = shardIndex) across cluster nodes.
          */
         @Query("""
                         select a from EmergencyAssignment a
                         where a.status = 'ASSIGNED'
                         and a.responseDeadline < :now
+                        and mod(a.emergency.id, :shardCount) = :shardIndex
+                        """)
+        List<EmergencyAssignment> findTimedOutAssignmentsInShard(
+                        @Param("now") LocalDateTime now,
+                        @Param("shardCount") int shardCount,
+                        @Param("shardIndex") int shardIndex);
+
+        default List<EmergencyAssignment> findTimedOutAssignments(LocalDateTime now) {
+                return findTimedOutAssignmentsInShard(now, 1, 0);
+        }
+
+        /**
+         * All ASSIGNED / ACCEPTED assignments with their emergency.
+         * Used to build the live assignment read model on startup.
+         */
+        @Query("""
+                        select a from EmergencyAssignment a
+                        join fetch a.emergency
+                        where a.status in ('ASSIGNED', 'ACCEPTED')
+                        """)
+        List<EmergencyAssignment> findAllActiveWithEmergency();
+
+        @Query("""
+                        select a from EmergencyAssignment a
+                        join fetch a.emergency
+                        where a.emergency.id = :emergencyId
+                        and a.status in ('ASSIGNED', 'ACCEPTED')
                         """)
-        List<EmergencyAssignment> findTimedOutAssignments(@Param("now") LocalDateTime now);
+        List<EmergencyAssignment> findActiveWithEmergencyByEmergencyId(@Param("emergencyId") Long emergencyId);
+
+        @Query("select a from EmergencyAssignment a join fetch a.emergency where a.id in :ids")
+        List<EmergencyAssignment> findAllWithEmergencyByIdIn(@Param("ids") Collection<Long> ids);
+
+        boolean existsByEmergencyIdAndStatusIn(Long emergencyId, Collection<EmergencyAssignmentStatus> statuses);
 
         @Query("SELECT a.driverId FROM EmergencyAssignment a WHERE a.emergency.id = :emergencyId AND a.status = 'REJECTED'")
         List<Long> findRejectedDriverIdsByEmergencyId(@Param("emergencyId") Long emergencyId);
 
+        // ---- set-based reconciliation (bulk statements bypass the entity listeners) ----
+
+        /**
+         * Emergencies with a pending (ASSIGNED) offer past its response deadline.
+         */
+        @Query("""
+                        select distinct a.emergency.id from EmergencyAssignment a
+                        where a.status = 'ASSIGNED'
+                        and a.responseDeadline < :now
+                        """)
+        List<Long> findEmergencyIdsWithExpiredOffers(@Param("now") LocalDateTime now);
+
+        /**
+         * Reject every pending offer past its response deadline in one statement.
+         */
+        @Modifying
+        @Query("""
+                        update EmergencyAssignment a
+                        set a.status = :rejected, a.rejectedAt = :now, a.version = a.version + 1
+                        where a.status = :assigned
+                        and a.responseDeadline < :now
+                        """)
+        int rejectExpiredOffers(
+                        @Param("now") LocalDateTime now,
+                        @Param("assigned") EmergencyAssignmentStatus assigned,
+                        @Param("rejected") EmergencyAssignmentStatus rejected);
+
+        default int rejectExpiredOffers(LocalDateTime now) {
+                return rejectExpiredOffers(now, EmergencyAssignmentStatus.ASSIGNED, EmergencyAssignmentStatus.REJECTED);
+        }
+
 }
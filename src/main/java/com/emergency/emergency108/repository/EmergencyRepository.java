@@ -1,9 +1,16 @@
 package com.emergency.emergency108.repository;
 
+import com.emergency.emergency108.dto.ActiveEmergencyRow;
+import com.emergency.emergency108.dto.EmergencyListRow;
+import com.emergency.emergency108.dto.EmergencyLocationRow;
+import com.emergency.emergency108.dto.IncidentReportRow;
 import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyFor;
 import com.emergency.emergency108.entity.EmergencyStatus;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
@@ -17,18 +24,28 @@ public interface EmergencyRepository extends JpaRepository<Emergency, Long> {
         /**
          * Find all CREATED emergencies that have passed their confirmation deadline.
          * Used by scheduled job to auto-dispatch unconfirmed emergencies.
+         * Sharded by emergency id (id MOD shardCount = shardIndex) across cluster nodes.
          */
         @Query("""
                         select e from Emergency e
                         where e.status = 'CREATED'
                         and e.confirmationDeadline < :now
+                        and mod(e.id, :shardCount) = :shardIndex
                         """)
-        List<Emergency> findUnconfirmedEmergencies(@Param("now") LocalDateTime now);
+        List<Emergency> findUnconfirmedEmergenciesInShard(
+                        @Param("now") LocalDateTime now,
+                        @Param("shardCount") int shardCount,
+                        @Param("shardIndex") int shardIndex);
+
+        default List<Emergency> findUnconfirmedEmergencies(LocalDateTime now) {
+                return findUnconfirmedEmergenciesInShard(now, 1, 0);
+        }
 
         /**
          * Safety Net: Find emergencies where user hasn't confirmed ownership
          * (SELF/OTHER)
          * within the 30s deadline. Auto-defaults to SELF.
+         * Sharded by emergency id across cluster nodes.
          */
         @Query("""
                         select e from Emergency e
@@ -36,8 +53,16 @@ public interface EmergencyRepository extends JpaRepository<Emergency, Long> {
                         and e.contactNotificationStatus = 'PENDING'
                         and e.confirmOwnershipDeadline < :now
                         and e.status != 'CANCELLED'
+                        and mod(e.id, :shardCount) = :shardIndex
                         """)
-        List<Emergency> findPendingOwnershipTimeouts(@Param("now") LocalDateTime now);
+        List<Emergency> findPendingOwnershipTimeoutsInShard(
+                        @Param("now") LocalDateTime now,
+                        @Param("shardCount") int shardCount,
+                        @Param("shardIndex") int shardIndex);
+
+        default List<Emergency> findPendingOwnershipTimeouts(LocalDateTime now) {
+                return findPendingOwnershipTimeoutsInShard(now, 1, 0);
+        }
 
         List<Emergency> findByStatusIn(List<EmergencyStatus> statuses);
 
@@ -45,4 +70,160 @@ public interface EmergencyRepository extends JpaRepository<Emergency, Long> {
 
         long countByStatusNotIn(List<EmergencyStatus> statuses);
 
+        @Query("""
+                        select new com.emergency.emergency108.repository.StatusRow(e.id, e.status, e.version)
+                        from Emergency e
+                        where e.status not in :statuses
+                        """)
+        List<StatusRow<EmergencyStatus>> findStatusRowsByStatusNotIn(@Param("statuses") List<EmergencyStatus> statuses);
+
+        /**
+         * Located emergencies created since the given time. Zone demand is
+         * rebuilt from these in cluster mode, where each SOS reaches one node.
+         */
+        @Query("""
+                        select new com.emergency.emergency108.dto.EmergencyLocationRow(
+                            e.createdAt, e.latitude, e.longitude)
+                        from Emergency e
+                        where e.createdAt >= :since
+                        and e.latitude is not null and e.longitude is not null
+                        """)
+        List<EmergencyLocationRow> findLocationsCreatedSince(@Param("since") LocalDateTime since);
+
+        /**
+         * Reports created since the given time inside a lat/lng box. Incident
+         * grouping reads these in cluster mode, where reports of one scene can
+         * reach different nodes.
+         */
+        @Query("""
+                        select new com.emergency.emergency108.dto.IncidentReportRow(
+                            e.id, e.incidentId, e.userId, e.latitude, e.longitude)
+                        from Emergency e
+                        where e.createdAt >= :since
+                        and e.latitude between :minLat and :maxLat
+                        and e.longitude between :minLng and :maxLng
+                        """)
+        List<IncidentReportRow> findReportsSince(
+                        @Param("since") LocalDateTime since,
+                        @Param("minLat") double minLat,
+                        @Param("maxLat") double maxLat,
+                        @Param("minLng") double minLng,
+                        @Param("maxLng") double maxLng);
+
+        /** Open emergencies of one provenance with the victim's name, for the Helping Hand index. */
+        @Query("""
+                        select new com.emergency.emergency108.dto.ActiveEmergencyRow(
+                            e.id, e.type, e.latitude, e.longitude, e.status, e.userId, u.name, e.version)
+                        from Emergency e
+                        left join User u on u.id = e.userId
+                        where e.status in :statuses
+                        and e.emergencyFor = :emergencyFor
+                        """)
+        List<ActiveEmergencyRow> findActiveRows(
+                        @Param("statuses") List<EmergencyStatus> statuses,
+                        @Param("emergencyFor") EmergencyFor emergencyFor);
+
+        // ---- keyset-paginated listings: pass PageRequest.ofSize(n), continue after the last id ----
+
+        @Query("""
+                        select new com.emergency.emergency108.dto.EmergencyListRow(
+                            e.id, e.type, e.severity, e.latitude, e.longitude, e.status, e.userId,
+                            e.sourceType, e.emergencyFor, e.hospitalLatitude, e.hospitalLongitude,
+                            e.createdAt, e.statusUpdatedAt, e.completedAt, e.incidentId, e.probableDuplicate)
+                        from Emergency e
+                        where e.status not in :statuses
+                        and e.id > :afterId
+                        order by e.id
+                        """)
+        List<EmergencyListRow> findListRowsByStatusNotIn(
+                        @Param("statuses") List<EmergencyStatus> statuses,
+                        @Param("afterId") long afterId,
+                        Pageable page);
+
+        @Query("""
+                        select new com.emergency.emergency108.dto.EmergencyListRow(
+                            e.id, e.type, e.severity, e.latitude, e.longitude, e.status, e.userId,
+                            e.sourceType, e.emergencyFor, e.hospitalLatitude, e.hospitalLongitude,
+                            e.createdAt, e.statusUpdatedAt, e.completedAt, e.incidentId, e.probableDuplicate)
+                        from Emergency e
+                        where e.id > :afterId
+                        order by e.id
+                        """)
+        List<EmergencyListRow> findListRows(@Param("afterId") long afterId, Pageable page);
+
+        /**
+         * Probable duplicates auto-dispatch is holding back: past their confirmation
+         * deadline, younger than heldSince, and their incident's first report is
+         * neither cancelled nor unassigned (the rule of EmergencyConfirmationScheduler).
+         */
+        @Query("""
+                        select new com.emergency.emergency108.dto.EmergencyListRow(
+                            e.id, e.type, e.severity, e.latitude, e.longitude, e.status, e.userId,
+                            e.sourceType, e.emergencyFor, e.hospitalLatitude, e.hospitalLongitude,
+                            e.createdAt, e.statusUpdatedAt, e.completedAt, e.incidentId, e.probableDuplicate)
+                        from Emergency e
+                        where e.status = 'CREATED'
+                        and e.probableDuplicate = true
+                        and e.confirmationDeadline < :now
+                        and e.createdAt >= :heldSince
+                        and exists (
+                            select 1 from Emergency p
+                            where p.id = e.incidentId and p.id <> e.id
+                            and p.status not in ('CANCELLED', 'UNASSIGNED'))
+                        and e.id > :afterId
+                        order by e.id
+                        """)
+        List<EmergencyListRow> findHeldDuplicateRows(
+                        @Param("now") LocalDateTime now,
+                        @Param("heldSince") LocalDateTime heldSince,
+                        @Param("afterId") long afterId,
+                        Pageable page);
+
+        // ---- set-based reconciliation (bulk statements bypass the entity listeners) ----
+
+        /**
+         * Every IN_PROGRESS emergency without an ACCEPTED assignment goes back to
+         * UNASSIGNED, in one anti-join UPDATE.
+         */
+        @Modifying
+        @Query("""
+                        update Emergency e
+                        set e.status = :unassigned, e.statusUpdatedAt = :now, e.version = e.version + 1
+                        where e.status = :inProgress
+                        and not exists (
+                            select 1 from EmergencyAssignment a
+                            where a.emergency = e
+                            and a.status = 'ACCEPTED')
+                        """)
+        int unassignInProgressWithoutAcceptedAssignment(
+                        @Param("now") LocalDateTime now,
+                        @Param("inProgress") EmergencyStatus inProgress,
+                        @Param("unassigned") EmergencyStatus unassigned);
+
+        default int unassignInProgressWithoutAcceptedAssignment(LocalDateTime now) {
+                return unassignInProgressWithoutAcceptedAssignment(
+                                now, EmergencyStatus.IN_PROGRESS, EmergencyStatus.UNASSIGNED);
+        }
+
+        /**
+         * Every emergency holding a pending offer past its response deadline goes
+         * back to UNASSIGNED. Run before the offers themselves are rejected.
+         */
+        @Modifying
+        @Query("""
+                        update Emergency e
+                        set e.status = :unassigned, e.statusUpdatedAt = :now, e.version = e.version + 1
+                        where e.id in (
+                            select a.emergency.id from EmergencyAssignment a
+                            where a.status = 'ASSIGNED'
+                            and a.responseDeadline < :now)
+                        """)
+        int unassignWithExpiredOffers(
+                        @Param("now") LocalDateTime now,
+                        @Param("unassigned") EmergencyStatus unassigned);
+
+        default int unassignWithExpiredOffers(LocalDateTime now) {
+                return unassignWithExpiredOffers(now, EmergencyStatus.UNASSIGNED);
+        }
+
 }
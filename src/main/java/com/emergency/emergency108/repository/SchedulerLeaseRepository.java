@@ -0,0 +1,45 @@
+package com.emergency.emergency108.repository;
+
+import com.emergency.emergency108.entity.SchedulerLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface SchedulerLeaseRepository extends JpaRepository<SchedulerLease, String> {
+
+    /**
+     * Take or renew a lease in one conditional UPDATE: succeeds (returns 1)
+     * when this node already owns it or the current owner let it expire.
+     */
+    @Modifying
+    @Query("""
+            UPDATE SchedulerLease l
+            SET l.acquiredAt = CASE WHEN l.ownerNode = :nodeId THEN l.acquiredAt ELSE :now END,
+                l.ownerNode = :nodeId,
+                l.expiresAt = :expiresAt
+            WHERE l.name = :name
+              AND (l.ownerNode = :nodeId OR l.expiresAt < :now)
+            """)
+    int tryAcquire(
+            @Param("name") String name,
+            @Param("nodeId") String nodeId,
+            @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    /** First acquisition; a concurrent insert by another node fails on the primary key. */
+    @Modifying
+    @Query(value = "INSERT INTO scheduler_leases (name, owner_node, acquired_at, expires_at) " +
+                   "VALUES (:name, :nodeId, :now, :expiresAt)", nativeQuery = true)
+    int insert(
+            @Param("name") String name,
+            @Param("nodeId") String nodeId,
+            @Param("now") LocalDateTime now,
+            @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("DELETE FROM SchedulerLease l WHERE l.ownerNode = :nodeId")
+    int releaseAll(@Param("nodeId") String nodeId);
+}
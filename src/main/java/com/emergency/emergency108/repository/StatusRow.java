@@ -0,0 +1,12 @@
+package com.emergency.emergency108.repository;
+
+/**
+ * Id, status and @Version of one row, for rebuilding in-memory status counts
+ * without loading entities. version is null for entities without one.
+ */
+public record StatusRow<S extends Enum<S>>(Long id, S status, Long version) {
+
+    public StatusRow(Long id, S status) {
+        this(id, status, null);
+    }
+}
@@ -1,9 +1,14 @@
 package com.emergency.emergency108.repository;
 
+import com.emergency.emergency108.dto.PendingDriverRow;
+import com.emergency.emergency108.dto.VerifiedDriverRow;
 import com.emergency.emergency108.entity.DriverVerificationStatus;
 import com.emergency.emergency108.entity.User;
 import com.emergency.emergency108.entity.UserRole;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
 import java.util.Optional;
@@ -13,5 +18,26 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByPhone(String phone);
     
     List<User> findByRoleAndDriverVerificationStatus(UserRole role, DriverVerificationStatus status);
+
+    long countByRoleAndDriverVerificationStatus(UserRole role, DriverVerificationStatus status);
+
+    @Query("SELECT new com.emergency.emergency108.repository.StatusRow(u.id, u.driverVerificationStatus) FROM User u WHERE u.role = :role")
+    List<StatusRow<DriverVerificationStatus>> findVerificationStatusRowsByRole(@Param("role") UserRole role);
+
+    // Keyset pages of drivers: pass PageRequest.ofSize(n), continue after the last id
+
+    @Query("SELECT new com.emergency.emergency108.dto.PendingDriverRow(" +
+           "u.id, u.name, u.phone, u.email, u.address, u.documentUrl, u.driverVerificationStatus, u.createdAt) " +
+           "FROM User u " +
+           "WHERE u.role = 'DRIVER' AND u.driverVerificationStatus = 'PENDING' AND u.id > :afterId " +
+           "ORDER BY u.id")
+    List<PendingDriverRow> findPendingDriverRows(@Param("afterId") long afterId, Pageable page);
+
+    @Query("SELECT new com.emergency.emergency108.dto.VerifiedDriverRow(" +
+           "u.id, u.name, u.phone, u.driverVerificationStatus) " +
+           "FROM User u " +
+           "WHERE u.role = 'DRIVER' AND u.driverVerificationStatus = 'VERIFIED' AND u.id > :afterId " +
+           "ORDER BY u.id")
+    List<VerifiedDriverRow> findVerifiedDriverRows(@Param("afterId") long afterId, Pageable page);
 }
 
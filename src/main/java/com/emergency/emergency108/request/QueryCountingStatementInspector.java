@@ -0,0 +1,18 @@
+package com.emergency.emergency108.request;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Counts every SQL statement Hibernate prepares against the current request
+ * scope. Registered through
+ * spring.jpa.properties.hibernate.session_factory.statement_inspector, so
+ * Hibernate instantiates it itself (public no-arg constructor).
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        RequestLookupCache.statementPrepared();
+        return sql;
+    }
+}
@@ -0,0 +1,137 @@
+package com.emergency.emergency108.request;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.User;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Request-scoped read-through cache for the lookups that the filter, the
+ * authorization guards and the services each repeat on one request:
+ * the authenticated User, a driver's active DriverSession and the active
+ * (ASSIGNED / ACCEPTED) assignment of a driver for an emergency.
+ *
+ * A scope is opened by {@link RequestScopeFilter} for every HTTP request and
+ * dropped when it completes. Outside a scope (schedulers, startup recovery,
+ * tests without the filter) every lookup goes straight to the loader.
+ *
+ * Cached entities may be detached once the transaction that loaded them
+ * ends: read them freely, but write through the repository (save/merge),
+ * and invalidate the entry after any write. Absent results are cached too.
+ */
+public final class RequestLookupCache {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private RequestLookupCache() {
+        // utility class
+    }
+
+    public static void open() {
+        CURRENT.set(new Scope());
+    }
+
+    public static void close() {
+        CURRENT.remove();
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    // ---- lookups ----
+
+    public static Optional<User> user(Long userId, Supplier<Optional<User>> loader) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        return readThrough(scope.users, userId, loader);
+    }
+
+    public static Optional<DriverSession> activeSession(Long driverId, Supplier<Optional<DriverSession>> loader) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        return readThrough(scope.activeSessions, driverId, loader);
+    }
+
+    public static Optional<EmergencyAssignment> activeAssignment(
+            Long emergencyId,
+            Long driverId,
+            Supplier<Optional<EmergencyAssignment>> loader) {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return loader.get();
+        }
+        return readThrough(scope.activeAssignments, new AssignmentKey(emergencyId, driverId), loader);
+    }
+
+    // Not computeIfAbsent: a loader may flush, and flush callbacks may touch the cache
+    private static <K, V> Optional<V> readThrough(Map<K, Optional<V>> cache, K key, Supplier<Optional<V>> loader) {
+        Optional<V> cached = cache.get(key);
+        if (cached == null) {
+            cached = loader.get();
+            cache.put(key, cached);
+        }
+        return cached;
+    }
+
+    // ---- invalidation ----
+
+    public static void invalidateUser(Long userId) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.users.remove(userId);
+        }
+    }
+
+    public static void invalidateSession(Long driverId) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.activeSessions.remove(driverId);
+        }
+    }
+
+    /**
+     * Assignment writes can move several keys at once (reject + re-dispatch),
+     * so they drop every cached assignment of the request.
+     */
+    public static void invalidateAssignments() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.activeAssignments.clear();
+        }
+    }
+
+    // ---- query accounting ----
+
+    /** Called by {@link QueryCountingStatementInspector} for every SQL statement. */
+    static void statementPrepared() {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.statements++;
+        }
+    }
+
+    /** SQL statements issued so far in this request, or 0 outside a scope. */
+    public static int statementCount() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.statements : 0;
+    }
+
+    private static final class Scope {
+        private final Map<Long, Optional<User>> users = new HashMap<>();
+        private final Map<Long, Optional<DriverSession>> activeSessions = new HashMap<>();
+        private final Map<AssignmentKey, Optional<EmergencyAssignment>> activeAssignments = new HashMap<>();
+        private int statements;
+    }
+
+    private record AssignmentKey(Long emergencyId, Long driverId) {
+    }
+}
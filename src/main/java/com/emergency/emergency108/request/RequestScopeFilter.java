@@ -0,0 +1,65 @@
+package com.emergency.emergency108.request;
+
+import com.emergency.emergency108.resilience.DomainSafety;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Opens the {@link RequestLookupCache} scope around a request and records
+ * how many SQL statements it issued as http.server.requests.queries, tagged
+ * like http.server.requests (method, URI pattern).
+ *
+ * Registered in RequestScopeConfig ahead of the security chain so the
+ * AuthContextFilter user lookup is already cached.
+ */
+public class RequestScopeFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry registry;
+
+    public RequestScopeFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        RequestLookupCache.open();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = RequestLookupCache.statementCount();
+            RequestLookupCache.close();
+
+            DomainSafety.runSafely("METRIC_REQUEST_QUERIES", () -> DistributionSummary
+                    .builder("http.server.requests.queries")
+                    .description("SQL statements issued per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uriPattern(request))
+                    .register(registry)
+                    .record(statements));
+        }
+    }
+
+    /**
+     * Best-matching handler pattern (e.g. /api/driver/emergencies/{emergencyId}/accept)
+     * to keep the tag bounded; raw paths are never used.
+     */
+    private static String uriPattern(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN_URI;
+    }
+}
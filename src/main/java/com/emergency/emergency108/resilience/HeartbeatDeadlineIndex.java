@@ -0,0 +1,179 @@
+package com.emergency.emergency108.resilience;
+
+import com.emergency.emergency108.entity.DriverSession;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * In-memory index of when each active driver session goes stale.
+ *
+ * Every heartbeat moves the session's deadline to lastHeartbeat plus
+ * DriverSession.staleAfterSeconds(); the sweeper only ever looks at the head
+ * of a min-heap, so finding the sessions that just crossed the threshold is
+ * O(expired * log n) instead of a scan of every active session.
+ *
+ * Heartbeats push a fresh heap entry instead of re-keying the old one; an
+ * entry is live only while it is still the session's current one, and dead
+ * entries are dropped when they reach the head (or when the heap is compacted).
+ *
+ * A {@link Listener} (the state change feed, for the journal and standbys)
+ * hears when a session starts or stops being watched. Deadline moves are not
+ * reported: restoring an earlier deadline only costs one database re-check
+ * when it passes.
+ */
+@Component
+public class HeartbeatDeadlineIndex {
+
+    // Compact once the heap holds this many times more entries than sessions
+    private static final int COMPACTION_FACTOR = 4;
+    private static final int COMPACTION_MIN_SIZE = 1024;
+
+    /** Hears sessions entering and leaving the index; called under the index lock. */
+    public interface Listener {
+
+        void tracked(long sessionId, long deadlineMillis);
+
+        void untracked(long sessionId);
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {
+        @Override
+        public void tracked(long sessionId, long deadlineMillis) {
+        }
+
+        @Override
+        public void untracked(long sessionId) {
+        }
+    };
+
+    private final Map<Long, Deadline> current = new HashMap<>();
+    private final PriorityQueue<Deadline> heap = new PriorityQueue<>();
+
+    private Listener listener = NO_LISTENER;
+    private boolean seeded;
+    private boolean restored;
+
+    /** Record a heartbeat (or a new session) and move its deadline. */
+    public void track(DriverSession session) {
+        if (session.getId() == null) {
+            return;
+        }
+        LocalDateTime lastSeen = session.getLastHeartbeat() != null
+                ? session.getLastHeartbeat()
+                : session.getSessionStartTime();
+        if (lastSeen == null) {
+            lastSeen = LocalDateTime.now();
+        }
+        track(session.getId(), toEpochMillis(lastSeen) + session.staleAfterSeconds() * 1000L);
+    }
+
+    public synchronized void track(long sessionId, long deadlineMillis) {
+        Deadline deadline = new Deadline(sessionId, deadlineMillis);
+        if (current.put(sessionId, deadline) == null) {
+            listener.tracked(sessionId, deadlineMillis);
+        }
+        heap.add(deadline);
+        if (heap.size() > COMPACTION_MIN_SIZE && heap.size() > COMPACTION_FACTOR * current.size()) {
+            compact();
+        }
+    }
+
+    /** Session ended: stop watching it. */
+    public synchronized void untrack(long sessionId) {
+        if (current.remove(sessionId) != null) {
+            listener.untracked(sessionId);
+        }
+    }
+
+    /**
+     * Remove and return every session whose deadline is at or before now.
+     * Callers must re-check them against the database: a heartbeat handled by
+     * another instance does not move this index.
+     */
+    public synchronized List<Long> pollExpired(long nowMillis) {
+        List<Long> expired = new ArrayList<>();
+        while (!heap.isEmpty() && heap.peek().deadlineMillis() <= nowMillis) {
+            Deadline head = heap.poll();
+            if (current.get(head.sessionId()) == head) {
+                current.remove(head.sessionId());
+                listener.untracked(head.sessionId());
+                expired.add(head.sessionId());
+            }
+        }
+        return expired;
+    }
+
+    /** Replace the whole index, e.g. from the active sessions at startup. */
+    public void rebuild(List<DriverSession> activeSessions) {
+        synchronized (this) {
+            current.clear();
+            heap.clear();
+        }
+        activeSessions.forEach(this::track);
+        synchronized (this) {
+            seeded = true;
+        }
+    }
+
+    /** Current deadline per session (copy), for the state journal's snapshot. */
+    public synchronized Map<Long, Long> deadlines() {
+        Map<Long, Long> deadlines = new HashMap<>(current.size() * 2);
+        current.forEach((sessionId, deadline) -> deadlines.put(sessionId, deadline.deadlineMillis()));
+        return deadlines;
+    }
+
+    /** Replace the whole index from a state journal, without telling the listener. */
+    public synchronized void restore(Map<Long, Long> deadlines) {
+        current.clear();
+        heap.clear();
+        deadlines.forEach((sessionId, deadlineMillis) -> {
+            Deadline deadline = new Deadline(sessionId, deadlineMillis);
+            current.put(sessionId, deadline);
+            heap.add(deadline);
+        });
+        seeded = true;
+        restored = true;
+    }
+
+    /** Whether the index holds every active session (after a rebuild or a restore). */
+    public synchronized boolean isSeeded() {
+        return seeded;
+    }
+
+    /** Whether the index was loaded from a state journal (so the startup seed can be skipped). */
+    public synchronized boolean isRestored() {
+        return restored;
+    }
+
+    public synchronized void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    public synchronized int size() {
+        return current.size();
+    }
+
+    private void compact() {
+        heap.clear();
+        heap.addAll(current.values());
+    }
+
+    static long toEpochMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private record Deadline(long sessionId, long deadlineMillis) implements Comparable<Deadline> {
+
+        @Override
+        public int compareTo(Deadline other) {
+            return Long.compare(deadlineMillis, other.deadlineMillis);
+        }
+    }
+}
@@ -1,22 +1,30 @@
 package com.emergency.emergency108.resilience;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.ClusterMembershipChangedEvent;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.service.DriverSessionService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 /**
  * Production-critical scheduled service to detect drivers with stale GPS heartbeat.
  * 
  * PROBLEM:
- * - Driver app sends GPS every 3-5 seconds while online
+ * - Driver app sends GPS every few seconds while online
  * - If driver's phone dies, app crashes, or network fails → No more GPS
  * - Without this service, stale drivers stay "ONLINE" and get assigned emergencies they can't respond to
  * 
  * SOLUTION:
- * - Every 15 seconds, check all active driver sessions
- * - If no heartbeat for 30+ seconds → Auto-mark driver OFFLINE
+ * - Every heartbeat moves the session's deadline in the HeartbeatDeadlineIndex
+ * - Every 500 ms, take the sessions whose deadline has passed (in memory, no query)
+ * - End those sessions with one bulk UPDATE → driver OFFLINE within a second
  * - If driver was ON_TRIP → Log CRITICAL alert for manual intervention
  * 
  * This ensures dispatch system only assigns emergencies to truly available drivers.
@@ -27,22 +35,78 @@ public class StaleDriverDetectionService {
     private static final Logger log = LoggerFactory.getLogger(StaleDriverDetectionService.class);
 
     private final DriverSessionService driverSessionService;
+    private final HeartbeatDeadlineIndex deadlineIndex;
+    private final GeoPartitioner geoPartitioner;
+    private final ClusterCoordinator cluster;
 
-    public StaleDriverDetectionService(DriverSessionService driverSessionService) {
+    public StaleDriverDetectionService(
+            DriverSessionService driverSessionService,
+            HeartbeatDeadlineIndex deadlineIndex,
+            GeoPartitioner geoPartitioner,
+            ClusterCoordinator cluster) {
         this.driverSessionService = driverSessionService;
+        this.deadlineIndex = deadlineIndex;
+        this.geoPartitioner = geoPartitioner;
+        this.cluster = cluster;
+    }
+
+    /**
+     * Seed the deadline index with the sessions that were active before this
+     * instance started, unless it was restored from the state journal. Apart
+     * from geo-cell rebalancing, this is the only full read of active sessions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seedDeadlines() {
+        if (deadlineIndex.isRestored()) {
+            log.info("Stale driver detection restored {} session deadline(s) from the state journal",
+                    deadlineIndex.size());
+            return;
+        }
+        reseedDeadlines();
+    }
+
+    private void reseedDeadlines() {
+        try {
+            int tracked = driverSessionService.seedHeartbeatDeadlines();
+            log.info("Stale driver detection watching {} active session(s)", tracked);
+        } catch (Exception e) {
+            log.error("CRITICAL ERROR seeding heartbeat deadlines: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Geo cells changed hands: watch the sessions in the cells this node owns
+     * now. Sessions in cells it lost are dropped here; their new owner loads
+     * them on its own membership change.
+     */
+    @EventListener
+    public void onMembershipChanged(ClusterMembershipChangedEvent event) {
+        if (!geoPartitioner.isEnabled()) {
+            return;
+        }
+        reseedDeadlines();
     }
 
     /**
      * Detect and mark drivers with stale heartbeat as OFFLINE.
      * 
-     * Runs every 15 seconds for near real-time detection.
+     * Runs every 500 ms; a run with nothing expired does not touch the database.
+     * A standby only mirrors the primary's deadlines and ends no sessions.
      * 
      * CRITICAL: This prevents assigning emergencies to unavailable drivers.
      */
-    @Scheduled(fixedRate = 15000) // 15 seconds
+    @Scheduled(fixedDelayString = "${app.drivers.stale-sweep-ms:500}")
     public void detectStaleDrivers() {
+        if (cluster.isStandby()) {
+            return;
+        }
+        List<Long> expired = deadlineIndex.pollExpired(System.currentTimeMillis());
+        if (expired.isEmpty()) {
+            return;
+        }
+
         try {
-            int markedOffline = driverSessionService.detectAndMarkStaleDriversOffline();
+            int markedOffline = driverSessionService.endStaleSessions(expired);
             
             if (markedOffline > 0) {
                 log.info("Stale driver detection completed: {} driver(s) marked OFFLINE", markedOffline);
@@ -50,7 +114,9 @@ public class StaleDriverDetectionService {
             
         } catch (Exception e) {
             log.error("CRITICAL ERROR in stale driver detection service: {}", e.getMessage(), e);
-            // Don't throw - let scheduler continue on next run
+            // Put them back so the next run retries instead of forgetting them
+            long retryAt = System.currentTimeMillis() + 1000L;
+            expired.forEach(sessionId -> deadlineIndex.track(sessionId, retryAt));
         }
     }
 }
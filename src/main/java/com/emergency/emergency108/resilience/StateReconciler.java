@@ -0,0 +1,96 @@
+package com.emergency.emergency108.resilience;
+
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Set-based repair of the status invariants between ambulances, emergencies
+ * and assignments. Each pass is a fixed handful of statements whatever the
+ * fleet size: anti-join UPDATEs find and fix the violating rows inside the
+ * database instead of loading every BUSY ambulance or IN_PROGRESS emergency
+ * and checking it row by row.
+ *
+ * Bulk statements bypass the JPA entity listeners, so when a pass changes
+ * live assignments the caller rebuilds the LiveAssignmentRegistry after the
+ * commit.
+ */
+@Component
+@Workload(WorkloadClass.BACKGROUND)
+public class StateReconciler {
+
+    private final EmergencyAssignmentRepository assignmentRepository;
+    private final AmbulanceRepository ambulanceRepository;
+    private final EmergencyRepository emergencyRepository;
+
+    public StateReconciler(
+            EmergencyAssignmentRepository assignmentRepository,
+            AmbulanceRepository ambulanceRepository,
+            EmergencyRepository emergencyRepository
+    ) {
+        this.assignmentRepository = assignmentRepository;
+        this.ambulanceRepository = ambulanceRepository;
+        this.emergencyRepository = emergencyRepository;
+    }
+
+    /**
+     * Rows repaired by one pass. recoveredEmergencyIds are the emergencies
+     * whose expired offer was rejected (startup only).
+     */
+    public record Report(
+            List<Long> recoveredEmergencyIds,
+            int expiredOffers,
+            int releasedAmbulances,
+            int unassignedEmergencies) {
+
+        public int total() {
+            return expiredOffers + releasedAmbulances + unassignedEmergencies;
+        }
+    }
+
+    /**
+     * Startup pass (four statements):
+     * 1. offers that expired while the system was down are rejected and
+     *    their emergencies go back to UNASSIGNED;
+     * 2. BUSY ambulances without an ASSIGNED / ACCEPTED assignment
+     *    (including those of the offers just rejected) become AVAILABLE.
+     */
+    @Transactional
+    public Report recoverAfterRestart(LocalDateTime now) {
+
+        List<Long> emergencyIds = assignmentRepository.findEmergencyIdsWithExpiredOffers(now);
+
+        int unassigned = 0;
+        int expired = 0;
+        if (!emergencyIds.isEmpty()) {
+            // Emergencies first: the sub-select matches on the offers still being ASSIGNED
+            unassigned = emergencyRepository.unassignWithExpiredOffers(now);
+            expired = assignmentRepository.rejectExpiredOffers(now);
+        }
+
+        int released = ambulanceRepository.releaseBusyWithoutActiveAssignment();
+
+        return new Report(emergencyIds, expired, released, unassigned);
+    }
+
+    /**
+     * Periodic pass (two statements):
+     * 1. BUSY ambulances without an ASSIGNED / ACCEPTED assignment become AVAILABLE;
+     * 2. IN_PROGRESS emergencies without an ACCEPTED assignment become UNASSIGNED.
+     */
+    @Transactional
+    public Report sweep(LocalDateTime now) {
+
+        int released = ambulanceRepository.releaseBusyWithoutActiveAssignment();
+        int unassigned = emergencyRepository.unassignInProgressWithoutAcceptedAssignment(now);
+
+        return new Report(List.of(), 0, released, unassigned);
+    }
+}
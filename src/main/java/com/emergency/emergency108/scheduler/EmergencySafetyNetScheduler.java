@@ -1,5 +1,7 @@
 package com.emergency.emergency108.scheduler;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.Shard;
 import com.emergency.emergency108.entity.ContactNotificationStatus;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyFor;
@@ -21,23 +23,29 @@ public class EmergencySafetyNetScheduler {
 
     private final EmergencyRepository emergencyRepository;
     private final NotificationService notificationService;
+    private final ClusterCoordinator cluster;
 
     public EmergencySafetyNetScheduler(EmergencyRepository emergencyRepository,
-            NotificationService notificationService) {
+            NotificationService notificationService,
+            ClusterCoordinator cluster) {
         this.emergencyRepository = emergencyRepository;
         this.notificationService = notificationService;
+        this.cluster = cluster;
     }
 
     /**
      * Safety Net: Runs every 10 seconds.
      * Checks for emergencies where the 30s ownership decision window has expired.
      * Defaults them to SELF and triggers notification.
+     * With clustering on, each node only handles the emergencies of its shard.
      */
     @Scheduled(fixedRate = 10000)
     @Transactional
     public void processOwnershipTimeouts() {
         LocalDateTime now = LocalDateTime.now();
-        List<Emergency> timedOutEmergencies = emergencyRepository.findPendingOwnershipTimeouts(now);
+        Shard shard = cluster.shard();
+        List<Emergency> timedOutEmergencies =
+                emergencyRepository.findPendingOwnershipTimeoutsInShard(now, shard.count(), shard.index());
 
         if (!timedOutEmergencies.isEmpty()) {
             log.info("Found {} emergencies with ownership timeout. Processing Safety Net...",
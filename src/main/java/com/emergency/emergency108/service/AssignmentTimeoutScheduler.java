@@ -1,5 +1,6 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
 import com.emergency.emergency108.resilience.DomainSafety;
 import com.emergency.emergency108.system.SystemReadiness;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -12,16 +13,19 @@ public class AssignmentTimeoutScheduler {
 
     private final EmergencyAssignmentService assignmentService;
     private final SystemReadiness systemReadiness;
+    private final ClusterCoordinator cluster;
 
 
     private final AtomicBoolean running = new AtomicBoolean(false);
 
     public AssignmentTimeoutScheduler(
             EmergencyAssignmentService assignmentService,
-            SystemReadiness systemReadiness
+            SystemReadiness systemReadiness,
+            ClusterCoordinator cluster
     ) {
         this.assignmentService = assignmentService;
         this.systemReadiness = systemReadiness;
+        this.cluster = cluster;
     }
 
     @Scheduled(fixedRate = 30000)
@@ -40,7 +44,7 @@ public class AssignmentTimeoutScheduler {
         try {
             DomainSafety.runSafely(
                     "ASSIGNMENT_TIMEOUT_SWEEP",
-                    assignmentService::handleTimeouts
+                    () -> assignmentService.handleTimeouts(cluster.shard())
             );
 
         } finally {
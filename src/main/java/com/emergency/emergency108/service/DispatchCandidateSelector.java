@@ -0,0 +1,197 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverSessionStatus;
+import com.emergency.emergency108.util.GeoBatch;
+import com.emergency.emergency108.util.LongHashSet;
+import com.emergency.emergency108.util.ScratchPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Candidate-selection stage of dispatch.
+ *
+ * Pure in-memory logic (no repositories) so it can be benchmarked against
+ * synthetic fleets; EmergencyDispatchService owns the I/O around it.
+ *
+ * Eligible sessions are copied into a pooled struct-of-arrays buffer
+ * (driver id, lat, lng, list position), rejected drivers are looked up in a
+ * primitive hash set, and the nearest candidates come out of the bounded
+ * top-k heap in {@link GeoBatch}. Buffers come from a small shared
+ * {@link ScratchPool} rather than a ThreadLocal, which would allocate per
+ * request on virtual threads. After warm-up a selection allocates nothing.
+ */
+public final class DispatchCandidateSelector {
+
+        private static final Logger log = LoggerFactory.getLogger(DispatchCandidateSelector.class);
+
+        // Concurrent dispatches rarely exceed a handful; extra buffers are dropped on release
+        private static final int MAX_IDLE_BUFFERS = 16;
+
+        private static final ScratchPool<Candidates> POOL = new ScratchPool<>(MAX_IDLE_BUFFERS, Candidates::new);
+
+        private DispatchCandidateSelector() {
+                // utility class
+        }
+
+        /**
+         * Collect ONLINE sessions with a heartbeat (or, lacking one, a session
+         * start) newer than the cutoff, excluding drivers who already rejected.
+         * The returned buffer is borrowed from a pool: close it (try-with-resources)
+         * once the ranked candidates have been read.
+         */
+        public static Candidates collectEligible(
+                        List<DriverSession> onlineSessions,
+                        List<Long> rejectedDriverIds,
+                        LocalDateTime heartbeatCutoff) {
+
+                Candidates candidates = POOL.acquire();
+                candidates.reset(onlineSessions.size());
+
+                LongHashSet rejected = candidates.rejected;
+                for (int i = 0, n = rejectedDriverIds.size(); i < n; i++) {
+                        rejected.add(rejectedDriverIds.get(i));
+                }
+
+                int staleCount = 0;
+                int notOnlineCount = 0;
+                for (int i = 0, n = onlineSessions.size(); i < n; i++) {
+                        DriverSession session = onlineSessions.get(i);
+                        long driverId = session.getDriverId();
+
+                        if (rejected.contains(driverId)) {
+                                continue;
+                        }
+
+                        // LENIENT CHECK: null heartbeat falls back to session start time
+                        LocalDateTime lastSeen = session.getLastHeartbeat() != null
+                                        ? session.getLastHeartbeat()
+                                        : session.getSessionStartTime();
+                        if (!lastSeen.isAfter(heartbeatCutoff)) {
+                                staleCount++;
+                                if (log.isDebugEnabled()) {
+                                        log.debug("Session {} heartbeat is older than cutoff - filtering out", session.getId());
+                                }
+                                continue;
+                        }
+
+                        if (session.getStatus() != DriverSessionStatus.ONLINE) {
+                                notOnlineCount++;
+                                if (log.isDebugEnabled()) {
+                                        log.debug("Session {} status is {} not ONLINE - filtering out",
+                                                        session.getId(), session.getStatus());
+                                }
+                                continue;
+                        }
+
+                        candidates.add(i, driverId, session.getCurrentLat(), session.getCurrentLng());
+                }
+
+                if (staleCount > 0) {
+                        log.warn("Filtered out {} sessions with stale heartbeat (cutoff {})", staleCount, heartbeatCutoff);
+                }
+                if (notOnlineCount > 0) {
+                        log.debug("Filtered out {} sessions not ONLINE", notOnlineCount);
+                }
+                return candidates;
+        }
+
+        /**
+         * Struct-of-arrays buffer of eligible candidates plus the scratch space
+         * used to rank them. Pooled and reused across dispatches; {@link #close()}
+         * hands it back.
+         */
+        public static final class Candidates implements AutoCloseable {
+
+                private static final int DEFAULT_CAPACITY = 64;
+
+                private long[] driverIds = new long[DEFAULT_CAPACITY];
+                private double[] lats = new double[DEFAULT_CAPACITY];
+                private double[] lngs = new double[DEFAULT_CAPACITY];
+                private int[] refs = new int[DEFAULT_CAPACITY];
+                private int size;
+
+                // Buffer positions of candidates without a location, in list order
+                private int[] unlocated = new int[DEFAULT_CAPACITY];
+                private int unlocatedCount;
+                private int locatedRanked;
+
+                private final LongHashSet rejected = new LongHashSet();
+                private final GeoBatch.Workspace workspace = new GeoBatch.Workspace();
+
+                /** Number of eligible candidates. */
+                public int size() {
+                        return size;
+                }
+
+                public boolean isEmpty() {
+                        return size == 0;
+                }
+
+                /**
+                 * Rank the k nearest candidates to the given point, followed by
+                 * up to k candidates without a location (in list order) as a
+                 * fallback for when none of the located ones can take the call.
+                 *
+                 * @return number ranked; read them with {@link #ref(int)}
+                 */
+                public int rankNearest(double latitude, double longitude, int k) {
+                        locatedRanked = size > unlocatedCount
+                                        ? GeoBatch.nearest(lats, lngs, size, latitude, longitude,
+                                                        Double.POSITIVE_INFINITY, k, workspace)
+                                        : 0;
+                        return locatedRanked + Math.min(unlocatedCount, k);
+                }
+
+                /** Position in the original session list of the candidate at this rank. */
+                public int ref(int rank) {
+                        return refs[slot(rank)];
+                }
+
+                /** Driver id of the candidate at this rank. */
+                public long driverId(int rank) {
+                        return driverIds[slot(rank)];
+                }
+
+                /** Return this buffer to the pool; it must not be used afterwards. */
+                @Override
+                public void close() {
+                        POOL.release(this);
+                }
+
+                private int slot(int rank) {
+                        return rank < locatedRanked ? workspace.index(rank) : unlocated[rank - locatedRanked];
+                }
+
+                private void reset(int capacity) {
+                        if (driverIds.length < capacity) {
+                                int grown = Math.max(capacity, driverIds.length * 2);
+                                driverIds = new long[grown];
+                                lats = new double[grown];
+                                lngs = new double[grown];
+                                refs = new int[grown];
+                                unlocated = new int[grown];
+                        }
+                        size = 0;
+                        unlocatedCount = 0;
+                        locatedRanked = 0;
+                        rejected.clear();
+                }
+
+                private void add(int ref, long driverId, Double lat, Double lng) {
+                        boolean located = lat != null && lng != null;
+                        driverIds[size] = driverId;
+                        // NaN never wins a distance comparison, so unlocated drivers drop out of the kernel
+                        lats[size] = located ? lat : Double.NaN;
+                        lngs[size] = located ? lng : Double.NaN;
+                        refs[size] = ref;
+                        if (!located) {
+                                unlocated[unlocatedCount++] = size;
+                        }
+                        size++;
+                }
+        }
+}
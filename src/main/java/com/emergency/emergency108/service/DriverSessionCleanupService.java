@@ -1,23 +1,35 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 /**
  * Scheduled job to cleanup stale driver sessions.
  * Runs every hour to end sessions older than 24 hours.
+ * In a cluster only the holder of the session-cleanup lease runs it.
  */
 @Service
+@Workload(WorkloadClass.BACKGROUND)
 public class DriverSessionCleanupService {
 
     private static final Logger log = LoggerFactory.getLogger(DriverSessionCleanupService.class);
 
+    private static final String LEASE = "session-cleanup";
+    private static final Duration LEASE_TTL = Duration.ofHours(2);
+
     private final DriverSessionService driverSessionService;
+    private final ClusterCoordinator cluster;
 
-    public DriverSessionCleanupService(DriverSessionService driverSessionService) {
+    public DriverSessionCleanupService(DriverSessionService driverSessionService, ClusterCoordinator cluster) {
         this.driverSessionService = driverSessionService;
+        this.cluster = cluster;
     }
 
     /**
@@ -27,6 +39,10 @@ public class DriverSessionCleanupService {
      */
     @Scheduled(fixedRateString = "3600000", initialDelayString = "60000")
     public void cleanupStaleSessions() {
+        if (!cluster.acquireLease(LEASE, LEASE_TTL)) {
+            return;
+        }
+
         try {
             log.debug("Running driver session cleanup job...");
             int cleaned = driverSessionService.cleanupStaleSessions();
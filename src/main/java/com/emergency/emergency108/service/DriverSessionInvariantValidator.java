@@ -1,47 +1,146 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.*;
-import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.metrics.ReconciliationMetrics;
+import com.emergency.emergency108.repository.ActiveSessionRow;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
-import com.emergency.emergency108.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
 
 /**
- * Validates driver session invariants on application startup.
+ * Validates driver session invariants on application startup, then
+ * incrementally on a schedule.
  * Logs inconsistencies but does NOT auto-fix them.
  * 
  * Purpose: Detect data corruption or crash recovery issues.
+ *
+ * Each run loads the active sessions once, joined with their drivers and
+ * ambulances, plus the ACCEPTED assignments (two queries). The rows are
+ * copied into plain values on the calling thread, then the checks run in
+ * parallel on the common fork-join pool without touching the persistence
+ * context. Scheduled runs only load sessions changed since the previous
+ * run (and the sessions sharing their driver or ambulance), plus every
+ * session a time-based or cross-table check could flag without the session
+ * row changing: old heartbeat or start, ON_TRIP, or a missing, blocked or
+ * unverified driver. Every app.drivers.invariants.full-every-th run is a
+ * full one. Per-check duration and violations are exported by
+ * {@link ReconciliationMetrics}. In a cluster only the holder of the
+ * driver-session-invariants lease runs the scheduled checks.
  */
 @Service
+@Workload(WorkloadClass.BACKGROUND)
 public class DriverSessionInvariantValidator {
 
     private static final Logger log = LoggerFactory.getLogger(DriverSessionInvariantValidator.class);
 
+    // Re-read a little before the watermark: updatedAt is set at flush, the commit may land later
+    private static final Duration WATERMARK_OVERLAP = Duration.ofSeconds(5);
+
+    // Older active sessions are reported by the session_age check
+    private static final Duration MAX_SESSION_AGE = Duration.ofHours(24);
+
+    private static final String LEASE = "driver-session-invariants";
+
     private final DriverSessionRepository sessionRepository;
     private final EmergencyAssignmentRepository assignmentRepository;
-    private final AmbulanceRepository ambulanceRepository;
-    private final UserRepository userRepository;
+    private final ReconciliationMetrics metrics;
+    private final ClusterCoordinator cluster;
+    private final int fullPassEvery;
+    private final Duration leaseTtl;
+
+    private final List<Check> checks = List.of(
+            new Check("valid_driver", this::validateActiveSessionsHaveValidDrivers),
+            new Check("valid_ambulance", this::validateActiveSessionsHaveValidAmbulances),
+            new Check("on_trip_has_assignment", this::validateOnTripDriversHaveActiveAssignments),
+            new Check("one_session_per_driver", this::validateMultipleActiveSessionsPerDriver),
+            new Check("one_session_per_ambulance", this::validateMultipleActiveSessionsPerAmbulance),
+            new Check("driver_not_blocked", this::validateSessionsWithBlockedDrivers),
+            new Check("driver_verified", this::validateSessionsWithUnverifiedDrivers),
+            new Check("session_age", this::validateStaleActiveSessions),
+            new Check("heartbeat_fresh", this::validateStaleHeartbeats)
+    );
+
+    private LocalDateTime watermark;
+    private int runsSinceFull;
 
     public DriverSessionInvariantValidator(
             DriverSessionRepository sessionRepository,
             EmergencyAssignmentRepository assignmentRepository,
-            AmbulanceRepository ambulanceRepository,
-            UserRepository userRepository) {
+            ReconciliationMetrics metrics,
+            ClusterCoordinator cluster,
+            @Value("${app.drivers.invariants.full-every:60}") int fullPassEvery,
+            @Value("${app.drivers.invariants.interval-ms:60000}") long intervalMs) {
         this.sessionRepository = sessionRepository;
         this.assignmentRepository = assignmentRepository;
-        this.ambulanceRepository = ambulanceRepository;
-        this.userRepository = userRepository;
+        this.metrics = metrics;
+        this.cluster = cluster;
+        this.fullPassEvery = Math.max(1, fullPassEvery);
+        this.leaseTtl = Duration.ofMillis(3 * intervalMs);
+    }
+
+    /** An active session with what the checks need of its driver and ambulance. */
+    record SessionFacts(
+            Long id,
+            Long driverId,
+            Long ambulanceId,
+            DriverSessionStatus status,
+            LocalDateTime startedAt,
+            LocalDateTime lastHeartbeat,
+            Double lat,
+            Double lng,
+            Integer emergenciesHandled,
+            boolean stale,
+            boolean driverExists,
+            boolean driverBlocked,
+            DriverVerificationStatus driverVerification,
+            boolean ambulanceExists) {
+
+        static SessionFacts of(ActiveSessionRow row) {
+            DriverSession session = row.session();
+            User driver = row.driver();
+            return new SessionFacts(
+                    session.getId(),
+                    session.getDriverId(),
+                    session.getAmbulanceId(),
+                    session.getStatus(),
+                    session.getSessionStartTime(),
+                    session.getLastHeartbeat(),
+                    session.getCurrentLat(),
+                    session.getCurrentLng(),
+                    session.getEmergenciesHandled(),
+                    session.isStale(),
+                    driver != null,
+                    driver != null && driver.isBlocked(),
+                    driver != null ? driver.getDriverVerificationStatus() : null,
+                    row.ambulance() != null);
+        }
+    }
+
+    /** What every check reads: loaded once per run, no managed entities. */
+    record Snapshot(
+            List<SessionFacts> sessions,
+            Map<Long, Long> acceptedByDriver,
+            LocalDateTime now) {
+    }
+
+    private record Check(String name, ToIntFunction<Snapshot> evaluate) {
     }
 
     /**
@@ -55,17 +154,7 @@ public class DriverSessionInvariantValidator {
         log.info("🔍 Running Driver Session Invariant Validation...");
         log.info("========================================");
 
-        int totalIssues = 0;
-
-        totalIssues += validateActiveSessionsHaveValidDrivers();
-        totalIssues += validateActiveSessionsHaveValidAmbulances();
-        totalIssues += validateOnTripDriversHaveActiveAssignments();
-        totalIssues += validateMultipleActiveSessionsPerDriver();
-        totalIssues += validateMultipleActiveSessionsPerAmbulance();
-        totalIssues += validateSessionsWithBlockedDrivers();
-        totalIssues += validateSessionsWithUnverifiedDrivers();
-        totalIssues += validateStaleActiveSessions();
-        totalIssues += validateStaleHeartbeats();
+        int totalIssues = validate(true);
 
         log.info("========================================");
         if (totalIssues == 0) {
@@ -78,19 +167,89 @@ public class DriverSessionInvariantValidator {
         log.info("========================================");
     }
 
+    /**
+     * Scheduled incremental run over sessions changed since the last run.
+     */
+    @Scheduled(
+            fixedDelayString = "${app.drivers.invariants.interval-ms:60000}",
+            initialDelayString = "${app.drivers.invariants.interval-ms:60000}")
+    @Transactional(readOnly = true)
+    public void validateRecentChanges() {
+        if (!cluster.acquireLease(LEASE, leaseTtl)) {
+            return;
+        }
+
+        boolean full;
+        synchronized (this) {
+            full = ++runsSinceFull >= fullPassEvery;
+        }
+
+        int totalIssues = validate(full);
+
+        if (totalIssues > 0) {
+            log.warn("⚠️  Driver Session Invariants ({} run): {} ISSUES DETECTED",
+                    full ? "full" : "incremental", totalIssues);
+        }
+    }
+
+    /**
+     * Loads the snapshot and runs every check over it.
+     *
+     * @param full all active sessions, or only those changed since the previous run
+     *             and those the time-based and cross-table checks must see
+     * @return total issues found
+     */
+    synchronized int validate(boolean full) {
+        LocalDateTime startedAt = LocalDateTime.now();
+
+        List<ActiveSessionRow> rows = full || watermark == null
+                ? sessionRepository.findActiveSessionRows()
+                : sessionRepository.findActiveSessionRowsToRecheck(
+                        watermark.minus(WATERMARK_OVERLAP),
+                        startedAt.minusSeconds(DriverSession.MIN_STALE_SECONDS),
+                        startedAt.minus(MAX_SESSION_AGE));
+
+        Map<Long, Long> acceptedByDriver = assignmentRepository
+                .findByStatus(EmergencyAssignmentStatus.ACCEPTED).stream()
+                .filter(a -> a.getDriverId() != null)
+                .collect(Collectors.groupingBy(EmergencyAssignment::getDriverId, Collectors.counting()));
+
+        Snapshot snapshot = new Snapshot(rows.stream().map(SessionFacts::of).toList(), acceptedByDriver, startedAt);
+
+        int totalIssues = checks.parallelStream()
+                .mapToInt(check -> evaluate(check, snapshot))
+                .sum();
+
+        watermark = startedAt;
+        if (full) {
+            runsSinceFull = 0;
+        }
+
+        log.debug("Driver session invariants ({}): {} sessions, {} issues, {} ms",
+                full ? "full" : "incremental", rows.size(), totalIssues,
+                Duration.between(startedAt, LocalDateTime.now()).toMillis());
+        return totalIssues;
+    }
+
+    private int evaluate(Check check, Snapshot snapshot) {
+        long started = System.nanoTime();
+        int issues = check.evaluate().applyAsInt(snapshot);
+        metrics.invariantChecked(check.name(), Duration.ofNanos(System.nanoTime() - started), issues);
+        return issues;
+    }
+
     /**
      * INVARIANT 1: All active sessions must reference existing drivers
      */
-    private int validateActiveSessionsHaveValidDrivers() {
+    private int validateActiveSessionsHaveValidDrivers(Snapshot snapshot) {
         log.debug("Checking: Active sessions have valid drivers...");
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
+        List<SessionFacts> activeSessions = snapshot.sessions();
 
         int issues = 0;
-        for (DriverSession session : activeSessions) {
-            Optional<User> driver = userRepository.findById(session.getDriverId());
-            if (driver.isEmpty()) {
+        for (SessionFacts session : activeSessions) {
+            if (!session.driverExists()) {
                 log.error("❌ INVARIANT VIOLATION: Session {} references non-existent driver {}",
-                        session.getId(), session.getDriverId());
+                        session.id(), session.driverId());
                 issues++;
             }
         }
@@ -104,16 +263,15 @@ public class DriverSessionInvariantValidator {
     /**
      * INVARIANT 2: All active sessions must reference existing ambulances
      */
-    private int validateActiveSessionsHaveValidAmbulances() {
+    private int validateActiveSessionsHaveValidAmbulances(Snapshot snapshot) {
         log.debug("Checking: Active sessions have valid ambulances...");
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
+        List<SessionFacts> activeSessions = snapshot.sessions();
 
         int issues = 0;
-        for (DriverSession session : activeSessions) {
-            Optional<Ambulance> ambulance = ambulanceRepository.findById(session.getAmbulanceId());
-            if (ambulance.isEmpty()) {
+        for (SessionFacts session : activeSessions) {
+            if (!session.ambulanceExists()) {
                 log.error("❌ INVARIANT VIOLATION: Session {} references non-existent ambulance {}",
-                        session.getId(), session.getAmbulanceId());
+                        session.id(), session.ambulanceId());
                 issues++;
             }
         }
@@ -128,31 +286,26 @@ public class DriverSessionInvariantValidator {
      * INVARIANT 3: Drivers with ON_TRIP status must have an active ACCEPTED
      * assignment
      */
-    private int validateOnTripDriversHaveActiveAssignments() {
+    private int validateOnTripDriversHaveActiveAssignments(Snapshot snapshot) {
         log.debug("Checking: ON_TRIP drivers have active assignments...");
-        List<DriverSession> onTripSessions = sessionRepository.findActiveSessions().stream()
-                .filter(s -> s.getStatus() == DriverSessionStatus.ON_TRIP)
+        List<SessionFacts> onTripSessions = snapshot.sessions().stream()
+                .filter(s -> s.status() == DriverSessionStatus.ON_TRIP)
                 .toList();
 
-        List<EmergencyAssignment> allAcceptedAssignments = assignmentRepository
-                .findByStatus(EmergencyAssignmentStatus.ACCEPTED);
-
         int issues = 0;
-        for (DriverSession session : onTripSessions) {
+        for (SessionFacts session : onTripSessions) {
             // Check if driver has an ACCEPTED assignment
-            List<EmergencyAssignment> activeAssignments = allAcceptedAssignments.stream()
-                    .filter(a -> session.getDriverId().equals(a.getDriverId()))
-                    .toList();
+            long activeAssignments = snapshot.acceptedByDriver().getOrDefault(session.driverId(), 0L);
 
-            if (activeAssignments.isEmpty()) {
+            if (activeAssignments == 0) {
                 log.error("❌ INVARIANT VIOLATION: Driver {} is ON_TRIP (Session {}) but has no ACCEPTED assignment",
-                        session.getDriverId(), session.getId());
+                        session.driverId(), session.id());
                 log.error("   Session details: Ambulance {}, Started {}, Emergencies handled {}",
-                        session.getAmbulanceId(), session.getSessionStartTime(), session.getEmergenciesHandled());
+                        session.ambulanceId(), session.startedAt(), session.emergenciesHandled());
                 issues++;
-            } else if (activeAssignments.size() > 1) {
+            } else if (activeAssignments > 1) {
                 log.error("❌ INVARIANT VIOLATION: Driver {} has {} ACCEPTED assignments (expected: 1)",
-                        session.getDriverId(), activeAssignments.size());
+                        session.driverId(), activeAssignments);
                 issues++;
             }
         }
@@ -166,15 +319,15 @@ public class DriverSessionInvariantValidator {
     /**
      * INVARIANT 4: Each driver can have at most ONE active session
      */
-    private int validateMultipleActiveSessionsPerDriver() {
+    private int validateMultipleActiveSessionsPerDriver(Snapshot snapshot) {
         log.debug("Checking: No driver has multiple active sessions...");
-        List<DriverSession> allActiveSessions = sessionRepository.findActiveSessions();
+        List<SessionFacts> allActiveSessions = snapshot.sessions();
 
         int issues = 0;
         var driverSessionCount = allActiveSessions.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        DriverSession::getDriverId,
-                        java.util.stream.Collectors.counting()));
+                .collect(Collectors.groupingBy(
+                        SessionFacts::driverId,
+                        Collectors.counting()));
 
         for (var entry : driverSessionCount.entrySet()) {
             if (entry.getValue() > 1) {
@@ -183,9 +336,9 @@ public class DriverSessionInvariantValidator {
 
                 // Log details of conflicting sessions
                 allActiveSessions.stream()
-                        .filter(s -> s.getDriverId().equals(entry.getKey()))
+                        .filter(s -> s.driverId().equals(entry.getKey()))
                         .forEach(s -> log.error("   - Session {}: Ambulance {}, Status {}, Started {}",
-                                s.getId(), s.getAmbulanceId(), s.getStatus(), s.getSessionStartTime()));
+                                s.id(), s.ambulanceId(), s.status(), s.startedAt()));
 
                 issues++;
             }
@@ -200,15 +353,15 @@ public class DriverSessionInvariantValidator {
     /**
      * INVARIANT 5: Each ambulance can have at most ONE active session
      */
-    private int validateMultipleActiveSessionsPerAmbulance() {
+    private int validateMultipleActiveSessionsPerAmbulance(Snapshot snapshot) {
         log.debug("Checking: No ambulance has multiple active sessions...");
-        List<DriverSession> allActiveSessions = sessionRepository.findActiveSessions();
+        List<SessionFacts> allActiveSessions = snapshot.sessions();
 
         int issues = 0;
         var ambulanceSessionCount = allActiveSessions.stream()
-                .collect(java.util.stream.Collectors.groupingBy(
-                        DriverSession::getAmbulanceId,
-                        java.util.stream.Collectors.counting()));
+                .collect(Collectors.groupingBy(
+                        SessionFacts::ambulanceId,
+                        Collectors.counting()));
 
         for (var entry : ambulanceSessionCount.entrySet()) {
             if (entry.getValue() > 1) {
@@ -217,9 +370,9 @@ public class DriverSessionInvariantValidator {
 
                 // Log details of conflicting sessions
                 allActiveSessions.stream()
-                        .filter(s -> s.getAmbulanceId().equals(entry.getKey()))
+                        .filter(s -> s.ambulanceId().equals(entry.getKey()))
                         .forEach(s -> log.error("   - Session {}: Driver {}, Status {}, Started {}",
-                                s.getId(), s.getDriverId(), s.getStatus(), s.getSessionStartTime()));
+                                s.id(), s.driverId(), s.status(), s.startedAt()));
 
                 issues++;
             }
@@ -235,18 +388,16 @@ public class DriverSessionInvariantValidator {
     /**
      * INVARIANT 6: Active sessions should not have blocked drivers
      */
-    private int validateSessionsWithBlockedDrivers() {
+    private int validateSessionsWithBlockedDrivers(Snapshot snapshot) {
         log.debug("Checking: No active session with blocked drivers...");
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
 
         int issues = 0;
-        for (DriverSession session : activeSessions) {
-            Optional<User> driverOpt = userRepository.findById(session.getDriverId());
-            if (driverOpt.isPresent() && driverOpt.get().isBlocked()) {
+        for (SessionFacts session : snapshot.sessions()) {
+            if (session.driverBlocked()) {
                 log.error("❌ INVARIANT VIOLATION: Active session {} has blocked driver {}",
-                        session.getId(), session.getDriverId());
+                        session.id(), session.driverId());
                 log.error("   Session: Ambulance {}, Status {}, Started {}",
-                        session.getAmbulanceId(), session.getStatus(), session.getSessionStartTime());
+                        session.ambulanceId(), session.status(), session.startedAt());
                 issues++;
             }
         }
@@ -260,20 +411,15 @@ public class DriverSessionInvariantValidator {
     /**
      * INVARIANT 7: Active sessions should only have VERIFIED drivers
      */
-    private int validateSessionsWithUnverifiedDrivers() {
+    private int validateSessionsWithUnverifiedDrivers(Snapshot snapshot) {
         log.debug("Checking: All active sessions have verified drivers...");
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
 
         int issues = 0;
-        for (DriverSession session : activeSessions) {
-            Optional<User> driverOpt = userRepository.findById(session.getDriverId());
-            if (driverOpt.isPresent()) {
-                User driver = driverOpt.get();
-                if (driver.getDriverVerificationStatus() != DriverVerificationStatus.VERIFIED) {
-                    log.error("❌ INVARIANT VIOLATION: Active session {} has unverified driver {} (status: {})",
-                            session.getId(), session.getDriverId(), driver.getDriverVerificationStatus());
-                    issues++;
-                }
+        for (SessionFacts session : snapshot.sessions()) {
+            if (session.driverExists() && session.driverVerification() != DriverVerificationStatus.VERIFIED) {
+                log.error("❌ INVARIANT VIOLATION: Active session {} has unverified driver {} (status: {})",
+                        session.id(), session.driverId(), session.driverVerification());
+                issues++;
             }
         }
 
@@ -287,19 +433,21 @@ public class DriverSessionInvariantValidator {
      * SANITY CHECK: Warn about very old active sessions (possible crash recovery
      * issue)
      */
-    private int validateStaleActiveSessions() {
+    private int validateStaleActiveSessions(Snapshot snapshot) {
         log.debug("Checking: No stale active sessions (>24 hours)...");
-        LocalDateTime cutoff = LocalDateTime.now().minusHours(24);
-        List<DriverSession> staleSessions = sessionRepository.findStaleSessions(cutoff);
+        LocalDateTime cutoff = snapshot.now().minus(MAX_SESSION_AGE);
+        List<SessionFacts> staleSessions = snapshot.sessions().stream()
+                .filter(s -> s.startedAt() != null && s.startedAt().isBefore(cutoff))
+                .toList();
 
         int issues = 0;
-        for (DriverSession session : staleSessions) {
-            Duration age = Duration.between(session.getSessionStartTime(), LocalDateTime.now());
+        for (SessionFacts session : staleSessions) {
+            Duration age = Duration.between(session.startedAt(), snapshot.now());
             log.warn("⚠️  STALE SESSION: Session {} has been active for {} hours (Driver {}, Ambulance {}, Status {})",
-                    session.getId(), age.toHours(), session.getDriverId(), session.getAmbulanceId(),
-                    session.getStatus());
+                    session.id(), age.toHours(), session.driverId(), session.ambulanceId(),
+                    session.status());
             log.warn("   Started: {}, Emergencies handled: {}",
-                    session.getSessionStartTime(), session.getEmergenciesHandled());
+                    session.startedAt(), session.emergenciesHandled());
             issues++;
         }
 
@@ -318,32 +466,31 @@ public class DriverSessionInvariantValidator {
      * issues.
      * These drivers should be auto-marked OFFLINE by StaleDriverDetectionService.
      */
-    private int validateStaleHeartbeats() {
-        log.debug("Checking: Active sessions have fresh GPS heartbeat (<30 seconds)...");
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
+    private int validateStaleHeartbeats(Snapshot snapshot) {
+        log.debug("Checking: Active sessions have fresh GPS heartbeat...");
+        List<SessionFacts> activeSessions = snapshot.sessions();
 
         int issues = 0;
         int noHeartbeatCount = 0;
         int staleHeartbeatCount = 0;
 
-        for (DriverSession session : activeSessions) {
-            if (session.getLastHeartbeat() == null) {
+        for (SessionFacts session : activeSessions) {
+            if (session.lastHeartbeat() == null) {
                 log.warn("⚠️  MISSING HEARTBEAT: Session {} (Driver {}, Ambulance {}) has NEVER sent GPS heartbeat",
-                        session.getId(), session.getDriverId(), session.getAmbulanceId());
+                        session.id(), session.driverId(), session.ambulanceId());
                 log.warn("   Status: {}, Started: {}, Location: ({}, {})",
-                        session.getStatus(), session.getSessionStartTime(),
-                        session.getCurrentLat(), session.getCurrentLng());
+                        session.status(), session.startedAt(), session.lat(), session.lng());
                 noHeartbeatCount++;
                 issues++;
-            } else if (session.isStale()) {
-                long secondsSinceHeartbeat = Duration.between(session.getLastHeartbeat(), LocalDateTime.now())
+            } else if (session.stale()) {
+                long secondsSinceHeartbeat = Duration.between(session.lastHeartbeat(), snapshot.now())
                         .getSeconds();
                 log.warn("⚠️  STALE HEARTBEAT: Session {} (Driver {}, Ambulance {}) last GPS was {} seconds ago",
-                        session.getId(), session.getDriverId(), session.getAmbulanceId(), secondsSinceHeartbeat);
+                        session.id(), session.driverId(), session.ambulanceId(), secondsSinceHeartbeat);
                 log.warn("   Status: {}, Last heartbeat: {}, Should be auto-marked OFFLINE",
-                        session.getStatus(), session.getLastHeartbeat());
+                        session.status(), session.lastHeartbeat());
 
-                if (session.getStatus() == DriverSessionStatus.ON_TRIP) {
+                if (session.status() == DriverSessionStatus.ON_TRIP) {
                     log.error("🚨 CRITICAL: Driver is ON_TRIP with stale heartbeat! Emergency may be stranded.");
                 }
 
@@ -357,7 +504,7 @@ public class DriverSessionInvariantValidator {
         } else {
             log.warn("⚠️  Heartbeat issues: {} sessions with no heartbeat, {} with stale heartbeat",
                     noHeartbeatCount, staleHeartbeatCount);
-            log.warn("⚠️  StaleDriverDetectionService should auto-fix these within 15 seconds");
+            log.warn("⚠️  StaleDriverDetectionService should auto-fix these within a second");
         }
 
         return issues;
@@ -1,20 +1,32 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.GeoPartitioner;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.dto.OnlineDriverRow;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.metrics.DomainMetrics;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.request.RequestLookupCache;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Pageable;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Production-grade driver session management service.
@@ -32,16 +44,25 @@ public class DriverSessionService {
     private final UserRepository userRepository;
     private final AmbulanceRepository ambulanceRepository;
     private final DomainMetrics metrics;
+    private final HeartbeatCadencePolicy cadencePolicy;
+    private final HeartbeatDeadlineIndex deadlineIndex;
+    private final GeoPartitioner geoPartitioner;
 
     public DriverSessionService(
             DriverSessionRepository sessionRepository,
             UserRepository userRepository,
             AmbulanceRepository ambulanceRepository,
-            DomainMetrics metrics) {
+            DomainMetrics metrics,
+            HeartbeatCadencePolicy cadencePolicy,
+            HeartbeatDeadlineIndex deadlineIndex,
+            GeoPartitioner geoPartitioner) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
         this.ambulanceRepository = ambulanceRepository;
         this.metrics = metrics;
+        this.cadencePolicy = cadencePolicy;
+        this.deadlineIndex = deadlineIndex;
+        this.geoPartitioner = geoPartitioner;
     }
 
     /**
@@ -131,6 +152,8 @@ public class DriverSessionService {
         }
 
         DriverSession savedSession = sessionRepository.save(session);
+        RequestLookupCache.invalidateSession(driverId);
+        deadlineIndex.track(savedSession);
 
         metrics.driverShiftStarted();
 
@@ -166,6 +189,8 @@ public class DriverSessionService {
         try {
             session.endSession();
             sessionRepository.save(session);
+            RequestLookupCache.invalidateSession(driverId);
+            deadlineIndex.untrack(session.getId());
 
             Duration shiftDuration = Duration.between(
                     session.getSessionStartTime(),
@@ -189,15 +214,35 @@ public class DriverSessionService {
      * Also updates heartbeat timestamp to indicate driver is alive.
      * 
      * HEARTBEAT MECHANISM:
-     * - Driver app calls this endpoint every 3-5 seconds automatically
+     * - Driver app calls this at the interval recommended by HeartbeatCadencePolicy
      * - Updates both location AND heartbeat timestamp
      * - If heartbeat not updated for 30+ seconds, driver marked OFFLINE
+     *
+     * @return the updated session; its heartbeatIntervalSeconds is the
+     *         interval the driver app should use for the next heartbeat
      */
+    @Workload(WorkloadClass.HEARTBEAT)
     @Transactional
-    public void updateLocation(Long driverId, double lat, double lng) {
+    public DriverSession updateLocation(Long driverId, double lat, double lng) {
+        return updateLocation(driverId, null, lat, lng);
+    }
+
+    /**
+     * Same as {@link #updateLocation(Long, double, double)}, but only if the
+     * driver's active session is the given one (binary heartbeats are signed
+     * for a specific session). A null sessionId accepts any active session.
+     */
+    @Workload(WorkloadClass.HEARTBEAT)
+    @Transactional
+    public DriverSession updateLocation(Long driverId, Long sessionId, double lat, double lng) {
         DriverSession session = sessionRepository.findActiveSessionByDriverId(driverId)
                 .orElseThrow(() -> new IllegalStateException("No active session found for driver " + driverId));
 
+        if (sessionId != null && !sessionId.equals(session.getId())) {
+            throw new IllegalStateException(
+                    "Session " + sessionId + " is not the active session of driver " + driverId);
+        }
+
         // Update location
         session.updateLocation(lat, lng);
 
@@ -206,7 +251,14 @@ public class DriverSessionService {
 
         metrics.heartbeatReceived();
 
+        // Tell the app when to send the next one (fast on a trip or offer, slow when idle)
+        HeartbeatCadencePolicy.Recommendation cadence = cadencePolicy.recommend(session);
+        session.setHeartbeatIntervalSeconds(cadence.intervalSeconds());
+        metrics.heartbeatIngested(cadence.state().tag());
+
         sessionRepository.save(session);
+        RequestLookupCache.invalidateSession(driverId);
+        deadlineIndex.track(session);
 
         // Also update ambulance location
         Ambulance ambulance = ambulanceRepository.findById(session.getAmbulanceId())
@@ -216,6 +268,7 @@ public class DriverSessionService {
         ambulanceRepository.save(ambulance);
 
         log.debug("Updated location and heartbeat for driver {} at ({}, {})", driverId, lat, lng);
+        return session;
     }
 
     /**
@@ -240,6 +293,7 @@ public class DriverSessionService {
 
         session.startTrip();
         sessionRepository.save(session);
+        RequestLookupCache.invalidateSession(driverId);
 
         log.info("Driver {} marked as ON_TRIP (Session ID: {})", driverId, session.getId());
     }
@@ -273,6 +327,7 @@ public class DriverSessionService {
 
         session.endTrip();
         sessionRepository.save(session);
+        RequestLookupCache.invalidateSession(driverId);
 
         log.info("Driver {} marked as ONLINE (Session ID: {}, Total emergencies: {})",
                 driverId, session.getId(), session.getEmergenciesHandled());
@@ -289,6 +344,7 @@ public class DriverSessionService {
      * @throws IllegalStateException if driver cannot accept
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public void validateCanAcceptEmergency(Long driverId, Long ambulanceId) {
         // Check driver has active session
         DriverSession session = sessionRepository.findActiveSessionByDriverId(driverId)
@@ -325,6 +381,7 @@ public class DriverSessionService {
      * TRANSACTION SAFETY: Validates driver is in correct state to reject.
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public void validateRejection(Long driverId, Long ambulanceId) {
         DriverSession session = sessionRepository.findActiveSessionByDriverId(driverId)
                 .orElseThrow(() -> new IllegalStateException(
@@ -354,14 +411,17 @@ public class DriverSessionService {
      * Get driver's current active session.
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public Optional<DriverSession> getCurrentSession(Long driverId) {
-        return sessionRepository.findActiveSessionByDriverId(driverId);
+        return RequestLookupCache.activeSession(driverId,
+                () -> sessionRepository.findActiveSessionByDriverId(driverId));
     }
 
     /**
      * Check if driver is currently online and available.
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public boolean isDriverOnline(Long driverId) {
         return sessionRepository.findActiveSessionByDriverId(driverId)
                 .map(DriverSession::isAvailable)
@@ -373,6 +433,7 @@ public class DriverSessionService {
      * Used for authorization checks.
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public boolean isDriverOperatingAmbulance(Long driverId, Long ambulanceId) {
         return sessionRepository.findActiveSessionByDriverAndAmbulance(driverId, ambulanceId)
                 .isPresent();
@@ -414,87 +475,138 @@ public class DriverSessionService {
     }
 
     /**
-     * Detect and mark drivers with stale GPS heartbeat as OFFLINE.
+     * End sessions whose heartbeat went stale.
      * 
      * CRITICAL FOR PRODUCTION:
-     * - Driver app sends GPS every 3-5 seconds
-     * - If no heartbeat for 30+ seconds → network issue, app crash, or phone dead
+     * - Driver app sends GPS at the recommended cadence (3-15 seconds)
+     * - If no heartbeat within DriverSession.staleAfterSeconds() → network issue,
+     * app crash, or phone dead
      * - Auto-mark driver OFFLINE to prevent assigning emergencies to unavailable
      * drivers
      * - If driver was ON_TRIP, emergency needs manual intervention/reassignment
      * 
-     * Called by scheduled job every 15 seconds.
+     * Called by StaleDriverDetectionService with the sessions whose deadline
+     * just passed in the HeartbeatDeadlineIndex. They are re-checked here (a
+     * heartbeat may have landed on another instance or raced the sweep) and
+     * the stale ones are ended with one bulk UPDATE.
      * 
      * @return Number of drivers marked OFFLINE due to stale heartbeat
      */
     @Transactional
-    public int detectAndMarkStaleDriversOffline() {
-        List<DriverSession> activeSessions = sessionRepository.findActiveSessions();
-
-        int markedOfflineCount = 0;
-        int driversOnTripCount = 0;
+    public int endStaleSessions(Collection<Long> candidateSessionIds) {
+        if (candidateSessionIds.isEmpty()) {
+            return 0;
+        }
 
-        for (DriverSession session : activeSessions) {
+        List<DriverSession> stale = new ArrayList<>();
+        for (DriverSession session : sessionRepository.findActiveByIdIn(candidateSessionIds)) {
             if (session.isStale()) {
-                metrics.staleDriverDetected();
-
-                boolean wasOnTrip = session.getStatus() == DriverSessionStatus.ON_TRIP;
-
-                try {
-                    // End session (set session_end_time) without changing status
-                    // This avoids violating uk_active_driver constraint
-                    session.setSessionEndTime(LocalDateTime.now());
-                    session.setUpdatedAt(LocalDateTime.now());
-                    sessionRepository.save(session);
-
-                    metrics.driverAutoOffline();
-
-                    if (wasOnTrip) {
-                        log.error("🚨 CRITICAL: Driver {} session ended during active trip! " +
-                                "Session ID: {}, Ambulance: {}, Last heartbeat: {} seconds ago. " +
-                                "MANUAL INTERVENTION REQUIRED - Emergency may need reassignment.",
-                                session.getDriverId(),
-                                session.getId(),
-                                session.getAmbulanceId(),
-                                Duration.between(
-                                        session.getLastHeartbeat() != null ? session.getLastHeartbeat()
-                                                : session.getSessionStartTime(),
-                                        LocalDateTime.now()).getSeconds());
-                        driversOnTripCount++;
-                    } else {
-                        log.warn("⚠️ Driver {} session ended due to stale heartbeat. " +
-                                "Session ID: {}, Ambulance: {}, Last heartbeat: {}",
-                                session.getDriverId(),
-                                session.getId(),
-                                session.getAmbulanceId(),
-                                session.getLastHeartbeat() != null ? session.getLastHeartbeat() : "NEVER");
-                    }
-
-                    markedOfflineCount++;
-
-                } catch (Exception e) {
-                    log.error("Failed to end stale driver {} session: {}",
-                            session.getDriverId(), e.getMessage(), e);
+                stale.add(session);
+            } else if (geoPartitioner.owns(session.getCurrentLat(), session.getCurrentLng())) {
+                // Fresher than the index knew: watch it again with its real deadline
+                // (unless the driver moved into a cell another node owns)
+                deadlineIndex.track(session);
+            }
+        }
+        if (stale.isEmpty()) {
+            return 0;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> staleIds = stale.stream().map(DriverSession::getId).toList();
+
+        // End session (set session_end_time) without changing status
+        // This avoids violating uk_active_driver constraint.
+        // A heartbeat committed after the check above is younger than the minimum
+        // stale window, so the guard in the UPDATE skips that row.
+        int markedOfflineCount = sessionRepository.endStaleSessions(
+                staleIds, now, now.minusSeconds(DriverSession.MIN_STALE_SECONDS));
+
+        List<DriverSession> ended = stale;
+        if (markedOfflineCount < stale.size()) {
+            // Some rows got a heartbeat after the check: report only the sessions actually
+            // ended, and watch the others again (their real deadline is set on the next check)
+            Set<Long> stillActive = sessionRepository.findActiveByIdIn(staleIds).stream()
+                    .map(DriverSession::getId)
+                    .collect(Collectors.toSet());
+            ended = stale.stream().filter(session -> !stillActive.contains(session.getId())).toList();
+            long recheckAt = System.currentTimeMillis() + DriverSession.MIN_STALE_SECONDS * 1000L;
+            for (DriverSession session : stale) {
+                if (stillActive.contains(session.getId())
+                        && geoPartitioner.owns(session.getCurrentLat(), session.getCurrentLng())) {
+                    deadlineIndex.track(session.getId(), recheckAt);
                 }
             }
         }
 
-        if (markedOfflineCount > 0) {
-            log.info("Stale heartbeat detection: Marked {} driver(s) OFFLINE ({} were ON_TRIP)",
-                    markedOfflineCount, driversOnTripCount);
+        int driversOnTripCount = 0;
+        for (DriverSession session : ended) {
+            metrics.staleDriverDetected();
+            metrics.driverAutoOffline();
+            RequestLookupCache.invalidateSession(session.getDriverId());
+
+            if (session.getStatus() == DriverSessionStatus.ON_TRIP) {
+                log.error("🚨 CRITICAL: Driver {} session ended during active trip! " +
+                        "Session ID: {}, Ambulance: {}, Last heartbeat: {} seconds ago. " +
+                        "MANUAL INTERVENTION REQUIRED - Emergency may need reassignment.",
+                        session.getDriverId(),
+                        session.getId(),
+                        session.getAmbulanceId(),
+                        Duration.between(
+                                session.getLastHeartbeat() != null ? session.getLastHeartbeat()
+                                        : session.getSessionStartTime(),
+                                now).getSeconds());
+                driversOnTripCount++;
+            } else {
+                log.warn("⚠️ Driver {} session ended due to stale heartbeat. " +
+                        "Session ID: {}, Ambulance: {}, Last heartbeat: {}",
+                        session.getDriverId(),
+                        session.getId(),
+                        session.getAmbulanceId(),
+                        session.getLastHeartbeat() != null ? session.getLastHeartbeat() : "NEVER");
+            }
         }
 
-        return markedOfflineCount;
+        log.info("Stale heartbeat detection: Marked {} driver(s) OFFLINE ({} were ON_TRIP)",
+                ended.size(), driversOnTripCount);
+
+        return ended.size();
+    }
+
+    /**
+     * Load the active sessions into the HeartbeatDeadlineIndex. Called at
+     * startup and whenever the cluster membership changes; from then on
+     * heartbeats and shift changes keep it current. With geo cell ownership on,
+     * only sessions last seen in a cell this node owns are loaded.
+     */
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public int seedHeartbeatDeadlines() {
+        List<DriverSession> activeSessions = sessionRepository.findActiveSessions().stream()
+                .filter(session -> geoPartitioner.owns(session.getCurrentLat(), session.getCurrentLng()))
+                .toList();
+        deadlineIndex.rebuild(activeSessions);
+        return activeSessions.size();
     }
 
     /**
      * Get all online driver sessions (for dispatch service).
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public List<DriverSession> getAllOnlineDrivers() {
         return sessionRepository.findAllOnlineDrivers();
     }
 
+    /**
+     * One page of online drivers with display columns (admin listing),
+     * continuing after the given session id.
+     */
+    @Transactional(readOnly = true)
+    public List<OnlineDriverRow> getOnlineDriverRows(long afterSessionId, Pageable page) {
+        return sessionRepository.findOnlineDriverRows(afterSessionId, page);
+    }
+
     /**
      * Get driver's session history.
      */
@@ -509,6 +621,7 @@ public class DriverSessionService {
      * Used by authorization and cancellation services.
      */
     @Transactional(readOnly = true)
+    @ReadFromPrimary
     public DriverSession getActiveSession(Long driverId) {
         return getCurrentSession(driverId).orElse(null);
     }
@@ -519,6 +632,8 @@ public class DriverSessionService {
      */
     @Transactional
     public DriverSession saveSession(DriverSession session) {
-        return sessionRepository.save(session);
+        DriverSession saved = sessionRepository.save(session);
+        RequestLookupCache.invalidateSession(session.getDriverId());
+        return saved;
     }
 }
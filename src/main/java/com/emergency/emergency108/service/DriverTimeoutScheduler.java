@@ -1,5 +1,7 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.Shard;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyAssignment;
 import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
@@ -18,6 +20,7 @@ import java.util.List;
  * Scheduled job for driver response timeout monitoring.
  * Runs every 10 seconds to find ASSIGNED assignments past 60-second response deadline.
  * Auto-rejects timed-out assignments and re-dispatches to next driver.
+ * With clustering on, each node only handles the emergencies of its shard.
  */
 @Service
 public class DriverTimeoutScheduler {
@@ -26,12 +29,15 @@ public class DriverTimeoutScheduler {
 
     private final EmergencyAssignmentRepository assignmentRepository;
     private final EmergencyService emergencyService;
+    private final ClusterCoordinator cluster;
 
     public DriverTimeoutScheduler(
             EmergencyAssignmentRepository assignmentRepository,
-            EmergencyService emergencyService) {
+            EmergencyService emergencyService,
+            ClusterCoordinator cluster) {
         this.assignmentRepository = assignmentRepository;
         this.emergencyService = emergencyService;
+        this.cluster = cluster;
     }
 
     /**
@@ -42,7 +48,9 @@ public class DriverTimeoutScheduler {
     public void processTimedOutAssignments() {
         try {
             LocalDateTime now = LocalDateTime.now();
-            List<EmergencyAssignment> timedOutAssignments = assignmentRepository.findTimedOutAssignments(now);
+            Shard shard = cluster.shard();
+            List<EmergencyAssignment> timedOutAssignments =
+                    assignmentRepository.findTimedOutAssignmentsInShard(now, shard.count(), shard.index());
 
             if (!timedOutAssignments.isEmpty()) {
                 logger.info("Found {} timed-out driver assignments", timedOutAssignments.size());
@@ -1,17 +1,28 @@
 package com.emergency.emergency108.service;
 
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.Shard;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.event.AssignmentEvent;
 import com.emergency.emergency108.event.DomainEventPublisher;
+import com.emergency.emergency108.exception.AssignmentAccessDeniedException;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
 import com.emergency.emergency108.metrics.DomainMetrics;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.request.RequestLookupCache;
 import com.emergency.emergency108.util.EmergencyAssignmentEmergencyConsistency;
 import com.emergency.emergency108.util.EmergencyAssignmentStateMachine;
 import com.emergency.emergency108.util.EmergencyStateMachine;
 import com.emergency.emergency108.util.InvalidAssignmentStateException;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.orm.ObjectOptimisticLockingFailureException;
@@ -23,6 +34,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Service
+@Workload(WorkloadClass.DISPATCH)
 public class EmergencyAssignmentService {
 
     private final EmergencyAssignmentRepository assignmentRepository;
@@ -31,7 +43,10 @@ public class EmergencyAssignmentService {
     private final EmergencyRepository emergencyRepository;
     private final DomainEventPublisher eventPublisher;
     private final DomainMetrics metrics;
+    private final DispatchLatencyMetrics latencyMetrics;
     private final DriverSessionService driverSessionService;
+    private final LiveAssignmentRegistry liveAssignments;
+    private final EmergencyAuthorizationService authorizationService;
 
     private static final Logger log = LoggerFactory.getLogger(EmergencyAssignmentService.class);
 
@@ -41,8 +56,14 @@ public class EmergencyAssignmentService {
             EmergencyRepository emergencyRepository,
             DomainEventPublisher eventPublisher,
             DomainMetrics metrics,
-            DriverSessionService driverSessionService) {
+            DispatchLatencyMetrics latencyMetrics,
+            DriverSessionService driverSessionService,
+            LiveAssignmentRegistry liveAssignments,
+            EmergencyAuthorizationService authorizationService) {
         this.metrics = metrics;
+        this.liveAssignments = liveAssignments;
+        this.authorizationService = authorizationService;
+        this.latencyMetrics = latencyMetrics;
         this.eventPublisher = eventPublisher;
         this.emergencyRepository = emergencyRepository;
         this.emergencyDispatchService = emergencyDispatchService;
@@ -83,7 +104,9 @@ public class EmergencyAssignmentService {
                         "Ambulance " + ambulance.getCode() + " assigned"));
 
         // 4️⃣ Persist assignment
-        return assignmentRepository.save(assignment);
+        EmergencyAssignment saved = assignmentRepository.save(assignment);
+        RequestLookupCache.invalidateAssignments();
+        return saved;
     }
 
     private void validateEmergencyTransition(
@@ -137,6 +160,7 @@ public class EmergencyAssignmentService {
 
         last.setStatus(EmergencyAssignmentStatus.REJECTED);
         assignmentRepository.save(last);
+        RequestLookupCache.invalidateAssignments();
 
         // 2️⃣ Free ambulance
         try {
@@ -158,10 +182,19 @@ public class EmergencyAssignmentService {
 
     @Transactional
     public void handleTimeouts() {
+        handleTimeouts(Shard.ALL);
+    }
+
+    /**
+     * Times out the expired offers of the emergencies in this node's shard.
+     */
+    @Transactional
+    public void handleTimeouts(Shard shard) {
 
-        List<EmergencyAssignment> expired = assignmentRepository.findByStatusAndResponseDeadlineBefore(
-                EmergencyAssignmentStatus.ASSIGNED,
-                LocalDateTime.now());
+        List<EmergencyAssignment> expired = assignmentRepository.findTimedOutAssignmentsInShard(
+                LocalDateTime.now(),
+                shard.count(),
+                shard.index());
 
         for (EmergencyAssignment assignment : expired) {
 
@@ -222,6 +255,23 @@ public class EmergencyAssignmentService {
             Long emergencyId,
             boolean accepted) {
 
+        if (!accepted) {
+            applyResponse(emergencyId, false);
+            return;
+        }
+        // Timed from entry, so refused accepts are measured too
+        Timer.Sample acceptSample = metrics.startAcceptTimer();
+        boolean succeeded = false;
+        try {
+            applyResponse(emergencyId, true);
+            succeeded = true;
+        } finally {
+            metrics.stopAcceptTimer(acceptSample, succeeded);
+        }
+    }
+
+    private void applyResponse(Long emergencyId, boolean accepted) {
+
         // 🔐 Get authenticated driver
         Long driverId = AuthContext.get().getUserId();
 
@@ -265,6 +315,7 @@ public class EmergencyAssignmentService {
             assignment.setAcceptedAt(LocalDateTime.now());
             assignment.setDriverId(driverId); // 🎯 Track which driver accepted
             assignmentRepository.save(assignment);
+            RequestLookupCache.invalidateAssignments();
 
             validateEmergencyTransition(emergency, EmergencyStatus.DISPATCHED);
             emergency.setStatus(EmergencyStatus.DISPATCHED);
@@ -282,6 +333,8 @@ public class EmergencyAssignmentService {
                             "ASSIGNMENT_ACCEPTED",
                             "Driver accepted assignment"));
             metrics.assignmentAccepted();
+            latencyMetrics.assignmentAccepted(emergency, ambulance,
+                    assignment.getAssignedAt(), assignment.getAcceptedAt());
 
         } else {
 
@@ -294,6 +347,7 @@ public class EmergencyAssignmentService {
             assignment.setRejectedAt(LocalDateTime.now());
             assignment.setDriverId(driverId); // 🎯 Track which driver rejected
             assignmentRepository.save(assignment);
+            RequestLookupCache.invalidateAssignments();
 
             validateAssignmentEmergencyConsistency(assignment, emergency);
 
@@ -322,6 +376,7 @@ public class EmergencyAssignmentService {
                 emergencyRepository.save(emergency);
 
                 validateAssignmentEmergencyConsistency(assignment, emergency);
+                latencyMetrics.dispatchExhausted(emergency);
 
                 throw new InvalidAssignmentStateException(
                         "All ambulances rejected or unavailable for this emergency");
@@ -358,6 +413,7 @@ public class EmergencyAssignmentService {
         assignment.setStatus(EmergencyAssignmentStatus.COMPLETED);
         assignment.setCompletedAt(LocalDateTime.now());
         assignmentRepository.save(assignment);
+        RequestLookupCache.invalidateAssignments();
 
         // 2️⃣ Complete emergency
         // Production: Only allow completion from TO_HOSPITAL status (patient delivered)
@@ -406,16 +462,46 @@ public class EmergencyAssignmentService {
     /**
      * Driver accepts an emergency assignment.
      * Updates assignment status to ACCEPTED and driver session to ON_TRIP.
+     *
+     * The authorization checks run in the same transaction, so the session and
+     * assignment they load are the managed entities the accept updates, and
+     * any failure rolls the whole accept back.
      * 
      * @param emergencyId Emergency ID
      * @param driverId    Driver ID
      * @return Updated assignment
+     * @throws AssignmentAccessDeniedException if the driver may not accept this emergency
+     * @throws IllegalStateException if the assignment or emergency is not in an acceptable state
      */
     @Transactional
     public EmergencyAssignment acceptEmergency(Long emergencyId, Long driverId) {
-        // Find active assignment for this emergency and driver
-        EmergencyAssignment assignment = assignmentRepository
-                .findByEmergencyIdAndDriverIdAndStatus(emergencyId, driverId, EmergencyAssignmentStatus.ASSIGNED)
+        // Timed from entry, so refused accepts are measured too
+        Timer.Sample acceptSample = metrics.startAcceptTimer();
+        boolean succeeded = false;
+        try {
+            EmergencyAssignment assignment = acceptAssigned(emergencyId, driverId);
+            succeeded = true;
+            return assignment;
+        } finally {
+            metrics.stopAcceptTimer(acceptSample, succeeded);
+        }
+    }
+
+    private EmergencyAssignment acceptAssigned(Long emergencyId, Long driverId) {
+        // Authorization: Only VERIFIED + ONLINE driver who is assigned can accept
+        if (!authorizationService.canDriverAcceptEmergency(driverId)) {
+            throw new AssignmentAccessDeniedException("Only VERIFIED and ONLINE drivers can accept emergencies");
+        }
+        if (!authorizationService.isDriverAssignedToEmergency(driverId, emergencyId)) {
+            throw new AssignmentAccessDeniedException("You are not assigned to this emergency");
+        }
+
+        // Find active assignment for this emergency and driver (usually already
+        // loaded, with emergency and ambulance, by the authorization check)
+        EmergencyAssignment assignment = RequestLookupCache
+                .activeAssignment(emergencyId, driverId,
+                        () -> assignmentRepository.findActiveAssignment(emergencyId, driverId))
+                .filter(a -> a.getStatus() == EmergencyAssignmentStatus.ASSIGNED)
                 .orElseThrow(
                         () -> new IllegalStateException("No active assignment found for this emergency and driver"));
 
@@ -438,6 +524,7 @@ public class EmergencyAssignmentService {
         assignment.setStatus(EmergencyAssignmentStatus.ACCEPTED);
         assignment.setAcceptedAt(now);
         assignmentRepository.save(assignment);
+        RequestLookupCache.invalidateAssignments();
 
         // Update emergency status
         emergency.setStatus(EmergencyStatus.IN_PROGRESS);
@@ -466,7 +553,8 @@ public class EmergencyAssignmentService {
                         "ASSIGNMENT_ACCEPTED",
                         "Driver accepted emergency"));
 
-        metrics.assignmentCompleted();
+        metrics.assignmentAccepted();
+        latencyMetrics.assignmentAccepted(emergency, ambulance, assignment.getAssignedAt(), now);
 
         return assignment;
     }
@@ -481,8 +569,10 @@ public class EmergencyAssignmentService {
     @Transactional
     public void rejectEmergency(Long emergencyId, Long driverId) {
         // Find active assignment for this emergency and driver
-        EmergencyAssignment assignment = assignmentRepository
-                .findByEmergencyIdAndDriverIdAndStatus(emergencyId, driverId, EmergencyAssignmentStatus.ASSIGNED)
+        EmergencyAssignment assignment = RequestLookupCache
+                .activeAssignment(emergencyId, driverId,
+                        () -> assignmentRepository.findActiveAssignment(emergencyId, driverId))
+                .filter(a -> a.getStatus() == EmergencyAssignmentStatus.ASSIGNED)
                 .orElseThrow(
                         () -> new IllegalStateException("No active assignment found for this emergency and driver"));
 
@@ -499,6 +589,7 @@ public class EmergencyAssignmentService {
         assignment.setRejectedAt(now);
         assignment.setCancellationReason("Driver manually rejected");
         assignmentRepository.save(assignment);
+        RequestLookupCache.invalidateAssignments();
 
         // Release driver back to ONLINE status
         driverSessionService.markDriverOnline(driverId);
@@ -531,23 +622,48 @@ public class EmergencyAssignmentService {
 
     /**
      * Get current active assignment for driver.
+     * Served from the live assignment read model (no database access) once it
+     * is built; during startup falls back to the repository.
      * 
      * @param driverId Driver ID
      * @return Current assignment or null if none
      */
-    @Transactional(readOnly = true)
-    public EmergencyAssignment getCurrentAssignment(Long driverId) {
-        // Try to find ASSIGNED status first
-        Optional<EmergencyAssignment> assigned = assignmentRepository.findByDriverIdAndStatus(
-                driverId, EmergencyAssignmentStatus.ASSIGNED);
-
-        if (assigned.isPresent()) {
-            return assigned.get();
+    public AssignmentView getCurrentAssignment(Long driverId) {
+        if (liveAssignments.isReady()) {
+            return liveAssignments.currentForDriver(driverId).orElse(null);
         }
 
-        // If not ASSIGNED, try ACCEPTED
-        return assignmentRepository.findByDriverIdAndStatus(
-                driverId, EmergencyAssignmentStatus.ACCEPTED)
+        // A pending offer wins over an accepted one
+        return assignmentRepository.findCurrentForDriver(driverId)
+                .map(AssignmentView::of)
+                .orElse(null);
+    }
+
+    /**
+     * Current active assignment for driver as the entity, with its emergency,
+     * ambulance and destination hospital loaded (the original /assigned
+     * payload). One query, always against the primary.
+     *
+     * @param driverId Driver ID
+     * @return Current assignment or null if none
+     */
+    @Transactional(readOnly = true)
+    @ReadFromPrimary
+    public EmergencyAssignment getCurrentAssignmentDetails(Long driverId) {
+        return assignmentRepository.findActiveWithDetailsByDriverId(driverId).stream()
+                .findFirst()
+                .orElse(null);
+    }
+
+    /**
+     * Snapshot of the emergency behind a live assignment.
+     * 
+     * @param emergencyId Emergency ID
+     * @return Emergency snapshot or null if not found
+     */
+    public EmergencyView getAssignedEmergency(Long emergencyId) {
+        return liveAssignments.emergency(emergencyId)
+                .or(() -> emergencyRepository.findById(emergencyId).map(EmergencyView::of))
                 .orElse(null);
     }
 
@@ -1,8 +1,10 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.datasource.ReadFromPrimary;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.request.RequestLookupCache;
 import com.emergency.emergency108.util.DistanceCalculator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -13,8 +15,11 @@ import java.util.Optional;
 /**
  * Service for emergency-related authorization checks.
  * Ensures proper access control for emergency operations.
+ * Reads the primary: assignments are written by the dispatcher, not by the
+ * driver being checked, so a replica may not have them yet.
  */
 @Service
+@ReadFromPrimary
 public class EmergencyAuthorizationService {
 
     private final UserRepository userRepository;
@@ -39,7 +44,8 @@ public class EmergencyAuthorizationService {
      */
     @Transactional(readOnly = true)
     public boolean canDriverAcceptEmergency(Long driverId) {
-        Optional<User> userOpt = userRepository.findById(driverId);
+        // Already loaded by AuthContextFilter on this request
+        Optional<User> userOpt = RequestLookupCache.user(driverId, () -> userRepository.findById(driverId));
         if (userOpt.isEmpty()) {
             return false;
         }
@@ -87,10 +93,9 @@ public class EmergencyAuthorizationService {
      */
     @Transactional(readOnly = true)
     public boolean isDriverAssignedToEmergency(Long driverId, Long emergencyId) {
-        return assignmentRepository.findByEmergencyIdAndDriverIdAndStatus(
-                emergencyId, driverId, EmergencyAssignmentStatus.ASSIGNED
-        ).isPresent() || assignmentRepository.findByEmergencyIdAndDriverIdAndStatus(
-                emergencyId, driverId, EmergencyAssignmentStatus.ACCEPTED
+        // One query for ASSIGNED or ACCEPTED; the accept that follows reuses the result
+        return RequestLookupCache.activeAssignment(emergencyId, driverId,
+                () -> assignmentRepository.findActiveAssignment(emergencyId, driverId)
         ).isPresent();
     }
 
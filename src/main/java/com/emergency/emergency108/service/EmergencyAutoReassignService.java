@@ -1,5 +1,7 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.Ambulance;
 import com.emergency.emergency108.entity.AmbulanceStatus;
 import com.emergency.emergency108.entity.EmergencyAssignment;
@@ -15,6 +17,7 @@ import java.util.List;
 
 @Service
 @Transactional
+@Workload(WorkloadClass.DISPATCH)
 public class EmergencyAutoReassignService {
 
     private final EmergencyAssignmentRepository assignmentRepository;
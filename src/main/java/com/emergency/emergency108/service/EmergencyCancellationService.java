@@ -1,16 +1,21 @@
 package com.emergency.emergency108.service;
 
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.*;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.request.RequestLookupCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.Optional;
 
 /**
@@ -19,6 +24,7 @@ import java.util.Optional;
  * driver assigned) logic.
  */
 @Service
+@Workload(WorkloadClass.DISPATCH)
 public class EmergencyCancellationService {
 
     private static final Logger logger = LoggerFactory.getLogger(EmergencyCancellationService.class);
@@ -28,18 +34,21 @@ public class EmergencyCancellationService {
     private final UserRepository userRepository;
     private final DriverSessionService driverSessionService;
     private final EmergencyAuthorizationService authorizationService;
+    private final LiveAssignmentRegistry liveAssignments;
 
     public EmergencyCancellationService(
             EmergencyRepository emergencyRepository,
             EmergencyAssignmentRepository assignmentRepository,
             UserRepository userRepository,
             DriverSessionService driverSessionService,
-            EmergencyAuthorizationService authorizationService) {
+            EmergencyAuthorizationService authorizationService,
+            LiveAssignmentRegistry liveAssignments) {
         this.emergencyRepository = emergencyRepository;
         this.assignmentRepository = assignmentRepository;
         this.userRepository = userRepository;
         this.driverSessionService = driverSessionService;
         this.authorizationService = authorizationService;
+        this.liveAssignments = liveAssignments;
     }
 
     /**
@@ -191,6 +200,7 @@ public class EmergencyCancellationService {
             user.setSuspectCount(currentCount + 1);
             user.setLastSuspectAt(LocalDateTime.now());
             userRepository.save(user);
+            RequestLookupCache.invalidateUser(userId);
 
             logger.warn("User {} marked as suspect (total suspect count: {})", userId, user.getSuspectCount());
 
@@ -215,10 +225,11 @@ public class EmergencyCancellationService {
      * Check if emergency has active driver assignment.
      */
     private boolean hasActiveDriverAssignment(Long emergencyId) {
-        return assignmentRepository.findByEmergencyIdAndStatus(emergencyId, EmergencyAssignmentStatus.ASSIGNED)
-                .isPresent() ||
-                assignmentRepository.findByEmergencyIdAndStatus(emergencyId, EmergencyAssignmentStatus.ACCEPTED)
-                        .isPresent();
+        if (liveAssignments.isReady()) {
+            return liveAssignments.hasActiveAssignment(emergencyId);
+        }
+        return assignmentRepository.existsByEmergencyIdAndStatusIn(emergencyId,
+                EnumSet.of(EmergencyAssignmentStatus.ASSIGNED, EmergencyAssignmentStatus.ACCEPTED));
     }
 
     /**
@@ -1,20 +1,35 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.Shard;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Scheduled job for emergency confirmation deadline monitoring.
  * Runs every 10 seconds to find CREATED emergencies past 100-second deadline and auto-dispatch them.
+ * With clustering on, each node only handles the emergencies of its shard.
+ *
+ * Probable duplicates of an incident (repeat reports by the same user, and
+ * bystander reports) are held back while its first report is being served, so
+ * a scene reported twenty times by onlookers does not take twenty ambulances.
+ * Other SELF reports in the incident are separate patients and are never held.
+ * A held duplicate is dispatched on its own once the first report is
+ * cancelled or left unassigned, or after app.incident.max-hold-seconds; admins
+ * see the held ones at GET /api/admin/held-emergencies.
+ * POST /api/emergencies/{id}/dispatch always dispatches it right away.
  */
 @Service
 public class EmergencyConfirmationScheduler {
@@ -23,12 +38,22 @@ public class EmergencyConfirmationScheduler {
 
     private final EmergencyRepository emergencyRepository;
     private final EmergencyService emergencyService;
+    private final ClusterCoordinator cluster;
+    private final long maxHoldSeconds;
+
+    // Once the incident's first report ends up here, its duplicates need their own ambulance
+    private static final Set<EmergencyStatus> RELEASES_DUPLICATES =
+            EnumSet.of(EmergencyStatus.CANCELLED, EmergencyStatus.UNASSIGNED);
 
     public EmergencyConfirmationScheduler(
             EmergencyRepository emergencyRepository,
-            EmergencyService emergencyService) {
+            EmergencyService emergencyService,
+            ClusterCoordinator cluster,
+            @Value("${app.incident.max-hold-seconds:600}") long maxHoldSeconds) {
         this.emergencyRepository = emergencyRepository;
         this.emergencyService = emergencyService;
+        this.cluster = cluster;
+        this.maxHoldSeconds = maxHoldSeconds;
     }
 
     /**
@@ -39,7 +64,9 @@ public class EmergencyConfirmationScheduler {
     public void processUnconfirmedEmergencies() {
         try {
             LocalDateTime now = LocalDateTime.now();
-            List<Emergency> unconfirmedEmergencies = emergencyRepository.findUnconfirmedEmergencies(now);
+            Shard shard = cluster.shard();
+            List<Emergency> unconfirmedEmergencies =
+                    emergencyRepository.findUnconfirmedEmergenciesInShard(now, shard.count(), shard.index());
 
             if (!unconfirmedEmergencies.isEmpty()) {
                 logger.info("Found {} unconfirmed emergencies to auto-dispatch", unconfirmedEmergencies.size());
@@ -75,6 +102,12 @@ public class EmergencyConfirmationScheduler {
                         emergency.getId(), freshEmergency.getStatus());
                 return;
             }
+
+            if (heldForIncident(freshEmergency)) {
+                logger.debug("Emergency {} is a probable duplicate in incident {} - held for joint dispatch",
+                        emergency.getId(), freshEmergency.getIncidentId());
+                return;
+            }
             
             // Dispatch to nearest available driver
             emergencyService.dispatchToNearestDriver(emergency.getId());
@@ -87,4 +120,22 @@ public class EmergencyConfirmationScheduler {
             // Emergency remains in CREATED status - will be retried in next cycle
         }
     }
+
+    /**
+     * Whether a probable duplicate should keep waiting on the first report of
+     * its incident instead of taking an ambulance of its own.
+     */
+    private boolean heldForIncident(Emergency emergency) {
+        if (!Boolean.TRUE.equals(emergency.getProbableDuplicate()) || emergency.getIncidentId() == null
+                || emergency.getIncidentId().equals(emergency.getId())) {
+            return false;
+        }
+        if (emergency.getCreatedAt() != null
+                && emergency.getCreatedAt().plusSeconds(maxHoldSeconds).isBefore(LocalDateTime.now())) {
+            return false;
+        }
+        return emergencyRepository.findById(emergency.getIncidentId())
+                .map(first -> !RELEASES_DUPLICATES.contains(first.getStatus()))
+                .orElse(false);
+    }
 }
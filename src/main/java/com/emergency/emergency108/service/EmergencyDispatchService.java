@@ -1,46 +1,59 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.event.AssignmentEvent;
 import com.emergency.emergency108.event.DomainEventPublisher;
 import com.emergency.emergency108.exception.NoAmbulancesAvailableException;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
+import com.emergency.emergency108.metrics.DomainMetrics;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
-import com.emergency.emergency108.util.GeoUtil;
+import com.emergency.emergency108.request.RequestLookupCache;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
+@Workload(WorkloadClass.DISPATCH)
 public class EmergencyDispatchService {
 
         private static final Logger log = LoggerFactory.getLogger(EmergencyDispatchService.class);
 
+        // Nearest drivers ranked per dispatch (next one is used if a driver has no ambulance)
+        private static final int CANDIDATE_POOL_SIZE = 3;
+
         private final AmbulanceRepository ambulanceRepository;
         private final DomainEventPublisher eventPublisher;
         private final EmergencyRepository emergencyRepository;
         private final EmergencyAssignmentRepository assignmentRepository;
         private final DriverSessionRepository driverSessionRepository;
+        private final DomainMetrics metrics;
+        private final DispatchLatencyMetrics latencyMetrics;
 
         public EmergencyDispatchService(
                         AmbulanceRepository ambulanceRepository,
                         DomainEventPublisher eventPublisher,
                         EmergencyRepository emergencyRepository,
                         EmergencyAssignmentRepository assignmentRepository,
-                        DriverSessionRepository driverSessionRepository) {
+                        DriverSessionRepository driverSessionRepository,
+                        DomainMetrics metrics,
+                        DispatchLatencyMetrics latencyMetrics) {
                 this.ambulanceRepository = ambulanceRepository;
                 this.eventPublisher = eventPublisher;
                 this.emergencyRepository = emergencyRepository;
                 this.assignmentRepository = assignmentRepository;
                 this.driverSessionRepository = driverSessionRepository;
+                this.metrics = metrics;
+                this.latencyMetrics = latencyMetrics;
         }
 
         /**
@@ -54,10 +67,23 @@ public class EmergencyDispatchService {
          */
         @Transactional
         public void dispatchToNearestAvailableAmbulance(Long emergencyId) {
+                metrics.dispatchAttempt();
+                Timer.Sample sample = metrics.startDispatchTimer();
+                try {
+                        dispatch(emergencyId);
+                        metrics.dispatchSuccess();
+                } finally {
+                        metrics.stopDispatchTimer(sample);
+                }
+        }
+
+        private void dispatch(Long emergencyId) {
                 Emergency emergency = emergencyRepository.findById(emergencyId)
                                 .orElseThrow(() -> new IllegalArgumentException("Emergency not found: " + emergencyId));
 
-                // Find VERIFIED + ONLINE drivers with recent heartbeat
+                // Find VERIFIED + ONLINE drivers with recent heartbeat. Read from the shared
+                // session table rather than this node's geo cells, so drivers just across a
+                // cell border (owned by another node) are candidates too.
                 List<DriverSession> onlineSessions = driverSessionRepository.findAllOnlineDrivers();
                 log.info("Found {} online sessions from query", onlineSessions.size());
 
@@ -66,9 +92,6 @@ public class EmergencyDispatchService {
                 if (!rejectedDriverIds.isEmpty()) {
                         log.info("Excluding {} drivers who already rejected emergency {}", rejectedDriverIds.size(),
                                         emergencyId);
-                        onlineSessions = onlineSessions.stream()
-                                        .filter(session -> !rejectedDriverIds.contains(session.getDriverId()))
-                                        .collect(Collectors.toList());
                 }
 
                 // STATUS CHECK: Must be CREATED before dispatch (Safety check)
@@ -84,63 +107,40 @@ public class EmergencyDispatchService {
                 // We use a 1-hour window explicitly
                 LocalDateTime oneHourAgo = LocalDateTime.now().minusSeconds(3600);
 
-                List<DriverSession> eligibleSessions = onlineSessions.stream()
-                                .filter(session -> {
-                                        // LENIENT CHECK: Handle null heartbeat
-                                        if (session.getLastHeartbeat() == null) {
-                                                // If start time is within 1 hour, keep it
-                                                if (session.getSessionStartTime().isAfter(oneHourAgo)) {
-                                                        return true;
-                                                }
-                                                log.warn("Session {} has null heartbeat and old start time - filtering out",
-                                                                session.getId());
-                                                return false;
-                                        }
-                                        if (!session.getLastHeartbeat().isAfter(oneHourAgo)) {
-                                                log.warn("Session {} heartbeat is stale (older than 1h) - filtering out",
-                                                                session.getId());
-                                                return false;
-                                        }
-                                        return true;
-                                })
-                                .filter(session -> {
-                                        if (session.getStatus() != DriverSessionStatus.ONLINE) {
-                                                // Log reduced to debug to reduce noise
-                                                log.debug("Session {} status is {} not ONLINE - filtering out",
-                                                                session.getId(), session.getStatus());
-                                                return false;
-                                        }
-                                        return true;
-                                })
-                                .collect(Collectors.toList());
-
-                log.info("After filtering: {} eligible sessions (Window: 1 Hour)", eligibleSessions.size());
-
-                if (eligibleSessions.isEmpty()) {
-                        log.error("No available drivers found. Checked {} online sessions against 1-hour heartbeat window.",
-                                        onlineSessions.size());
-                        throw new NoAmbulancesAvailableException("No drivers available (Active within last 1 hour)");
+                DriverSession nearestSession = null;
+                Ambulance ambulance = null;
+                try (DispatchCandidateSelector.Candidates candidates = DispatchCandidateSelector.collectEligible(
+                                onlineSessions, rejectedDriverIds, oneHourAgo)) {
+
+                        log.info("After filtering: {} eligible sessions (Window: 1 Hour)", candidates.size());
+
+                        if (candidates.isEmpty()) {
+                                log.error("No available drivers found. Checked {} online sessions against 1-hour heartbeat window.",
+                                                onlineSessions.size());
+                                throw new NoAmbulancesAvailableException("No drivers available (Active within last 1 hour)");
+                        }
+
+                        // Rank nearest drivers (then unlocated ones); fall through to the next one if a
+                        // driver has no ambulance
+                        int ranked = candidates.rankNearest(emergency.getLatitude(), emergency.getLongitude(),
+                                        CANDIDATE_POOL_SIZE);
+
+                        for (int rank = 0; rank < ranked && ambulance == null; rank++) {
+                                nearestSession = onlineSessions.get(candidates.ref(rank));
+                                ambulance = ambulanceRepository.findByDriverId(nearestSession.getDriverId()).orElse(null);
+                                if (ambulance == null) {
+                                        log.warn("Driver {} has no ambulance assigned - trying next nearest",
+                                                        nearestSession.getDriverId());
+                                }
+                        }
                 }
 
-                // Find nearest driver
-                DriverSession nearestSession = eligibleSessions.stream()
-                                .min(Comparator.comparingDouble(session -> {
-                                        if (session.getCurrentLat() == null || session.getCurrentLng() == null) {
-                                                return Double.MAX_VALUE; // Skip drivers without location
-                                        }
-                                        return GeoUtil.distanceKm(
-                                                        emergency.getLatitude(),
-                                                        emergency.getLongitude(),
-                                                        session.getCurrentLat(),
-                                                        session.getCurrentLng());
-                                }))
-                                .orElseThrow(() -> new NoAmbulancesAvailableException(
-                                                "No drivers with valid location"));
-
-                // Get driver's ambulance
-                Ambulance ambulance = ambulanceRepository.findByDriverId(nearestSession.getDriverId())
-                                .orElseThrow(() -> new NoAmbulancesAvailableException(
-                                                "Driver has no ambulance assigned"));
+                if (ambulance == null) {
+                        throw new NoAmbulancesAvailableException("Driver has no ambulance assigned");
+                }
+
+                // Any earlier offer (rejected, timed out or cancelled) makes this a redispatch
+                boolean redispatch = assignmentRepository.existsByEmergencyId(emergencyId);
 
                 // Create assignment
                 EmergencyAssignment assignment = new EmergencyAssignment();
@@ -151,6 +151,7 @@ public class EmergencyDispatchService {
                 assignment.setAssignedAt(LocalDateTime.now());
                 assignment.setResponseDeadline(LocalDateTime.now().plusSeconds(60)); // 60 second response deadline
                 assignmentRepository.save(assignment);
+                RequestLookupCache.invalidateAssignments();
 
                 // Update emergency status
                 emergency.setStatus(EmergencyStatus.DISPATCHED);
@@ -165,6 +166,8 @@ public class EmergencyDispatchService {
                                                 ambulance.getId(),
                                                 "EMERGENCY_DISPATCHED",
                                                 "Emergency dispatched to nearest verified driver"));
+
+                latencyMetrics.emergencyDispatched(emergency, ambulance, redispatch);
         }
 
 }
@@ -1,5 +1,7 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.repository.EmergencyRepository;
@@ -13,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
  * Delegates dispatch to EmergencyDispatchService.
  */
 @Service
+@Workload(WorkloadClass.DISPATCH)
 public class EmergencyService {
 
     private static final Logger log = LoggerFactory.getLogger(EmergencyService.class);
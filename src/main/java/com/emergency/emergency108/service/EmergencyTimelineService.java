@@ -5,6 +5,7 @@ import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 
 import java.util.ArrayList;
@@ -24,6 +25,7 @@ public class EmergencyTimelineService {
         this.assignmentRepository = assignmentRepository;
     }
 
+    @Transactional(readOnly = true)
     public List<EmergencyTimelineEvent> getTimeline(Long emergencyId) {
 
         Emergency emergency = emergencyRepository.findById(emergencyId)
@@ -0,0 +1,100 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverSessionStatus;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides how soon a driver app should send its next heartbeat.
+ *
+ * FAST   - driver is ON_TRIP, holds a pending offer, or demand is surging
+ *          (overall, or in the driver's zone): location must stay fresh
+ * NORMAL - idle in a zone that had emergencies recently
+ * IDLE   - idle in a zone with no recent demand
+ *
+ * The chosen interval is stored on the session; DriverSession.isStale
+ * scales its cutoff with it, so slower idle heartbeats never make a driver
+ * look offline.
+ */
+@Component
+public class HeartbeatCadencePolicy {
+
+    public enum State {
+        ON_TRIP, OFFER_PENDING, SURGE, IDLE, IDLE_LOW_DEMAND;
+
+        public String tag() {
+            return name().toLowerCase();
+        }
+    }
+
+    public record Recommendation(State state, int intervalSeconds) {
+    }
+
+    private static final int SURGE_WINDOW_MINUTES = 5;
+
+    private final LiveAssignmentRegistry liveAssignments;
+    private final ZoneDemandTracker demand;
+    private final int fastSeconds;
+    private final int normalSeconds;
+    private final int idleSeconds;
+    private final int surgeThreshold;
+    private final int zoneSurgeThreshold;
+
+    public HeartbeatCadencePolicy(
+            LiveAssignmentRegistry liveAssignments,
+            ZoneDemandTracker demand,
+            @Value("${app.heartbeat.cadence.fast-seconds:3}") int fastSeconds,
+            @Value("${app.heartbeat.cadence.normal-seconds:5}") int normalSeconds,
+            @Value("${app.heartbeat.cadence.idle-seconds:15}") int idleSeconds,
+            @Value("${app.heartbeat.cadence.surge-threshold:20}") int surgeThreshold,
+            @Value("${app.heartbeat.cadence.zone-surge-threshold:3}") int zoneSurgeThreshold) {
+        this.liveAssignments = liveAssignments;
+        this.demand = demand;
+        this.fastSeconds = fastSeconds;
+        this.normalSeconds = normalSeconds;
+        this.idleSeconds = idleSeconds;
+        this.surgeThreshold = surgeThreshold;
+        this.zoneSurgeThreshold = zoneSurgeThreshold;
+    }
+
+    public Recommendation recommend(DriverSession session) {
+        State state = classify(session);
+        int interval = switch (state) {
+            case ON_TRIP, OFFER_PENDING, SURGE -> fastSeconds;
+            case IDLE -> normalSeconds;
+            case IDLE_LOW_DEMAND -> idleSeconds;
+        };
+        return new Recommendation(state, interval);
+    }
+
+    State classify(DriverSession session) {
+        if (session.getStatus() == DriverSessionStatus.ON_TRIP) {
+            return State.ON_TRIP;
+        }
+
+        boolean offerPending = liveAssignments.currentForDriver(session.getDriverId())
+                .filter(assignment -> assignment.status() == EmergencyAssignmentStatus.ASSIGNED)
+                .isPresent();
+        if (offerPending) {
+            return State.OFFER_PENDING;
+        }
+
+        if (demand.totalDemand(SURGE_WINDOW_MINUTES) >= surgeThreshold) {
+            return State.SURGE;
+        }
+
+        if (session.getCurrentLat() == null || session.getCurrentLng() == null) {
+            return State.IDLE;
+        }
+
+        long zoneDemand = demand.zoneDemand(
+                session.getCurrentLat(), session.getCurrentLng(), ZoneDemandTracker.WINDOW_MINUTES);
+        if (zoneDemand >= zoneSurgeThreshold) {
+            return State.SURGE;
+        }
+        return zoneDemand > 0 ? State.IDLE : State.IDLE_LOW_DEMAND;
+    }
+}
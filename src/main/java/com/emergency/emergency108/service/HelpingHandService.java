@@ -1,43 +1,58 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
 import com.emergency.emergency108.dto.NearbyEmergencyDTO;
 import com.emergency.emergency108.entity.*;
+import com.emergency.emergency108.readmodel.ActiveEmergencyIndex;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.UserLocationRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.util.GeoBatch;
 import com.emergency.emergency108.util.GeoUtil;
+import com.emergency.emergency108.util.ScratchPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class HelpingHandService {
 
     private static final Logger log = LoggerFactory.getLogger(HelpingHandService.class);
 
+    private static final int MAX_NEARBY_EMERGENCIES = 5;
+
+    private static final ScratchPool<GeoBatch.Workspace> WORKSPACES = new ScratchPool<>(16, GeoBatch.Workspace::new);
+
     private final UserLocationRepository userLocationRepository;
     private final EmergencyRepository emergencyRepository;
     private final UserRepository userRepository;
+    private final ActiveEmergencyIndex activeEmergencyIndex;
 
     public HelpingHandService(UserLocationRepository userLocationRepository,
             EmergencyRepository emergencyRepository,
-            UserRepository userRepository) {
+            UserRepository userRepository,
+            ActiveEmergencyIndex activeEmergencyIndex) {
         this.userLocationRepository = userLocationRepository;
         this.emergencyRepository = emergencyRepository;
         this.userRepository = userRepository;
+        this.activeEmergencyIndex = activeEmergencyIndex;
     }
 
     /**
      * Update the location of a potential helper (PUBLIC user).
      */
+    @Workload(WorkloadClass.HEARTBEAT)
     @Transactional
     public void updateUserLocation(Long userId, double lat, double lng) {
         User user = userRepository.findById(userId)
@@ -97,62 +112,72 @@ public class HelpingHandService {
         log.info("📍 User Location: Lat={}, Lng={}, LastUpdated={}", userLoc.getLatitude(), userLoc.getLongitude(),
                 userLoc.getLastUpdated());
 
-        // 3. Fetch Active Emergencies
-        List<Emergency> activeEmergencies = emergencyRepository.findByStatusIn(
-                Arrays.asList(EmergencyStatus.CREATED, EmergencyStatus.IN_PROGRESS, EmergencyStatus.DISPATCHED));
-
-        log.info("🚑 Found {} potential active emergencies in DB.", activeEmergencies.size());
-
-        // 4. Filter & Map
-        List<NearbyEmergencyDTO> results = activeEmergencies.stream()
-                .filter(e -> {
-                    // Rule: Must be SELF (provenance check)
-                    if (e.getEmergencyFor() != EmergencyFor.SELF) {
-                        return false;
-                    }
-
-                    // Rule: Exclude own emergency
-                    if (e.getUserId() != null && e.getUserId().equals(userId)) {
-                        return false;
-                    }
-
-                    // Rule: Distance Check
-                    double dist = GeoUtil.distanceKm(userLoc.getLatitude(), userLoc.getLongitude(), e.getLatitude(),
-                            e.getLongitude());
-                    if (dist > radiusKm) {
-                        return false;
-                    }
-
-                    log.info("  ✅ Emergency {}: MATCHED! (Dist: {}km, Status: {})", e.getId(), dist, e.getStatus());
-                    return true;
-                })
-                .sorted((e1, e2) -> {
-                    double d1 = GeoUtil.distanceKm(userLoc.getLatitude(), userLoc.getLongitude(), e1.getLatitude(),
-                            e1.getLongitude());
-                    double d2 = GeoUtil.distanceKm(userLoc.getLatitude(), userLoc.getLongitude(), e2.getLatitude(),
-                            e2.getLongitude());
-                    return Double.compare(d1, d2);
-                })
-                .limit(5)
-                .map(e -> {
-                    double dist = GeoUtil.distanceKm(userLoc.getLatitude(), userLoc.getLongitude(), e.getLatitude(),
-                            e.getLongitude());
-                    String victimName = "User nearby";
-                    if (e.getUserId() != null) {
-                        Optional<User> victim = userRepository.findById(e.getUserId());
-                        if (victim.isPresent() && victim.get().getName() != null) {
-                            victimName = victim.get().getName().split(" ")[0];
-                        }
-                    }
-                    return new NearbyEmergencyDTO(e.getId(), e.getType(), e.getLatitude(), e.getLongitude(), dist,
-                            victimName, e.getStatus().toString());
-                })
-                .collect(Collectors.toList());
+        // 4. Active SELF emergencies within the radius, nearest first
+        List<NearbyEmergencyDTO> results;
+        if (activeEmergencyIndex.isReady()) {
+            results = activeEmergencyIndex.nearby(userLoc.getLatitude(), userLoc.getLongitude(), radiusKm, userId,
+                    MAX_NEARBY_EMERGENCIES);
+        } else {
+            List<Emergency> activeEmergencies = emergencyRepository.findByStatusIn(ActiveEmergencyIndex.VISIBLE);
+            log.info("🚑 Found {} potential active emergencies in DB.", activeEmergencies.size());
+            results = scanNearby(activeEmergencies, userId, userLoc.getLatitude(), userLoc.getLongitude(),
+                    radiusKm, MAX_NEARBY_EMERGENCIES,
+                    victimId -> ActiveEmergencyIndex.firstName(
+                            userRepository.findById(victimId).map(User::getName).orElse(null)));
+        }
 
         log.info("✅ Returning {} nearby emergencies to user.", results.size());
         return results;
     }
 
+    /**
+     * Nearby-emergency rules applied to a list of emergencies, one distance
+     * per emergency. Used until the index is built; kept static and
+     * repository-free so the benchmarks can compare it with the index.
+     */
+    public static List<NearbyEmergencyDTO> scanNearby(
+            List<Emergency> emergencies,
+            Long userId,
+            double latitude,
+            double longitude,
+            double radiusKm,
+            int limit,
+            Function<Long, String> victimNames) {
+
+        List<Emergency> matched = new ArrayList<>();
+        Map<Emergency, Double> distances = new HashMap<>();
+        for (Emergency e : emergencies) {
+            // Rule: Must be SELF (provenance check)
+            if (e.getEmergencyFor() != EmergencyFor.SELF) {
+                continue;
+            }
+
+            // Rule: Exclude own emergency
+            if (e.getUserId() != null && e.getUserId().equals(userId)) {
+                continue;
+            }
+
+            // Rule: Distance Check
+            double dist = GeoUtil.distanceKm(latitude, longitude, e.getLatitude(), e.getLongitude());
+            if (dist > radiusKm) {
+                continue;
+            }
+            matched.add(e);
+            distances.put(e, dist);
+        }
+        matched.sort(Comparator.comparingDouble(distances::get));
+
+        List<NearbyEmergencyDTO> results = new ArrayList<>(Math.min(limit, matched.size()));
+        for (Emergency e : matched.subList(0, Math.min(limit, matched.size()))) {
+            String victimName = e.getUserId() != null
+                    ? victimNames.apply(e.getUserId())
+                    : ActiveEmergencyIndex.ANONYMOUS_VICTIM;
+            results.add(new NearbyEmergencyDTO(e.getId(), e.getType(), e.getLatitude(), e.getLongitude(),
+                    distances.get(e), victimName, e.getStatus().toString()));
+        }
+        return results;
+    }
+
     /**
      * Find nearby helpers for a newly created emergency.
      * Returns a list of users who should receive push notifications.
@@ -166,44 +191,87 @@ public class HelpingHandService {
         // For now, fetch all active locations and filter in memory (MVP)
         List<UserLocation> allLocations = userLocationRepository.findAll();
 
-        return allLocations.stream()
-                .filter(loc -> {
-                    // Rule: Exclude the victim themselves
-                    if (loc.getUser() == null || loc.getUser().getId().equals(emergency.getUserId())) {
-                        return false;
-                    }
-
-                    // Rule: User must be PUBLIC and Helping Hand Enabled
-                    if (loc.getUser().getRole() != UserRole.PUBLIC) {
-                        log.debug("User {} skipped: Not PUBLIC ({})", loc.getUser().getId(), loc.getUser().getRole());
-                        return false;
-                    }
-                    if (!loc.getUser().isHelpingHandEnabled()) {
-                        log.debug("User {} skipped: Helping Hand Disabled", loc.getUser().getId());
-                        return false;
-                    }
-
-                    // Rule: Location must be recent (e.g., within last 24 hours)
-                    if (loc.getLastUpdated().isBefore(LocalDateTime.now().minusHours(24))) {
-                        log.debug("User {} skipped: Stale location (Last updated: {})", loc.getUser().getId(),
-                                loc.getLastUpdated());
-                        return false;
-                    }
-
-                    // Rule: Distance Check
-                    double dist = GeoUtil.distanceKm(
-                            loc.getLatitude(), loc.getLongitude(),
-                            emergency.getLatitude(), emergency.getLongitude());
-
-                    if (dist > radiusKm) {
-                        log.debug("User {} skipped: Too far ({}km > {}km)", loc.getUser().getId(), dist, radiusKm);
-                        return false;
-                    }
-
-                    log.info("✅ User {} MATCHED! (Dist: {}km)", loc.getUser().getId(), dist);
-                    return true;
-                })
-                .map(UserLocation::getUser)
-                .collect(Collectors.toList());
+        return matchHelpers(allLocations, emergency.getUserId(),
+                emergency.getLatitude(), emergency.getLongitude(),
+                radiusKm, LocalDateTime.now().minusHours(24));
+    }
+
+    /**
+     * Helper-matching rules applied to a set of known user locations.
+     * Kept static and repository-free so the benchmarks can drive it directly.
+     */
+    public static List<User> matchHelpers(
+            List<UserLocation> locations,
+            Long victimUserId,
+            double latitude,
+            double longitude,
+            double radiusKm,
+            LocalDateTime staleCutoff) {
+
+        GeoBatch.Workspace ws = WORKSPACES.acquire();
+        try {
+            return matchHelpers(locations, victimUserId, latitude, longitude, radiusKm, staleCutoff, ws);
+        } finally {
+            WORKSPACES.release(ws);
+        }
+    }
+
+    private static List<User> matchHelpers(
+            List<UserLocation> locations,
+            Long victimUserId,
+            double latitude,
+            double longitude,
+            double radiusKm,
+            LocalDateTime staleCutoff,
+            GeoBatch.Workspace ws) {
+
+        int n = locations.size();
+        double[] lats = ws.inputLats(n);
+        double[] lngs = ws.inputLngs(n);
+        int[] refs = ws.inputRefs(n);
+
+        // Cheap attribute rules first; only survivors go through the distance kernel
+        int candidates = 0;
+        for (int i = 0; i < n; i++) {
+            UserLocation loc = locations.get(i);
+
+            // Rule: Exclude the victim themselves
+            if (loc.getUser() == null || loc.getUser().getId().equals(victimUserId)) {
+                continue;
+            }
+
+            // Rule: User must be PUBLIC and Helping Hand Enabled
+            if (loc.getUser().getRole() != UserRole.PUBLIC) {
+                log.debug("User {} skipped: Not PUBLIC ({})", loc.getUser().getId(), loc.getUser().getRole());
+                continue;
+            }
+            if (!loc.getUser().isHelpingHandEnabled()) {
+                log.debug("User {} skipped: Helping Hand Disabled", loc.getUser().getId());
+                continue;
+            }
+
+            // Rule: Location must be recent (e.g., within last 24 hours)
+            if (loc.getLastUpdated().isBefore(staleCutoff)) {
+                log.debug("User {} skipped: Stale location (Last updated: {})", loc.getUser().getId(),
+                        loc.getLastUpdated());
+                continue;
+            }
+
+            lats[candidates] = loc.getLatitude();
+            lngs[candidates] = loc.getLongitude();
+            refs[candidates] = i;
+            candidates++;
+        }
+
+        // Rule: Distance Check
+        int matched = GeoBatch.withinRadius(lats, lngs, candidates, latitude, longitude, radiusKm, ws);
+
+        List<User> helpers = new ArrayList<>(matched);
+        for (int r = 0; r < matched; r++) {
+            User helper = locations.get(refs[ws.index(r)]).getUser();
+            log.info("✅ User {} MATCHED! (Dist: {}km)", helper.getId(), ws.distanceKm(r));
+            helpers.add(helper);
+        }
+        return helpers;
     }
 }
@@ -0,0 +1,254 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.ReadFromPrimary;
+import com.emergency.emergency108.dto.IncidentReportRow;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.util.GeoUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Groups SOS reports that arrive close together in time and place (a pile-up
+ * reported by everyone at the scene) into one incident.
+ *
+ * Every created emergency is remembered for app.incident.window-seconds in a
+ * lat/lng grid whose cells are app.incident.radius-meters wide. A new report
+ * within that radius of a remembered one joins its incident: the incident id
+ * is the id of its first report. Joined reports are remembered too, so the
+ * window slides along while reports keep coming in.
+ *
+ * Being in an incident does not make a report a duplicate: two people in the
+ * same pile-up are two patients. Only a repeat report from the same user is
+ * flagged as a probable duplicate here; a bystander report (OTHER) is flagged
+ * once its ownership is set.
+ *
+ * Matching looks at the few cells around the point and never touches the
+ * database; at most app.incident.max-reports are held, so the cost added to
+ * createEmergency stays bounded even during a flood. Two reports submitted
+ * at the same instant may both start an incident.
+ *
+ * In cluster mode reports of one scene can reach different nodes, so nothing
+ * is held in memory: each report is matched against the reports created in
+ * the window within the radius box, read from the primary.
+ *
+ * Metrics:
+ *   emergency.sos.reports{grouped}       created reports, by whether they joined an existing incident
+ */
+@Component
+public class IncidentClusterer {
+
+    private static final double KM_PER_DEGREE = 111.195;
+
+    private final double radiusKm;
+    private final long windowMillis;
+    private final int maxReports;
+    private final double cellDegrees;
+    private final LongSupplier clock;
+    // Cluster mode: match against the database instead of the in-memory window
+    private final EmergencyRepository sharedReports;
+
+    // Guarded by this; both in arrival order
+    private final ArrayDeque<Report> window = new ArrayDeque<>();
+    private final Map<Long, ArrayDeque<Report>> byCell = new HashMap<>();
+
+    private final Counter firstReports;
+    private final Counter groupedReports;
+
+    @Autowired
+    public IncidentClusterer(
+            @Value("${app.incident.radius-meters:250}") double radiusMeters,
+            @Value("${app.incident.window-seconds:120}") long windowSeconds,
+            @Value("${app.incident.max-reports:10000}") int maxReports,
+            MeterRegistry registry,
+            EmergencyRepository emergencyRepository,
+            ClusterCoordinator cluster) {
+        this(radiusMeters, windowSeconds, maxReports, registry, System::currentTimeMillis,
+                cluster.isEnabled() ? emergencyRepository : null);
+    }
+
+    IncidentClusterer(double radiusMeters, long windowSeconds, int maxReports, MeterRegistry registry,
+                      LongSupplier clock) {
+        this(radiusMeters, windowSeconds, maxReports, registry, clock, null);
+    }
+
+    IncidentClusterer(double radiusMeters, long windowSeconds, int maxReports, MeterRegistry registry,
+                      LongSupplier clock, EmergencyRepository sharedReports) {
+        this.radiusKm = radiusMeters / 1000.0;
+        this.windowMillis = windowSeconds * 1000L;
+        this.maxReports = maxReports;
+        this.cellDegrees = radiusKm / KM_PER_DEGREE;
+        this.clock = clock;
+        this.sharedReports = sharedReports;
+
+        firstReports = reportCounter(registry, "false");
+        groupedReports = reportCounter(registry, "true");
+    }
+
+    private static Counter reportCounter(MeterRegistry registry, String grouped) {
+        return Counter.builder("emergency.sos.reports")
+                .description("SOS reports created, by whether they joined an existing incident")
+                .tag("grouped", grouped)
+                .register(registry);
+    }
+
+    /**
+     * The incident an SOS by this user at this point belongs to, or null if it
+     * starts a new one. That is the incident of the user's own recent report
+     * within the radius if there is one (a repeat), else of the nearest one.
+     */
+    @ReadFromPrimary
+    public Match incidentFor(double lat, double lng, Long userId) {
+        double lngDegrees = radiusKm / (KM_PER_DEGREE * Math.max(Math.cos(Math.toRadians(lat)), 0.01));
+        Nearest nearest = new Nearest(lat, lng, userId);
+
+        if (sharedReports != null) {
+            double latDegrees = radiusKm / KM_PER_DEGREE;
+            LocalDateTime since = LocalDateTime.ofInstant(
+                    Instant.ofEpochMilli(clock.getAsLong() - windowMillis), ZoneId.systemDefault());
+            for (IncidentReportRow report : sharedReports.findReportsSince(since,
+                    lat - latDegrees, lat + latDegrees, lng - lngDegrees, lng + lngDegrees)) {
+                long incidentId = report.incidentId() != null ? report.incidentId() : report.id();
+                nearest.offer(incidentId, report.userId(), report.latitude(), report.longitude());
+            }
+            return nearest.match();
+        }
+
+        synchronized (this) {
+            evict(clock.getAsLong());
+
+            long row = cellIndex(lat);
+            long col = cellIndex(lng);
+            long colSpan = (long) Math.ceil(lngDegrees / cellDegrees);
+            for (long r = row - 1; r <= row + 1; r++) {
+                for (long c = col - colSpan; c <= col + colSpan; c++) {
+                    ArrayDeque<Report> cell = byCell.get(cellKey(r, c));
+                    if (cell == null) {
+                        continue;
+                    }
+                    for (Report report : cell) {
+                        nearest.offer(report.incidentId(), report.userId(), report.lat(), report.lng());
+                    }
+                }
+            }
+        }
+        return nearest.match();
+    }
+
+    /**
+     * Remember a created SOS so later reports nearby can join its incident.
+     *
+     * @param incidentId the incident it joined, or null when it is the first report
+     */
+    public synchronized void record(long emergencyId, Long incidentId, Long userId, double lat, double lng) {
+        (incidentId != null ? groupedReports : firstReports).increment();
+        if (sharedReports != null) {
+            // Already in the database
+            return;
+        }
+
+        long now = clock.getAsLong();
+        evict(now);
+
+        Report report = new Report(incidentId != null ? incidentId : emergencyId, userId, lat, lng, now,
+                cellKey(cellIndex(lat), cellIndex(lng)));
+        window.addLast(report);
+        byCell.computeIfAbsent(report.cell(), c -> new ArrayDeque<>()).addLast(report);
+        while (window.size() > maxReports) {
+            forget(window.pollFirst());
+        }
+    }
+
+    synchronized int size() {
+        return window.size();
+    }
+
+    private void evict(long now) {
+        while (!window.isEmpty() && window.peekFirst().at() < now - windowMillis) {
+            forget(window.pollFirst());
+        }
+    }
+
+    private void forget(Report report) {
+        ArrayDeque<Report> cell = byCell.get(report.cell());
+        if (cell == null) {
+            return;
+        }
+        // Oldest first in both queues, so this is normally the head
+        if (cell.peekFirst() == report) {
+            cell.pollFirst();
+        } else {
+            cell.remove(report);
+        }
+        if (cell.isEmpty()) {
+            byCell.remove(report.cell());
+        }
+    }
+
+    private long cellIndex(double degrees) {
+        return (long) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(long row, long col) {
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param incidentId   id of the incident's first report
+     * @param repeatReport the same user reported from here moments ago
+     */
+    public record Match(long incidentId, boolean repeatReport) {
+    }
+
+    private record Report(long incidentId, Long userId, double lat, double lng, long at, long cell) {
+    }
+
+    /** Nearest report within the radius, and nearest one by the same user. */
+    private final class Nearest {
+
+        private final double lat;
+        private final double lng;
+        private final Long userId;
+
+        private Long incidentId;
+        private double km = radiusKm;
+        private Long ownIncidentId;
+        private double ownKm = radiusKm;
+
+        Nearest(double lat, double lng, Long userId) {
+            this.lat = lat;
+            this.lng = lng;
+            this.userId = userId;
+        }
+
+        void offer(long reportIncidentId, Long reportUserId, double reportLat, double reportLng) {
+            double distance = GeoUtil.distanceKm(lat, lng, reportLat, reportLng);
+            if (distance <= km) {
+                incidentId = reportIncidentId;
+                km = distance;
+            }
+            if (userId != null && userId.equals(reportUserId) && distance <= ownKm) {
+                ownIncidentId = reportIncidentId;
+                ownKm = distance;
+            }
+        }
+
+        Match match() {
+            if (ownIncidentId != null) {
+                return new Match(ownIncidentId, true);
+            }
+            return incidentId != null ? new Match(incidentId, false) : null;
+        }
+    }
+}
@@ -1,111 +1,120 @@
 package com.emergency.emergency108.service;
 
-import com.emergency.emergency108.entity.*;
+import com.emergency.emergency108.cluster.ClusterCoordinator;
 import com.emergency.emergency108.event.DomainEventPublisher;
 import com.emergency.emergency108.event.EmergencyEvent;
 import com.emergency.emergency108.metrics.DomainMetrics;
-import com.emergency.emergency108.repository.AmbulanceRepository;
-import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
-import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.metrics.ReconciliationMetrics;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.resilience.StateReconciler;
 import com.emergency.emergency108.system.SystemReadiness;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 
 @Service
 public class StartupRecoveryService {
 
-    private final EmergencyAssignmentRepository assignmentRepository;
-    private final AmbulanceRepository ambulanceRepository;
-    private final EmergencyRepository emergencyRepository;
+    private static final Logger log =
+            LoggerFactory.getLogger(StartupRecoveryService.class);
+
+    private final StateReconciler reconciler;
+    private final LiveAssignmentRegistry liveAssignments;
     private final SystemReadiness systemReadiness;
     private final DomainEventPublisher eventPublisher;
     private final DomainMetrics metrics;
+    private final ReconciliationMetrics reconciliationMetrics;
+    private final ClusterCoordinator cluster;
 
     public StartupRecoveryService(
-            EmergencyAssignmentRepository assignmentRepository,
-            AmbulanceRepository ambulanceRepository,
-            EmergencyRepository emergencyRepository,
+            StateReconciler reconciler,
+            LiveAssignmentRegistry liveAssignments,
             SystemReadiness systemReadiness,
             DomainEventPublisher eventPublisher,
-            DomainMetrics metrics
+            DomainMetrics metrics,
+            ReconciliationMetrics reconciliationMetrics,
+            ClusterCoordinator cluster
     ) {
-        this.assignmentRepository = assignmentRepository;
-        this.ambulanceRepository = ambulanceRepository;
-        this.emergencyRepository = emergencyRepository;
+        this.reconciler = reconciler;
+        this.liveAssignments = liveAssignments;
         this.systemReadiness = systemReadiness;
         this.eventPublisher = eventPublisher;
         this.metrics = metrics;
+        this.reconciliationMetrics = reconciliationMetrics;
+        this.cluster = cluster;
     }
 
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional
     public void recoverSystemState() {
 
         systemReadiness.markNotReady(); // 🔒 BLOCK system first
 
-        metrics.startupRecovery();
+        if (cluster.isStandby()) {
+            // Repaired by recoverAfterTakeover(), if this node ever takes over
+            log.info("⏸️ Standby: startup recovery deferred until takeover");
+            return;
+        }
 
+        StateReconciler.Report report = repair();
 
-        // 1️⃣ Recover expired ASSIGNED assignments
-        List<EmergencyAssignment> expired =
-                assignmentRepository.findByStatusAndResponseDeadlineBefore(
-                        EmergencyAssignmentStatus.ASSIGNED,
-                        LocalDateTime.now()
-                );
+        // ✅ System is now consistent
+        systemReadiness.markReady();
 
-        for (EmergencyAssignment assignment : expired) {
+        Duration timeToReady = Duration.ofMillis(ManagementFactory.getRuntimeMXBean().getUptime());
+        reconciliationMetrics.systemReady(timeToReady);
 
+        log.info("♻️ Startup recovery: {} expired offers, {} ambulances released, ready {} ms after JVM start",
+                report.expiredOffers(), report.releasedAmbulances(), timeToReady.toMillis());
+    }
 
+    /**
+     * A standby that just took over: the same repair as a cold start (offers
+     * that expired while the primary was dying, ambulances it left BUSY), but
+     * none of the scans; its deadlines are already in memory.
+     */
+    public void recoverAfterTakeover() {
+        StateReconciler.Report report = repair();
 
-            assignment.setStatus(EmergencyAssignmentStatus.REJECTED);
-            assignment.setRejectedAt(LocalDateTime.now());
-            assignmentRepository.save(assignment);
+        systemReadiness.markReady();
 
-            Ambulance ambulance = assignment.getAmbulance();
-            ambulance.setStatus(AmbulanceStatus.AVAILABLE);
-            ambulanceRepository.save(ambulance);
+        log.info("♻️ Takeover recovery: {} expired offers, {} ambulances released",
+                report.expiredOffers(), report.releasedAmbulances());
+    }
 
-            Emergency emergency = assignment.getEmergency();
-            emergency.setStatus(EmergencyStatus.UNASSIGNED);
-            emergency.setStatusUpdatedAt(LocalDateTime.now());
-            emergencyRepository.save(emergency);
+    private StateReconciler.Report repair() {
+        metrics.startupRecovery();
 
-            // 📣 Per-emergency recovery event
-            eventPublisher.publish(
-                    new EmergencyEvent(
-                            emergency.getId(),
-                            "RECOVERY_ASSIGNMENT_EXPIRED",
-                            "Expired assignment recovered on startup"
-                    )
-            );
-        }
+        long started = System.nanoTime();
+
+        // 1️⃣ Expired offers + 2️⃣ BUSY ambulances without active assignments (one transaction)
+        StateReconciler.Report report = reconciler.recoverAfterRestart(LocalDateTime.now());
+
+        // 📣 Per-emergency recovery events, after the repair has committed
+        List<EmergencyEvent> events = report.recoveredEmergencyIds().stream()
+                .map(emergencyId -> new EmergencyEvent(
+                        emergencyId,
+                        "RECOVERY_ASSIGNMENT_EXPIRED",
+                        "Expired assignment recovered on startup"
+                ))
+                .toList();
+        eventPublisher.publishAll(events);
 
-        // 2️⃣ Recover BUSY ambulances without active assignments
-        List<Ambulance> busy = ambulanceRepository.findByStatus(AmbulanceStatus.BUSY);
-
-        for (Ambulance ambulance : busy) {
-            boolean hasActive =
-                    assignmentRepository
-                            .findByEmergencyId(ambulance.getId())
-                            .stream()
-                            .anyMatch(a ->
-                                    a.getStatus() == EmergencyAssignmentStatus.ASSIGNED ||
-                                            a.getStatus() == EmergencyAssignmentStatus.ACCEPTED
-                            );
-
-            if (!hasActive) {
-                ambulance.setStatus(AmbulanceStatus.AVAILABLE);
-                ambulanceRepository.save(ambulance);
-            }
+        // Bulk updates skip the entity listeners: reload the live assignments
+        if (report.expiredOffers() > 0) {
+            liveAssignments.rebuild();
         }
 
-        // ✅ System is now consistent
-        systemReadiness.markReady();
+        reconciliationMetrics.reconciled(
+                ReconciliationMetrics.PHASE_STARTUP,
+                Duration.ofNanos(System.nanoTime() - started),
+                report);
+        return report;
     }
 }
-
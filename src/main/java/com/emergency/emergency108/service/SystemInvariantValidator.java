@@ -1,89 +1,84 @@
 package com.emergency.emergency108.service;
 
-import com.emergency.emergency108.entity.*;
-import com.emergency.emergency108.repository.AmbulanceRepository;
-import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
-import com.emergency.emergency108.repository.EmergencyRepository;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.metrics.ReconciliationMetrics;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.resilience.StateReconciler;
+import org.springframework.dao.TransientDataAccessException;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.List;
 
+/**
+ * Every minute, repairs in bulk:
+ * - 🚑 BUSY ambulances must have an ASSIGNED or ACCEPTED assignment
+ * - 🚨 IN_PROGRESS emergencies must have an ACCEPTED assignment
+ * In a cluster only the holder of the invariant-sweep lease runs it.
+ */
 @Service
+@Workload(WorkloadClass.BACKGROUND)
 public class SystemInvariantValidator {
 
     private static final Logger log =
             LoggerFactory.getLogger(SystemInvariantValidator.class);
 
-    private final EmergencyAssignmentRepository assignmentRepository;
-    private final AmbulanceRepository ambulanceRepository;
-    private final EmergencyRepository emergencyRepository;
+    private static final String LEASE = "invariant-sweep";
+    private static final Duration LEASE_TTL = Duration.ofMinutes(3);
+
+    private final StateReconciler reconciler;
+    private final LiveAssignmentRegistry liveAssignments;
+    private final ReconciliationMetrics reconciliationMetrics;
+    private final ClusterCoordinator cluster;
 
     public SystemInvariantValidator(
-            EmergencyAssignmentRepository assignmentRepository,
-            AmbulanceRepository ambulanceRepository,
-            EmergencyRepository emergencyRepository
+            StateReconciler reconciler,
+            LiveAssignmentRegistry liveAssignments,
+            ReconciliationMetrics reconciliationMetrics,
+            ClusterCoordinator cluster
     ) {
-        this.assignmentRepository = assignmentRepository;
-        this.ambulanceRepository = ambulanceRepository;
-        this.emergencyRepository = emergencyRepository;
+        this.reconciler = reconciler;
+        this.liveAssignments = liveAssignments;
+        this.reconciliationMetrics = reconciliationMetrics;
+        this.cluster = cluster;
     }
 
     @Scheduled(fixedRate = 60000)
-    @Transactional
     public void validateInvariants() {
 
+        if (!cluster.acquireLease(LEASE, LEASE_TTL)) {
+            return;
+        }
+
+        long started = System.nanoTime();
+
         try {
-            // 🚑 BUSY ambulance must have ASSIGNED or ACCEPTED assignment
-            List<Ambulance> busyAmbulances =
-                    ambulanceRepository.findByStatus(AmbulanceStatus.BUSY);
-
-            for (Ambulance ambulance : busyAmbulances) {
-
-                boolean hasActiveAssignment =
-                        assignmentRepository.findByEmergencyId(ambulance.getId())
-                                .stream()
-                                .anyMatch(a ->
-                                        a.getStatus() == EmergencyAssignmentStatus.ASSIGNED ||
-                                                a.getStatus() == EmergencyAssignmentStatus.ACCEPTED
-                                );
-
-                if (!hasActiveAssignment) {
-                    ambulance.setStatus(AmbulanceStatus.AVAILABLE);
-                    ambulanceRepository.save(ambulance);
-                }
+            StateReconciler.Report report = reconciler.sweep(LocalDateTime.now());
+
+            // Bulk updates skip the entity listeners: refresh the emergency snapshots
+            if (report.unassignedEmergencies() > 0) {
+                liveAssignments.rebuild();
             }
 
-            // 🚨 IN_PROGRESS emergency must have ACCEPTED assignment
-            List<Emergency> inProgress =
-                    emergencyRepository.findByStatus(EmergencyStatus.IN_PROGRESS);
-
-            for (Emergency emergency : inProgress) {
-
-                boolean hasAcceptedAssignment =
-                        assignmentRepository
-                                .findByEmergencyIdAndStatus(
-                                        emergency.getId(),
-                                        EmergencyAssignmentStatus.ACCEPTED
-                                )
-                                .isPresent();
-
-                if (!hasAcceptedAssignment) {
-                    emergency.setStatus(EmergencyStatus.UNASSIGNED);
-                    emergency.setStatusUpdatedAt(LocalDateTime.now());
-                    emergencyRepository.save(emergency);
-                }
+            reconciliationMetrics.reconciled(
+                    ReconciliationMetrics.PHASE_SWEEP,
+                    Duration.ofNanos(System.nanoTime() - started),
+                    report);
+
+            if (report.total() > 0) {
+                log.warn("🩹 Invariant sweep repaired {} ambulances and {} emergencies",
+                        report.releasedAmbulances(), report.unassignedEmergencies());
             }
-        }catch (ObjectOptimisticLockingFailureException ex){
-            // ✔ Expected under concurrent self-healing
-            // ✔ Another transaction fixed it first
+        } catch (TransientDataAccessException ex) {
+            // ✔ Lock timeout / deadlock with a concurrent writer
+            // ✔ Next sweep retries the whole set
             // ✔ Safe to ignore
 
             log.debug(
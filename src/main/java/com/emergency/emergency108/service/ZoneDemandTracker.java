@@ -0,0 +1,154 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.datasource.Workload;
+import com.emergency.emergency108.datasource.WorkloadClass;
+import com.emergency.emergency108.dto.EmergencyLocationRow;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.readmodel.EmergencyChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Recent emergency demand per zone (a lat/lng grid cell) and overall, counted
+ * in per-minute buckets over the last {@link #WINDOW_MINUTES} minutes.
+ *
+ * Fed by the creation of emergencies (first persist), so it costs nothing on
+ * the heartbeat path beyond a map lookup and a 15-slot scan.
+ *
+ * In cluster mode (see {@link ClusterCoordinator}) each SOS is created on one
+ * node, so local events alone would undercount. The counts are then also
+ * rebuilt from the emergencies created in the window every
+ * app.heartbeat.cadence.zone-reload-ms; between rebuilds, local creations
+ * are added as they happen and other nodes' show up at the next rebuild.
+ */
+@Component
+public class ZoneDemandTracker {
+
+    static final int WINDOW_MINUTES = 15;
+
+    private static final long MINUTE_MILLIS = 60_000L;
+
+    private final double cellDegrees;
+    private final LongSupplier clock;
+    // Null unless clustered
+    private final EmergencyRepository sharedDemand;
+
+    // Replaced together by a cluster-mode rebuild
+    private volatile Map<Long, MinuteCounts> byZone = new ConcurrentHashMap<>();
+    private volatile MinuteCounts overall = new MinuteCounts();
+
+    @Autowired
+    public ZoneDemandTracker(
+            @Value("${app.heartbeat.cadence.zone-cell-degrees:0.1}") double cellDegrees,
+            EmergencyRepository emergencyRepository,
+            ClusterCoordinator cluster) {
+        this(cellDegrees, System::currentTimeMillis, cluster.isEnabled() ? emergencyRepository : null);
+    }
+
+    ZoneDemandTracker(double cellDegrees, LongSupplier clock) {
+        this(cellDegrees, clock, null);
+    }
+
+    ZoneDemandTracker(double cellDegrees, LongSupplier clock, EmergencyRepository sharedDemand) {
+        this.cellDegrees = cellDegrees;
+        this.clock = clock;
+        this.sharedDemand = sharedDemand;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onEmergencyChanged(EmergencyChangedEvent event) {
+        EmergencyView emergency = event.emergency();
+        boolean created = emergency.status() == EmergencyStatus.CREATED
+                && (emergency.version() == null || emergency.version() == 0L);
+        if (created && emergency.latitude() != null && emergency.longitude() != null) {
+            recordEmergency(emergency.latitude(), emergency.longitude());
+        }
+    }
+
+    public void recordEmergency(double lat, double lng) {
+        long minute = clock.getAsLong() / MINUTE_MILLIS;
+        byZone.computeIfAbsent(zone(lat, lng), z -> new MinuteCounts()).add(minute);
+        overall.add(minute);
+    }
+
+    /** Cluster mode: recount the window from every node's emergencies. */
+    @Scheduled(fixedDelayString = "${app.heartbeat.cadence.zone-reload-ms:15000}")
+    @Transactional(readOnly = true)
+    @Workload(WorkloadClass.BACKGROUND)
+    public void reloadSharedDemand() {
+        if (sharedDemand == null) {
+            return;
+        }
+        long now = clock.getAsLong();
+        LocalDateTime since = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(now - WINDOW_MINUTES * MINUTE_MILLIS), ZoneId.systemDefault());
+
+        Map<Long, MinuteCounts> zones = new ConcurrentHashMap<>();
+        MinuteCounts total = new MinuteCounts();
+        for (EmergencyLocationRow row : sharedDemand.findLocationsCreatedSince(since)) {
+            long minute = row.createdAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() / MINUTE_MILLIS;
+            zones.computeIfAbsent(zone(row.latitude(), row.longitude()), z -> new MinuteCounts()).add(minute);
+            total.add(minute);
+        }
+        byZone = zones;
+        overall = total;
+    }
+
+    /** Emergencies created in the zone containing the point, over the last windowMinutes. */
+    public long zoneDemand(double lat, double lng, int windowMinutes) {
+        MinuteCounts counts = byZone.get(zone(lat, lng));
+        return counts == null ? 0 : counts.sum(clock.getAsLong() / MINUTE_MILLIS, windowMinutes);
+    }
+
+    /** Emergencies created anywhere over the last windowMinutes. */
+    public long totalDemand(int windowMinutes) {
+        return overall.sum(clock.getAsLong() / MINUTE_MILLIS, windowMinutes);
+    }
+
+    private long zone(double lat, double lng) {
+        long row = (long) Math.floor(lat / cellDegrees);
+        long col = (long) Math.floor(lng / cellDegrees);
+        return (row << 32) ^ (col & 0xFFFFFFFFL);
+    }
+
+    /** Ring of per-minute counters; writes are rare, so a monitor is enough. */
+    private static final class MinuteCounts {
+
+        private final long[] minutes = new long[WINDOW_MINUTES];
+        private final long[] counts = new long[WINDOW_MINUTES];
+
+        synchronized void add(long minute) {
+            int slot = (int) Math.floorMod(minute, (long) WINDOW_MINUTES);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                counts[slot] = 0;
+            }
+            counts[slot]++;
+        }
+
+        synchronized long sum(long now, int windowMinutes) {
+            int window = Math.min(windowMinutes, WINDOW_MINUTES);
+            long sum = 0;
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                if (minutes[i] > now - window && minutes[i] <= now) {
+                    sum += counts[i];
+                }
+            }
+            return sum;
+        }
+    }
+}
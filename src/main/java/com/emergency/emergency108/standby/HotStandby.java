@@ -0,0 +1,205 @@
+package com.emergency.emergency108.standby;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.journal.StateRecords;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import com.emergency.emergency108.service.StartupRecoveryService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Hot standby: a second instance that keeps its heartbeat-deadline index in
+ * step with an active node, and takes over dispatch when the active nodes stop
+ * renewing the dispatch-primary lease.
+ *
+ * Every active node renews the lease every app.standby.check-ms. A standby
+ * (app.standby.enabled) follows app.standby.primary-url's state stream
+ * ({@link StateStreamServer}) on a background thread, reconnecting and
+ * resyncing from a fresh snapshot whenever the stream breaks; meanwhile it
+ * joins no membership, holds no lease and answers 503 on /api.
+ *
+ * Once the lease has gone unrenewed for lease-ttl-seconds, the standby takes
+ * it, joins the cluster and runs the takeover repair, without the startup
+ * scans. Joining changes the membership, which reloads the deadlines of every
+ * session in the cells this node owns now, including those of other active
+ * nodes; the streamed deadlines are what it sweeps if that reload fails. A
+ * standby that never completed a sync does not take over: with no primary
+ * seen, there is nothing to fail over from.
+ *
+ * Assignments are not streamed: a standby only runs in cluster mode, where the
+ * live assignment registry reads the shared database (see
+ * {@link ClusterCoordinator}). Nor are driver locations, which live there too.
+ */
+@Component
+public class HotStandby {
+
+    private static final Logger log = LoggerFactory.getLogger(HotStandby.class);
+
+    static final String PRIMARY_LEASE = "dispatch-primary";
+
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(1);
+    private static final int CONNECT_TIMEOUT_MS = 2000;
+    // Several missed keepalives: the primary is gone or wedged
+    private static final int READ_TIMEOUT_MS = 5000;
+    // Larger than any snapshot this service will hold
+    private static final int MAX_SNAPSHOT_BYTES = 512 * 1024 * 1024;
+
+    private final ClusterCoordinator cluster;
+    private final HeartbeatDeadlineIndex deadlineIndex;
+    private final StartupRecoveryService startupRecovery;
+    private final String primaryUrl;
+    private final String token;
+    private final Duration leaseTtl;
+
+    private volatile boolean synced;
+    private volatile Thread follower;
+    private volatile HttpURLConnection connection;
+
+    public HotStandby(
+            ClusterCoordinator cluster,
+            HeartbeatDeadlineIndex deadlineIndex,
+            StartupRecoveryService startupRecovery,
+            @Value("${app.standby.primary-url:}") String primaryUrl,
+            @Value("${app.standby.token:}") String token,
+            @Value("${app.standby.lease-ttl-seconds:10}") long leaseTtlSeconds) {
+        if (cluster.isStandby() && (primaryUrl == null || primaryUrl.isBlank() || token == null || token.isBlank())) {
+            throw new IllegalStateException("app.standby.enabled needs app.standby.primary-url and app.standby.token");
+        }
+        this.cluster = cluster;
+        this.deadlineIndex = deadlineIndex;
+        this.startupRecovery = startupRecovery;
+        this.primaryUrl = primaryUrl;
+        this.token = token;
+        this.leaseTtl = Duration.ofSeconds(leaseTtlSeconds);
+    }
+
+    /** Whether a full snapshot from the primary has been applied. */
+    public boolean isSynced() {
+        return synced;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!cluster.isStandby()) {
+            return;
+        }
+        Thread thread = new Thread(this::follow, "standby-follower");
+        thread.setDaemon(true);
+        follower = thread;
+        thread.start();
+        log.info("⏸️ Standby: following {}", primaryUrl);
+    }
+
+    /** Active nodes renew the lease; a synced standby takes it over once it lapses. */
+    @Scheduled(fixedDelayString = "${app.standby.check-ms:2000}")
+    public void checkLease() {
+        if (!cluster.isEnabled()) {
+            return;
+        }
+        if (!cluster.isStandby()) {
+            cluster.acquireLease(PRIMARY_LEASE, leaseTtl);
+            return;
+        }
+        if (!synced) {
+            return;
+        }
+
+        long started = System.nanoTime();
+        if (!cluster.takeOver(PRIMARY_LEASE, leaseTtl)) {
+            return;
+        }
+        stopFollowing();
+
+        startupRecovery.recoverAfterTakeover();
+        log.warn("🚨 Standby took over dispatch in {} ms with {} session deadlines in memory",
+                Duration.ofNanos(System.nanoTime() - started).toMillis(), deadlineIndex.size());
+    }
+
+    @PreDestroy
+    public void stop() {
+        stopFollowing();
+    }
+
+    private void stopFollowing() {
+        Thread thread = follower;
+        follower = null;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        HttpURLConnection open = connection;
+        if (open != null) {
+            open.disconnect();
+        }
+    }
+
+    // ---- following ----
+
+    private void follow() {
+        while (cluster.isStandby() && follower == Thread.currentThread()) {
+            try {
+                followOnce();
+            } catch (IOException | RuntimeException e) {
+                if (cluster.isStandby()) {
+                    log.warn("⚠️ Standby lost the state stream from {}: {}", primaryUrl, e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(RECONNECT_DELAY.toMillis());
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private void followOnce() throws IOException {
+        HttpURLConnection open = (HttpURLConnection) URI.create(primaryUrl + StateStreamServer.PATH)
+                .toURL().openConnection();
+        open.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        open.setReadTimeout(READ_TIMEOUT_MS);
+        open.setRequestProperty(StateStreamServer.TOKEN_HEADER, token);
+        connection = open;
+        try {
+            int status = open.getResponseCode();
+            if (status != HttpURLConnection.HTTP_OK) {
+                throw new IOException("primary answered HTTP " + status);
+            }
+            DataInputStream in = new DataInputStream(new BufferedInputStream(open.getInputStream(), 64 * 1024));
+
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_SNAPSHOT_BYTES) {
+                throw new IOException("bad snapshot length " + length);
+            }
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            StateRecords.Snapshot snapshot = StateRecords.readSnapshot(bytes);
+            deadlineIndex.restore(snapshot.deadlines());
+            synced = true;
+            log.info("🔁 Standby synced from {}: {} session deadlines", primaryUrl, snapshot.deadlines().size());
+
+            while (cluster.isStandby()) {
+                byte[] record = StateRecords.readFrame(in);
+                if (record == null) {
+                    throw new EOFException("stream closed by the primary");
+                }
+                StateRecords.applyDeadline(record, deadlineIndex);
+            }
+        } finally {
+            connection = null;
+            open.disconnect();
+        }
+    }
+}
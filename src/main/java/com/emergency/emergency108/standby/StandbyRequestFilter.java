@@ -0,0 +1,45 @@
+package com.emergency.emergency108.standby;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Answers 503 (Retry-After: 2) to API requests while this node is a hot
+ * standby, so nothing is dispatched from a node whose state is a follower's
+ * copy. Registered in StandbyConfig for /api/*; requests pass through as soon
+ * as the standby takes over.
+ */
+public class StandbyRequestFilter extends OncePerRequestFilter {
+
+    private final ClusterCoordinator cluster;
+
+    public StandbyRequestFilter(ClusterCoordinator cluster) {
+        this.cluster = cluster;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        if (!cluster.isStandby()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "2");
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"message\":\"Standby instance, not serving requests\"}");
+    }
+}
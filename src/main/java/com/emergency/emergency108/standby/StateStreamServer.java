@@ -0,0 +1,121 @@
+package com.emergency.emergency108.standby;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.journal.StateChangeFeed;
+import com.emergency.emergency108.journal.StateRecords;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Primary side of the standby state stream (GET /internal/state-stream).
+ *
+ * A follower first gets a {@link StateRecords} snapshot of the heartbeat
+ * deadlines, then every deadline change from the {@link StateChangeFeed} as a
+ * framed record, and a keepalive record each second nothing else is sent. The
+ * feed is subscribed before the snapshot is taken, so a change made meanwhile
+ * is in both; records are idempotent. Assignments are left out: standbys run
+ * in cluster mode, where the live assignment registry reads the database.
+ *
+ * Each follower has a bounded queue. One that falls too far behind is
+ * disconnected; it reconnects and starts over from a fresh snapshot.
+ *
+ * Disabled unless app.standby.token is set.
+ */
+@Component
+public class StateStreamServer {
+
+    private static final Logger log = LoggerFactory.getLogger(StateStreamServer.class);
+
+    public static final String PATH = "/internal/state-stream";
+    public static final String TOKEN_HEADER = "X-Standby-Token";
+
+    private static final long KEEPALIVE_MILLIS = 1000;
+
+    private final HeartbeatDeadlineIndex deadlineIndex;
+    private final StateChangeFeed feed;
+    private final ClusterCoordinator cluster;
+    private final byte[] token;
+    private final int queueCapacity;
+
+    public StateStreamServer(
+            HeartbeatDeadlineIndex deadlineIndex,
+            StateChangeFeed feed,
+            ClusterCoordinator cluster,
+            @Value("${app.standby.token:}") String token,
+            @Value("${app.standby.stream-queue:100000}") int queueCapacity) {
+        this.deadlineIndex = deadlineIndex;
+        this.feed = feed;
+        this.cluster = cluster;
+        this.token = token == null || token.isBlank() ? null : token.getBytes(StandardCharsets.UTF_8);
+        this.queueCapacity = queueCapacity;
+    }
+
+    public boolean isEnabled() {
+        return token != null;
+    }
+
+    public boolean isAuthorized(String presented) {
+        return token != null && presented != null
+                && MessageDigest.isEqual(token, presented.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Whether this node has a whole state to send: active, with the deadline index loaded. */
+    public boolean canServe() {
+        return !cluster.isStandby() && deadlineIndex.isSeeded();
+    }
+
+    /** Send the snapshot, then the changes; returns when the follower goes away or falls behind. */
+    public void stream(OutputStream response) throws IOException {
+        BlockingQueue<byte[]> queue = new LinkedBlockingQueue<>(queueCapacity);
+        AtomicBoolean overflowed = new AtomicBoolean();
+        Runnable unsubscribe = feed.subscribe(record -> {
+            if (StateRecords.isDeadline(record) && !queue.offer(record)) {
+                overflowed.set(true);
+            }
+        });
+
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(response, 64 * 1024));
+            StateRecords.Snapshot snapshot = new StateRecords.Snapshot(
+                    System.currentTimeMillis(), 0, List.of(), deadlineIndex.deadlines());
+            byte[] bytes = StateRecords.writeSnapshot(snapshot);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+            out.flush();
+            log.info("📤 Standby connected: sent {} session deadlines", snapshot.deadlines().size());
+
+            while (!overflowed.get()) {
+                byte[] record = queue.poll(KEEPALIVE_MILLIS, TimeUnit.MILLISECONDS);
+                if (record == null) {
+                    record = StateRecords.keepalive();
+                }
+                // Everything queued meanwhile goes out in the same flush
+                do {
+                    StateRecords.writeFrame(out, record);
+                } while ((record = queue.poll()) != null);
+                out.flush();
+            }
+            log.warn("⚠️ Standby fell {} records behind, disconnecting it to resync", queueCapacity);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            unsubscribe.run();
+        }
+    }
+}
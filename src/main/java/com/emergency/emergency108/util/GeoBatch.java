@@ -0,0 +1,334 @@
+package com.emergency.emergency108.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Batch great-circle distance kernel over primitive coordinate arrays.
+ *
+ * Candidates are processed in fixed-size blocks: a cheap equirectangular
+ * bounding-box test drops points that cannot be inside the radius (or cannot
+ * beat the current k-th best), survivors are compacted into contiguous
+ * scratch arrays and handed to the Haversine kernel in one call. When the
+ * jdk.incubator.vector module is present (JVM flag
+ * --add-modules jdk.incubator.vector) the kernel is SIMD, otherwise scalar.
+ *
+ * All scratch space lives in a caller-owned {@link Workspace}; once it has
+ * grown to the fleet size, queries allocate nothing.
+ */
+public final class GeoBatch {
+
+    private static final Logger log = LoggerFactory.getLogger(GeoBatch.class);
+
+    static final double EARTH_RADIUS_KM = 6371;
+    static final double DEG_TO_RAD = Math.PI / 180;
+    static final double KM_PER_DEGREE = EARTH_RADIUS_KM * DEG_TO_RAD;
+
+    private static final int BLOCK = 256;
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private static final Kernel KERNEL = loadKernel();
+
+    private GeoBatch() {
+    }
+
+    /**
+     * Haversine distances from one origin to n contiguous points.
+     */
+    interface Kernel {
+        void distancesKm(double lat0, double lng0, double[] lats, double[] lngs, int n, double[] out);
+    }
+
+    /**
+     * Name of the active kernel ("vector" or "scalar"), for logs and benchmarks.
+     */
+    public static String kernelName() {
+        return KERNEL instanceof ScalarKernel ? "scalar" : "vector";
+    }
+
+    /**
+     * Distances in km from (lat, lng) to the first n points. Same result as
+     * {@link GeoUtil#distanceKm} to within floating point rounding.
+     */
+    public static void distancesKm(double lat, double lng, double[] lats, double[] lngs, int n, double[] out) {
+        KERNEL.distancesKm(lat, lng, lats, lngs, n, out);
+    }
+
+    /**
+     * k nearest of the first count points, optionally limited to radiusKm
+     * (pass Double.POSITIVE_INFINITY for no limit). Results are left in the
+     * workspace sorted by distance; returns how many were found.
+     */
+    public static int nearest(
+            double[] lats, double[] lngs, int count,
+            double lat, double lng,
+            double radiusKm, int k,
+            Workspace ws) {
+
+        ws.resetResults(k);
+        if (k <= 0) {
+            return 0;
+        }
+
+        int start = 0;
+        while (start < count) {
+            int end = Math.min(count, start + BLOCK);
+
+            // Prune against the radius, or against the current k-th best once the heap is full
+            double boundKm = ws.size == k ? Math.min(radiusKm, ws.heapDist[0]) : radiusKm;
+            int survivors = prefilter(lats, lngs, start, end, lat, lng, boundKm, ws);
+
+            if (survivors > 0) {
+                KERNEL.distancesKm(lat, lng, ws.blockLat, ws.blockLng, survivors, ws.blockDist);
+                for (int i = 0; i < survivors; i++) {
+                    double d = ws.blockDist[i];
+                    if (d <= radiusKm) {
+                        ws.offer(ws.blockIndex[i], d, k);
+                    }
+                }
+            }
+            start = end;
+        }
+
+        ws.sortResults();
+        return ws.size;
+    }
+
+    /**
+     * Every point within radiusKm, unordered. Results are left in the
+     * workspace; returns how many were found.
+     */
+    public static int withinRadius(
+            double[] lats, double[] lngs, int count,
+            double lat, double lng,
+            double radiusKm,
+            Workspace ws) {
+
+        ws.resetResults(count);
+
+        int start = 0;
+        while (start < count) {
+            int end = Math.min(count, start + BLOCK);
+            int survivors = prefilter(lats, lngs, start, end, lat, lng, radiusKm, ws);
+
+            if (survivors > 0) {
+                KERNEL.distancesKm(lat, lng, ws.blockLat, ws.blockLng, survivors, ws.blockDist);
+                for (int i = 0; i < survivors; i++) {
+                    double d = ws.blockDist[i];
+                    if (d <= radiusKm) {
+                        ws.heapIndex[ws.size] = ws.blockIndex[i];
+                        ws.heapDist[ws.size] = d;
+                        ws.size++;
+                    }
+                }
+            }
+            start = end;
+        }
+        return ws.size;
+    }
+
+    /**
+     * Equirectangular bounding-box test. Conservative: only drops points whose
+     * latitude (or longitude, scaled by the widest parallel in the box)
+     * difference alone already exceeds the bound.
+     */
+    private static int prefilter(
+            double[] lats, double[] lngs, int start, int end,
+            double lat, double lng, double boundKm,
+            Workspace ws) {
+
+        int survivors = 0;
+
+        if (Double.isInfinite(boundKm)) {
+            for (int i = start; i < end; i++) {
+                ws.blockIndex[survivors] = i;
+                ws.blockLat[survivors] = lats[i];
+                ws.blockLng[survivors] = lngs[i];
+                survivors++;
+            }
+            return survivors;
+        }
+
+        double dLat = boundKm / KM_PER_DEGREE;
+        double widestCos = Math.cos(Math.min(90.0, Math.abs(lat) + dLat) * DEG_TO_RAD);
+        double dLng = widestCos > 1e-9 ? dLat / widestCos : 360.0;
+
+        for (int i = start; i < end; i++) {
+            double pLat = lats[i];
+            double pLng = lngs[i];
+            double lngDiff = Math.abs(pLng - lng);
+            if (lngDiff > 180.0) {
+                lngDiff = 360.0 - lngDiff; // antimeridian
+            }
+            if (Math.abs(pLat - lat) <= dLat && lngDiff <= dLng) {
+                ws.blockIndex[survivors] = i;
+                ws.blockLat[survivors] = pLat;
+                ws.blockLng[survivors] = pLng;
+                survivors++;
+            }
+        }
+        return survivors;
+    }
+
+    static double haversineKm(double lat0, double lng0, double cosLat0, double lat, double lng) {
+        double sinDLat = Math.sin((lat - lat0) * DEG_TO_RAD * 0.5);
+        double sinDLng = Math.sin((lng - lng0) * DEG_TO_RAD * 0.5);
+        double a = sinDLat * sinDLat + cosLat0 * Math.cos(lat * DEG_TO_RAD) * sinDLng * sinDLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    private static Kernel loadKernel() {
+        boolean disabled = Boolean.getBoolean("geo.simd.disabled");
+        if (!disabled && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()) {
+            try {
+                Kernel kernel = (Kernel) Class.forName("com.emergency.emergency108.util.VectorHaversineKernel")
+                        .getDeclaredConstructor()
+                        .newInstance();
+                log.info("📐 GeoBatch using SIMD Haversine kernel ({})", kernel);
+                return kernel;
+            } catch (ReflectiveOperationException | LinkageError e) {
+                log.warn("⚠️ Vector API present but SIMD kernel failed to load - using scalar kernel", e);
+            }
+        }
+        return new ScalarKernel();
+    }
+
+    static final class ScalarKernel implements Kernel {
+        @Override
+        public void distancesKm(double lat0, double lng0, double[] lats, double[] lngs, int n, double[] out) {
+            double cosLat0 = Math.cos(lat0 * DEG_TO_RAD);
+            for (int i = 0; i < n; i++) {
+                out[i] = haversineKm(lat0, lng0, cosLat0, lats[i], lngs[i]);
+            }
+        }
+    }
+
+    /**
+     * Reusable scratch space and result buffer. Not thread-safe; borrow one
+     * from a {@link ScratchPool} per call.
+     */
+    public static final class Workspace {
+
+        private final int[] blockIndex = new int[BLOCK];
+        private final double[] blockLat = new double[BLOCK];
+        private final double[] blockLng = new double[BLOCK];
+        private final double[] blockDist = new double[BLOCK];
+
+        private int[] heapIndex = new int[16];
+        private double[] heapDist = new double[16];
+        private int size;
+
+        private double[] inputLats = new double[16];
+        private double[] inputLngs = new double[16];
+        private int[] inputRefs = new int[16];
+
+        /** Reusable latitude input buffer of at least the given length. */
+        public double[] inputLats(int capacity) {
+            if (inputLats.length < capacity) {
+                inputLats = new double[Math.max(capacity, inputLats.length * 2)];
+            }
+            return inputLats;
+        }
+
+        /** Reusable longitude input buffer of at least the given length. */
+        public double[] inputLngs(int capacity) {
+            if (inputLngs.length < capacity) {
+                inputLngs = new double[Math.max(capacity, inputLngs.length * 2)];
+            }
+            return inputLngs;
+        }
+
+        /** Reusable buffer mapping input positions back to caller-side indexes. */
+        public int[] inputRefs(int capacity) {
+            if (inputRefs.length < capacity) {
+                inputRefs = new int[Math.max(capacity, inputRefs.length * 2)];
+            }
+            return inputRefs;
+        }
+
+        /** Number of results from the last query. */
+        public int size() {
+            return size;
+        }
+
+        /** Input index of the result at the given position. */
+        public int index(int position) {
+            return heapIndex[position];
+        }
+
+        /** Distance in km of the result at the given position. */
+        public double distanceKm(int position) {
+            return heapDist[position];
+        }
+
+        private void resetResults(int capacity) {
+            if (heapIndex.length < capacity) {
+                int grown = Math.max(capacity, heapIndex.length * 2);
+                heapIndex = new int[grown];
+                heapDist = new double[grown];
+            }
+            size = 0;
+        }
+
+        /** Bounded max-heap on distance: root is the current k-th best. */
+        private void offer(int index, double distance, int k) {
+            if (size < k) {
+                int i = size++;
+                heapIndex[i] = index;
+                heapDist[i] = distance;
+                siftUp(i);
+            } else if (distance < heapDist[0]) {
+                heapIndex[0] = index;
+                heapDist[0] = distance;
+                siftDown(0, size);
+            }
+        }
+
+        /** In-place heapsort: leaves results ascending by distance. */
+        private void sortResults() {
+            for (int end = size - 1; end > 0; end--) {
+                swap(0, end);
+                siftDown(0, end);
+            }
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (heapDist[parent] >= heapDist[i]) {
+                    return;
+                }
+                swap(parent, i);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i, int limit) {
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= limit) {
+                    return;
+                }
+                int largest = left;
+                int right = left + 1;
+                if (right < limit && heapDist[right] > heapDist[left]) {
+                    largest = right;
+                }
+                if (heapDist[i] >= heapDist[largest]) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int ti = heapIndex[a];
+            heapIndex[a] = heapIndex[b];
+            heapIndex[b] = ti;
+            double td = heapDist[a];
+            heapDist[a] = heapDist[b];
+            heapDist[b] = td;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.emergency.emergency108.util;
 
 import com.emergency.emergency108.auth.exception.*;
+import com.emergency.emergency108.exception.InvalidCursorException;
+import com.emergency.emergency108.exception.WorkloadRejectedException;
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -62,4 +65,31 @@ public class GlobalExceptionHandler {
                         "path", request.getRequestURI()
                 ));
     }
+
+    @ExceptionHandler(WorkloadRejectedException.class)
+    public ResponseEntity<?> handleWorkloadRejected(
+            WorkloadRejectedException ex,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE) // 🚧 503
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of(
+                        "message", ex.getMessage(),
+                        "path", request.getRequestURI()
+                ));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<?> handleInvalidCursor(
+            InvalidCursorException ex,
+            HttpServletRequest request
+    ) {
+        return ResponseEntity
+                .badRequest()
+                .body(Map.of(
+                        "message", ex.getMessage(),
+                        "path", request.getRequestURI()
+                ));
+    }
 }
@@ -0,0 +1,110 @@
+package com.emergency.emergency108.util;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive longs (linear probing).
+ *
+ * No boxing on add/contains and reusable through {@link #clear()}, so a
+ * per-thread instance gives allocation-free membership checks on hot paths.
+ * Not thread-safe.
+ */
+public final class LongHashSet {
+
+    private static final long EMPTY = 0L;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        mask = capacity - 1;
+    }
+
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            boolean added = !containsZero;
+            containsZero = true;
+            if (added) {
+                size++;
+            }
+            return added;
+        }
+
+        int slot = slot(value);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = value;
+        size++;
+
+        if (size > keys.length * LOAD_FACTOR) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+
+        int slot = slot(value);
+        long key;
+        while ((key = keys[slot]) != EMPTY) {
+            if (key == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all values, keeping the current capacity. */
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(keys, EMPTY);
+            size = 0;
+            containsZero = false;
+        }
+    }
+
+    private int slot(long value) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] old = keys;
+        keys = new long[newCapacity];
+        mask = newCapacity - 1;
+        for (long key : old) {
+            if (key != EMPTY) {
+                int slot = slot(key);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.emergency.emergency108.util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Supplier;
+
+/**
+ * Small bounded pool of reusable scratch buffers.
+ *
+ * A ThreadLocal buffer stops paying off once requests run on virtual threads:
+ * every request gets a fresh thread, so every request allocates a fresh buffer
+ * and the old ones linger until their threads are collected. This pool is
+ * shared instead. {@link #acquire()} never blocks (it creates a buffer when
+ * none is idle) and {@link #release(Object)} drops buffers beyond the cap, so
+ * at most {@code maxIdle} buffers stay resident.
+ *
+ * A buffer must not be used after it has been released.
+ */
+public final class ScratchPool<T> {
+
+    private final ArrayBlockingQueue<T> idle;
+    private final Supplier<T> factory;
+
+    public ScratchPool(int maxIdle, Supplier<T> factory) {
+        this.idle = new ArrayBlockingQueue<>(maxIdle);
+        this.factory = factory;
+    }
+
+    public T acquire() {
+        T buffer = idle.poll();
+        return buffer != null ? buffer : factory.get();
+    }
+
+    public void release(T buffer) {
+        idle.offer(buffer);
+    }
+
+    /** Buffers currently waiting to be reused. */
+    public int idleCount() {
+        return idle.size();
+    }
+}
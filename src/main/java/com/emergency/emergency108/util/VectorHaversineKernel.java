@@ -0,0 +1,54 @@
+package com.emergency.emergency108.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * SIMD Haversine over contiguous coordinate arrays.
+ *
+ * Loaded reflectively by {@link GeoBatch} only when the jdk.incubator.vector
+ * module is resolved at runtime, so nothing else references this class.
+ */
+final class VectorHaversineKernel implements GeoBatch.Kernel {
+
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    private static final double HALF_DEG_TO_RAD = GeoBatch.DEG_TO_RAD * 0.5;
+    private static final double DIAMETER_KM = 2 * GeoBatch.EARTH_RADIUS_KM;
+
+    @Override
+    public void distancesKm(double lat0, double lng0, double[] lats, double[] lngs, int n, double[] out) {
+        double cosLat0 = Math.cos(lat0 * GeoBatch.DEG_TO_RAD);
+
+        int i = 0;
+        int upper = SPECIES.loopBound(n);
+        for (; i < upper; i += SPECIES.length()) {
+            DoubleVector lat = DoubleVector.fromArray(SPECIES, lats, i);
+            DoubleVector lng = DoubleVector.fromArray(SPECIES, lngs, i);
+
+            DoubleVector sinDLat = lat.sub(lat0).mul(HALF_DEG_TO_RAD).lanewise(VectorOperators.SIN);
+            DoubleVector sinDLng = lng.sub(lng0).mul(HALF_DEG_TO_RAD).lanewise(VectorOperators.SIN);
+            DoubleVector cosLat = lat.mul(GeoBatch.DEG_TO_RAD).lanewise(VectorOperators.COS);
+
+            DoubleVector a = sinDLat.mul(sinDLat)
+                    .add(cosLat.mul(cosLat0).mul(sinDLng.mul(sinDLng)));
+
+            a.min(1.0)
+                    .lanewise(VectorOperators.SQRT)
+                    .lanewise(VectorOperators.ASIN)
+                    .mul(DIAMETER_KM)
+                    .intoArray(out, i);
+        }
+
+        // Tail that does not fill a whole vector
+        for (; i < n; i++) {
+            out[i] = GeoBatch.haversineKm(lat0, lng0, cosLat0, lats[i], lngs[i]);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return SPECIES.length() + " x double lanes";
+    }
+}
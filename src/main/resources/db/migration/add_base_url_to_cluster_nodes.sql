@@ -0,0 +1,8 @@
+-- Geo cell ownership (app.cluster.geo.enabled)
+-- Run this on your database before deploying: stores the URL each node advertises,
+-- which the other nodes name in X-Partition-Owner-Url for its geographic cells.
+
+ALTER TABLE cluster_nodes ADD COLUMN base_url VARCHAR(255) NULL DEFAULT NULL;
+
+-- Verify changes
+DESCRIBE cluster_nodes;
@@ -0,0 +1,27 @@
+-- Cluster-safe scheduling (app.cluster.enabled)
+-- Run this on your database before deploying: every node must be able to validate
+-- these tables even while clustering is off.
+-- cluster_nodes: live instances, refreshed every few seconds; sharded sweeps are
+-- split across them by id MOD node count.
+-- scheduler_leases: one row per singleton job, owned by one node until expires_at.
+
+CREATE TABLE IF NOT EXISTS cluster_nodes (
+    node_id VARCHAR(100) NOT NULL,
+    started_at DATETIME(6) NOT NULL,
+    last_seen_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (node_id)
+);
+
+CREATE INDEX idx_cluster_nodes_last_seen ON cluster_nodes (last_seen_at);
+
+CREATE TABLE IF NOT EXISTS scheduler_leases (
+    name VARCHAR(100) NOT NULL,
+    owner_node VARCHAR(100) NOT NULL,
+    acquired_at DATETIME(6) NOT NULL,
+    expires_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (name)
+);
+
+-- Verify changes
+DESCRIBE cluster_nodes;
+DESCRIBE scheduler_leases;
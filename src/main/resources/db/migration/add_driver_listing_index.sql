@@ -0,0 +1,9 @@
+-- Keyset-paginated admin driver listings
+-- Run this on your database before deploying: pending / verified driver pages filter
+-- on role and verification status and continue after the last id. InnoDB appends the
+-- primary key to the index, so each page is one short range scan.
+
+CREATE INDEX idx_users_role_verification ON users (role, driver_verification_status);
+
+-- Verify changes
+SHOW INDEX FROM users;
@@ -0,0 +1,8 @@
+-- Adaptive heartbeat cadence
+-- Run this on your database before deploying: stores the heartbeat interval last
+-- recommended to the driver app, which also scales the stale-driver cutoff.
+
+ALTER TABLE driver_sessions ADD COLUMN heartbeat_interval_seconds INT NULL DEFAULT NULL;
+
+-- Verify changes
+DESCRIBE driver_sessions;
@@ -0,0 +1,9 @@
+-- Cluster-wide binary heartbeat replay protection
+-- Run this on your database before enabling app.cluster.enabled: stores the last
+-- binary heartbeat sequence number accepted for each session, so a frame accepted
+-- by one node cannot be replayed to another.
+
+ALTER TABLE driver_sessions ADD COLUMN heartbeat_sequence BIGINT NULL DEFAULT NULL;
+
+-- Verify changes
+DESCRIBE driver_sessions;
@@ -0,0 +1,16 @@
+-- Duplicate SOS clustering
+-- Run this on your database before deploying: reports arriving close in time and place
+-- to an earlier SOS are flagged as probable duplicates and point at the first report of
+-- their incident.
+
+ALTER TABLE emergencies ADD COLUMN incident_id BIGINT NULL DEFAULT NULL;
+ALTER TABLE emergencies ADD COLUMN probable_duplicate TINYINT(1) NOT NULL DEFAULT 0;
+
+-- Incident members are looked up by their first report's id
+CREATE INDEX idx_emergencies_incident ON emergencies (incident_id);
+
+-- In cluster mode new reports are matched against the recent ones in the database
+CREATE INDEX idx_emergencies_created_location ON emergencies (created_at, latitude);
+
+-- Verify changes
+DESCRIBE emergencies;
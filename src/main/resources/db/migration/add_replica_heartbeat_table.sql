@@ -0,0 +1,14 @@
+-- Read replica routing (app.datasource.replica.enabled)
+-- Run this on the primary; replication carries it to the replica.
+-- replica_heartbeat: each instance writes the current time to its own row on the
+-- primary every probe-ms and reads it back from the replica; the difference is
+-- the replica's lag. Rows of instances gone for an hour are deleted.
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    node_id VARCHAR(100) NOT NULL,
+    beat_millis BIGINT NOT NULL,
+    PRIMARY KEY (node_id)
+);
+
+-- Verify changes
+DESCRIBE replica_heartbeat;
@@ -0,0 +1,105 @@
+package com.emergency.emergency108.admission;
+
+import com.emergency.emergency108.auth.token.AuthTokenPayload;
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.dto.KeysetPage;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AdmissionFilterTest {
+
+    private final TokenService tokenService = mock(TokenService.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final User admin = new User();
+
+    @Test
+    void staleReplay_KeepsTheNextPageCursor() throws Exception {
+        AdmissionFilter filter = admittedOnceThenRefused();
+        signedIn();
+
+        filter.doFilter(page(), new MockHttpServletResponse(), backend());
+        MockHttpServletResponse replayed = new MockHttpServletResponse();
+        filter.doFilter(page(), replayed, backend());
+
+        assertThat(replayed.getHeader(AdmissionFilter.DEGRADED_HEADER)).isEqualTo("stale");
+        assertThat(replayed.getHeader(KeysetPage.NEXT_CURSOR_HEADER)).isEqualTo("cursor-2");
+        assertThat(replayed.getContentAsString()).isEqualTo("[]");
+    }
+
+    @Test
+    void staleReplay_RefusedOnceTheUserIsBlocked() throws Exception {
+        AdmissionFilter filter = admittedOnceThenRefused();
+        signedIn();
+
+        filter.doFilter(page(), new MockHttpServletResponse(), backend());
+        admin.setBlocked(true);
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        filter.doFilter(page(), refused, backend());
+
+        assertThat(refused.getStatus()).isEqualTo(503);
+        assertThat(refused.getHeader(AdmissionFilter.DEGRADED_HEADER)).isNull();
+    }
+
+    @Test
+    void staleReplay_RefusedForAnInvalidToken() throws Exception {
+        AdmissionFilter filter = admittedOnceThenRefused();
+        signedIn();
+
+        filter.doFilter(page(), new MockHttpServletResponse(), backend());
+        when(tokenService.validateAndParse(anyString())).thenThrow(new IllegalArgumentException("bad signature"));
+        MockHttpServletResponse refused = new MockHttpServletResponse();
+        filter.doFilter(page(), refused, backend());
+
+        assertThat(refused.getStatus()).isEqualTo(503);
+    }
+
+    private AdmissionFilter admittedOnceThenRefused() {
+        AdmissionLimiter limiter = mock(AdmissionLimiter.class);
+        when(limiter.acquire(any(), anyLong()))
+                .thenReturn(AdmissionLimiter.Decision.ADMITTED)
+                .thenReturn(AdmissionLimiter.Decision.REJECTED);
+        return new AdmissionFilter(
+                limiter,
+                new EndpointPriorities(),
+                new StaleResponseCache(100, 64 * 1024, 60_000, System::currentTimeMillis),
+                tokenService, userRepository,
+                Duration.ofSeconds(2), Duration.ofMillis(250), new SimpleMeterRegistry());
+    }
+
+    private void signedIn() {
+        admin.setId(1L);
+        when(tokenService.validateAndParse("admin")).thenReturn(new AuthTokenPayload(1L, UserRole.ADMIN));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(admin));
+    }
+
+    private static FilterChain backend() {
+        return (request, response) -> {
+            ((HttpServletResponse) response).setHeader(KeysetPage.NEXT_CURSOR_HEADER, "cursor-2");
+            response.getWriter().write("[]");
+        };
+    }
+
+    private static MockHttpServletRequest page() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/admin/emergencies");
+        request.setQueryString("limit=50");
+        request.addHeader("Authorization", "Bearer admin");
+        return request;
+    }
+}
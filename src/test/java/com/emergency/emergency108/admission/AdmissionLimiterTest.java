@@ -0,0 +1,107 @@
+package com.emergency.emergency108.admission;
+
+import com.emergency.emergency108.admission.AdmissionLimiter.Decision;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+class AdmissionLimiterTest {
+
+    private static final long WAIT = TimeUnit.SECONDS.toNanos(5);
+    private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final Duration TARGET = Duration.ofMillis(50);
+
+    @Test
+    void critical_AdmittedPastTheLimit() {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, 1, 10, 10, 10, TARGET);
+        assertThat(limiter.acquire(Priority.NORMAL, 0)).isEqualTo(Decision.ADMITTED);
+
+        assertThat(limiter.acquire(Priority.NORMAL, 0)).isEqualTo(Decision.TIMED_OUT);
+        assertThat(limiter.acquire(Priority.CRITICAL, 0)).isEqualTo(Decision.ADMITTED);
+        assertThat(limiter.inFlight()).isEqualTo(2);
+    }
+
+    @Test
+    void freedSlot_GoesToNormalBeforeLow() {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, 1, 10, 10, 10, TARGET);
+        limiter.acquire(Priority.NORMAL, 0);
+
+        List<Priority> admitted = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> low = CompletableFuture.runAsync(() -> {
+            if (limiter.acquire(Priority.LOW, WAIT) == Decision.ADMITTED) {
+                admitted.add(Priority.LOW);
+                limiter.release(Priority.NORMAL, MS);
+            }
+        });
+        await().until(() -> limiter.queued(Priority.LOW) == 1);
+        CompletableFuture<Void> normal = CompletableFuture.runAsync(() -> {
+            if (limiter.acquire(Priority.NORMAL, WAIT) == Decision.ADMITTED) {
+                admitted.add(Priority.NORMAL);
+                limiter.release(Priority.NORMAL, MS);
+            }
+        });
+        await().until(() -> limiter.queued(Priority.NORMAL) == 1);
+
+        limiter.release(Priority.NORMAL, MS);
+        CompletableFuture.allOf(low, normal).join();
+
+        // The LOW request queued first but was served second
+        assertThat(admitted).containsExactly(Priority.NORMAL, Priority.LOW);
+    }
+
+    @Test
+    void low_ShedWithoutWaitingWhenQueueIsDeep() {
+        AdmissionLimiter limiter = new AdmissionLimiter(1, 1, 10, 10, 1, TARGET);
+        limiter.acquire(Priority.NORMAL, 0);
+        CompletableFuture<Decision> normal = CompletableFuture.supplyAsync(
+                () -> limiter.acquire(Priority.NORMAL, WAIT));
+        await().until(() -> limiter.queued(Priority.NORMAL) == 1);
+
+        long started = System.nanoTime();
+        assertThat(limiter.acquire(Priority.LOW, WAIT)).isEqualTo(Decision.REJECTED);
+        assertThat(System.nanoTime() - started).isLessThan(WAIT / 2);
+
+        limiter.release(Priority.NORMAL, MS);
+        assertThat(normal.join()).isEqualTo(Decision.ADMITTED);
+    }
+
+    @Test
+    void limit_ShrinksWhenLatencyClimbs_AndRecovers() {
+        AdmissionLimiter limiter = new AdmissionLimiter(20, 4, 100, 100, 100, TARGET);
+        runBusy(limiter, 200, 10 * MS);
+        int steady = limiter.limit();
+        assertThat(steady).isGreaterThanOrEqualTo(20);
+
+        runBusy(limiter, 50, 100 * MS);
+        int overloaded = limiter.limit();
+        assertThat(overloaded).isLessThan(steady);
+
+        runBusy(limiter, 400, 10 * MS);
+        assertThat(limiter.limit()).isGreaterThan(overloaded);
+    }
+
+    @Test
+    void rejectsBadLimits() {
+        assertThatThrownBy(() -> new AdmissionLimiter(5, 10, 20, 1, 1, TARGET))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** NORMAL requests completing with the given latency while the limiter is kept full. */
+    private static void runBusy(AdmissionLimiter limiter, int requests, long latencyNanos) {
+        while (limiter.inFlight() < limiter.limit()) {
+            limiter.acquire(Priority.NORMAL, 0);
+        }
+        for (int i = 0; i < requests; i++) {
+            limiter.release(Priority.NORMAL, latencyNanos);
+            limiter.acquire(Priority.CRITICAL, 0);
+        }
+    }
+}
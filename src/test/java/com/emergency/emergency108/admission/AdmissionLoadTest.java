@@ -0,0 +1,147 @@
+package com.emergency.emergency108.admission;
+
+import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Load test for admission control.
+ *
+ * Requests run on a pool of 48 worker threads, as on Tomcat, in front of 8
+ * database connections; admin listings and other reads hold one for 20 ms,
+ * SOS creation for 5 ms. 64 clients flood the reads while one client creates
+ * an SOS every 10 ms. Without admission control the SOS queues behind the
+ * flood for a worker and then for a connection; with it, admitted and queued
+ * reads are held to 32 workers (max-limit + max-queue), leaving 16 for SOS,
+ * and the limit keeps latency under target, so SOS p99 stays near its own
+ * service time.
+ *
+ * Opt-in because it takes about ten seconds:
+ *   mvn test -Dtest=AdmissionLoadTest -DloadTests=true
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+class AdmissionLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(AdmissionLoadTest.class);
+
+    private static final int WORKERS = 48;
+    private static final int CONNECTIONS = 8;
+    private static final int FLOOD_CLIENTS = 64;
+    private static final long READ_MILLIS = 20;
+    private static final long SOS_MILLIS = 5;
+    private static final Duration RUN = Duration.ofSeconds(4);
+
+    private final Semaphore connections = new Semaphore(CONNECTIONS, true);
+
+    @Test
+    void sosLatency_HoldsUnderReadFlood() throws Exception {
+        FilterChain backend = (request, response) -> {
+            boolean sos = "POST".equals(((MockHttpServletRequest) request).getMethod());
+            hold(sos ? SOS_MILLIS : READ_MILLIS);
+            response.getWriter().write("{}");
+        };
+
+        long withoutAdmission = sosP99((request, response) -> backend.doFilter(request, response));
+
+        AdmissionFilter filter = new AdmissionFilter(
+                new AdmissionLimiter(16, 4, 24, 8, 20, Duration.ofMillis(50)),
+                new EndpointPriorities(),
+                new StaleResponseCache(100, 64 * 1024, 60_000, System::currentTimeMillis),
+                mock(TokenService.class), mock(UserRepository.class),
+                Duration.ofSeconds(2), Duration.ofMillis(250), new SimpleMeterRegistry());
+        long withAdmission = sosP99((request, response) -> filter.doFilter(request, response, backend));
+
+        String summary = String.format("SOS p99: %d ms without admission control, %d ms with it",
+                withoutAdmission, withAdmission);
+        log.info(summary);
+        assertThat(withAdmission).as(summary).isLessThan(withoutAdmission / 2);
+    }
+
+    private interface Server {
+        void serve(MockHttpServletRequest request, MockHttpServletResponse response) throws Exception;
+    }
+
+    private long sosP99(Server server) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(WORKERS);
+        ExecutorService flood = Executors.newFixedThreadPool(FLOOD_CLIENTS);
+        for (int i = 0; i < FLOOD_CLIENTS; i++) {
+            String path = i % 2 == 0 ? "/api/admin/online-drivers" : "/api/ambulances";
+            flood.submit(() -> {
+                while (running.get()) {
+                    MockHttpServletResponse response = call(workers, server,
+                            new MockHttpServletRequest("GET", path));
+                    if (response.getStatus() == 503) {
+                        // A refused client backs off briefly, as the app does on Retry-After
+                        Thread.sleep(5);
+                    }
+                }
+                return null;
+            });
+        }
+
+        Thread.sleep(500);
+        List<Long> latencies = new ArrayList<>();
+        long deadline = System.nanoTime() + RUN.toNanos();
+        while (System.nanoTime() < deadline) {
+            long started = System.nanoTime();
+            MockHttpServletResponse response = call(workers, server,
+                    new MockHttpServletRequest("POST", "/api/emergencies"));
+            assertThat(response.getStatus()).isEqualTo(200);
+            latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            Thread.sleep(10);
+        }
+
+        running.set(false);
+        flood.shutdown();
+        assertThat(flood.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        workers.shutdown();
+        assertThat(workers.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        Collections.sort(latencies);
+        return latencies.get((int) Math.ceil(latencies.size() * 0.99) - 1);
+    }
+
+    // Runs the request on a worker thread; the client waits for it like for a connection
+    private static MockHttpServletResponse call(ExecutorService workers, Server server,
+                                                MockHttpServletRequest request) throws Exception {
+        return workers.submit(() -> {
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            server.serve(request, response);
+            return response;
+        }).get();
+    }
+
+    private void hold(long millis) {
+        try {
+            connections.acquire();
+            try {
+                Thread.sleep(millis);
+            } finally {
+                connections.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
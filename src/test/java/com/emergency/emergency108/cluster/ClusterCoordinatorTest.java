@@ -0,0 +1,160 @@
+package com.emergency.emergency108.cluster;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClusterCoordinatorTest {
+
+    @Mock
+    private ClusterStore store;
+
+    private final List<Object> events = new ArrayList<>();
+
+    private ClusterCoordinator coordinator(boolean enabled, String nodeId) {
+        return new ClusterCoordinator(store, events::add, enabled, nodeId, 15, "http://" + nodeId + ":8081", false);
+    }
+
+    private static List<ClusterMember> members(String... nodeIds) {
+        return Arrays.stream(nodeIds)
+                .map(id -> new ClusterMember(id, "http://" + id + ":8081"))
+                .toList();
+    }
+
+    @Test
+    void disabled_OwnsEverythingWithoutTouchingTheDatabase() {
+        ClusterCoordinator coordinator = coordinator(false, "node-a");
+
+        coordinator.heartbeat();
+
+        assertThat(coordinator.shard()).isEqualTo(Shard.ALL);
+        assertThat(coordinator.acquireLease("job", Duration.ofMinutes(1))).isTrue();
+        assertThat(coordinator.liveNodes()).isEmpty();
+        verifyNoInteractions(store);
+        assertThat(events).isEmpty();
+    }
+
+    @Test
+    void heartbeat_ShardIsPositionAmongLiveNodes() {
+        ClusterCoordinator coordinator = coordinator(true, "node-b");
+        assertThat(coordinator.shard()).isEqualTo(Shard.NONE);
+
+        when(store.heartbeat(eq("node-b"), eq("http://node-b:8081"), any(), any(), any()))
+                .thenReturn(members("node-a", "node-b", "node-c"));
+        coordinator.heartbeat();
+
+        Shard shard = coordinator.shard();
+        assertThat(shard).isEqualTo(new Shard(1, 3));
+        assertThat(shard.owns(4)).isTrue();
+        assertThat(shard.owns(5)).isFalse();
+    }
+
+    @Test
+    void heartbeat_FailureStopsSweeping() {
+        ClusterCoordinator coordinator = coordinator(true, "node-a");
+        when(store.heartbeat(any(), any(), any(), any(), any()))
+                .thenReturn(members("node-a"))
+                .thenThrow(new IllegalStateException("db down"));
+
+        coordinator.heartbeat();
+        assertThat(coordinator.shard()).isEqualTo(new Shard(0, 1));
+
+        coordinator.heartbeat();
+        assertThat(coordinator.shard()).isEqualTo(Shard.NONE);
+        assertThat(Shard.NONE.owns(0)).isFalse();
+        assertThat(coordinator.liveNodes()).isEmpty();
+    }
+
+    @Test
+    void heartbeat_PublishesMembershipChangesOnly() {
+        ClusterCoordinator coordinator = coordinator(true, "node-a");
+        when(store.heartbeat(any(), any(), any(), any(), any()))
+                .thenReturn(members("node-a"))
+                .thenReturn(members("node-a"))
+                .thenReturn(members("node-a", "node-b"));
+
+        coordinator.heartbeat();
+        coordinator.heartbeat();
+        coordinator.heartbeat();
+
+        assertThat(events).containsExactly(
+                new ClusterMembershipChangedEvent(List.of("node-a")),
+                new ClusterMembershipChangedEvent(List.of("node-a", "node-b")));
+        assertThat(coordinator.liveNodes()).containsEntry("node-b", "http://node-b:8081");
+    }
+
+    @Test
+    void acquireLease_RenewsOrInsertsOrLoses() {
+        ClusterCoordinator coordinator = coordinator(true, "node-a");
+
+        // Held by this node
+        when(store.renewLease(eq("renewed"), eq("node-a"), any(), any())).thenReturn(true);
+        assertThat(coordinator.acquireLease("renewed", Duration.ofMinutes(1))).isTrue();
+
+        // Held by another node
+        when(store.renewLease(eq("taken"), eq("node-a"), any(), any())).thenReturn(false);
+        when(store.leaseExists("taken")).thenReturn(true);
+        assertThat(coordinator.acquireLease("taken", Duration.ofMinutes(1))).isFalse();
+
+        // Never held: first insert wins
+        when(store.renewLease(eq("new"), eq("node-a"), any(), any())).thenReturn(false);
+        when(store.leaseExists("new")).thenReturn(false);
+        assertThat(coordinator.acquireLease("new", Duration.ofMinutes(1))).isTrue();
+        verify(store).insertLease(eq("new"), eq("node-a"), any(LocalDateTime.class), any(LocalDateTime.class));
+
+        // Never held, but another node inserted it first
+        when(store.renewLease(eq("raced"), eq("node-a"), any(), any())).thenReturn(false);
+        when(store.leaseExists("raced")).thenReturn(false);
+        doThrow(new DataIntegrityViolationException("duplicate"))
+                .when(store).insertLease(eq("raced"), any(), any(), any());
+        assertThat(coordinator.acquireLease("raced", Duration.ofMinutes(1))).isFalse();
+    }
+
+    @Test
+    void standby_NoShardNoLeaseUntilItTakesOver() {
+        ClusterCoordinator coordinator =
+                new ClusterCoordinator(store, events::add, true, "node-b", 15, "http://node-b:8081", true);
+
+        coordinator.heartbeat();
+        assertThat(coordinator.isStandby()).isTrue();
+        assertThat(coordinator.shard()).isEqualTo(Shard.NONE);
+        assertThat(coordinator.acquireLease("job", Duration.ofMinutes(1))).isFalse();
+        verifyNoInteractions(store);
+
+        // Still renewed by the primary
+        when(store.renewLease(eq("dispatch-primary"), eq("node-b"), any(), any())).thenReturn(false);
+        when(store.leaseExists("dispatch-primary")).thenReturn(true);
+        assertThat(coordinator.takeOver("dispatch-primary", Duration.ofSeconds(10))).isFalse();
+        assertThat(coordinator.isStandby()).isTrue();
+
+        // Lapsed: the conditional UPDATE hands it over
+        when(store.renewLease(eq("dispatch-primary"), eq("node-b"), any(), any())).thenReturn(true);
+        when(store.heartbeat(eq("node-b"), any(), any(), any(), any())).thenReturn(members("node-b"));
+        assertThat(coordinator.takeOver("dispatch-primary", Duration.ofSeconds(10))).isTrue();
+
+        assertThat(coordinator.isStandby()).isFalse();
+        assertThat(coordinator.shard()).isEqualTo(new Shard(0, 1));
+        assertThat(coordinator.acquireLease("dispatch-primary", Duration.ofSeconds(10))).isTrue();
+    }
+
+    @Test
+    void standby_NeedsClustering() {
+        assertThatThrownBy(() -> new ClusterCoordinator(store, events::add, false, "node-b", 15, null, true))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
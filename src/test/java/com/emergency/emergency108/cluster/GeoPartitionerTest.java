@@ -0,0 +1,176 @@
+package com.emergency.emergency108.cluster;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+/**
+ * Several nodes in one JVM, sharing a fake cluster_nodes table.
+ */
+@ExtendWith(MockitoExtension.class)
+class GeoPartitionerTest {
+
+    @Mock
+    private ClusterStore store;
+
+    // Node ids in the fake cluster_nodes table
+    private final TreeSet<String> table = new TreeSet<>();
+    private final Map<String, Node> nodes = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        when(store.heartbeat(any(), any(), any(), any(), any())).thenAnswer(call -> {
+            table.add(call.getArgument(0));
+            return table.stream().map(id -> new ClusterMember(id, url(id))).toList();
+        });
+    }
+
+    @Test
+    void everyCellHasExactlyOneOwner() {
+        join("node-a", "node-b", "node-c");
+
+        Map<String, Integer> cellsPerNode = new HashMap<>();
+        int cells = 0;
+        for (double lat = 8; lat < 36; lat += 0.5) {
+            for (double lng = 68; lng < 97; lng += 0.5) {
+                cells++;
+                List<String> owners = owners(lat, lng);
+                assertThat(owners).hasSize(1);
+                cellsPerNode.merge(owners.get(0), 1, Integer::sum);
+            }
+        }
+
+        // Roughly a third each
+        for (String nodeId : nodes.keySet()) {
+            assertThat(cellsPerNode.get(nodeId)).isBetween(cells / 4, cells / 2);
+        }
+    }
+
+    @Test
+    void join_MovesCellsOnlyToTheNewNode() {
+        join("node-a", "node-b", "node-c");
+        Map<Long, String> before = ownership();
+
+        join("node-d");
+        Map<Long, String> after = ownership();
+
+        int moved = 0;
+        for (Map.Entry<Long, String> cell : before.entrySet()) {
+            String owner = after.get(cell.getKey());
+            if (!owner.equals(cell.getValue())) {
+                assertThat(owner).isEqualTo("node-d");
+                moved++;
+            }
+        }
+        assertThat(moved).isBetween(before.size() / 8, before.size() * 3 / 8);
+    }
+
+    @Test
+    void leave_HandsOverOnlyTheLeaversCells() {
+        join("node-a", "node-b", "node-c");
+        Map<Long, String> before = ownership();
+
+        table.remove("node-b");
+        nodes.remove("node-b");
+        nodes.values().forEach(node -> node.coordinator.heartbeat());
+        Map<Long, String> after = ownership();
+
+        before.forEach((cell, owner) -> {
+            if (owner.equals("node-b")) {
+                assertThat(after.get(cell)).isIn("node-a", "node-c");
+            } else {
+                assertThat(after.get(cell)).isEqualTo(owner);
+            }
+        });
+    }
+
+    @Test
+    void remoteOwner_NamesTheOwnerAndItsUrl() {
+        join("node-a", "node-b");
+        Node a = nodes.get("node-a");
+
+        double[] remote = pointOwnedBy("node-b");
+        assertThat(a.partitioner.remoteOwner(remote[0], remote[1]))
+                .contains(new GeoPartitioner.Owner("node-b", url("node-b")));
+
+        double[] local = pointOwnedBy("node-a");
+        assertThat(a.partitioner.remoteOwner(local[0], local[1])).isEmpty();
+        assertThat(a.partitioner.remoteOwner(null, null)).isEmpty();
+    }
+
+    @Test
+    void disabled_OwnsEveryCell() {
+        ClusterCoordinator coordinator = new ClusterCoordinator(store, event -> { }, true, "node-a", 15, url("node-a"), false);
+        GeoPartitioner partitioner = new GeoPartitioner(coordinator, false, 0.5);
+        table.add("node-b");
+        coordinator.heartbeat();
+
+        assertThat(partitioner.isEnabled()).isFalse();
+        assertThat(partitioner.owns(28.6, 77.2)).isTrue();
+        assertThat(partitioner.ownerOf(partitioner.cellOf(28.6, 77.2))).isNull();
+        assertThat(partitioner.remoteOwner(28.6, 77.2)).isEmpty();
+    }
+
+    // ---- helpers ----
+
+    private void join(String... nodeIds) {
+        for (String nodeId : nodeIds) {
+            ClusterCoordinator coordinator =
+                    new ClusterCoordinator(store, event -> { }, true, nodeId, 15, url(nodeId), false);
+            nodes.put(nodeId, new Node(coordinator, new GeoPartitioner(coordinator, true, 0.5)));
+        }
+        // Every node's next heartbeat sees the new membership
+        nodes.values().forEach(node -> node.coordinator.heartbeat());
+    }
+
+    private List<String> owners(double lat, double lng) {
+        return nodes.entrySet().stream()
+                .filter(node -> node.getValue().partitioner.owns(lat, lng))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, String> ownership() {
+        GeoPartitioner any = nodes.values().iterator().next().partitioner;
+        Map<Long, String> owners = new HashMap<>();
+        for (double lat = 8; lat < 36; lat += 0.5) {
+            for (double lng = 68; lng < 97; lng += 0.5) {
+                long cell = any.cellOf(lat, lng);
+                // All nodes agree on the owner
+                assertThat(owners(lat, lng)).containsExactly(any.ownerOf(cell));
+                owners.put(cell, any.ownerOf(cell));
+            }
+        }
+        return owners;
+    }
+
+    private double[] pointOwnedBy(String nodeId) {
+        for (double lat = 8; lat < 36; lat += 0.5) {
+            for (double lng = 68; lng < 97; lng += 0.5) {
+                if (owners(lat, lng).equals(List.of(nodeId))) {
+                    return new double[] {lat + 0.25, lng + 0.25};
+                }
+            }
+        }
+        throw new AssertionError("no cell owned by " + nodeId);
+    }
+
+    private static String url(String nodeId) {
+        return "http://localhost/" + nodeId;
+    }
+
+    private record Node(ClusterCoordinator coordinator, GeoPartitioner partitioner) {
+    }
+}
@@ -3,10 +3,12 @@ package com.emergency.emergency108.controller;
 import com.emergency.emergency108.auth.guard.AuthGuard;
 import com.emergency.emergency108.auth.security.AuthContext;
 import com.emergency.emergency108.auth.token.TokenService;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyAssignment;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.entity.Hospital;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.HospitalRepository;
@@ -61,6 +63,10 @@ class DriverControllerTest {
     private TokenService tokenService;
     @MockBean
     private UserRepository userRepository;
+    @MockBean
+    private DispatchLatencyMetrics latencyMetrics;
+    @MockBean
+    private GeoPartitioner geoPartitioner;
 
     @BeforeEach
     void setUp() {
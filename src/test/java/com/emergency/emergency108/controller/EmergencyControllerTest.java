@@ -2,6 +2,7 @@ package com.emergency.emergency108.controller;
 
 import com.emergency.emergency108.auth.guard.AuthGuard;
 import com.emergency.emergency108.auth.security.AuthContext;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyStatus;
 import com.emergency.emergency108.metrics.DomainMetrics;
@@ -76,6 +77,10 @@ class EmergencyControllerTest {
     private HelpingHandService helpingHandService;
     @MockBean
     private FCMNotificationService fcmNotificationService;
+    @MockBean
+    private GeoPartitioner geoPartitioner;
+    @MockBean
+    private IncidentClusterer incidentClusterer;
 
     @MockBean
     private TokenService tokenService;
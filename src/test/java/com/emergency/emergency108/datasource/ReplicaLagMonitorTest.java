@@ -0,0 +1,154 @@
+package com.emergency.emergency108.datasource;
+
+import com.emergency.emergency108.datasource.ReplicaLagMonitor.Pool;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Two in-memory databases stand in for the primary and the replica; the test
+ * plays replication by copying the heartbeat row across.
+ */
+class ReplicaLagMonitorTest {
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+    private SimpleMeterRegistry meterRegistry;
+    private ReplicaLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("primary");
+        replica = database("replica");
+        meterRegistry = new SimpleMeterRegistry();
+        monitor = new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    void nothingReplicated_ReadsStayOnPrimary() {
+        monitor.probe();
+
+        assertThat(primary.queryForObject("SELECT COUNT(*) FROM replica_heartbeat", Integer.class)).isEqualTo(1);
+        assertThat(monitor.isReplicaUsable()).isFalse();
+        assertThat(monitor.lagMillis()).isEqualTo(-1);
+        assertThat(readOnly(monitor::route)).isEqualTo(Pool.PRIMARY);
+    }
+
+    @Test
+    void replicaCaughtUp_ReadsGoToReplica_WritesToPrimary() {
+        monitor.probe();
+        replicate();
+        monitor.probe();
+
+        assertThat(monitor.isReplicaUsable()).isTrue();
+        assertThat(monitor.lagMillis()).isBetween(0L, 5_000L);
+        assertThat(readOnly(monitor::route)).isEqualTo(Pool.REPLICA);
+        assertThat(monitor.route()).isEqualTo(Pool.PRIMARY);
+        assertThat(meterRegistry.get("db.routing.connections")
+                .tag("pool", "replica").tag("reason", "read-only").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void replicaFallsBehind_ReadsReturnToPrimary() {
+        monitor.probe();
+        replicate();
+        monitor.probe();
+        assertThat(monitor.isReplicaUsable()).isTrue();
+
+        // Replication stalls with a heartbeat a minute old
+        replica.update("UPDATE replica_heartbeat SET beat_millis = ?", System.currentTimeMillis() - 60_000);
+        ReplicaLagMonitor stalled =
+                new ReplicaLagMonitor(primary, replica, Duration.ofSeconds(5), new SimpleMeterRegistry());
+        stalled.probe();
+
+        assertThat(stalled.isReplicaUsable()).isFalse();
+        assertThat(stalled.lagMillis()).isGreaterThanOrEqualTo(60_000L);
+        assertThat(readOnly(stalled::route)).isEqualTo(Pool.PRIMARY);
+    }
+
+    @Test
+    void committedWrite_PinsReadsUntilReplicaHasIt() throws InterruptedException {
+        monitor.probe();
+        replicate();
+        monitor.probe();
+
+        // A read-write transaction commits after the last replicated heartbeat
+        Thread.sleep(5);
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(monitor.route()).isEqualTo(Pool.PRIMARY);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(readOnly(monitor::route)).isEqualTo(Pool.PRIMARY);
+
+        // Replica catches up past the write
+        Thread.sleep(5);
+        monitor.probe();
+        replicate();
+        monitor.probe();
+
+        assertThat(readOnly(monitor::route)).isEqualTo(Pool.REPLICA);
+    }
+
+    @Test
+    void readFromPrimary_KeepsReadsOnPrimaryWhileReplicaIsCurrent() {
+        monitor.probe();
+        replicate();
+        monitor.probe();
+
+        ProxyFactory factory = new ProxyFactory((Supplier<Pool>) () -> readOnly(monitor::route));
+        factory.addAdvice(new ReadFromPrimaryInterceptor());
+        @SuppressWarnings("unchecked")
+        Supplier<Pool> marked = (Supplier<Pool>) factory.getProxy();
+
+        assertThat(marked.get()).isEqualTo(Pool.PRIMARY);
+        assertThat(meterRegistry.get("db.routing.connections")
+                .tag("pool", "primary").tag("reason", "primary-read").counter().count()).isEqualTo(1.0);
+        assertThat(readOnly(monitor::route)).isEqualTo(Pool.REPLICA);
+    }
+
+    private void replicate() {
+        replica.update("DELETE FROM replica_heartbeat");
+        primary.queryForList("SELECT node_id, beat_millis FROM replica_heartbeat").forEach(row ->
+                replica.update("INSERT INTO replica_heartbeat (node_id, beat_millis) VALUES (?, ?)",
+                        row.get("NODE_ID"), row.get("BEAT_MILLIS")));
+    }
+
+    private static Pool readOnly(Supplier<Pool> route) {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            return route.get();
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+    }
+
+    private static JdbcTemplate database(String name) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:" + name + "-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE replica_heartbeat (node_id VARCHAR(100) NOT NULL PRIMARY KEY, "
+                + "beat_millis BIGINT NOT NULL)");
+        return jdbc;
+    }
+}
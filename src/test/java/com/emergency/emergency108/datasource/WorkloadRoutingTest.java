@@ -0,0 +1,118 @@
+package com.emergency.emergency108.datasource;
+
+import com.emergency.emergency108.exception.WorkloadRejectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.framework.ProxyFactory;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class WorkloadRoutingTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WorkloadBulkheads bulkheads;
+    private PoolRoutingDataSource router;
+    private Services services;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        bulkheads = new WorkloadBulkheads(Map.of(WorkloadClass.BACKGROUND, 1),
+                Duration.ofMillis(50), meterRegistry);
+        // No pool for HEARTBEAT: it falls back to the primary pool
+        router = new PoolRoutingDataSource(mock(DataSource.class), Map.of(
+                WorkloadClass.DISPATCH, mock(DataSource.class),
+                WorkloadClass.BACKGROUND, mock(DataSource.class)), null, null);
+
+        Services target = new Services();
+        target.router = router;
+        ProxyFactory factory = new ProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new WorkloadInterceptor(() -> bulkheads));
+        services = (Services) factory.getProxy();
+    }
+
+    @Test
+    void annotatedMethods_RouteToTheirClassPool() {
+        assertThat(services.dispatch()).isEqualTo(WorkloadClass.DISPATCH);
+        assertThat(services.unannotated()).isEqualTo(WorkloadClass.GENERAL);
+        assertThat(services.heartbeat()).isEqualTo(WorkloadClass.GENERAL);
+        assertThat(WorkloadContext.current()).isEqualTo(WorkloadClass.GENERAL);
+    }
+
+    @Test
+    void outermostWorkloadWins() {
+        // The nested background method runs as dispatch work
+        assertThat(services.dispatchCallingBackground(services)).isEqualTo(WorkloadClass.DISPATCH);
+    }
+
+    @Test
+    void saturatedClass_RejectsAfterMaxWait_OtherClassesUnaffected() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> services.background(holding, release));
+        holder.start();
+        assertThat(holding.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            assertThatThrownBy(() -> services.background(new CountDownLatch(1), new CountDownLatch(0)))
+                    .isInstanceOf(WorkloadRejectedException.class);
+            assertThat(services.dispatch()).isEqualTo(WorkloadClass.DISPATCH);
+            assertThat(meterRegistry.get("workload.rejected").tag("workload", "background").counter().count())
+                    .isEqualTo(1.0);
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        // Permit released: the class accepts work again
+        services.background(new CountDownLatch(1), new CountDownLatch(0));
+    }
+
+    static class Services {
+
+        PoolRoutingDataSource router;
+
+        @Workload(WorkloadClass.DISPATCH)
+        public Object dispatch() {
+            return router.determineCurrentLookupKey();
+        }
+
+        @Workload(WorkloadClass.HEARTBEAT)
+        public Object heartbeat() {
+            return router.determineCurrentLookupKey();
+        }
+
+        public Object unannotated() {
+            return router.determineCurrentLookupKey();
+        }
+
+        @Workload(WorkloadClass.DISPATCH)
+        public Object dispatchCallingBackground(Services proxy) {
+            return proxy.backgroundKey();
+        }
+
+        @Workload(WorkloadClass.BACKGROUND)
+        public Object backgroundKey() {
+            return router.determineCurrentLookupKey();
+        }
+
+        @Workload(WorkloadClass.BACKGROUND)
+        public void background(CountDownLatch started, CountDownLatch release) {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.emergency.emergency108.dto;
+
+import com.emergency.emergency108.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetPageTest {
+
+    @Test
+    void extraRow_YieldsCursorAfterTheLastReturnedId() {
+        KeysetPage<Long> page = KeysetPage.of(List.of(3L, 7L, 9L), 2, Function.identity());
+
+        assertThat(page.items()).containsExactly(3L, 7L);
+        assertThat(page.nextCursor()).isNotNull();
+        assertThat(KeysetPage.afterId(page.nextCursor())).isEqualTo(7L);
+    }
+
+    @Test
+    void lastPage_HasNoCursor() {
+        KeysetPage<Long> page = KeysetPage.of(List.of(3L, 7L), 2, Function.identity());
+
+        assertThat(page.items()).containsExactly(3L, 7L);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void missingCursor_StartsFromTheBeginning() {
+        assertThat(KeysetPage.afterId(null)).isZero();
+        assertThat(KeysetPage.afterId("")).isZero();
+    }
+
+    @Test
+    void malformedCursor_IsRejected() {
+        assertThatThrownBy(() -> KeysetPage.afterId("not-a-cursor"))
+                .isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> KeysetPage.afterId("aWQ6eHl6")) // "id:xyz"
+                .isInstanceOf(InvalidCursorException.class);
+    }
+
+    @Test
+    void pageSize_DefaultsAndCaps() {
+        assertThat(KeysetPage.pageSize(null, 100, 500)).isEqualTo(100);
+        assertThat(KeysetPage.pageSize(10_000, 100, 500)).isEqualTo(500);
+        assertThat(KeysetPage.pageSize(0, 100, 500)).isEqualTo(1);
+    }
+}
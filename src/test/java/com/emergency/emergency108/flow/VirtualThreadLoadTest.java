@@ -0,0 +1,108 @@
+package com.emergency.emergency108.flow;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.condition.JRE;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Load test for the virtual-thread execution mode.
+ *
+ * Tomcat is capped at 20 worker threads and every request blocks for 200 ms
+ * (standing in for a JDBC round trip or an FCM call). With platform threads
+ * 1000 concurrent requests need at least 1000 / 20 * 200 ms = 10 s; with
+ * virtual threads they complete in roughly one blocking interval.
+ *
+ * Opt-in because it is slow and needs Java 21. -DloadTests=true also activates
+ * the load-tests Maven profile, which forks the test JVM with a 256 MB heap:
+ *   mvn test -Dtest=VirtualThreadLoadTest -DloadTests=true
+ */
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.jpa.hibernate.ddl-auto=create-drop",
+                "spring.sql.init.mode=never",
+                "spring.threads.virtual.enabled=true",
+                "server.tomcat.threads.max=20",
+                "server.tomcat.accept-count=1000"
+        })
+@Import(VirtualThreadLoadTest.BlockingController.class)
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+class VirtualThreadLoadTest {
+
+        private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+        private static final int CONCURRENT_REQUESTS = 1000;
+        private static final long BLOCK_MILLIS = 200;
+        private static final long PLATFORM_THREAD_FLOOR_MILLIS = CONCURRENT_REQUESTS / 20 * BLOCK_MILLIS;
+
+        @LocalServerPort
+        private int port;
+
+        @RestController
+        static class BlockingController {
+
+                @GetMapping("/test/blocking")
+                String block() throws InterruptedException {
+                        Thread.sleep(BLOCK_MILLIS);
+                        // Thread.isVirtual() is Java 21 API; the build still targets 17
+                        return Thread.currentThread().toString().startsWith("VirtualThread") ? "virtual" : "platform";
+                }
+        }
+
+        @Test
+        void serves_concurrent_blocking_requests_beyond_the_worker_pool_size() {
+                HttpClient client = HttpClient.newBuilder()
+                                .connectTimeout(Duration.ofSeconds(10))
+                                .build();
+                HttpRequest request = HttpRequest.newBuilder(
+                                URI.create("http://localhost:" + port + "/test/blocking")).GET().build();
+
+                MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+                long heapBefore = memory.getHeapMemoryUsage().getUsed();
+                long start = System.nanoTime();
+
+                List<CompletableFuture<HttpResponse<String>>> inFlight = new ArrayList<>(CONCURRENT_REQUESTS);
+                for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                        inFlight.add(client.sendAsync(request, HttpResponse.BodyHandlers.ofString()));
+                }
+                List<HttpResponse<String>> responses = inFlight.stream().map(CompletableFuture::join).toList();
+
+                long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                long heapAfter = memory.getHeapMemoryUsage().getUsed();
+
+                String summary = String.format(
+                                "%d requests in %d ms (%.0f req/s), heap %d MB -> %d MB (max %d MB)",
+                                CONCURRENT_REQUESTS, elapsedMillis,
+                                CONCURRENT_REQUESTS * 1000.0 / Math.max(1, elapsedMillis),
+                                heapBefore >> 20, heapAfter >> 20, memory.getHeapMemoryUsage().getMax() >> 20);
+                log.info("Virtual-thread load test: {}", summary);
+
+                assertThat(responses).allSatisfy(response -> {
+                        assertThat(response.statusCode()).isEqualTo(200);
+                        assertThat(response.body()).isEqualTo("virtual");
+                });
+                assertThat(elapsedMillis).as(summary).isLessThan(PLATFORM_THREAD_FLOOR_MILLIS / 2);
+        }
+}
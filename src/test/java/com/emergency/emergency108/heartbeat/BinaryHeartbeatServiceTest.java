@@ -0,0 +1,156 @@
+package com.emergency.emergency108.heartbeat;
+
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.heartbeat.BinaryHeartbeatService.Result;
+import com.emergency.emergency108.heartbeat.BinaryHeartbeatService.Transport;
+import com.emergency.emergency108.repository.DriverSessionRepository;
+import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.service.DriverSessionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BinaryHeartbeatServiceTest {
+
+    private static final long DRIVER_ID = 200L;
+    private static final long SESSION_ID = 7L;
+
+    private DriverSessionService sessionService;
+    private DriverSessionRepository sessionRepository;
+    private UserRepository userRepository;
+    private HeartbeatKeyService keyService;
+    private BinaryHeartbeatService heartbeatService;
+
+    @BeforeEach
+    void setUp() {
+        sessionService = mock(DriverSessionService.class);
+        sessionRepository = mock(DriverSessionRepository.class);
+        userRepository = mock(UserRepository.class);
+        keyService = new HeartbeatKeyService("test-heartbeat-secret", false);
+        heartbeatService = new BinaryHeartbeatService(
+                keyService, sessionService, sessionRepository, userRepository, new SimpleMeterRegistry(), 120, 30, false);
+    }
+
+    @Test
+    void acceptsSignedFrameAndUpdatesLocation() {
+        Result result = heartbeatService.ingest(frame(1, System.currentTimeMillis()), DRIVER_ID, Transport.HTTP).result();
+
+        assertThat(result).isEqualTo(Result.ACCEPTED);
+        verify(sessionService).updateLocation(DRIVER_ID, SESSION_ID, 28.6139, 77.209);
+    }
+
+    @Test
+    void rejectsReplayedAndOutOfOrderSequenceNumbers() {
+        long now = System.currentTimeMillis();
+        assertThat(heartbeatService.ingest(frame(5, now), DRIVER_ID, Transport.UDP).result()).isEqualTo(Result.ACCEPTED);
+        assertThat(heartbeatService.ingest(frame(5, now), DRIVER_ID, Transport.UDP).result()).isEqualTo(Result.REPLAYED);
+        assertThat(heartbeatService.ingest(frame(4, now), DRIVER_ID, Transport.UDP).result()).isEqualTo(Result.REPLAYED);
+        assertThat(heartbeatService.ingest(frame(6, now), DRIVER_ID, Transport.UDP).result()).isEqualTo(Result.ACCEPTED);
+
+        verify(sessionService, times(2)).updateLocation(DRIVER_ID, SESSION_ID, 28.6139, 77.209);
+    }
+
+    @Test
+    void clustered_RejectsFrameAnotherNodeAlreadyAccepted() {
+        BinaryHeartbeatService otherNode = new BinaryHeartbeatService(
+                keyService, sessionService, sessionRepository, userRepository, new SimpleMeterRegistry(), 120, 30, true);
+        when(sessionRepository.advanceHeartbeatSequence(SESSION_ID, 5)).thenReturn(1, 0);
+
+        long now = System.currentTimeMillis();
+        ByteBuffer frame = frame(5, now);
+        assertThat(otherNode.ingest(frame.duplicate(), DRIVER_ID, Transport.UDP).result())
+                .isEqualTo(Result.ACCEPTED);
+        // The same frame sent to this node: its own memory has never seen sequence 5
+        heartbeatService = new BinaryHeartbeatService(
+                keyService, sessionService, sessionRepository, userRepository, new SimpleMeterRegistry(), 120, 30, true);
+        assertThat(heartbeatService.ingest(frame.duplicate(), DRIVER_ID, Transport.UDP).result())
+                .isEqualTo(Result.REPLAYED);
+
+        verify(sessionService, times(1)).updateLocation(DRIVER_ID, SESSION_ID, 28.6139, 77.209);
+    }
+
+    @Test
+    void udp_RefusesBlockedDriverAndCachesTheCheckPerSession() {
+        User driver = new User();
+        driver.setRole(UserRole.DRIVER);
+        driver.setDriverVerificationStatus(DriverVerificationStatus.VERIFIED);
+        when(userRepository.findById(DRIVER_ID)).thenReturn(Optional.of(driver));
+        long now = System.currentTimeMillis();
+
+        assertThat(heartbeatService.ingest(frame(1, now), null, Transport.UDP).result()).isEqualTo(Result.ACCEPTED);
+        assertThat(heartbeatService.ingest(frame(2, now), null, Transport.UDP).result()).isEqualTo(Result.ACCEPTED);
+        verify(userRepository, times(1)).findById(DRIVER_ID);
+
+        driver.setBlocked(true);
+        heartbeatService = new BinaryHeartbeatService(
+                keyService, sessionService, sessionRepository, userRepository, new SimpleMeterRegistry(), 120, 0, false);
+        assertThat(heartbeatService.ingest(frame(3, now), null, Transport.UDP).result())
+                .isEqualTo(Result.NOT_ALLOWED);
+        verify(sessionService, times(2)).updateLocation(DRIVER_ID, SESSION_ID, 28.6139, 77.209);
+    }
+
+    @Test
+    void clustered_RequiresHeartbeatSecret() {
+        assertThatThrownBy(() -> new HeartbeatKeyService("", true))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.heartbeat.secret");
+    }
+
+    @Test
+    void rejectsTamperedFrame() {
+        ByteBuffer frame = frame(1, System.currentTimeMillis());
+        frame.putDouble(36, 12.0); // move the reported latitude
+
+        assertThat(heartbeatService.ingest(frame, null, Transport.UDP).result()).isEqualTo(Result.BAD_SIGNATURE);
+        verify(sessionService, never()).updateLocation(anyLong(), anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void rejectsFrameForAnotherDriverOverHttp() {
+        assertThat(heartbeatService.ingest(frame(1, System.currentTimeMillis()), 999L, Transport.HTTP).result())
+                .isEqualTo(Result.WRONG_DRIVER);
+    }
+
+    @Test
+    void rejectsStaleAndMalformedFrames() {
+        long tenMinutesAgo = System.currentTimeMillis() - 10 * 60 * 1000L;
+        assertThat(heartbeatService.ingest(frame(1, tenMinutesAgo), DRIVER_ID, Transport.HTTP).result())
+                .isEqualTo(Result.STALE);
+        assertThat(heartbeatService.ingest(ByteBuffer.allocate(10), DRIVER_ID, Transport.HTTP).result())
+                .isEqualTo(Result.MALFORMED);
+    }
+
+    @Test
+    void reportsEndedSession() {
+        doThrow(new IllegalStateException("No active session found for driver " + DRIVER_ID))
+                .when(sessionService).updateLocation(DRIVER_ID, SESSION_ID, 28.6139, 77.209);
+
+        assertThat(heartbeatService.ingest(frame(1, System.currentTimeMillis()), DRIVER_ID, Transport.HTTP).result())
+                .isEqualTo(Result.NO_SESSION);
+    }
+
+    private ByteBuffer frame(long sequence, long timestampMillis) {
+        ByteBuffer frame = ByteBuffer.allocate(BinaryHeartbeat.FRAME_SIZE);
+        new BinaryHeartbeat(DRIVER_ID, SESSION_ID, sequence, timestampMillis, 28.6139, 77.209, 8.5f)
+                .encodeUnsigned(frame);
+        frame.rewind();
+        HeartbeatKeyService.sign(keyService.sessionKey(DRIVER_ID, SESSION_ID), frame);
+        return frame;
+    }
+}
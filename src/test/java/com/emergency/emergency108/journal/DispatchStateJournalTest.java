@@ -0,0 +1,203 @@
+package com.emergency.emergency108.journal;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DispatchStateJournalTest {
+
+    private static final Long DRIVER_ID = 200L;
+    private static final Long EMERGENCY_ID = 10L;
+
+    @TempDir
+    Path dir;
+
+    private EmergencyAssignmentRepository assignmentRepository;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository = mock(EmergencyAssignmentRepository.class);
+        when(assignmentRepository.findAllActiveWithEmergency()).thenReturn(List.of());
+    }
+
+    @Test
+    void restart_RestoresSnapshotPlusWal() throws Exception {
+        Node first = start(120);
+        first.loadFromDatabase();
+
+        AssignmentView offer = assignment(EmergencyAssignmentStatus.ASSIGNED, 0L, null);
+        EmergencyView emergency = emergency();
+        first.changed(new AssignmentChangedEvent(offer, emergency));
+        first.index.track(7L, 1_000L);
+        first.index.track(8L, 2_000L);
+        first.journal.flush(); // first snapshot (requested by the rebuild)
+
+        // After the snapshot: only in the WAL
+        AssignmentView accepted = assignment(EmergencyAssignmentStatus.ACCEPTED, 1L, LocalDateTime.now());
+        first.changed(new AssignmentChangedEvent(accepted, null));
+        first.index.untrack(8L);
+        first.index.track(9L, 3_000L);
+        first.journal.flush();
+
+        // Crash (no close), then restart on the same directory
+        Node second = start(120);
+
+        assertThat(second.registry.isReady()).isTrue();
+        assertThat(second.registry.currentForDriver(DRIVER_ID)).contains(accepted);
+        assertThat(second.registry.emergency(EMERGENCY_ID)).contains(emergency);
+        assertThat(second.index.isRestored()).isTrue();
+        assertThat(second.index.deadlines()).containsOnlyKeys(7L, 9L).containsEntry(9L, 3_000L);
+    }
+
+    @Test
+    void append_OnlyQueuesUntilTheFlush() throws Exception {
+        Node node = start(120);
+        node.loadFromDatabase();
+        node.journal.flush();
+        long empty = Files.size(newestWal());
+
+        // Committing threads never write or wait for the disk
+        node.index.track(7L, 1_000L);
+        assertThat(Files.size(newestWal())).isEqualTo(empty);
+
+        node.journal.flush();
+        assertThat(Files.size(newestWal())).isGreaterThan(empty);
+    }
+
+    @Test
+    void restart_StopsReplayAtATornRecord() throws Exception {
+        Node first = start(120);
+        first.loadFromDatabase();
+        first.journal.flush();
+        first.index.track(7L, 1_000L);
+        first.journal.flush();
+
+        // Half-written record at the end of the WAL
+        Files.write(newestWal(), new byte[] {0, 0, 0, 40, 3, 0, 0}, StandardOpenOption.APPEND);
+
+        Node second = start(120);
+
+        assertThat(second.index.deadlines()).containsOnlyKeys(7L);
+    }
+
+    @Test
+    void restart_IgnoresAndDiscardsAnOldJournal() throws Exception {
+        Node first = start(120);
+        first.loadFromDatabase();
+        first.changed(new AssignmentChangedEvent(
+                assignment(EmergencyAssignmentStatus.ASSIGNED, 0L, null), emergency()));
+        first.journal.flush();
+        assertThat(dir.resolve(DispatchStateJournal.SNAPSHOT_FILE)).exists();
+
+        Thread.sleep(1_100);
+        Node second = start(0);
+
+        assertThat(second.registry.isReady()).isFalse();
+        assertThat(second.index.isRestored()).isFalse();
+        assertThat(dir.resolve(DispatchStateJournal.SNAPSHOT_FILE)).doesNotExist();
+    }
+
+    @Test
+    void clustered_NeverRestores() {
+        Node first = start(120);
+        first.loadFromDatabase();
+        first.changed(new AssignmentChangedEvent(
+                assignment(EmergencyAssignmentStatus.ASSIGNED, 0L, null), emergency()));
+        first.journal.flush();
+        assertThat(dir.resolve(DispatchStateJournal.SNAPSHOT_FILE)).exists();
+
+        Node second = start(120, true);
+
+        assertThat(second.journal.isEnabled()).isFalse();
+        assertThat(second.registry.isReady()).isFalse();
+        assertThat(second.index.isRestored()).isFalse();
+    }
+
+    @Test
+    void snapshot_WaitsForTheDatabaseLoad() {
+        Node node = start(120);
+
+        node.journal.snapshot();
+        assertThat(dir.resolve(DispatchStateJournal.SNAPSHOT_FILE)).doesNotExist();
+
+        node.loadFromDatabase();
+        node.journal.flush();
+        assertThat(dir.resolve(DispatchStateJournal.SNAPSHOT_FILE)).exists();
+    }
+
+    // ---- helpers ----
+
+    private Node start(long maxAgeSeconds) {
+        return start(maxAgeSeconds, false);
+    }
+
+    private Node start(long maxAgeSeconds, boolean clustered) {
+        ClusterCoordinator cluster = mock(ClusterCoordinator.class);
+        when(cluster.isEnabled()).thenReturn(clustered);
+        LiveAssignmentRegistry registry = new LiveAssignmentRegistry(assignmentRepository, cluster);
+        HeartbeatDeadlineIndex index = new HeartbeatDeadlineIndex();
+        StateChangeFeed feed = new StateChangeFeed(index);
+        DispatchStateJournal journal = new DispatchStateJournal(
+                registry, index, feed, true, dir.toString(), 30_000, maxAgeSeconds, cluster);
+        journal.recover();
+        return new Node(registry, index, feed, journal);
+    }
+
+    private Path newestWal() throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(DispatchStateJournal.WAL_PREFIX))
+                    .max(Comparator.comparing(file -> file.getFileName().toString()))
+                    .orElseThrow();
+        }
+    }
+
+    private static AssignmentView assignment(EmergencyAssignmentStatus status, long version, LocalDateTime acceptedAt) {
+        LocalDateTime assignedAt = LocalDateTime.of(2026, 1, 1, 10, 0, 0, 123_456_789);
+        return new AssignmentView(1L, EMERGENCY_ID, 5L, DRIVER_ID, status,
+                assignedAt, acceptedAt, assignedAt.plusSeconds(60), version);
+    }
+
+    private static EmergencyView emergency() {
+        return new EmergencyView(EMERGENCY_ID, "CARDIAC", "HIGH", 28.61, 77.20, EmergencyStatus.DISPATCHED,
+                42L, null, null, "Keep the patient still", null, null,
+                null, "Conscious, breathing", null, null, null, null, null, null, null,
+                LocalDateTime.now(), LocalDateTime.now(), 1L);
+    }
+
+    private record Node(LiveAssignmentRegistry registry, HeartbeatDeadlineIndex index,
+            StateChangeFeed feed, DispatchStateJournal journal) {
+
+        /** What the ApplicationReadyEvent listeners do when nothing was restored. */
+        void loadFromDatabase() {
+            registry.buildOnStartup();
+            index.rebuild(List.of());
+        }
+
+        /** Both after-commit listeners, as Spring would call them. */
+        void changed(AssignmentChangedEvent event) {
+            registry.onAssignmentChanged(event);
+            feed.onAssignmentChanged(event);
+        }
+    }
+}
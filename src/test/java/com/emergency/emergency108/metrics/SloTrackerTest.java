@@ -0,0 +1,55 @@
+package com.emergency.emergency108.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SloTrackerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    private final AtomicLong clock = new AtomicLong(1_000 * MINUTE);
+    private final SloTracker tracker = new SloTracker(0.99, 60, clock::get);
+
+    @Test
+    void burnRateIsErrorRatioOverBudget() {
+        for (int i = 0; i < 98; i++) {
+            tracker.record(true);
+        }
+        tracker.record(false);
+        tracker.record(false);
+
+        // 2% errors against a 1% budget
+        assertThat(tracker.burnRate(5)).isCloseTo(2.0, within(1e-9));
+        assertThat(tracker.burnRate(60)).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void shortWindowForgetsOldErrors() {
+        tracker.record(false);
+
+        clock.addAndGet(10 * MINUTE);
+        tracker.record(true);
+
+        assertThat(tracker.errorRatio(5)).isZero();
+        assertThat(tracker.errorRatio(60)).isCloseTo(0.5, within(1e-9));
+    }
+
+    @Test
+    void bucketIsResetWhenTheRingWrapsAround() {
+        tracker.record(false);
+
+        clock.addAndGet(60 * MINUTE); // same slot, one hour later
+        tracker.record(true);
+
+        assertThat(tracker.errorRatio(60)).isZero();
+    }
+
+    @Test
+    void noEventsMeansNoBurn() {
+        assertThat(tracker.burnRate(5)).isZero();
+    }
+}
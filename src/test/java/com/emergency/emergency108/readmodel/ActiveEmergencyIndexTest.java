@@ -0,0 +1,115 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.dto.ActiveEmergencyRow;
+import com.emergency.emergency108.dto.NearbyEmergencyDTO;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ActiveEmergencyIndexTest {
+
+    // Helper in central Delhi
+    private static final double LAT = 28.6139;
+    private static final double LNG = 77.2090;
+
+    private EmergencyRepository emergencyRepository;
+    private UserRepository userRepository;
+    private ActiveEmergencyIndex index;
+
+    @BeforeEach
+    void setUp() {
+        emergencyRepository = mock(EmergencyRepository.class);
+        userRepository = mock(UserRepository.class);
+        when(emergencyRepository.findActiveRows(anyList(), eq(EmergencyFor.SELF))).thenReturn(List.of(
+                new ActiveEmergencyRow(1L, "ACCIDENT", 28.6200, 77.2100, EmergencyStatus.CREATED, 10L,
+                        "Asha Verma", 0L),
+                new ActiveEmergencyRow(2L, "HEART", 28.6150, 77.2095, EmergencyStatus.DISPATCHED, 11L, null, 2L),
+                // ~8 km away
+                new ActiveEmergencyRow(3L, "INJURY", 28.6850, 77.2090, EmergencyStatus.IN_PROGRESS, 12L,
+                        "Ravi", 1L)));
+
+        index = new ActiveEmergencyIndex(emergencyRepository, userRepository, 0.05, mock(ClusterCoordinator.class));
+        index.rebuild();
+    }
+
+    @Test
+    void returnsEmergenciesInsideTheRadiusNearestFirst() {
+        List<NearbyEmergencyDTO> nearby = index.nearby(LAT, LNG, 3.0, 99L, 5);
+
+        assertThat(nearby).extracting(NearbyEmergencyDTO::getId).containsExactly(2L, 1L);
+        assertThat(nearby.get(0).getVictimName()).isEqualTo(ActiveEmergencyIndex.ANONYMOUS_VICTIM);
+        assertThat(nearby.get(1).getVictimName()).isEqualTo("Asha");
+        assertThat(nearby.get(1).getDistanceKm()).isBetween(0.5, 1.0);
+
+        assertThat(index.nearby(LAT, LNG, 10.0, 99L, 5)).hasSize(3);
+        assertThat(index.nearby(LAT, LNG, 10.0, 99L, 1)).extracting(NearbyEmergencyDTO::getId).containsExactly(2L);
+        assertThat(index.nearby(LAT, LNG, 3.0, 11L, 5)).extracting(NearbyEmergencyDTO::getId).containsExactly(1L);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void followsCreationAndStatusChanges() {
+        User victim = new User();
+        victim.setName("Meera Iyer");
+        when(userRepository.findById(20L)).thenReturn(Optional.of(victim));
+
+        index.onEmergencyChanged(event(4L, EmergencyFor.SELF, EmergencyStatus.CREATED, 20L, 0L));
+        index.onEmergencyChanged(event(4L, EmergencyFor.SELF, EmergencyStatus.IN_PROGRESS, 20L, 1L));
+        index.onEmergencyChanged(event(5L, EmergencyFor.OTHER, EmergencyStatus.CREATED, 21L, 0L));
+        index.onEmergencyChanged(event(1L, EmergencyFor.SELF, EmergencyStatus.COMPLETED, 10L, 1L));
+
+        List<NearbyEmergencyDTO> nearby = index.nearby(LAT, LNG, 3.0, 99L, 5);
+        assertThat(nearby).extracting(NearbyEmergencyDTO::getId).containsExactlyInAnyOrder(2L, 4L);
+        assertThat(nearby).filteredOn(e -> e.getId() == 4L).singleElement()
+                .satisfies(e -> {
+                    assertThat(e.getVictimName()).isEqualTo("Meera");
+                    assertThat(e.getStatus()).isEqualTo("IN_PROGRESS");
+                });
+        // The name is resolved once, on creation
+        verify(userRepository).findById(20L);
+    }
+
+    @Test
+    void lateEventDoesNotReopenAClosedEmergency() {
+        index.onEmergencyChanged(event(1L, EmergencyFor.SELF, EmergencyStatus.CANCELLED, 10L, 2L));
+        index.onEmergencyChanged(event(1L, EmergencyFor.SELF, EmergencyStatus.IN_PROGRESS, 10L, 1L));
+
+        assertThat(index.nearby(LAT, LNG, 3.0, 99L, 5)).extracting(NearbyEmergencyDTO::getId).containsExactly(2L);
+    }
+
+    @Test
+    void rebuildDropsEmergenciesClosedByBulkUpdates() {
+        // A bulk UPDATE moved emergency 2 to UNASSIGNED without an entity event
+        when(emergencyRepository.findActiveRows(anyList(), eq(EmergencyFor.SELF))).thenReturn(List.of(
+                new ActiveEmergencyRow(1L, "ACCIDENT", 28.6200, 77.2100, EmergencyStatus.CREATED, 10L,
+                        "Asha Verma", 0L)));
+
+        index.rebuild();
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.nearby(LAT, LNG, 3.0, 99L, 5)).extracting(NearbyEmergencyDTO::getId).containsExactly(1L);
+    }
+
+    private static EmergencyChangedEvent event(Long id, EmergencyFor emergencyFor, EmergencyStatus status,
+                                               Long userId, Long version) {
+        return new EmergencyChangedEvent(new EmergencyView(id, "ACCIDENT", "CRITICAL", 28.6160, 77.2110, status,
+                userId, null, emergencyFor, null, null, null, null, null, null, null, null, null, null, null, null, null, null, version));
+    }
+}
@@ -0,0 +1,128 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.emergency.emergency108.repository.StatusRow;
+import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DashboardStatsTest {
+
+    private EmergencyRepository emergencyRepository;
+    private AmbulanceRepository ambulanceRepository;
+    private UserRepository userRepository;
+    private SimpleMeterRegistry meters;
+    private DashboardStats stats;
+
+    @BeforeEach
+    void setUp() {
+        emergencyRepository = mock(EmergencyRepository.class);
+        ambulanceRepository = mock(AmbulanceRepository.class);
+        userRepository = mock(UserRepository.class);
+        when(emergencyRepository.findStatusRowsByStatusNotIn(anyList())).thenReturn(List.of(
+                new StatusRow<>(1L, EmergencyStatus.CREATED, 0L),
+                new StatusRow<>(2L, EmergencyStatus.DISPATCHED, 3L)));
+        when(ambulanceRepository.findAllStatusRows()).thenReturn(List.of(
+                new StatusRow<>(10L, AmbulanceStatus.AVAILABLE, 0L),
+                new StatusRow<>(11L, AmbulanceStatus.BUSY, 5L)));
+        when(userRepository.findVerificationStatusRowsByRole(UserRole.DRIVER)).thenReturn(List.of(
+                new StatusRow<>(100L, DriverVerificationStatus.PENDING)));
+
+        meters = new SimpleMeterRegistry();
+        stats = new DashboardStats(emergencyRepository, ambulanceRepository, userRepository, meters, mock(ClusterCoordinator.class));
+        stats.reconcile();
+    }
+
+    @Test
+    void buildsCountsFromTheDatabase() {
+        assertThat(stats.isReady()).isTrue();
+        assertThat(stats.activeEmergencies()).isEqualTo(2);
+        assertThat(stats.ambulances(AmbulanceStatus.AVAILABLE)).isEqualTo(1);
+        assertThat(stats.drivers(DriverVerificationStatus.PENDING)).isEqualTo(1);
+        assertThat(meters.get("dashboard.emergencies").tag("status", "dispatched").gauge().value()).isEqualTo(1.0);
+    }
+
+    @Test
+    void followsTransitions() {
+        // Ambulance 11 is freed, emergency 2 completes, a new SOS comes in
+        stats.onAmbulanceChanged(ambulance(11L, AmbulanceStatus.AVAILABLE, 6L));
+        stats.onEmergencyChanged(emergency(2L, EmergencyStatus.COMPLETED, 4L));
+        stats.onEmergencyChanged(emergency(3L, EmergencyStatus.CREATED, 0L));
+        // Driver 100 is verified, driver 101 registers
+        stats.onUserChanged(new UserChangedEvent(100L, UserRole.DRIVER, DriverVerificationStatus.VERIFIED));
+        stats.onUserChanged(new UserChangedEvent(101L, UserRole.DRIVER, DriverVerificationStatus.PENDING));
+        stats.onUserChanged(new UserChangedEvent(500L, UserRole.PUBLIC, DriverVerificationStatus.NOT_REQUIRED));
+
+        assertThat(stats.ambulances(AmbulanceStatus.AVAILABLE)).isEqualTo(2);
+        assertThat(stats.ambulances(AmbulanceStatus.BUSY)).isZero();
+        assertThat(stats.activeEmergencies()).isEqualTo(2);
+        assertThat(stats.emergencies(EmergencyStatus.CREATED)).isEqualTo(2);
+        assertThat(stats.drivers(DriverVerificationStatus.PENDING)).isEqualTo(1);
+        assertThat(stats.drivers(DriverVerificationStatus.VERIFIED)).isEqualTo(1);
+        assertThat(stats.drivers(DriverVerificationStatus.NOT_REQUIRED)).isZero();
+    }
+
+    @Test
+    void lateEventDoesNotReopenOrRollBack() {
+        stats.onEmergencyChanged(emergency(2L, EmergencyStatus.COMPLETED, 4L));
+        stats.onEmergencyChanged(emergency(2L, EmergencyStatus.DISPATCHED, 3L));
+        stats.onAmbulanceChanged(ambulance(11L, AmbulanceStatus.AVAILABLE, 4L));
+
+        assertThat(stats.activeEmergencies()).isEqualTo(1);
+        assertThat(stats.ambulances(AmbulanceStatus.BUSY)).isEqualTo(1);
+    }
+
+    @Test
+    void reconcileCorrectsBulkUpdates() {
+        // A bulk UPDATE freed ambulance 11 without an entity event
+        when(ambulanceRepository.findAllStatusRows()).thenReturn(List.of(
+                new StatusRow<>(10L, AmbulanceStatus.AVAILABLE, 0L),
+                new StatusRow<>(11L, AmbulanceStatus.AVAILABLE, 6L)));
+
+        stats.reconcile();
+
+        assertThat(stats.ambulances(AmbulanceStatus.AVAILABLE)).isEqualTo(2);
+        assertThat(stats.ambulances(AmbulanceStatus.BUSY)).isZero();
+        assertThat(meters.get("dashboard.reconcile.drift").tag("entity", "ambulance").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void eventDuringReconcileBeatsTheOlderSnapshot() {
+        // The rows are read before ambulance 10 is taken; its event lands while they load
+        when(ambulanceRepository.findAllStatusRows()).thenAnswer(invocation -> {
+            stats.onAmbulanceChanged(ambulance(10L, AmbulanceStatus.BUSY, 1L));
+            return List.of(
+                    new StatusRow<>(10L, AmbulanceStatus.AVAILABLE, 0L),
+                    new StatusRow<>(11L, AmbulanceStatus.BUSY, 5L));
+        });
+
+        stats.reconcile();
+
+        assertThat(stats.ambulances(AmbulanceStatus.BUSY)).isEqualTo(2);
+        assertThat(stats.ambulances(AmbulanceStatus.AVAILABLE)).isZero();
+    }
+
+    private static AmbulanceChangedEvent ambulance(Long id, AmbulanceStatus status, Long version) {
+        return new AmbulanceChangedEvent(new AmbulanceView(id, "AMB-" + id, null, status, null, 12.9, 77.6, version));
+    }
+
+    private static EmergencyChangedEvent emergency(Long id, EmergencyStatus status, Long version) {
+        return new EmergencyChangedEvent(new EmergencyView(id, "ACCIDENT", "CRITICAL", 12.9, 77.6, status,
+                1L, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, version));
+    }
+}
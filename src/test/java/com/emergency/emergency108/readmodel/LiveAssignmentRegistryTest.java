@@ -0,0 +1,123 @@
+package com.emergency.emergency108.readmodel;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LiveAssignmentRegistryTest {
+
+    private static final Long DRIVER_ID = 200L;
+    private static final Long EMERGENCY_ID = 10L;
+
+    private EmergencyAssignmentRepository assignmentRepository;
+    private LiveAssignmentRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository = mock(EmergencyAssignmentRepository.class);
+        when(assignmentRepository.findAllActiveWithEmergency()).thenReturn(List.of());
+        registry = new LiveAssignmentRegistry(assignmentRepository, mock(ClusterCoordinator.class));
+        registry.rebuild();
+    }
+
+    @Test
+    void tracksAssignmentThroughAcceptAndCompletion() {
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ASSIGNED, 0L));
+
+        assertThat(registry.currentForDriver(DRIVER_ID)).map(AssignmentView::id).contains(1L);
+        assertThat(registry.hasActiveAssignment(EMERGENCY_ID)).isTrue();
+        assertThat(registry.emergency(EMERGENCY_ID)).map(EmergencyView::status).contains(EmergencyStatus.DISPATCHED);
+
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ACCEPTED, 1L));
+        assertThat(registry.currentForDriver(DRIVER_ID)).map(AssignmentView::status)
+                .contains(EmergencyAssignmentStatus.ACCEPTED);
+
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.COMPLETED, 2L));
+        assertThat(registry.currentForDriver(DRIVER_ID)).isEmpty();
+        assertThat(registry.hasActiveAssignment(EMERGENCY_ID)).isFalse();
+        assertThat(registry.emergency(EMERGENCY_ID)).isEmpty();
+    }
+
+    @Test
+    void pendingOfferWinsOverAcceptedAssignment() {
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ACCEPTED, 1L));
+        registry.onAssignmentChanged(new AssignmentChangedEvent(
+                new AssignmentView(2L, 11L, 5L, DRIVER_ID, EmergencyAssignmentStatus.ASSIGNED,
+                        LocalDateTime.now(), null, LocalDateTime.now().plusSeconds(60), 0L),
+                null));
+
+        assertThat(registry.currentForDriver(DRIVER_ID)).map(AssignmentView::id).contains(2L);
+    }
+
+    @Test
+    void ignoresEventsOlderThanWhatItAlreadyHas() {
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ASSIGNED, 0L));
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.REJECTED, 1L));
+
+        // Late delivery of the original insert must not resurrect the offer
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ASSIGNED, 0L));
+
+        assertThat(registry.currentForDriver(DRIVER_ID)).isEmpty();
+    }
+
+    @Test
+    void emergencyUpdatesOnlyKeptForLiveAssignments() {
+        registry.onEmergencyChanged(new EmergencyChangedEvent(emergency(EmergencyStatus.CREATED, 0L)));
+        assertThat(registry.emergency(EMERGENCY_ID)).isEmpty();
+
+        registry.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ACCEPTED, 1L));
+        registry.onEmergencyChanged(new EmergencyChangedEvent(emergency(EmergencyStatus.AT_PATIENT, 3L)));
+
+        assertThat(registry.emergency(EMERGENCY_ID)).map(EmergencyView::status).contains(EmergencyStatus.AT_PATIENT);
+    }
+
+    @Test
+    void clustered_ReadsTheDatabaseInsteadOfLocalEvents() {
+        ClusterCoordinator cluster = mock(ClusterCoordinator.class);
+        when(cluster.isEnabled()).thenReturn(true);
+        LiveAssignmentRegistry clustered = new LiveAssignmentRegistry(assignmentRepository, cluster);
+        clustered.rebuild();
+        // committed on this node, but another node may have moved it on since
+        clustered.onAssignmentChanged(event(1L, EmergencyAssignmentStatus.ASSIGNED, 0L));
+
+        EmergencyAssignment accepted = new EmergencyAssignment();
+        ReflectionTestUtils.setField(accepted, "id", 2L);
+        accepted.setDriverId(DRIVER_ID);
+        accepted.setStatus(EmergencyAssignmentStatus.ACCEPTED);
+        when(assignmentRepository.findCurrentForDriver(DRIVER_ID)).thenReturn(Optional.of(accepted));
+        when(assignmentRepository.existsByEmergencyIdAndStatusIn(eq(EMERGENCY_ID), any())).thenReturn(false);
+
+        assertThat(clustered.currentForDriver(DRIVER_ID)).map(AssignmentView::id).contains(2L);
+        assertThat(clustered.hasActiveAssignment(EMERGENCY_ID)).isFalse();
+        assertThat(clustered.isReady()).isTrue();
+        assertThat(clustered.activeAssignments()).isEmpty();
+    }
+
+    private static AssignmentChangedEvent event(Long id, EmergencyAssignmentStatus status, Long version) {
+        return new AssignmentChangedEvent(
+                new AssignmentView(id, EMERGENCY_ID, 5L, DRIVER_ID, status,
+                        LocalDateTime.now().minusSeconds(30), null, LocalDateTime.now().plusSeconds(30), version),
+                emergency(EmergencyStatus.DISPATCHED, 1L));
+    }
+
+    private static EmergencyView emergency(EmergencyStatus status, Long version) {
+        return new EmergencyView(EMERGENCY_ID, "ACCIDENT", "CRITICAL", 28.61, 77.20, status, 100L,
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+                LocalDateTime.now(), LocalDateTime.now(), version);
+    }
+}
@@ -0,0 +1,117 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.metrics.OfferDeliveryMetrics;
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AssignmentOfferPusherTest {
+
+    private static final Long DRIVER_ID = 200L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private DriverChannelRegistry channels;
+    private SimpleMeterRegistry meterRegistry;
+    private AssignmentOfferPusher pusher;
+
+    @BeforeEach
+    void setUp() {
+        channels = mock(DriverChannelRegistry.class);
+        meterRegistry = new SimpleMeterRegistry();
+        pusher = new AssignmentOfferPusher(
+                channels,
+                mock(LiveAssignmentRegistry.class),
+                new OfferDeliveryMetrics(meterRegistry, channels),
+                objectMapper);
+    }
+
+    @Test
+    void pushesOfferWithEmergencyDetailsToConnectedDriver() throws Exception {
+        when(channels.send(eq(DRIVER_ID), anyString())).thenReturn(true);
+
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ASSIGNED));
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(channels).send(eq(DRIVER_ID), payload.capture());
+        JsonNode frame = objectMapper.readTree(payload.getValue());
+        assertThat(frame.get("type").asText()).isEqualTo("offer");
+        assertThat(frame.get("assignmentId").asLong()).isEqualTo(1L);
+        assertThat(frame.get("emergency").get("latitude").asDouble()).isEqualTo(28.61);
+
+        assertThat(meterRegistry.get("driver.offer.delivery").tag("stage", "sent").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void countsOfferAsUndeliveredWhenDriverHasNoChannel() {
+        when(channels.send(eq(DRIVER_ID), anyString())).thenReturn(false);
+
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ASSIGNED));
+
+        assertThat(meterRegistry.get("driver.offer.undelivered").counter().count()).isEqualTo(1.0);
+        assertThat(meterRegistry.get("driver.offer.delivery").tag("stage", "sent").timer().count()).isZero();
+    }
+
+    @Test
+    void acknowledgementRecordsDeliveryLatencyOnce() {
+        when(channels.send(eq(DRIVER_ID), anyString())).thenReturn(true);
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ASSIGNED));
+
+        pusher.acknowledge(999L, 1L); // another driver
+        pusher.acknowledge(DRIVER_ID, 1L);
+        pusher.acknowledge(DRIVER_ID, 1L);
+
+        assertThat(meterRegistry.get("driver.offer.delivery").tag("stage", "acknowledged").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void closesPushedOfferOnTimeout() throws Exception {
+        when(channels.send(eq(DRIVER_ID), anyString())).thenReturn(true);
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ASSIGNED));
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.TIMEOUT));
+
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(channels, times(2)).send(eq(DRIVER_ID), payload.capture());
+        assertThat(objectMapper.readTree(payload.getAllValues().get(1)).get("type").asText())
+                .isEqualTo("offer_closed");
+    }
+
+    @Test
+    void acceptedOfferIsNotClosed() {
+        when(channels.send(eq(DRIVER_ID), anyString())).thenReturn(true);
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ASSIGNED));
+        pusher.onAssignmentChanged(event(EmergencyAssignmentStatus.ACCEPTED));
+
+        verify(channels, times(1)).send(eq(DRIVER_ID), anyString());
+    }
+
+    private static AssignmentChangedEvent event(EmergencyAssignmentStatus status) {
+        LocalDateTime assignedAt = LocalDateTime.now().minusSeconds(1);
+        return new AssignmentChangedEvent(
+                new AssignmentView(1L, 10L, 5L, DRIVER_ID, status,
+                        assignedAt, null, assignedAt.plusSeconds(60), 0L),
+                new EmergencyView(10L, "ACCIDENT", "CRITICAL", 28.61, 77.20, EmergencyStatus.IN_PROGRESS, 100L,
+                        null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+                        assignedAt, assignedAt, 0L));
+    }
+}
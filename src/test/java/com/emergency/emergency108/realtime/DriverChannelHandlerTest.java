@@ -0,0 +1,98 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverVerificationStatus;
+import com.emergency.emergency108.entity.User;
+import com.emergency.emergency108.entity.UserRole;
+import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.service.DriverSessionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DriverChannelHandlerTest {
+
+    private static final Long DRIVER_ID = 200L;
+    private static final TextMessage HEARTBEAT = new TextMessage("{\"type\":\"heartbeat\",\"lat\":28.61,\"lng\":77.20}");
+
+    private DriverChannelRegistry channels;
+    private DriverSessionService sessionService;
+    private UserRepository userRepository;
+    private DriverChannelHandler handler;
+    private WebSocketSession session;
+    private User driver;
+
+    @BeforeEach
+    void setUp() {
+        channels = mock(DriverChannelRegistry.class);
+        sessionService = mock(DriverSessionService.class);
+        userRepository = mock(UserRepository.class);
+        handler = new DriverChannelHandler(
+                channels,
+                mock(AssignmentOfferPusher.class),
+                sessionService,
+                userRepository,
+                new ObjectMapper().findAndRegisterModules());
+
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(DriverChannelHandshakeInterceptor.DRIVER_ID, DRIVER_ID);
+        session = mock(WebSocketSession.class);
+        when(session.getAttributes()).thenReturn(attributes);
+
+        driver = new User();
+        driver.setId(DRIVER_ID);
+        driver.setRole(UserRole.DRIVER);
+        driver.setDriverVerificationStatus(DriverVerificationStatus.VERIFIED);
+        when(userRepository.findById(DRIVER_ID)).thenReturn(Optional.of(driver));
+    }
+
+    @Test
+    void heartbeatFromActiveDriverUpdatesLocation() throws Exception {
+        DriverSession driverSession = new DriverSession();
+        driverSession.setHeartbeatIntervalSeconds(10);
+        when(sessionService.updateLocation(DRIVER_ID, 28.61, 77.20)).thenReturn(driverSession);
+
+        handler.handleTextMessage(session, HEARTBEAT);
+
+        verify(sessionService).updateLocation(DRIVER_ID, 28.61, 77.20);
+        verify(channels).send(eq(DRIVER_ID), anyString());
+        verify(channels, never()).disconnect(anyLong(), any(CloseStatus.class));
+    }
+
+    @Test
+    void heartbeatAfterDriverWasBlockedClosesTheChannel() throws Exception {
+        driver.setBlocked(true);
+
+        handler.handleTextMessage(session, HEARTBEAT);
+
+        verify(channels).disconnect(eq(DRIVER_ID), any(CloseStatus.class));
+        verify(sessionService, never()).updateLocation(anyLong(), anyDouble(), anyDouble());
+    }
+
+    @Test
+    void heartbeatAfterVerificationWasRevokedClosesTheChannel() throws Exception {
+        driver.setDriverVerificationStatus(DriverVerificationStatus.REJECTED);
+
+        handler.handleTextMessage(session, HEARTBEAT);
+
+        verify(channels).disconnect(eq(DRIVER_ID), any(CloseStatus.class));
+        verify(sessionService, never()).updateLocation(anyLong(), anyDouble(), anyDouble());
+    }
+}
@@ -0,0 +1,178 @@
+package com.emergency.emergency108.realtime;
+
+import com.emergency.emergency108.dto.AmbulanceListRow;
+import com.emergency.emergency108.dto.EmergencyListRow;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.readmodel.AmbulanceChangedEvent;
+import com.emergency.emergency108.readmodel.AmbulanceView;
+import com.emergency.emergency108.readmodel.EmergencyChangedEvent;
+import com.emergency.emergency108.readmodel.EmergencyView;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FleetMapFeedTest {
+
+    // Central Bengaluru, and one ambulance far away in Delhi
+    private static final String CITY_VIEW = """
+            {"type":"viewport","south":12.90,"west":77.50,"north":13.05,"east":77.70,"zoom":14}""";
+    private static final String COUNTRY_VIEW = """
+            {"type":"viewport","south":8.0,"west":68.0,"north":35.0,"east":97.0,"zoom":5}""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private AmbulanceRepository ambulanceRepository;
+    private WebSocketSession session;
+    private FleetMapFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        ambulanceRepository = mock(AmbulanceRepository.class);
+        EmergencyRepository emergencyRepository = mock(EmergencyRepository.class);
+        when(ambulanceRepository.findListRows(anyLong(), any())).thenReturn(List.of(
+                ambulanceRow(1L, AmbulanceStatus.AVAILABLE, 12.97, 77.59),
+                ambulanceRow(2L, AmbulanceStatus.AVAILABLE, 28.61, 77.20)));
+        when(emergencyRepository.findListRowsByStatusNotIn(anyList(), anyLong(), any())).thenReturn(List.of(
+                new EmergencyListRow(50L, "ACCIDENT", "CRITICAL", 12.98, 77.60, EmergencyStatus.CREATED, 7L,
+                        null, null, null, null, null, null, null, null, false)));
+
+        feed = new FleetMapFeed(ambulanceRepository, emergencyRepository, objectMapper,
+                new SimpleMeterRegistry(), 11, 2000);
+        feed.buildOnStartup();
+
+        session = mock(WebSocketSession.class);
+        when(session.getId()).thenReturn("console-1");
+        when(session.isOpen()).thenReturn(true);
+        feed.open(session);
+    }
+
+    @Test
+    void snapshotHoldsOnlyWhatIsInsideTheViewport() throws Exception {
+        feed.viewport(session, viewport(CITY_VIEW));
+
+        JsonNode snapshot = lastFrame();
+        assertThat(snapshot.get("type").asText()).isEqualTo("snapshot");
+        assertThat(snapshot.get("clustered").asBoolean()).isFalse();
+        assertThat(snapshot.get("ambulances")).hasSize(1);
+        assertThat(snapshot.get("ambulances").get(0).get("id").asLong()).isEqualTo(1L);
+        assertThat(snapshot.get("emergencies").get(0).get("label").asText()).isEqualTo("ACCIDENT");
+    }
+
+    @Test
+    void deltaCarriesOnlyChangedFieldsOfMarkersOnScreen() throws Exception {
+        feed.viewport(session, viewport(CITY_VIEW));
+
+        // Ambulance 1 moves, the Delhi one moves off screen, the emergency closes
+        feed.onAmbulanceChanged(ambulanceMoved(1L, AmbulanceStatus.AVAILABLE, 12.975, 77.595, 1L));
+        feed.onAmbulanceChanged(ambulanceMoved(2L, AmbulanceStatus.BUSY, 28.62, 77.21, 1L));
+        feed.onEmergencyChanged(new EmergencyChangedEvent(new EmergencyView(50L, "ACCIDENT", "CRITICAL",
+                12.98, 77.60, EmergencyStatus.CANCELLED, 7L, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null, 2L)));
+        feed.flush();
+
+        JsonNode delta = lastFrame();
+        assertThat(delta.get("type").asText()).isEqualTo("delta");
+        assertThat(delta.get("ambulances")).hasSize(1);
+        JsonNode moved = delta.get("ambulances").get(0);
+        assertThat(moved.get("id").asLong()).isEqualTo(1L);
+        assertThat(moved.get("lat").asDouble()).isEqualTo(12.975);
+        assertThat(moved.has("status")).isFalse();
+        assertThat(delta.get("removed").get("emergencies").get(0).asLong()).isEqualTo(50L);
+
+        // Leaving the box is a removal; nothing else changed, so the next flush sends nothing
+        feed.onAmbulanceChanged(ambulanceMoved(1L, AmbulanceStatus.AVAILABLE, 13.2, 77.595, 2L));
+        feed.flush();
+        assertThat(lastFrame().get("removed").get("ambulances").get(0).asLong()).isEqualTo(1L);
+        int sent = sentFrames().size();
+        feed.flush();
+        assertThat(sentFrames()).hasSize(sent);
+    }
+
+    @Test
+    void lowZoomGetsClustersUpdatedInPlace() throws Exception {
+        feed.viewport(session, viewport(COUNTRY_VIEW));
+
+        JsonNode snapshot = lastFrame();
+        assertThat(snapshot.get("clustered").asBoolean()).isTrue();
+        assertThat(snapshot.get("clusters")).hasSize(2);
+
+        feed.onAmbulanceChanged(ambulanceMoved(1L, AmbulanceStatus.BUSY, 12.97, 77.59, 1L));
+        feed.flush();
+
+        JsonNode delta = lastFrame();
+        assertThat(delta.get("clusters")).hasSize(1);
+        JsonNode bengaluru = delta.get("clusters").get(0);
+        assertThat(bengaluru.get("ambulances").asInt()).isEqualTo(1);
+        assertThat(bengaluru.get("available").asInt()).isZero();
+        assertThat(bengaluru.get("emergencies").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    void resyncPushesChangesMadeWithoutEvents() throws Exception {
+        feed.viewport(session, viewport(CITY_VIEW));
+        // A bulk UPDATE (or another instance) took ambulance 1
+        when(ambulanceRepository.findListRows(anyLong(), any())).thenReturn(List.of(
+                ambulanceRow(1L, AmbulanceStatus.BUSY, 12.97, 77.59),
+                ambulanceRow(2L, AmbulanceStatus.AVAILABLE, 28.61, 77.20)));
+
+        feed.resync();
+        feed.flush();
+
+        JsonNode changed = lastFrame().get("ambulances").get(0);
+        assertThat(changed.get("id").asLong()).isEqualTo(1L);
+        assertThat(changed.get("status").asText()).isEqualTo("BUSY");
+    }
+
+    @Test
+    void rejectsUnusableViewport() {
+        assertThatThrownBy(() -> viewport("""
+                {"type":"viewport","south":13.0,"west":77.5,"north":12.9,"east":77.7,"zoom":14}"""))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private Viewport viewport(String json) throws Exception {
+        return Viewport.parse(objectMapper.readTree(json));
+    }
+
+    private List<TextMessage> sentFrames() throws Exception {
+        ArgumentCaptor<TextMessage> frames = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session, atLeastOnce()).sendMessage(frames.capture());
+        return frames.getAllValues();
+    }
+
+    private JsonNode lastFrame() throws Exception {
+        List<TextMessage> frames = sentFrames();
+        return objectMapper.readTree(frames.get(frames.size() - 1).getPayload());
+    }
+
+    private static AmbulanceListRow ambulanceRow(Long id, AmbulanceStatus status, double lat, double lng) {
+        return new AmbulanceListRow(id, "AMB-" + id, null, null, "KA01" + id, status, lat, lng,
+                null, null, null, null);
+    }
+
+    private static AmbulanceChangedEvent ambulanceMoved(Long id, AmbulanceStatus status, double lat, double lng,
+                                                        Long version) {
+        return new AmbulanceChangedEvent(new AmbulanceView(id, "AMB-" + id, "KA01" + id, status, null, lat, lng,
+                version));
+    }
+}
@@ -6,6 +6,7 @@ import com.emergency.emergency108.entity.Emergency;
 import com.emergency.emergency108.entity.EmergencyAssignment;
 import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
 import com.emergency.emergency108.entity.EmergencyStatus;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
@@ -103,4 +104,48 @@ class EmergencyAssignmentRepositoryTest {
         assertThat(timedOut).hasSize(1);
         assertThat(timedOut.get(0).getDriverId()).isEqualTo(1L);
     }
+
+    @Test
+    void testFindActiveAssignment_IgnoresRejectedAndFetchesAssociations() {
+        Emergency emergency = new Emergency();
+        emergency.setLatitude(28.0);
+        emergency.setLongitude(77.0);
+        emergency.setStatus(EmergencyStatus.DISPATCHED);
+        emergency = entityManager.persistAndFlush(emergency);
+
+        Ambulance ambulance = new Ambulance();
+        ambulance.setCode("AMB-003");
+        ambulance.setLicensePlate("DL-5555");
+        ambulance.setLatitude(28.0);
+        ambulance.setLongitude(77.0);
+        ambulance.setStatus(AmbulanceStatus.BUSY);
+        ambulance = entityManager.persistAndFlush(ambulance);
+
+        EmergencyAssignment rejected = new EmergencyAssignment();
+        rejected.setEmergency(emergency);
+        rejected.setAmbulance(ambulance);
+        rejected.setDriverId(7L);
+        rejected.setStatus(EmergencyAssignmentStatus.REJECTED);
+        rejected.setAssignedAt(LocalDateTime.now().minusMinutes(3));
+        entityManager.persist(rejected);
+
+        EmergencyAssignment assigned = new EmergencyAssignment();
+        assigned.setEmergency(emergency);
+        assigned.setAmbulance(ambulance);
+        assigned.setDriverId(7L);
+        assigned.setStatus(EmergencyAssignmentStatus.ASSIGNED);
+        assigned.setAssignedAt(LocalDateTime.now());
+        entityManager.persist(assigned);
+
+        entityManager.flush();
+        entityManager.clear();
+
+        Optional<EmergencyAssignment> active = assignmentRepository.findActiveAssignment(emergency.getId(), 7L);
+
+        assertThat(active).isPresent();
+        assertThat(active.get().getStatus()).isEqualTo(EmergencyAssignmentStatus.ASSIGNED);
+        assertThat(Hibernate.isInitialized(active.get().getEmergency())).isTrue();
+        assertThat(Hibernate.isInitialized(active.get().getAmbulance())).isTrue();
+        assertThat(assignmentRepository.findActiveAssignment(emergency.getId(), 8L)).isEmpty();
+    }
 }
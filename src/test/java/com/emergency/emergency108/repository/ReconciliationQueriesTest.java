@@ -0,0 +1,142 @@
+package com.emergency.emergency108.repository;
+
+import com.emergency.emergency108.entity.Ambulance;
+import com.emergency.emergency108.entity.AmbulanceStatus;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@TestPropertySource(properties = {
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.sql.init.mode=never"
+})
+class ReconciliationQueriesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AmbulanceRepository ambulanceRepository;
+
+    @Autowired
+    private EmergencyRepository emergencyRepository;
+
+    @Autowired
+    private EmergencyAssignmentRepository assignmentRepository;
+
+    @Test
+    void releaseBusyWithoutActiveAssignment_MatchesAssignmentsByAmbulance() {
+        Ambulance onTrip = ambulance("AMB-101", AmbulanceStatus.BUSY);
+        Ambulance idle = ambulance("AMB-102", AmbulanceStatus.BUSY);
+
+        // Matched on the assignment's ambulance (the old per-row check passed the ambulance id as an emergency id)
+        Emergency emergency = emergency(EmergencyStatus.IN_PROGRESS);
+        assignment(emergency, onTrip, EmergencyAssignmentStatus.ACCEPTED, null);
+        assignment(emergency, idle, EmergencyAssignmentStatus.REJECTED, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        int released = ambulanceRepository.releaseBusyWithoutActiveAssignment();
+        entityManager.clear();
+
+        assertThat(released).isEqualTo(1);
+        assertThat(ambulanceRepository.findById(onTrip.getId()).orElseThrow().getStatus())
+                .isEqualTo(AmbulanceStatus.BUSY);
+        Ambulance reloaded = ambulanceRepository.findById(idle.getId()).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(AmbulanceStatus.AVAILABLE);
+        assertThat(reloaded.getVersion()).isEqualTo(idle.getVersion() + 1);
+    }
+
+    @Test
+    void unassignInProgressWithoutAcceptedAssignment_LeavesAcceptedOnesAlone() {
+        Ambulance ambulance = ambulance("AMB-201", AmbulanceStatus.BUSY);
+        Emergency accepted = emergency(EmergencyStatus.IN_PROGRESS);
+        Emergency orphaned = emergency(EmergencyStatus.IN_PROGRESS);
+        Emergency dispatched = emergency(EmergencyStatus.DISPATCHED);
+        assignment(accepted, ambulance, EmergencyAssignmentStatus.ACCEPTED, null);
+        entityManager.flush();
+        entityManager.clear();
+
+        LocalDateTime now = LocalDateTime.now();
+        int unassigned = emergencyRepository.unassignInProgressWithoutAcceptedAssignment(now);
+        entityManager.clear();
+
+        assertThat(unassigned).isEqualTo(1);
+        assertThat(emergencyRepository.findById(accepted.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyStatus.IN_PROGRESS);
+        assertThat(emergencyRepository.findById(orphaned.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyStatus.UNASSIGNED);
+        assertThat(emergencyRepository.findById(dispatched.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyStatus.DISPATCHED);
+    }
+
+    @Test
+    void expiredOffers_UnassignEmergencyThenRejectOffer() {
+        Ambulance ambulance = ambulance("AMB-301", AmbulanceStatus.BUSY);
+        Emergency expired = emergency(EmergencyStatus.DISPATCHED);
+        Emergency pending = emergency(EmergencyStatus.DISPATCHED);
+        LocalDateTime now = LocalDateTime.now();
+        EmergencyAssignment expiredOffer =
+                assignment(expired, ambulance, EmergencyAssignmentStatus.ASSIGNED, now.minusSeconds(30));
+        EmergencyAssignment pendingOffer =
+                assignment(pending, ambulance, EmergencyAssignmentStatus.ASSIGNED, now.plusSeconds(30));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(assignmentRepository.findEmergencyIdsWithExpiredOffers(now)).containsExactly(expired.getId());
+        assertThat(emergencyRepository.unassignWithExpiredOffers(now)).isEqualTo(1);
+        assertThat(assignmentRepository.rejectExpiredOffers(now)).isEqualTo(1);
+        entityManager.clear();
+
+        assertThat(emergencyRepository.findById(expired.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyStatus.UNASSIGNED);
+        assertThat(emergencyRepository.findById(pending.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyStatus.DISPATCHED);
+        EmergencyAssignment rejected = assignmentRepository.findById(expiredOffer.getId()).orElseThrow();
+        assertThat(rejected.getStatus()).isEqualTo(EmergencyAssignmentStatus.REJECTED);
+        assertThat(rejected.getRejectedAt()).isNotNull();
+        assertThat(assignmentRepository.findById(pendingOffer.getId()).orElseThrow().getStatus())
+                .isEqualTo(EmergencyAssignmentStatus.ASSIGNED);
+    }
+
+    private Ambulance ambulance(String code, AmbulanceStatus status) {
+        Ambulance ambulance = new Ambulance();
+        ambulance.setCode(code);
+        ambulance.setLicensePlate("DL-" + code);
+        ambulance.setLatitude(28.0);
+        ambulance.setLongitude(77.0);
+        ambulance.setStatus(status);
+        return entityManager.persistAndFlush(ambulance);
+    }
+
+    private Emergency emergency(EmergencyStatus status) {
+        Emergency emergency = new Emergency();
+        emergency.setLatitude(28.0);
+        emergency.setLongitude(77.0);
+        emergency.setStatus(status);
+        return entityManager.persistAndFlush(emergency);
+    }
+
+    private EmergencyAssignment assignment(Emergency emergency, Ambulance ambulance,
+            EmergencyAssignmentStatus status, LocalDateTime responseDeadline) {
+        EmergencyAssignment assignment = new EmergencyAssignment();
+        assignment.setEmergency(emergency);
+        assignment.setAmbulance(ambulance);
+        assignment.setDriverId(1L);
+        assignment.setStatus(status);
+        assignment.setAssignedAt(LocalDateTime.now().minusMinutes(1));
+        assignment.setResponseDeadline(responseDeadline);
+        return entityManager.persist(assignment);
+    }
+}
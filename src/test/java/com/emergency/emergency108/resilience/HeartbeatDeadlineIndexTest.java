@@ -0,0 +1,67 @@
+package com.emergency.emergency108.resilience;
+
+import com.emergency.emergency108.entity.DriverSession;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HeartbeatDeadlineIndexTest {
+
+    private final HeartbeatDeadlineIndex index = new HeartbeatDeadlineIndex();
+
+    @Test
+    void returnsOnlySessionsPastTheirDeadline() {
+        index.track(1L, 1_000L);
+        index.track(2L, 2_000L);
+        index.track(3L, 3_000L);
+
+        assertThat(index.pollExpired(2_000L)).containsExactly(1L, 2L);
+        assertThat(index.pollExpired(2_500L)).isEmpty();
+        assertThat(index.size()).isEqualTo(1);
+    }
+
+    @Test
+    void heartbeatMovesDeadline() {
+        index.track(1L, 1_000L);
+        index.track(1L, 5_000L);
+
+        assertThat(index.pollExpired(4_000L)).isEmpty();
+        assertThat(index.pollExpired(5_000L)).containsExactly(1L);
+    }
+
+    @Test
+    void untrackedSessionNeverExpires() {
+        index.track(1L, 1_000L);
+        index.untrack(1L);
+
+        assertThat(index.pollExpired(10_000L)).isEmpty();
+    }
+
+    @Test
+    void deadlineFollowsRecommendedInterval() {
+        DriverSession session = new DriverSession(100L, 500L);
+        session.setId(7L);
+        session.setLastHeartbeat(LocalDateTime.now().minusSeconds(20));
+        long now = System.currentTimeMillis();
+
+        index.track(session);
+        assertThat(index.pollExpired(now)).containsExactly(7L);
+
+        session.setHeartbeatIntervalSeconds(15); // idle cadence: stale after 45 s
+        index.track(session);
+        assertThat(index.pollExpired(now)).isEmpty();
+    }
+
+    @Test
+    void deadHeapEntriesAreCompactedAway() {
+        for (int beat = 0; beat < 10_000; beat++) {
+            index.track(1L, 1_000_000L + beat);
+        }
+
+        assertThat(index.size()).isEqualTo(1);
+        assertThat(index.pollExpired(Long.MAX_VALUE)).isEqualTo(List.of(1L));
+    }
+}
@@ -1,22 +1,23 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
 import com.emergency.emergency108.entity.*;
-import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.metrics.ReconciliationMetrics;
+import com.emergency.emergency108.repository.ActiveSessionRow;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
-import com.emergency.emergency108.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -29,18 +30,22 @@ class DriverSessionInvariantValidatorTest {
     private EmergencyAssignmentRepository assignmentRepository;
 
     @Mock
-    private AmbulanceRepository ambulanceRepository;
+    private ClusterCoordinator cluster;
 
-    @Mock
-    private UserRepository userRepository;
+    private SimpleMeterRegistry meterRegistry;
 
-    @InjectMocks
     private DriverSessionInvariantValidator validator;
 
     private DriverSession activeSession;
+    private User driver;
+    private Ambulance ambulance;
 
     @BeforeEach
     void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        validator = new DriverSessionInvariantValidator(
+                sessionRepository, assignmentRepository, new ReconciliationMetrics(meterRegistry), cluster, 60, 60000);
+
         activeSession = new DriverSession();
         activeSession.setId(1L);
         activeSession.setDriverId(100L);
@@ -48,51 +53,47 @@ class DriverSessionInvariantValidatorTest {
         activeSession.setStatus(DriverSessionStatus.ONLINE);
         activeSession.setSessionStartTime(LocalDateTime.now().minusMinutes(5));
         activeSession.setLastHeartbeat(LocalDateTime.now());
-    }
 
-    @Test
-    void validateInvariants_AllValid() {
-        // Arrange
-        User driver = new User();
+        driver = new User();
         driver.setId(100L);
         driver.setDriverVerificationStatus(DriverVerificationStatus.VERIFIED);
 
-        Ambulance ambulance = new Ambulance();
+        ambulance = new Ambulance();
         ambulance.setId(500L);
+    }
 
-        when(sessionRepository.findActiveSessions()).thenReturn(List.of(activeSession));
-        when(userRepository.findById(100L)).thenReturn(Optional.of(driver));
-        when(ambulanceRepository.findById(500L)).thenReturn(Optional.of(ambulance));
+    @Test
+    void validateInvariants_AllValid() {
+        // Arrange
+        when(sessionRepository.findActiveSessionRows())
+                .thenReturn(List.of(new ActiveSessionRow(activeSession, driver, ambulance)));
         when(assignmentRepository.findByStatus(EmergencyAssignmentStatus.ACCEPTED))
                 .thenReturn(Collections.emptyList());
-        when(sessionRepository.findStaleSessions(any(LocalDateTime.class)))
-                .thenReturn(Collections.emptyList());
 
         // Act
-        validator.validateInvariants();
+        int issues = validator.validate(true);
 
-        // Assert
-        verify(sessionRepository, atLeastOnce()).findActiveSessions();
-        verify(userRepository, atLeastOnce()).findById(100L);
-        verify(ambulanceRepository, atLeastOnce()).findById(500L);
+        // Assert: one joined load, no per-session lookups
+        assertThat(issues).isZero();
+        verify(sessionRepository, times(1)).findActiveSessionRows();
+        verify(sessionRepository, never()).findActiveSessions();
+        verify(assignmentRepository, times(1)).findByStatus(EmergencyAssignmentStatus.ACCEPTED);
     }
 
     @Test
     void validateInvariants_InvalidDriver() {
-        // Arrange
-        when(sessionRepository.findActiveSessions()).thenReturn(List.of(activeSession));
-        when(userRepository.findById(100L)).thenReturn(Optional.empty()); // Driver missing
-
-        // Mock rest to prevent generic null pointer failures if code order changes
-        when(ambulanceRepository.findById(any())).thenReturn(Optional.of(new Ambulance()));
+        // Arrange: driver row missing
+        when(sessionRepository.findActiveSessionRows())
+                .thenReturn(List.of(new ActiveSessionRow(activeSession, null, ambulance)));
         when(assignmentRepository.findByStatus(any())).thenReturn(Collections.emptyList());
-        when(sessionRepository.findStaleSessions(any())).thenReturn(Collections.emptyList());
 
         // Act
-        validator.validateInvariants();
+        int issues = validator.validate(true);
 
         // Assert
-        verify(userRepository, atLeastOnce()).findById(100L);
+        assertThat(issues).isEqualTo(1);
+        assertThat(meterRegistry.get("driver.session.invariant.violations")
+                .tag("check", "valid_driver").gauge().value()).isEqualTo(1.0);
     }
 
     @Test
@@ -100,24 +101,18 @@ class DriverSessionInvariantValidatorTest {
         // Arrange
         activeSession.setStatus(DriverSessionStatus.ON_TRIP);
 
-        User driver = new User();
-        driver.setId(100L);
-        driver.setDriverVerificationStatus(DriverVerificationStatus.VERIFIED);
-
-        when(sessionRepository.findActiveSessions()).thenReturn(List.of(activeSession));
-        when(userRepository.findById(100L)).thenReturn(Optional.of(driver));
-        when(ambulanceRepository.findById(500L)).thenReturn(Optional.of(new Ambulance()));
+        when(sessionRepository.findActiveSessionRows())
+                .thenReturn(List.of(new ActiveSessionRow(activeSession, driver, ambulance)));
 
         // No assignment returned
         when(assignmentRepository.findByStatus(EmergencyAssignmentStatus.ACCEPTED))
                 .thenReturn(Collections.emptyList());
 
-        when(sessionRepository.findStaleSessions(any())).thenReturn(Collections.emptyList());
-
         // Act
-        validator.validateInvariants();
+        int issues = validator.validate(true);
 
         // Assert
+        assertThat(issues).isEqualTo(1);
         verify(assignmentRepository).findByStatus(EmergencyAssignmentStatus.ACCEPTED);
     }
 
@@ -129,18 +124,70 @@ class DriverSessionInvariantValidatorTest {
         activeSession2.setDriverId(100L);
         activeSession2.setAmbulanceId(501L);
         activeSession2.setStatus(DriverSessionStatus.ONLINE);
+        activeSession2.setSessionStartTime(LocalDateTime.now().minusMinutes(1));
+        activeSession2.setLastHeartbeat(LocalDateTime.now());
+
+        Ambulance ambulance2 = new Ambulance();
+        ambulance2.setId(501L);
+
+        when(sessionRepository.findActiveSessionRows()).thenReturn(List.of(
+                new ActiveSessionRow(activeSession, driver, ambulance),
+                new ActiveSessionRow(activeSession2, driver, ambulance2)));
+        when(assignmentRepository.findByStatus(any())).thenReturn(Collections.emptyList());
 
-        when(sessionRepository.findActiveSessions()).thenReturn(List.of(activeSession, activeSession2));
+        // Act
+        int issues = validator.validate(true);
+
+        // Assert
+        assertThat(issues).isEqualTo(1);
+        assertThat(meterRegistry.get("driver.session.invariant.violations")
+                .tag("check", "one_session_per_driver").gauge().value()).isEqualTo(1.0);
+    }
 
-        when(userRepository.findById(100L)).thenReturn(Optional.of(new User()));
-        when(ambulanceRepository.findById(any())).thenReturn(Optional.of(new Ambulance()));
+    @Test
+    void validate_IncrementalRunReadsSinceLastRun() {
+        // Arrange
+        when(sessionRepository.findActiveSessionRows()).thenReturn(Collections.emptyList());
+        when(sessionRepository.findActiveSessionRowsToRecheck(
+                any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ActiveSessionRow(activeSession, driver, ambulance)));
         when(assignmentRepository.findByStatus(any())).thenReturn(Collections.emptyList());
-        when(sessionRepository.findStaleSessions(any())).thenReturn(Collections.emptyList());
 
         // Act
-        validator.validateInvariants();
+        validator.validate(true);
+        LocalDateTime afterFirstRun = LocalDateTime.now();
+        int issues = validator.validate(false);
 
         // Assert
-        verify(sessionRepository, atLeastOnce()).findActiveSessions();
+        assertThat(issues).isZero();
+        verify(sessionRepository, times(1)).findActiveSessionRows();
+        verify(sessionRepository).findActiveSessionRowsToRecheck(
+                argThat(since -> !since.isAfter(afterFirstRun)), any(LocalDateTime.class), any(LocalDateTime.class));
+        assertThat(meterRegistry.get("driver.session.invariant.duration").timers()).hasSize(9);
+    }
+
+    @Test
+    void validate_IncrementalRunCatchesHeartbeatThatWentStale() {
+        // Arrange: the session has not been written since the first run, its heartbeat just aged out
+        activeSession.setLastHeartbeat(LocalDateTime.now().minusMinutes(10));
+        when(sessionRepository.findActiveSessionRows()).thenReturn(Collections.emptyList());
+        when(sessionRepository.findActiveSessionRowsToRecheck(
+                any(LocalDateTime.class), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ActiveSessionRow(activeSession, driver, ambulance)));
+        when(assignmentRepository.findByStatus(any())).thenReturn(Collections.emptyList());
+
+        // Act
+        validator.validate(true);
+        LocalDateTime beforeSecondRun = LocalDateTime.now();
+        int issues = validator.validate(false);
+
+        // Assert: the query is widened to sessions whose heartbeat is older than the stale floor
+        assertThat(issues).isEqualTo(1);
+        assertThat(meterRegistry.get("driver.session.invariant.violations")
+                .tag("check", "heartbeat_fresh").gauge().value()).isEqualTo(1.0);
+        verify(sessionRepository).findActiveSessionRowsToRecheck(any(LocalDateTime.class),
+                argThat(heartbeatBefore -> !heartbeatBefore.isAfter(
+                        beforeSecondRun.minusSeconds(DriverSession.MIN_STALE_SECONDS - 1))),
+                argThat(startedBefore -> startedBefore.isBefore(beforeSecondRun.minusHours(23))));
     }
 }
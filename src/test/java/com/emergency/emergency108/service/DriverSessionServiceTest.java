@@ -1,14 +1,18 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.GeoPartitioner;
 import com.emergency.emergency108.entity.Ambulance;
 import com.emergency.emergency108.entity.DriverSession;
 import com.emergency.emergency108.entity.DriverSessionStatus;
 import com.emergency.emergency108.entity.User;
 import com.emergency.emergency108.entity.UserRole;
 import com.emergency.emergency108.metrics.DomainMetrics;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.UserRepository;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
 import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,10 +22,12 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +46,8 @@ class DriverSessionServiceTest {
 
     private DriverSessionService sessionService;
 
+    private HeartbeatDeadlineIndex deadlineIndex;
+
     private User driver;
     private Ambulance ambulance;
     private DriverSession activeSession;
@@ -47,7 +55,12 @@ class DriverSessionServiceTest {
     @BeforeEach
     void setUp() {
         metrics = new DomainMetrics(new SimpleMeterRegistry());
-        sessionService = new DriverSessionService(sessionRepository, userRepository, ambulanceRepository, metrics);
+        HeartbeatCadencePolicy cadencePolicy = new HeartbeatCadencePolicy(
+                mock(LiveAssignmentRegistry.class), new ZoneDemandTracker(0.1, System::currentTimeMillis), 3, 5, 15, 20, 3);
+        deadlineIndex = new HeartbeatDeadlineIndex();
+        sessionService = new DriverSessionService(
+                sessionRepository, userRepository, ambulanceRepository, metrics, cadencePolicy,
+                deadlineIndex, new GeoPartitioner(mock(ClusterCoordinator.class), false, 0.5));
 
         driver = new User();
         driver.setId(100L);
@@ -147,6 +160,52 @@ class DriverSessionServiceTest {
         assertEquals(28.6139, activeSession.getCurrentLat());
         assertEquals(77.2090, activeSession.getCurrentLng());
         assertNotNull(activeSession.getLastHeartbeat());
+        // Idle driver in a zone without recent emergencies gets the slow cadence
+        assertEquals(15, activeSession.getHeartbeatIntervalSeconds());
         verify(sessionRepository).save(activeSession);
     }
+
+    @Test
+    void endStaleSessions_EndsOnlyStaleOnesInOneUpdate() {
+        // Arrange
+        DriverSession staleSession = new DriverSession(101L, 501L);
+        staleSession.setId(2L);
+        staleSession.setLastHeartbeat(LocalDateTime.now().minusMinutes(2));
+
+        when(sessionRepository.findActiveByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(activeSession, staleSession));
+        when(sessionRepository.endStaleSessions(eq(List.of(2L)), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // Act
+        int ended = sessionService.endStaleSessions(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(1, ended);
+        verify(sessionRepository).endStaleSessions(eq(List.of(2L)), any(LocalDateTime.class), any(LocalDateTime.class));
+        verify(sessionRepository, never()).save(any(DriverSession.class));
+    }
+
+    @Test
+    void endStaleSessions_ReportsOnlyRowsTheUpdateEnded() {
+        // Arrange: both look stale, but session 2 gets a heartbeat before the UPDATE runs
+        DriverSession staleSession = new DriverSession(101L, 501L);
+        staleSession.setId(2L);
+        staleSession.setLastHeartbeat(LocalDateTime.now().minusMinutes(2));
+        activeSession.setLastHeartbeat(LocalDateTime.now().minusMinutes(2));
+
+        when(sessionRepository.findActiveByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(activeSession, staleSession))
+                .thenReturn(List.of(staleSession));
+        when(sessionRepository.endStaleSessions(eq(List.of(1L, 2L)), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(1);
+
+        // Act
+        int ended = sessionService.endStaleSessions(List.of(1L, 2L));
+
+        // Assert: only session 1 is reported; session 2 is watched again
+        assertEquals(1, ended);
+        assertEquals(List.of(2L),
+                deadlineIndex.pollExpired(System.currentTimeMillis() + DriverSession.MIN_STALE_SECONDS * 1000L));
+    }
 }
@@ -0,0 +1,99 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyAssignment;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.event.DomainEventPublisher;
+import com.emergency.emergency108.exception.AssignmentAccessDeniedException;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
+import com.emergency.emergency108.metrics.DomainMetrics;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.repository.AmbulanceRepository;
+import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmergencyAssignmentServiceTest {
+
+    private static final Long EMERGENCY_ID = 1L;
+    private static final Long DRIVER_ID = 200L;
+
+    private EmergencyAssignmentRepository assignmentRepository;
+    private EmergencyAuthorizationService authorizationService;
+    private EmergencyAssignmentService assignmentService;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository = mock(EmergencyAssignmentRepository.class);
+        authorizationService = mock(EmergencyAuthorizationService.class);
+        registry = new SimpleMeterRegistry();
+        assignmentService = new EmergencyAssignmentService(
+                assignmentRepository,
+                mock(AmbulanceRepository.class),
+                mock(EmergencyDispatchService.class),
+                mock(EmergencyRepository.class),
+                mock(DomainEventPublisher.class),
+                new DomainMetrics(registry),
+                new DispatchLatencyMetrics(registry, 1.0, 120, 0.99),
+                mock(DriverSessionService.class),
+                mock(LiveAssignmentRegistry.class),
+                authorizationService);
+    }
+
+    @Test
+    void acceptEmergency_RejectsDriverWhoCannotAccept() {
+        when(authorizationService.canDriverAcceptEmergency(DRIVER_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> assignmentService.acceptEmergency(EMERGENCY_ID, DRIVER_ID))
+                .isInstanceOf(AssignmentAccessDeniedException.class)
+                .hasMessageContaining("VERIFIED and ONLINE");
+        verify(assignmentRepository, never()).save(any());
+        assertThat(registry.get("assignment.accept.time").tag("outcome", "failed").timer().count()).isEqualTo(1);
+        assertThat(registry.get("assignment.accept.time").tag("outcome", "accepted").timer().count()).isZero();
+    }
+
+    @Test
+    void acceptEmergency_CountsAnAcceptanceNotACompletion() {
+        Emergency emergency = new Emergency();
+        emergency.setStatus(EmergencyStatus.DISPATCHED);
+        EmergencyAssignment assignment = new EmergencyAssignment();
+        assignment.setEmergency(emergency);
+        assignment.setStatus(EmergencyAssignmentStatus.ASSIGNED);
+        assignment.setAssignedAt(LocalDateTime.now().minusSeconds(20));
+        when(authorizationService.canDriverAcceptEmergency(DRIVER_ID)).thenReturn(true);
+        when(authorizationService.isDriverAssignedToEmergency(DRIVER_ID, EMERGENCY_ID)).thenReturn(true);
+        when(assignmentRepository.findActiveAssignment(EMERGENCY_ID, DRIVER_ID)).thenReturn(Optional.of(assignment));
+
+        assignmentService.acceptEmergency(EMERGENCY_ID, DRIVER_ID);
+
+        assertThat(registry.get("assignment.accepted").counter().count()).isEqualTo(1);
+        assertThat(registry.get("assignment.completed").counter().count()).isZero();
+        assertThat(registry.get("assignment.accept.time").tag("outcome", "accepted").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void acceptEmergency_RejectsDriverWhoIsNotAssigned() {
+        when(authorizationService.canDriverAcceptEmergency(DRIVER_ID)).thenReturn(true);
+        when(authorizationService.isDriverAssignedToEmergency(DRIVER_ID, EMERGENCY_ID)).thenReturn(false);
+
+        assertThatThrownBy(() -> assignmentService.acceptEmergency(EMERGENCY_ID, DRIVER_ID))
+                .isInstanceOf(AssignmentAccessDeniedException.class)
+                .hasMessageContaining("not assigned");
+        verify(assignmentRepository, never()).save(any());
+    }
+}
@@ -1,6 +1,8 @@
 package com.emergency.emergency108.service;
 
+import com.emergency.emergency108.cluster.ClusterCoordinator;
 import com.emergency.emergency108.entity.*;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
 import com.emergency.emergency108.repository.UserRepository;
@@ -46,7 +48,8 @@ class EmergencyCancellationServiceTest {
                 assignmentRepository,
                 userRepository,
                 driverSessionService,
-                authorizationService);
+                authorizationService,
+                new LiveAssignmentRegistry(assignmentRepository, mock(ClusterCoordinator.class))); // not built: falls back to the repository
     }
 
     // Stub class for DriverSessionService
@@ -107,6 +110,8 @@ class EmergencyCancellationServiceTest {
 
         when(assignmentRepository.findByEmergencyIdAndStatus(emergencyId, EmergencyAssignmentStatus.ASSIGNED))
                 .thenReturn(Optional.of(assignment));
+        when(assignmentRepository.existsByEmergencyIdAndStatusIn(eq(emergencyId), any()))
+                .thenReturn(true);
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
 
         // Act
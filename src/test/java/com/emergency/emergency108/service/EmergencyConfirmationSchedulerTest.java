@@ -0,0 +1,104 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.cluster.Shard;
+import com.emergency.emergency108.entity.Emergency;
+import com.emergency.emergency108.entity.EmergencyFor;
+import com.emergency.emergency108.entity.EmergencyStatus;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmergencyConfirmationSchedulerTest {
+
+    private EmergencyRepository emergencyRepository;
+    private EmergencyService emergencyService;
+    private EmergencyConfirmationScheduler scheduler;
+    private Emergency first;
+
+    @BeforeEach
+    void setUp() {
+        emergencyRepository = mock(EmergencyRepository.class);
+        emergencyService = mock(EmergencyService.class);
+        ClusterCoordinator cluster = mock(ClusterCoordinator.class);
+        when(cluster.shard()).thenReturn(Shard.ALL);
+        scheduler = new EmergencyConfirmationScheduler(emergencyRepository, emergencyService, cluster, 600);
+
+        first = emergency(1L, 10L, EmergencyFor.SELF, null, false);
+        first.setStatus(EmergencyStatus.DISPATCHED);
+    }
+
+    @Test
+    void bystanderReportIsHeldWhileFirstReportIsServed() {
+        Emergency bystander = emergency(2L, 20L, EmergencyFor.OTHER, 1L, true);
+        due(bystander);
+
+        scheduler.processUnconfirmedEmergencies();
+
+        verify(emergencyService, never()).dispatchToNearestDriver(2L);
+    }
+
+    @Test
+    void secondVictimInTheIncidentIsDispatched() {
+        Emergency otherVictim = emergency(2L, 20L, EmergencyFor.SELF, 1L, false);
+        due(otherVictim);
+
+        scheduler.processUnconfirmedEmergencies();
+
+        verify(emergencyService).dispatchToNearestDriver(2L);
+    }
+
+    @Test
+    void heldReportIsReleasedWhenFirstReportIsCancelled() {
+        first.setStatus(EmergencyStatus.CANCELLED);
+        Emergency bystander = emergency(2L, 20L, EmergencyFor.OTHER, 1L, true);
+        due(bystander);
+
+        scheduler.processUnconfirmedEmergencies();
+
+        verify(emergencyService).dispatchToNearestDriver(2L);
+    }
+
+    @Test
+    void heldReportIsReleasedAfterMaxHold() {
+        Emergency repeat = emergency(2L, 10L, EmergencyFor.SELF, 1L, true);
+        ReflectionTestUtils.setField(repeat, "createdAt", LocalDateTime.now().minusSeconds(601));
+        due(repeat);
+
+        scheduler.processUnconfirmedEmergencies();
+
+        verify(emergencyService).dispatchToNearestDriver(2L);
+    }
+
+    private void due(Emergency emergency) {
+        when(emergencyRepository.findUnconfirmedEmergenciesInShard(any(), anyInt(), anyInt()))
+                .thenReturn(List.of(emergency));
+        when(emergencyRepository.findById(emergency.getId())).thenReturn(Optional.of(emergency));
+        when(emergencyRepository.findById(first.getId())).thenReturn(Optional.of(first));
+    }
+
+    private static Emergency emergency(Long id, Long userId, EmergencyFor emergencyFor, Long incidentId,
+                                       boolean probableDuplicate) {
+        Emergency emergency = new Emergency();
+        ReflectionTestUtils.setField(emergency, "id", id);
+        ReflectionTestUtils.setField(emergency, "createdAt", LocalDateTime.now().minusSeconds(120));
+        emergency.setUserId(userId);
+        emergency.setStatus(EmergencyStatus.CREATED);
+        emergency.setEmergencyFor(emergencyFor);
+        emergency.setIncidentId(incidentId);
+        emergency.setProbableDuplicate(probableDuplicate);
+        return emergency;
+    }
+}
@@ -3,10 +3,13 @@ package com.emergency.emergency108.service;
 import com.emergency.emergency108.entity.*;
 import com.emergency.emergency108.event.DomainEvent;
 import com.emergency.emergency108.event.DomainEventPublisher;
+import com.emergency.emergency108.metrics.DispatchLatencyMetrics;
+import com.emergency.emergency108.metrics.DomainMetrics;
 import com.emergency.emergency108.repository.AmbulanceRepository;
 import com.emergency.emergency108.repository.DriverSessionRepository;
 import com.emergency.emergency108.repository.EmergencyAssignmentRepository;
 import com.emergency.emergency108.repository.EmergencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -16,6 +19,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
@@ -26,6 +30,7 @@ class EmergencyDispatchServiceTest {
     private EmergencyRepository emergencyRepository;
     private EmergencyAssignmentRepository assignmentRepository;
     private DriverSessionRepository driverSessionRepository;
+    private SimpleMeterRegistry latencyRegistry;
 
     private EmergencyDispatchService dispatchService;
 
@@ -40,13 +45,16 @@ class EmergencyDispatchServiceTest {
 
         // Manual stub for concrete class
         eventPublisher = new DomainEventPublisherStub();
+        latencyRegistry = new SimpleMeterRegistry();
 
         dispatchService = new EmergencyDispatchService(
                 ambulanceRepository,
                 eventPublisher,
                 emergencyRepository,
                 assignmentRepository,
-                driverSessionRepository);
+                driverSessionRepository,
+                new DomainMetrics(new SimpleMeterRegistry()),
+                new DispatchLatencyMetrics(latencyRegistry, 1.0, 120, 0.99));
     }
 
     static class DomainEventPublisherStub extends DomainEventPublisher {
@@ -113,4 +121,82 @@ class EmergencyDispatchServiceTest {
 
         verify(emergencyRepository).save(argThat(e -> e.getStatus() == EmergencyStatus.DISPATCHED));
     }
+
+    @Test
+    void testDispatch_AfterTimeoutCountsAsRedispatch() {
+        Long emergencyId = 2L;
+        Long driverId = 102L;
+
+        Emergency emergency = new Emergency();
+        ReflectionTestUtils.setField(emergency, "id", emergencyId);
+        ReflectionTestUtils.setField(emergency, "createdAt", LocalDateTime.now().minusSeconds(90));
+        emergency.setStatus(EmergencyStatus.CREATED);
+        emergency.setLatitude(10.0);
+        emergency.setLongitude(10.0);
+
+        DriverSession session = new DriverSession();
+        session.setDriverId(driverId);
+        session.setStatus(DriverSessionStatus.ONLINE);
+        session.setLastHeartbeat(LocalDateTime.now());
+        session.updateLocation(10.0, 10.0);
+
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(500L);
+
+        when(emergencyRepository.findById(emergencyId)).thenReturn(Optional.of(emergency));
+        when(driverSessionRepository.findAllOnlineDrivers()).thenReturn(List.of(session));
+        when(ambulanceRepository.findByDriverId(driverId)).thenReturn(Optional.of(ambulance));
+
+        // The first offer went unanswered (TIMEOUT), so nobody is in the rejected list
+        when(assignmentRepository.findRejectedDriverIdsByEmergencyId(emergencyId)).thenReturn(List.of());
+        when(assignmentRepository.existsByEmergencyId(emergencyId)).thenReturn(true);
+
+        dispatchService.dispatchToNearestAvailableAmbulance(emergencyId);
+
+        assertThat(latencyRegistry.get("emergency.redispatch").counter().count()).isEqualTo(1.0);
+        assertThat(latencyRegistry.find("emergency.stage.duration")
+                .tag("stage", DispatchLatencyMetrics.STAGE_CREATED_TO_DISPATCHED).timer()).isNull();
+    }
+
+    @Test
+    void testDispatch_FallsBackToDriverWithoutLocation() {
+        Long emergencyId = 3L;
+        Long locatedDriverId = 101L;
+        Long unlocatedDriverId = 102L;
+
+        Emergency emergency = new Emergency();
+        ReflectionTestUtils.setField(emergency, "id", emergencyId);
+        emergency.setStatus(EmergencyStatus.CREATED);
+        emergency.setLatitude(10.0);
+        emergency.setLongitude(10.0);
+
+        // Nearest located driver, but no ambulance
+        DriverSession locatedSession = new DriverSession();
+        locatedSession.setDriverId(locatedDriverId);
+        locatedSession.setStatus(DriverSessionStatus.ONLINE);
+        locatedSession.setLastHeartbeat(LocalDateTime.now());
+        locatedSession.updateLocation(10.0, 10.0);
+
+        // No location reported yet
+        DriverSession unlocatedSession = new DriverSession();
+        unlocatedSession.setDriverId(unlocatedDriverId);
+        unlocatedSession.setStatus(DriverSessionStatus.ONLINE);
+        unlocatedSession.setLastHeartbeat(LocalDateTime.now());
+
+        Ambulance ambulance = new Ambulance();
+        ambulance.setId(500L);
+
+        when(emergencyRepository.findById(emergencyId)).thenReturn(Optional.of(emergency));
+        when(driverSessionRepository.findAllOnlineDrivers())
+                .thenReturn(List.of(unlocatedSession, locatedSession));
+        when(assignmentRepository.findRejectedDriverIdsByEmergencyId(emergencyId)).thenReturn(List.of());
+        when(ambulanceRepository.findByDriverId(locatedDriverId)).thenReturn(Optional.empty());
+        when(ambulanceRepository.findByDriverId(unlocatedDriverId)).thenReturn(Optional.of(ambulance));
+
+        dispatchService.dispatchToNearestAvailableAmbulance(emergencyId);
+
+        // The located driver is tried first, then the unlocated one
+        verify(ambulanceRepository).findByDriverId(locatedDriverId);
+        verify(assignmentRepository).save(argThat(assignment -> assignment.getDriverId().equals(unlocatedDriverId)));
+    }
 }
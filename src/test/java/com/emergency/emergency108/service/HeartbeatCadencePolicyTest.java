@@ -0,0 +1,130 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.dto.EmergencyLocationRow;
+import com.emergency.emergency108.entity.DriverSession;
+import com.emergency.emergency108.entity.DriverSessionStatus;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.readmodel.LiveAssignmentRegistry;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HeartbeatCadencePolicyTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    private LiveAssignmentRegistry liveAssignments;
+    private ZoneDemandTracker demand;
+    private HeartbeatCadencePolicy policy;
+    private DriverSession session;
+
+    @BeforeEach
+    void setUp() {
+        liveAssignments = mock(LiveAssignmentRegistry.class);
+        demand = new ZoneDemandTracker(0.1, () -> NOW);
+        policy = new HeartbeatCadencePolicy(liveAssignments, demand, 3, 5, 15, 20, 3);
+
+        session = new DriverSession();
+        session.setDriverId(100L);
+        session.setStatus(DriverSessionStatus.ONLINE);
+        session.updateLocation(28.6139, 77.2090);
+    }
+
+    @Test
+    void idleDriverInQuietZoneGetsSlowCadence() {
+        HeartbeatCadencePolicy.Recommendation recommendation = policy.recommend(session);
+
+        assertEquals(HeartbeatCadencePolicy.State.IDLE_LOW_DEMAND, recommendation.state());
+        assertEquals(15, recommendation.intervalSeconds());
+    }
+
+    @Test
+    void idleDriverInZoneWithRecentDemandGetsNormalCadence() {
+        demand.recordEmergency(28.6150, 77.2100);
+
+        assertEquals(5, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void demandInAnotherZoneDoesNotCount() {
+        demand.recordEmergency(19.0760, 72.8777);
+
+        assertEquals(15, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void driverOnTripGetsFastCadence() {
+        session.setStatus(DriverSessionStatus.ON_TRIP);
+
+        assertEquals(HeartbeatCadencePolicy.State.ON_TRIP, policy.recommend(session).state());
+        assertEquals(3, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void pendingOfferGetsFastCadence() {
+        when(liveAssignments.currentForDriver(100L)).thenReturn(Optional.of(new AssignmentView(
+                1L, 10L, 5L, 100L, EmergencyAssignmentStatus.ASSIGNED,
+                LocalDateTime.now(), null, LocalDateTime.now().plusSeconds(60), 0L)));
+
+        assertEquals(HeartbeatCadencePolicy.State.OFFER_PENDING, policy.recommend(session).state());
+        assertEquals(3, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void zoneSurgeTightensIdleCadence() {
+        for (int i = 0; i < 3; i++) {
+            demand.recordEmergency(28.6150, 77.2100);
+        }
+
+        assertEquals(HeartbeatCadencePolicy.State.SURGE, policy.recommend(session).state());
+        assertEquals(3, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void citywideSurgeTightensEveryIdleDriver() {
+        for (int i = 0; i < 20; i++) {
+            demand.recordEmergency(19.0 + i * 0.5, 72.0);
+        }
+
+        assertEquals(3, policy.recommend(session).intervalSeconds());
+    }
+
+    @Test
+    void clustered_CountsSurgeReportedOnOtherNodes() {
+        EmergencyRepository emergencies = mock(EmergencyRepository.class);
+        LocalDateTime twoMinutesAgo = LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(NOW - 2 * 60_000L), ZoneId.systemDefault());
+        when(emergencies.findLocationsCreatedSince(any())).thenReturn(Collections.nCopies(3,
+                new EmergencyLocationRow(twoMinutesAgo, 28.6150, 77.2100)));
+        demand = new ZoneDemandTracker(0.1, () -> NOW, emergencies);
+        policy = new HeartbeatCadencePolicy(liveAssignments, demand, 3, 5, 15, 20, 3);
+
+        assertEquals(15, policy.recommend(session).intervalSeconds());
+        demand.reloadSharedDemand();
+
+        assertEquals(HeartbeatCadencePolicy.State.SURGE, policy.recommend(session).state());
+    }
+
+    @Test
+    void staleCutoffScalesWithRecommendedInterval() {
+        assertEquals(15, session.staleAfterSeconds());
+
+        session.setHeartbeatIntervalSeconds(3);
+        assertEquals(15, session.staleAfterSeconds());
+
+        session.setHeartbeatIntervalSeconds(15);
+        assertEquals(45, session.staleAfterSeconds());
+    }
+}
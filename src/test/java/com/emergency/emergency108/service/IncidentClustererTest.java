@@ -0,0 +1,130 @@
+package com.emergency.emergency108.service;
+
+import com.emergency.emergency108.dto.IncidentReportRow;
+import com.emergency.emergency108.repository.EmergencyRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class IncidentClustererTest {
+
+    // ~100 m north of the scene is 0.0009 degrees of latitude
+    private static final double LAT = 28.6139;
+    private static final double LNG = 77.2090;
+    private static final Long REPORTER = 7L;
+    private static final Long OTHER_USER = 8L;
+
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+    private SimpleMeterRegistry registry;
+    private IncidentClusterer clusterer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        clusterer = new IncidentClusterer(250, 120, 10_000, registry, now::get);
+    }
+
+    @Test
+    void reportNearARecentOneJoinsItsIncident() {
+        assertThat(clusterer.incidentFor(LAT, LNG, REPORTER)).isNull();
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+
+        now.addAndGet(30_000);
+        IncidentClusterer.Match match = clusterer.incidentFor(LAT + 0.0009, LNG + 0.0009, OTHER_USER);
+        assertThat(match.incidentId()).isEqualTo(1L);
+        assertThat(match.repeatReport()).isFalse();
+        clusterer.record(2L, match.incidentId(), OTHER_USER, LAT + 0.0009, LNG + 0.0009);
+
+        assertThat(registry.get("emergency.sos.reports").tag("grouped", "false").counter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("emergency.sos.reports").tag("grouped", "true").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void sameUserReportingAgainIsARepeat() {
+        clusterer.record(1L, null, OTHER_USER, LAT, LNG);
+        clusterer.record(2L, 1L, REPORTER, LAT + 0.0009, LNG);
+
+        IncidentClusterer.Match match = clusterer.incidentFor(LAT, LNG, REPORTER);
+        assertThat(match.incidentId()).isEqualTo(1L);
+        assertThat(match.repeatReport()).isTrue();
+    }
+
+    @Test
+    void reportOutsideTheRadiusStartsANewIncident() {
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+
+        // ~400 m away
+        assertThat(clusterer.incidentFor(LAT + 0.0036, LNG, REPORTER)).isNull();
+        assertThat(clusterer.incidentFor(LAT, LNG + 0.0041, REPORTER)).isNull();
+    }
+
+    @Test
+    void reportAfterTheWindowStartsANewIncident() {
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+
+        now.addAndGet(121_000);
+        assertThat(clusterer.incidentFor(LAT, LNG, REPORTER)).isNull();
+        assertThat(clusterer.size()).isZero();
+    }
+
+    @Test
+    void groupedReportsKeepTheWindowOpen() {
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+        for (long id = 2; id <= 5; id++) {
+            now.addAndGet(100_000);
+            IncidentClusterer.Match match = clusterer.incidentFor(LAT, LNG, id);
+            assertThat(match.incidentId()).isEqualTo(1L);
+            clusterer.record(id, match.incidentId(), id, LAT, LNG);
+        }
+    }
+
+    @Test
+    void nearestIncidentWins() {
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+        clusterer.record(2L, null, REPORTER, LAT + 0.0040, LNG);
+
+        assertThat(clusterer.incidentFor(LAT + 0.0030, LNG, OTHER_USER).incidentId()).isEqualTo(2L);
+        assertThat(clusterer.incidentFor(LAT + 0.0010, LNG, OTHER_USER).incidentId()).isEqualTo(1L);
+    }
+
+    @Test
+    void oldestReportsAreDroppedBeyondMaxReports() {
+        clusterer = new IncidentClusterer(250, 120, 2, registry, now::get);
+        clusterer.record(1L, null, REPORTER, LAT, LNG);
+        clusterer.record(2L, null, REPORTER, LAT + 0.01, LNG);
+        clusterer.record(3L, null, REPORTER, LAT + 0.02, LNG);
+
+        assertThat(clusterer.size()).isEqualTo(2);
+        assertThat(clusterer.incidentFor(LAT, LNG, OTHER_USER)).isNull();
+        assertThat(clusterer.incidentFor(LAT + 0.02, LNG, OTHER_USER).incidentId()).isEqualTo(3L);
+    }
+
+    @Test
+    void clustered_MatchesReportsFromTheDatabase() {
+        EmergencyRepository emergencyRepository = mock(EmergencyRepository.class);
+        clusterer = new IncidentClusterer(250, 120, 10_000, registry, now::get, emergencyRepository);
+        // Created on other nodes: the first report, and one that joined it
+        when(emergencyRepository.findReportsSince(any(), anyDouble(), anyDouble(), anyDouble(), anyDouble()))
+                .thenReturn(List.of(
+                        new IncidentReportRow(1L, null, OTHER_USER, LAT, LNG),
+                        new IncidentReportRow(2L, 1L, REPORTER, LAT + 0.0009, LNG)));
+
+        IncidentClusterer.Match match = clusterer.incidentFor(LAT + 0.0009, LNG, REPORTER);
+        assertThat(match.incidentId()).isEqualTo(1L);
+        assertThat(match.repeatReport()).isTrue();
+
+        clusterer.record(3L, match.incidentId(), REPORTER, LAT + 0.0009, LNG);
+        assertThat(clusterer.size()).isZero();
+    }
+}
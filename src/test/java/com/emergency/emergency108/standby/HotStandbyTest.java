@@ -0,0 +1,147 @@
+package com.emergency.emergency108.standby;
+
+import com.emergency.emergency108.cluster.ClusterCoordinator;
+import com.emergency.emergency108.entity.EmergencyAssignmentStatus;
+import com.emergency.emergency108.journal.StateChangeFeed;
+import com.emergency.emergency108.readmodel.AssignmentChangedEvent;
+import com.emergency.emergency108.readmodel.AssignmentView;
+import com.emergency.emergency108.resilience.HeartbeatDeadlineIndex;
+import com.emergency.emergency108.service.StartupRecoveryService;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * A primary and a standby in one JVM: the primary's stream is served by a
+ * plain JDK HTTP server, the standby follows it over HTTP.
+ */
+class HotStandbyTest {
+
+    private static final String TOKEN = "secret";
+
+    // Primary
+    private HeartbeatDeadlineIndex primaryIndex;
+    private StateChangeFeed primaryFeed;
+    private HttpServer server;
+
+    // Standby
+    private ClusterCoordinator standbyCluster;
+    private HeartbeatDeadlineIndex standbyIndex;
+    private StartupRecoveryService startupRecovery;
+    private HotStandby standby;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        primaryIndex = new HeartbeatDeadlineIndex();
+        primaryFeed = new StateChangeFeed(primaryIndex);
+        primaryIndex.rebuild(List.of());
+
+        ClusterCoordinator primaryCluster = mock(ClusterCoordinator.class);
+        StateStreamServer streamServer = new StateStreamServer(
+                primaryIndex, primaryFeed, primaryCluster, TOKEN, 1000);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext(StateStreamServer.PATH, exchange -> {
+            if (!streamServer.isAuthorized(exchange.getRequestHeaders().getFirst(StateStreamServer.TOKEN_HEADER))) {
+                exchange.sendResponseHeaders(403, -1);
+                exchange.close();
+                return;
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (exchange) {
+                streamServer.stream(exchange.getResponseBody());
+            } catch (IOException e) {
+                // standby went away
+            }
+        });
+        server.start();
+
+        standbyCluster = mock(ClusterCoordinator.class);
+        when(standbyCluster.isEnabled()).thenReturn(true);
+        when(standbyCluster.isStandby()).thenReturn(true);
+        standbyIndex = new HeartbeatDeadlineIndex();
+        startupRecovery = mock(StartupRecoveryService.class);
+        standby = standby(TOKEN);
+    }
+
+    @AfterEach
+    void tearDown() {
+        standby.stop();
+        server.stop(0);
+    }
+
+    @Test
+    void follows_DeadlineSnapshotThenChanges() {
+        primaryIndex.track(7L, 1_000L);
+
+        standby.start();
+        await().atMost(Duration.ofSeconds(5)).until(standby::isSynced);
+        assertThat(standbyIndex.deadlines()).containsEntry(7L, 1_000L);
+
+        // Changes after the snapshot arrive as records; assignment changes are not sent
+        primaryFeed.onAssignmentChanged(new AssignmentChangedEvent(assignment(2L, 300L, 0L), null));
+        primaryIndex.untrack(7L);
+        primaryIndex.track(8L, 2_000L);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> standbyIndex.deadlines().containsKey(8L));
+        assertThat(standbyIndex.deadlines()).doesNotContainKey(7L);
+    }
+
+    @Test
+    void takesOverOnlyAfterSyncingAndOnceTheLeaseLapses() {
+        // Never synced: no primary seen, nothing to take over from
+        standby.checkLease();
+        verify(standbyCluster, never()).takeOver(any(), any());
+
+        standby.start();
+        await().atMost(Duration.ofSeconds(5)).until(standby::isSynced);
+
+        // Primary still renewing
+        when(standbyCluster.takeOver(eq(HotStandby.PRIMARY_LEASE), any())).thenReturn(false);
+        standby.checkLease();
+        verify(startupRecovery, never()).recoverAfterTakeover();
+
+        // Primary gone
+        when(standbyCluster.takeOver(eq(HotStandby.PRIMARY_LEASE), any())).thenReturn(true);
+        standby.checkLease();
+        verify(startupRecovery).recoverAfterTakeover();
+    }
+
+    @Test
+    void wrongToken_NeverSyncs() throws Exception {
+        standby = standby("wrong");
+        standby.start();
+
+        Thread.sleep(500);
+        assertThat(standby.isSynced()).isFalse();
+    }
+
+    private HotStandby standby(String token) {
+        return new HotStandby(standbyCluster, standbyIndex, startupRecovery,
+                "http://localhost:" + server.getAddress().getPort(), token, 10);
+    }
+
+    private static AssignmentView assignment(Long id, Long driverId, Long version) {
+        LocalDateTime now = LocalDateTime.now();
+        return new AssignmentView(id, 10L + id, 5L + id, driverId, EmergencyAssignmentStatus.ACCEPTED,
+                now, now, now.plusSeconds(60), version);
+    }
+}
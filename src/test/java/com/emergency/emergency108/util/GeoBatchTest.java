@@ -0,0 +1,92 @@
+package com.emergency.emergency108.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoBatchTest {
+
+    private static final double LAT = 28.6139;
+    private static final double LNG = 77.2090;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void distances_match_geoUtil() {
+        int n = 1000;
+        double[] lats = randomAround(LAT, n);
+        double[] lngs = randomAround(LNG, n);
+        double[] out = new double[n];
+
+        GeoBatch.distancesKm(LAT, LNG, lats, lngs, n, out);
+
+        for (int i = 0; i < n; i++) {
+            assertThat(out[i]).isCloseTo(GeoUtil.distanceKm(LAT, LNG, lats[i], lngs[i]), within(1e-9));
+        }
+    }
+
+    @Test
+    void nearest_returns_k_closest_in_order() {
+        int n = 5000;
+        double[] lats = randomAround(LAT, n);
+        double[] lngs = randomAround(LNG, n);
+
+        Integer[] expected = IntStream.range(0, n).boxed()
+                .sorted(Comparator.comparingDouble(i -> GeoUtil.distanceKm(LAT, LNG, lats[i], lngs[i])))
+                .limit(5)
+                .toArray(Integer[]::new);
+
+        GeoBatch.Workspace ws = new GeoBatch.Workspace();
+        int found = GeoBatch.nearest(lats, lngs, n, LAT, LNG, Double.POSITIVE_INFINITY, 5, ws);
+
+        assertThat(found).isEqualTo(5);
+        for (int r = 0; r < found; r++) {
+            assertThat(ws.index(r)).isEqualTo(expected[r]);
+        }
+    }
+
+    @Test
+    void nearest_respects_radius_and_skips_nan() {
+        double[] lats = { Double.NaN, LAT + 0.001, LAT + 0.5 };
+        double[] lngs = { Double.NaN, LNG, LNG };
+
+        GeoBatch.Workspace ws = new GeoBatch.Workspace();
+        int found = GeoBatch.nearest(lats, lngs, 3, LAT, LNG, 5.0, 3, ws);
+
+        assertThat(found).isEqualTo(1);
+        assertThat(ws.index(0)).isEqualTo(1);
+    }
+
+    @Test
+    void withinRadius_finds_every_point_inside() {
+        int n = 20000;
+        double[] lats = randomAround(LAT, n);
+        double[] lngs = randomAround(LNG, n);
+
+        long expected = IntStream.range(0, n)
+                .filter(i -> GeoUtil.distanceKm(LAT, LNG, lats[i], lngs[i]) <= 3.0)
+                .count();
+
+        GeoBatch.Workspace ws = new GeoBatch.Workspace();
+        int found = GeoBatch.withinRadius(lats, lngs, n, LAT, LNG, 3.0, ws);
+
+        assertThat(found).isEqualTo((int) expected);
+        int[] indexes = IntStream.range(0, found).map(ws::index).toArray();
+        assertThat(Arrays.stream(indexes).allMatch(i -> GeoUtil.distanceKm(LAT, LNG, lats[i], lngs[i]) <= 3.0))
+                .isTrue();
+    }
+
+    private double[] randomAround(double center, int n) {
+        double[] values = new double[n];
+        for (int i = 0; i < n; i++) {
+            values[i] = center + (random.nextDouble() - 0.5);
+        }
+        return values;
+    }
+}
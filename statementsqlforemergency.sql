@@ -122,6 +122,26 @@ CREATE INDEX `idx_audit_time` ON `audit_events` (`occurred_at` ASC) VISIBLE;
 
 SHOW WARNINGS;
 
+-- -----------------------------------------------------
+-- Table `cluster_nodes`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `cluster_nodes` ;
+
+SHOW WARNINGS;
+CREATE TABLE IF NOT EXISTS `cluster_nodes` (
+  `node_id` VARCHAR(100) NOT NULL,
+  `base_url` VARCHAR(255) NULL DEFAULT NULL,
+  `started_at` DATETIME(6) NOT NULL,
+  `last_seen_at` DATETIME(6) NOT NULL,
+  PRIMARY KEY (`node_id`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4;
+
+SHOW WARNINGS;
+CREATE INDEX `idx_cluster_nodes_last_seen` ON `cluster_nodes` (`last_seen_at` ASC) VISIBLE;
+
+SHOW WARNINGS;
+
 -- -----------------------------------------------------
 -- Table `domain_events`
 -- -----------------------------------------------------
@@ -190,6 +210,8 @@ CREATE TABLE IF NOT EXISTS `driver_sessions` (
   `created_at` DATETIME(6) NOT NULL,
   `updated_at` DATETIME(6) NULL DEFAULT NULL,
   `last_heartbeat` DATETIME(6) NULL DEFAULT NULL COMMENT 'Last GPS heartbeat received from driver app. Updated every 3-5 seconds.',
+  `heartbeat_interval_seconds` INT(11) NULL DEFAULT NULL COMMENT 'Heartbeat interval last recommended to the driver app.',
+  `heartbeat_sequence` BIGINT(20) NULL DEFAULT NULL COMMENT 'Last binary heartbeat sequence accepted (cluster-wide replay protection).',
   PRIMARY KEY (`id`),
   CONSTRAINT `fk_driver_session_ambulance`
     FOREIGN KEY (`ambulance_id`)
@@ -254,6 +276,8 @@ CREATE TABLE IF NOT EXISTS `emergencies` (
   `fare_amount` DOUBLE NULL DEFAULT NULL,
   `payment_intent_id` VARCHAR(255) NULL DEFAULT NULL COMMENT 'Razorpay/Stripe payment intent ID for tracking',
   `is_suspect_cancellation` TINYINT(1) NULL DEFAULT 0 COMMENT 'True if cancelled after confirmation deadline',
+  `incident_id` BIGINT(20) NULL DEFAULT NULL COMMENT 'First SOS of the incident this report was grouped into',
+  `probable_duplicate` TINYINT(1) NOT NULL DEFAULT 0 COMMENT 'True if reported close in time and place to an earlier SOS',
   PRIMARY KEY (`id`),
   CONSTRAINT `emergencies_ibfk_1`
     FOREIGN KEY (`user_id`)
@@ -286,6 +310,12 @@ CREATE INDEX `idx_emergencies_confirmation_deadline` ON `emergencies` (`confirma
 SHOW WARNINGS;
 CREATE INDEX `idx_emergencies_pending_dispatch` ON `emergencies` (`status` ASC, `created_at` ASC) VISIBLE;
 
+SHOW WARNINGS;
+CREATE INDEX `idx_emergencies_incident` ON `emergencies` (`incident_id` ASC) VISIBLE;
+
+SHOW WARNINGS;
+CREATE INDEX `idx_emergencies_created_location` ON `emergencies` (`created_at` ASC, `latitude` ASC) VISIBLE;
+
 SHOW WARNINGS;
 
 -- -----------------------------------------------------
@@ -403,6 +433,38 @@ CREATE INDEX `idx_phone_email` ON `otp_codes` (`phone_or_email` ASC) VISIBLE;
 
 SHOW WARNINGS;
 
+-- -----------------------------------------------------
+-- Table `replica_heartbeat`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `replica_heartbeat` ;
+
+SHOW WARNINGS;
+CREATE TABLE IF NOT EXISTS `replica_heartbeat` (
+  `node_id` VARCHAR(100) NOT NULL,
+  `beat_millis` BIGINT NOT NULL,
+  PRIMARY KEY (`node_id`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4;
+
+SHOW WARNINGS;
+
+-- -----------------------------------------------------
+-- Table `scheduler_leases`
+-- -----------------------------------------------------
+DROP TABLE IF EXISTS `scheduler_leases` ;
+
+SHOW WARNINGS;
+CREATE TABLE IF NOT EXISTS `scheduler_leases` (
+  `name` VARCHAR(100) NOT NULL,
+  `owner_node` VARCHAR(100) NOT NULL,
+  `acquired_at` DATETIME(6) NOT NULL,
+  `expires_at` DATETIME(6) NOT NULL,
+  PRIMARY KEY (`name`))
+ENGINE = InnoDB
+DEFAULT CHARACTER SET = utf8mb4;
+
+SHOW WARNINGS;
+
 -- -----------------------------------------------------
 -- Table `users`
 -- -----------------------------------------------------
@@ -445,6 +507,9 @@ CREATE INDEX `idx_users_otp` ON `users` (`phone` ASC, `otp` ASC) VISIBLE;
 SHOW WARNINGS;
 CREATE INDEX `idx_users_verification_pending` ON `users` (`role` ASC) VISIBLE;
 
+SHOW WARNINGS;
+CREATE INDEX `idx_users_role_verification` ON `users` (`role` ASC, `driver_verification_status` ASC) VISIBLE;
+
 SHOW WARNINGS;
 CREATE INDEX `idx_users_suspect_count` ON `users` (`suspect_count` ASC, `last_suspect_at` ASC) VISIBLE;
 